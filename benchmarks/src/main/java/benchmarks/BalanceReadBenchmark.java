@@ -0,0 +1,54 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import payment.BalanceSnapshot;
+import payment.ContractPaymentData;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dashboard-like load on the payment data of one contract: six threads read balances and snapshots
+ * while one thread keeps paying and charging. Optimistic reads do not write the shared stamp,
+ * so the reader score should stay flat as reader threads are added, given enough cores.
+ * Run with {@code -tg 3,3,1} or similar to vary the reader count.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BalanceReadBenchmark {
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    private ContractPaymentData paymentData;
+
+    @Setup(Level.Iteration)
+    public void setUp(){
+        paymentData = new ContractPaymentData(100, PremiumPaymentFrequency.MONTHLY, NOW, 0);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public BalanceSnapshot readSnapshot(){
+        return paymentData.snapshot();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public long readBalance(){
+        return paymentData.getOutstandingBalance();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public long payAndCharge(){
+        paymentData.addToOutstandingBalance(-100);
+        return paymentData.addToOutstandingBalance(100);
+    }
+}
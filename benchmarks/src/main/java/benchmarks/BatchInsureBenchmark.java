@@ -0,0 +1,66 @@
+package benchmarks;
+
+import company.InsuranceCompany;
+import company.VehicleQuote;
+import generator.SyntheticData;
+import objects.Person;
+import objects.Vehicle;
+import org.openjdk.jmh.annotations.*;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A partner batch of vehicle quotes concluded one call at a time versus through {@link InsuranceCompany#insureVehicles}.
+ * Every measured batch starts from a fresh insurer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 20)
+@Fork(1)
+public class BatchInsureBenchmark {
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Param({"10000"})
+    public int batchSize;
+
+    private List<VehicleQuote> quotes;
+    private InsuranceCompany company;
+
+    @Setup(Level.Trial)
+    public void createQuotes(){
+        SplittableRandom random = new SplittableRandom(42);
+        quotes = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            Vehicle vehicle = new Vehicle(SyntheticData.licensePlate(random), SyntheticData.vehicleValue(random));
+            quotes.add(new VehicleQuote("N" + i, null, new Person(SyntheticData.birthNumber(random)),
+                    SyntheticData.minimalVehiclePremium(vehicle.getOriginalValue(), 12), PremiumPaymentFrequency.MONTHLY, vehicle));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void createInsurer(){
+        company = new InsuranceCompany(NOW);
+    }
+
+    @Benchmark
+    public Object loop(){
+        Object last = null;
+        for (VehicleQuote quote : quotes) {
+            last = company.insureVehicle(quote.contractNumber(), quote.beneficiary(), quote.policyHolder(),
+                    quote.proposedPremium(), quote.proposedPaymentFrequency(), quote.vehicleToInsure());
+        }
+        return last;
+    }
+
+    @Benchmark
+    public Object batch(){
+        return company.insureVehicles(quotes);
+    }
+}
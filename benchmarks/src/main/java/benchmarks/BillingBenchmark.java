@@ -0,0 +1,75 @@
+package benchmarks;
+
+import company.InsuranceCompany;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import generator.SyntheticData;
+import objects.Person;
+import objects.Vehicle;
+import org.openjdk.jmh.annotations.*;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One billing run after the insurer's clock jumped by the given number of months.
+ * Every measured run starts from a freshly built mixed portfolio.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class BillingBenchmark {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 31, 12, 0);
+    private static final PremiumPaymentFrequency[] FREQUENCIES = PremiumPaymentFrequency.values();
+
+    @Param({"1", "12", "120"})
+    public int monthsElapsed;
+
+    @Param({"10000"})
+    public int contracts;
+
+    private InsuranceCompany company;
+
+    @Setup(Level.Iteration)
+    public void setUp(){
+        SplittableRandom random = new SplittableRandom(42);
+        company = new InsuranceCompany(START);
+        Person fleetOwner = new Person(SyntheticData.registrationNumber(1));
+        MasterVehicleContract master = company.createMasterVehicleContract("M", null, fleetOwner);
+
+        for (int i = 0; i < contracts; i++) {
+            PremiumPaymentFrequency frequency = FREQUENCIES[random.nextInt(FREQUENCIES.length)];
+            int periodsPerYear = 12 / frequency.getValueInMonths();
+            switch (i % 4) {
+                case 0 -> {
+                    Person traveller = new Person(SyntheticData.birthNumber(random));
+                    company.insurePersons("C" + i, traveller, 5, frequency, Set.of(traveller));
+                }
+                case 1 -> {
+                    Vehicle vehicle = new Vehicle(SyntheticData.licensePlate(random), SyntheticData.vehicleValue(random));
+                    SingleVehicleContract child = company.insureVehicle("C" + i, null, fleetOwner,
+                            SyntheticData.minimalVehiclePremium(vehicle.getOriginalValue(), periodsPerYear), frequency, vehicle);
+                    company.moveSingleVehicleContractToMasterVehicleContract(master, child);
+                }
+                default -> {
+                    Vehicle vehicle = new Vehicle(SyntheticData.licensePlate(random), SyntheticData.vehicleValue(random));
+                    company.insureVehicle("C" + i, null, new Person(SyntheticData.birthNumber(random)),
+                            SyntheticData.minimalVehiclePremium(vehicle.getOriginalValue(), periodsPerYear), frequency, vehicle);
+                }
+            }
+        }
+        company.setCurrentTime(START.plusMonths(monthsElapsed));
+    }
+
+    @Benchmark
+    public InsuranceCompany chargePremiumsOnContracts(){
+        company.chargePremiumsOnContracts();
+        return company;
+    }
+}
@@ -0,0 +1,60 @@
+package benchmarks;
+
+import company.InsuranceCompany;
+import contracts.AbstractContract;
+import generator.PortfolioConfig;
+import generator.PortfolioGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Billing run over a mixed portfolio: the per-type loops of chargePremiumsOnContracts
+ * against one loop over all contracts calling the virtual updateBalance.
+ * Every iteration moves the clock by one month, so both variants charge the same premiums.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BillingDispatchBenchmark {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 9, 0);
+
+    @Param({"1000000"})
+    public int contracts;
+
+    private InsuranceCompany company;
+    private LocalDateTime time;
+
+    @Setup(Level.Trial)
+    public void setUp(){
+        PortfolioConfig config = new PortfolioConfig(contracts, 70, 25, 5, 20, 5, 0, START);
+        company = new PortfolioGenerator(42, Runtime.getRuntime().availableProcessors()).generate(config);
+        time = START;
+    }
+
+    @Setup(Level.Iteration)
+    public void advanceClock(){
+        time = time.plusMonths(1);
+        company.setCurrentTime(time);
+    }
+
+    @Benchmark
+    public InsuranceCompany partitioned(){
+        company.chargePremiumsOnContracts();
+        return company;
+    }
+
+    @Benchmark
+    public InsuranceCompany megamorphic(){
+        for (AbstractContract contract : company.getContracts()) {
+            if (contract.isActive()) {
+                contract.updateBalance();
+            }
+        }
+        return company;
+    }
+}
@@ -0,0 +1,48 @@
+package benchmarks;
+
+import generator.SyntheticData;
+import objects.Person;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Person.isValidBirthNumber over a mix of valid and invalid identifiers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BirthNumberBenchmark {
+    private static final int SAMPLES = 1 << 12;
+
+    private String[] identifiers;
+    private int next;
+
+    @Setup
+    public void setUp(){
+        SplittableRandom random = new SplittableRandom(42);
+        identifiers = new String[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            identifiers[i] = switch (i % 5) {
+                case 0, 1 -> SyntheticData.birthNumber(random);
+                case 2 -> SyntheticData.oldBirthNumber(random);
+                //broken checksum
+                case 3 -> {
+                    String valid = SyntheticData.birthNumber(random);
+                    yield valid.substring(0, 9) + (char) ('0' + (valid.charAt(9) - '0' + 1) % 10);
+                }
+                default -> SyntheticData.registrationNumber(i);
+            };
+        }
+    }
+
+    @Benchmark
+    public boolean isValidBirthNumber(){
+        String identifier = identifiers[next++ & (SAMPLES - 1)];
+        return Person.isValidBirthNumber(identifier);
+    }
+}
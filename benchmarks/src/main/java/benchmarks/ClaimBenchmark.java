@@ -0,0 +1,84 @@
+package benchmarks;
+
+import company.InsuranceCompany;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import generator.SyntheticData;
+import objects.Person;
+import objects.Vehicle;
+import org.openjdk.jmh.annotations.*;
+import payment.ContractPaymentData;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Both processClaim overloads.
+ * A travel claim deactivates its contract, so a new unregistered contract is prepared for every invocation.
+ * The vehicle claim stays below 70% of the vehicle value and keeps its contract active.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClaimBenchmark {
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @State(Scope.Thread)
+    public static class VehicleClaim {
+        InsuranceCompany company;
+        SingleVehicleContract contract;
+
+        @Setup(Level.Trial)
+        public void setUp(){
+            SplittableRandom random = new SplittableRandom(42);
+            company = new InsuranceCompany(NOW);
+            contract = company.insureVehicle("V", new Person(SyntheticData.birthNumber(random)), new Person(SyntheticData.registrationNumber(1)),
+                    400, PremiumPaymentFrequency.ANNUAL, new Vehicle(SyntheticData.licensePlate(random), 20_000));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class TravelClaim {
+        @Param({"1", "10", "200"})
+        public int insuredPersons;
+
+        InsuranceCompany company;
+        Person policyHolder;
+        Set<Person> travellers;
+        TravelContract contract;
+
+        @Setup(Level.Trial)
+        public void setUp(){
+            SplittableRandom random = new SplittableRandom(42);
+            company = new InsuranceCompany(NOW);
+            policyHolder = new Person(SyntheticData.registrationNumber(1));
+            travellers = new HashSet<>();
+            while (travellers.size() < insuredPersons) {
+                travellers.add(new Person(SyntheticData.birthNumber(random)));
+            }
+        }
+
+        @Setup(Level.Invocation)
+        public void prepareContract(){
+            contract = new TravelContract("T", company, policyHolder,
+                    new ContractPaymentData(5 * insuredPersons, PremiumPaymentFrequency.ANNUAL, NOW, 0),
+                    10 * insuredPersons, travellers);
+        }
+    }
+
+    @Benchmark
+    public void processTravelClaim(TravelClaim state){
+        state.company.processClaim(state.contract, state.travellers);
+    }
+
+    @Benchmark
+    public void processVehicleClaim(VehicleClaim state){
+        state.company.processClaim(state.contract, 1_000);
+    }
+}
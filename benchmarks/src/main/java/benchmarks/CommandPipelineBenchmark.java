@@ -0,0 +1,59 @@
+package benchmarks;
+
+import company.InsuranceCompany;
+import contracts.SingleVehicleContract;
+import generator.SyntheticData;
+import objects.Person;
+import objects.Vehicle;
+import org.openjdk.jmh.annotations.*;
+import payment.PremiumPaymentFrequency;
+import pipeline.Command;
+import pipeline.CommandPipeline;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the single-writer pipeline with several producer threads.
+ * The command bills a contract that has nothing due, so the score is dominated by the hand-off through the ring buffer.
+ * {@code submit} returns without waiting; a full buffer throttles the producers to the writer's pace.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class CommandPipelineBenchmark {
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Param({"1024", "65536"})
+    public int bufferSize;
+
+    private CommandPipeline pipeline;
+    private Command<Void> chargeNothingDue;
+
+    @Setup(Level.Trial)
+    public void setUp(){
+        InsuranceCompany company = new InsuranceCompany(NOW);
+        SingleVehicleContract contract = company.insureVehicle("S", null, new Person(SyntheticData.registrationNumber(1)),
+                400, PremiumPaymentFrequency.ANNUAL, new Vehicle("AAA0000", 20_000));
+        chargeNothingDue = insurer -> {
+            insurer.chargePremiumOnContract(contract);
+            return null;
+        };
+        pipeline = new CommandPipeline(company, bufferSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown(){
+        pipeline.close();
+    }
+
+    @Benchmark
+    public CompletableFuture<Void> submit(){
+        return pipeline.submit(chargeNothingDue);
+    }
+}
@@ -0,0 +1,78 @@
+package benchmarks;
+
+import company.InsuranceCompany;
+import generator.SyntheticData;
+import objects.Person;
+import objects.Vehicle;
+import org.openjdk.jmh.annotations.*;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of concluding contracts on top of an existing portfolio.
+ * Every measured batch starts from a freshly built portfolio of the given size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, batchSize = InsureBenchmark.BATCH_SIZE)
+@Measurement(iterations = 10, batchSize = InsureBenchmark.BATCH_SIZE)
+@Fork(1)
+public class InsureBenchmark {
+    static final int BATCH_SIZE = 1_000;
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Param({"1000", "10000", "100000"})
+    public int portfolioSize;
+
+    private InsuranceCompany company;
+    private SplittableRandom random;
+    private Person[] policyHolders;
+    private Vehicle[] vehicles;
+    private Set<Person>[] travellers;
+    private int next;
+
+    @Setup(Level.Iteration)
+    @SuppressWarnings("unchecked")
+    public void setUp(){
+        random = new SplittableRandom(42);
+        company = new InsuranceCompany(NOW);
+        for (int i = 0; i < portfolioSize; i++) {
+            Vehicle vehicle = new Vehicle(SyntheticData.licensePlate(random), SyntheticData.vehicleValue(random));
+            company.insureVehicle("P" + i, null, new Person(SyntheticData.birthNumber(random)),
+                    SyntheticData.minimalVehiclePremium(vehicle.getOriginalValue(), 12), PremiumPaymentFrequency.MONTHLY, vehicle);
+        }
+
+        policyHolders = new Person[BATCH_SIZE];
+        vehicles = new Vehicle[BATCH_SIZE];
+        travellers = new Set[BATCH_SIZE];
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            policyHolders[i] = new Person(SyntheticData.birthNumber(random));
+            vehicles[i] = new Vehicle(SyntheticData.licensePlate(random), SyntheticData.vehicleValue(random));
+            travellers[i] = new HashSet<>();
+            for (int j = 1 + random.nextInt(4); j > 0; j--) {
+                travellers[i].add(new Person(SyntheticData.birthNumber(random)));
+            }
+        }
+        next = 0;
+    }
+
+    @Benchmark
+    public Object insureVehicle(){
+        int i = next++;
+        Vehicle vehicle = vehicles[i];
+        return company.insureVehicle("N" + i, null, policyHolders[i],
+                SyntheticData.minimalVehiclePremium(vehicle.getOriginalValue(), 4), PremiumPaymentFrequency.QUARTERLY, vehicle);
+    }
+
+    @Benchmark
+    public Object insurePersons(){
+        int i = next++;
+        return company.insurePersons("N" + i, policyHolders[i], 5 * travellers[i].size(), PremiumPaymentFrequency.ANNUAL, travellers[i]);
+    }
+}
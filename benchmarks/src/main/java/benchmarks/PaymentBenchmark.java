@@ -0,0 +1,68 @@
+package benchmarks;
+
+import company.InsuranceCompany;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import generator.SyntheticData;
+import objects.Person;
+import objects.Vehicle;
+import org.openjdk.jmh.annotations.*;
+import payment.PaymentHandler;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PaymentHandler.pay for a single contract and for a master contract with a growing fleet.
+ * The master payment covers one premium of every child, so the distribution walks the whole fleet.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaymentBenchmark {
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Param({"10", "100", "1000", "10000"})
+    public int children;
+
+    private PaymentHandler handler;
+    private SingleVehicleContract single;
+    private MasterVehicleContract master;
+    private int masterAmount;
+
+    @Setup(Level.Iteration)
+    public void setUp(){
+        SplittableRandom random = new SplittableRandom(42);
+        InsuranceCompany company = new InsuranceCompany(NOW);
+        Person fleetOwner = new Person(SyntheticData.registrationNumber(1));
+
+        master = company.createMasterVehicleContract("M", null, fleetOwner);
+        masterAmount = 0;
+        for (int i = 0; i < children; i++) {
+            Vehicle vehicle = new Vehicle(SyntheticData.licensePlate(random), SyntheticData.vehicleValue(random));
+            int premium = SyntheticData.minimalVehiclePremium(vehicle.getOriginalValue(), 12);
+            SingleVehicleContract child = company.insureVehicle("C" + i, null, fleetOwner, premium, PremiumPaymentFrequency.MONTHLY, vehicle);
+            company.moveSingleVehicleContractToMasterVehicleContract(master, child);
+            masterAmount += premium;
+        }
+
+        Vehicle vehicle = new Vehicle(SyntheticData.licensePlate(random), 20_000);
+        single = company.insureVehicle("S", null, new Person(SyntheticData.birthNumber(random)), 40, PremiumPaymentFrequency.MONTHLY, vehicle);
+        handler = company.getHandler();
+    }
+
+    @Benchmark
+    public void paySingle(){
+        handler.pay(single, 40);
+    }
+
+    @Benchmark
+    public void payMaster(){
+        handler.pay(master, masterAmount);
+    }
+}
@@ -0,0 +1,72 @@
+package benchmarks;
+
+import contracts.SingleVehicleContract;
+import generator.SyntheticData;
+import objects.Person;
+import objects.Vehicle;
+import org.openjdk.jmh.annotations.*;
+import payment.PremiumPaymentFrequency;
+import sharding.ShardedInsuranceCompany;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Throughput of payments through the sharded insurer with several producer threads.
+ * Every producer pays contracts of its own policyholders, spread over all shards, so with enough cores
+ * the score should grow with the number of shard writers until the producers become the limit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class ShardedInsurerBenchmark {
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final int CONTRACTS = 1_024;
+
+    @Param({"1", "2", "4"})
+    public int shards;
+
+    private ShardedInsuranceCompany insurer;
+    private List<SingleVehicleContract> contracts;
+    private final AtomicInteger producers = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        insurer = new ShardedInsuranceCompany(NOW, shards);
+        contracts = new ArrayList<>(CONTRACTS);
+        for (int i = 0; i < CONTRACTS; i++) {
+            Person holder = new Person(SyntheticData.registrationNumber(i));
+            contracts.add(insurer.insureVehicle("S" + i, null, holder, 400, PremiumPaymentFrequency.ANNUAL,
+                    new Vehicle(String.format("AA%05d", i), 20_000)).get());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown(){
+        insurer.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Producer {
+        private int next;
+
+        @Setup(Level.Trial)
+        public void setUp(ShardedInsurerBenchmark benchmark){
+            next = benchmark.producers.getAndIncrement() * 7;
+        }
+    }
+
+    @Benchmark
+    public CompletableFuture<Void> pay(Producer producer){
+        SingleVehicleContract contract = contracts.get(producer.next++ & (CONTRACTS - 1));
+        return insurer.pay(contract, 1);
+    }
+}
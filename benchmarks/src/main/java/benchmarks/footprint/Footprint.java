@@ -0,0 +1,134 @@
+package benchmarks.footprint;
+
+import company.InsuranceCompany;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import generator.PortfolioConfig;
+import generator.PortfolioGenerator;
+import generator.SyntheticData;
+import objects.Person;
+import objects.Vehicle;
+import org.openjdk.jol.info.GraphLayout;
+import payment.PremiumPaymentFrequency;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.function.IntFunction;
+
+/**
+ * Heap footprint of the domain entities.
+ * Contracts and payments are measured as marginal cost: the JOL graph size of an insurer with 2n entities
+ * minus the one with n entities, divided by n. That includes the entity's share of the insurer's collections,
+ * which is what a heap has to be sized for. Persons and vehicles are measured as standalone graphs.
+ */
+public final class Footprint {
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 1, 9, 0);
+    private static final int SAMPLE = 2_000;
+
+    private Footprint(){
+    }
+
+    public static long singleVehicleContract(){
+        return marginal(count -> {
+            SplittableRandom random = new SplittableRandom(1);
+            InsuranceCompany company = new InsuranceCompany(NOW);
+            Person policyHolder = new Person(SyntheticData.birthNumber(random));
+            for (int i = 0; i < count; i++) {
+                company.insureVehicle("S" + i, null, policyHolder, 400, PremiumPaymentFrequency.ANNUAL,
+                        new Vehicle(SyntheticData.licensePlate(random), 20_000));
+            }
+            return company;
+        });
+    }
+
+    public static long travelContract(){
+        return marginal(count -> {
+            SplittableRandom random = new SplittableRandom(1);
+            InsuranceCompany company = new InsuranceCompany(NOW);
+            Person policyHolder = new Person(SyntheticData.birthNumber(random));
+            Set<Person> travellers = new LinkedHashSet<>();
+            for (int i = 0; i < 3; i++) {
+                travellers.add(new Person(SyntheticData.birthNumber(random)));
+            }
+            for (int i = 0; i < count; i++) {
+                company.insurePersons("T" + i, policyHolder, 15, PremiumPaymentFrequency.ANNUAL, travellers);
+            }
+            return company;
+        });
+    }
+
+    public static long masterVehicleContractChild(){
+        return marginal(count -> {
+            SplittableRandom random = new SplittableRandom(1);
+            InsuranceCompany company = new InsuranceCompany(NOW);
+            Person fleetOwner = new Person(SyntheticData.registrationNumber(1));
+            MasterVehicleContract master = company.createMasterVehicleContract("M", null, fleetOwner);
+            for (int i = 0; i < count; i++) {
+                SingleVehicleContract child = company.insureVehicle("M-" + i, null, fleetOwner, 400, PremiumPaymentFrequency.ANNUAL,
+                        new Vehicle(SyntheticData.licensePlate(random), 20_000));
+                company.moveSingleVehicleContractToMasterVehicleContract(master, child);
+            }
+            return company;
+        });
+    }
+
+    public static long paymentInstance(){
+        return marginal(count -> {
+            InsuranceCompany company = new InsuranceCompany(NOW);
+            SingleVehicleContract contract = company.insureVehicle("S", null, new Person(SyntheticData.registrationNumber(1)),
+                    400, PremiumPaymentFrequency.ANNUAL, new Vehicle("AAA0000", 20_000));
+            for (int i = 0; i < count; i++) {
+                contract.pay(10);
+            }
+            return company;
+        });
+    }
+
+    public static long person(){
+        return GraphLayout.parseInstance(new Person(SyntheticData.birthNumber(new SplittableRandom(1)))).totalSize();
+    }
+
+    public static long vehicle(){
+        return GraphLayout.parseInstance(new Vehicle("AAA0000", 20_000)).totalSize();
+    }
+
+    /**
+     * Retained heap of a generated portfolio, measured as used heap after full collections.
+     * JOL would need too long and too much memory to walk millions of contracts.
+     *
+     * @return retained bytes of the generated insurer
+     */
+    public static long portfolio(int contracts){
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long before = usedHeapAfterGc(memory);
+        InsuranceCompany company = new PortfolioGenerator(42, Runtime.getRuntime().availableProcessors())
+                .generate(PortfolioConfig.mixed(contracts));
+        long after = usedHeapAfterGc(memory);
+        if (company.getContracts().size() != contracts) {
+            throw new IllegalStateException("Generated portfolio has an unexpected size");
+        }
+        return after - before;
+    }
+
+
+    //___________Private helpers___________
+    private static long marginal(IntFunction<Object> build){
+        long base = GraphLayout.parseInstance(build.apply(SAMPLE)).totalSize();
+        long doubled = GraphLayout.parseInstance(build.apply(2 * SAMPLE)).totalSize();
+        return (doubled - base) / SAMPLE;
+    }
+
+    private static long usedHeapAfterGc(MemoryMXBean memory){
+        long used = Long.MAX_VALUE;
+        //a few rounds until the collector stops finding garbage
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            used = Math.min(used, memory.getHeapMemoryUsage().getUsed());
+        }
+        return used;
+    }
+}
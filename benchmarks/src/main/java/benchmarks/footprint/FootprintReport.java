@@ -0,0 +1,58 @@
+package benchmarks.footprint;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Prints bytes per entity and retained heap of generated portfolios.
+ * <pre>
+ * java -Xmx16g -cp benchmarks/target/benchmarks.jar benchmarks.footprint.FootprintReport [--max-bytes-per-contract N] [contracts...]
+ * </pre>
+ * Exits with status 1 if a generated portfolio needs more than N bytes per top-level contract.
+ */
+public final class FootprintReport {
+    private static final int[] DEFAULT_PORTFOLIOS = {100_000, 1_000_000, 5_000_000};
+
+    private FootprintReport(){
+    }
+
+    public static void main(String[] args){
+        long maxBytesPerContract = Long.MAX_VALUE;
+        List<Integer> portfolios = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--max-bytes-per-contract")) {
+                maxBytesPerContract = Long.parseLong(args[++i]);
+            } else {
+                portfolios.add(Integer.parseInt(args[i]));
+            }
+        }
+        if (portfolios.isEmpty()) {
+            for (int contracts : DEFAULT_PORTFOLIOS) {
+                portfolios.add(contracts);
+            }
+        }
+
+        System.out.println("Bytes per entity");
+        System.out.printf("  %-32s %8d%n", "SingleVehicleContract", Footprint.singleVehicleContract());
+        System.out.printf("  %-32s %8d%n", "TravelContract (3 persons)", Footprint.travelContract());
+        System.out.printf("  %-32s %8d%n", "MasterVehicleContract child", Footprint.masterVehicleContractChild());
+        System.out.printf("  %-32s %8d%n", "Person", Footprint.person());
+        System.out.printf("  %-32s %8d%n", "Vehicle", Footprint.vehicle());
+        System.out.printf("  %-32s %8d%n", "PaymentInstance", Footprint.paymentInstance());
+
+        boolean regressed = false;
+        System.out.println("Generated portfolios");
+        for (int contracts : portfolios) {
+            long bytes = Footprint.portfolio(contracts);
+            long perContract = bytes / contracts;
+            System.out.printf("  %,12d contracts %,16d bytes %8d bytes/contract%n", contracts, bytes, perContract);
+            if (perContract > maxBytesPerContract) {
+                System.out.printf("  per-contract footprint exceeds the limit of %d bytes%n", maxBytesPerContract);
+                regressed = true;
+            }
+        }
+        if (regressed) {
+            System.exit(1);
+        }
+    }
+}
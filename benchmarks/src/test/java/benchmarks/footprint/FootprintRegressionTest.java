@@ -0,0 +1,62 @@
+package benchmarks.footprint;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.vm.VM;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Fails when an entity grows past its budget.
+ * Budgets are the measured footprint on a 64-bit VM with compressed oops plus about 10%;
+ * lower them together with every memory optimization.
+ */
+class FootprintRegressionTest {
+
+    @BeforeAll
+    static void requireCompressedOops() {
+        assumeTrue(VM.current().addressSize() == 8 && VM.current().sizeOfField("java.lang.Object") == 4,
+                "budgets are calibrated for 64-bit VMs with compressed oops");
+    }
+
+    @Test
+    void testSingleVehicleContract() {
+        assertWithinBudget(Footprint.singleVehicleContract(), 340);
+    }
+
+    @Test
+    void testTravelContract() {
+        assertWithinBudget(Footprint.travelContract(), 350);
+    }
+
+    @Test
+    void testMasterVehicleContractChild() {
+        assertWithinBudget(Footprint.masterVehicleContractChild(), 305);
+    }
+
+    @Test
+    void testPerson() {
+        assertWithinBudget(Footprint.person(), 176);
+    }
+
+    @Test
+    void testVehicle() {
+        assertWithinBudget(Footprint.vehicle(), 80);
+    }
+
+    @Test
+    void testPaymentInstance() {
+        assertWithinBudget(Footprint.paymentInstance(), 80);
+    }
+
+    @Test
+    void testGeneratedPortfolio() {
+        int contracts = 50_000;
+        assertWithinBudget(Footprint.portfolio(contracts) / contracts, 1_170);
+    }
+
+    private static void assertWithinBudget(long bytes, long budget) {
+        assertTrue(bytes <= budget, "footprint of " + bytes + " bytes exceeds the budget of " + budget + " bytes");
+    }
+}
@@ -0,0 +1,20 @@
+package api;
+
+/**
+ * Request that cannot be served, answered with the given HTTP status and message.
+ */
+class ApiException extends RuntimeException {
+    //attributes
+    private final int status;
+
+    //constructor
+    ApiException(int status, String message){
+        super(message);
+        this.status = status;
+    }
+
+    //___________Package methods___________
+    int getStatus(){
+        return status;
+    }
+}
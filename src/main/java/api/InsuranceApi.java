@@ -0,0 +1,191 @@
+package api;
+
+import company.InsuranceCompany;
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import objects.Person;
+import objects.Vehicle;
+import payment.BalanceSnapshot;
+import payment.ContractPaymentData;
+import payment.PremiumPaymentFrequency;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Operations behind the HTTP endpoints. Every method runs on the writer thread of the command pipeline,
+ * so the registries below and the insurer are never touched concurrently.
+ * Persons are identified by id and created on first use; contracts by number, including children moved into a master.
+ */
+final class InsuranceApi {
+    //attributes
+    private final Map<String, Person> persons;
+    private final Map<String, AbstractContract> contracts; //children of masters are no longer in the insurer's portfolio
+
+    //constructor
+    InsuranceApi(){
+        this.persons = new HashMap<>();
+        this.contracts = new HashMap<>();
+    }
+
+    //___________Package methods___________
+    String insureVehicle(InsuranceCompany company, JsonObject request){
+        SingleVehicleContract contract = company.insureVehicle(
+                request.getString("contractNumber"),
+                optionalPerson(request.getOptionalString("beneficiaryId")),
+                person(request.getString("policyHolderId")),
+                request.getInt("premium"),
+                frequency(request.getString("frequency")),
+                new Vehicle(request.getString("licensePlate"), request.getInt("vehicleValue")));
+        return register(contract);
+    }
+
+    String insurePersons(InsuranceCompany company, JsonObject request){
+        Set<Person> insured = new LinkedHashSet<>();
+        for (String id : request.getStringList("insuredPersonIds")) {
+            insured.add(person(id));
+        }
+        TravelContract contract = company.insurePersons(
+                request.getString("contractNumber"),
+                person(request.getString("policyHolderId")),
+                request.getInt("premium"),
+                frequency(request.getString("frequency")),
+                insured);
+        return register(contract);
+    }
+
+    String createMasterVehicleContract(InsuranceCompany company, JsonObject request){
+        MasterVehicleContract contract = company.createMasterVehicleContract(
+                request.getString("contractNumber"),
+                optionalPerson(request.getOptionalString("beneficiaryId")),
+                person(request.getString("policyHolderId")));
+        return register(contract);
+    }
+
+    String moveToMasterVehicleContract(InsuranceCompany company, String masterNumber, JsonObject request){
+        MasterVehicleContract master = contract(company, masterNumber, MasterVehicleContract.class);
+        SingleVehicleContract child = contract(company, request.getString("contractNumber"), SingleVehicleContract.class);
+        company.moveSingleVehicleContractToMasterVehicleContract(master, child);
+        return render(master);
+    }
+
+    String pay(InsuranceCompany company, JsonObject request){
+        AbstractContract contract = contract(company, request.getString("contractNumber"), AbstractContract.class);
+        int amount = request.getInt("amount");
+        if (contract instanceof MasterVehicleContract master) {
+            company.getHandler().pay(master, amount);
+        } else {
+            company.getHandler().pay(contract, amount);
+        }
+        return render(contract);
+    }
+
+    String processTravelClaim(InsuranceCompany company, JsonObject request){
+        TravelContract contract = contract(company, request.getString("contractNumber"), TravelContract.class);
+        Set<Person> affected = new LinkedHashSet<>();
+        for (String id : request.getStringList("affectedPersonIds")) {
+            Person person = persons.get(id);
+            if (person == null) {
+                throw new IllegalArgumentException("Person '" + id + "' is not insured by the contract");
+            }
+            affected.add(person);
+        }
+        company.processClaim(contract, affected);
+        return render(contract);
+    }
+
+    String processVehicleClaim(InsuranceCompany company, JsonObject request){
+        SingleVehicleContract contract = contract(company, request.getString("contractNumber"), SingleVehicleContract.class);
+        company.processClaim(contract, request.getInt("expectedDamages"));
+        return render(contract);
+    }
+
+    String lookup(InsuranceCompany company, String contractNumber){
+        return render(contract(company, contractNumber, AbstractContract.class));
+    }
+
+
+    //___________Private helpers___________
+    private String register(AbstractContract contract){
+        contracts.put(contract.getContractNumber(), contract);
+        return render(contract);
+    }
+
+    private Person person(String id){
+        Person person = persons.get(id);
+        if (person == null) {
+            person = new Person(id);
+            persons.put(id, person);
+        }
+        return person;
+    }
+
+    private Person optionalPerson(String id){
+        return id == null ? null : person(id);
+    }
+
+    private static PremiumPaymentFrequency frequency(String name){
+        try {
+            return PremiumPaymentFrequency.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(400, "Unknown premium payment frequency '" + name + "'");
+        }
+    }
+
+    private <T extends AbstractContract> T contract(InsuranceCompany company, String contractNumber, Class<T> type){
+        AbstractContract contract = contracts.get(contractNumber);
+        if (contract == null) {
+            contract = company.getContract(contractNumber);
+        }
+        if (contract == null) {
+            throw new ApiException(404, "Contract '" + contractNumber + "' does not exist");
+        }
+        if (!type.isInstance(contract)) {
+            throw new ApiException(400, "Contract '" + contractNumber + "' is not a " + type.getSimpleName());
+        }
+        return type.cast(contract);
+    }
+
+    private static String render(AbstractContract contract){
+        JsonWriter json = new JsonWriter();
+        writeContract(json, contract);
+        return json.toString();
+    }
+
+    private static void writeContract(JsonWriter json, AbstractContract contract){
+        json.beginObject()
+                .field("contractNumber", contract.getContractNumber())
+                .field("type", contract.getClass().getSimpleName())
+                .field("policyHolderId", contract.getPolicyHolder().getId())
+                .field("active", contract.isActive())
+                .field("coverageAmount", contract.getCoverageAmount());
+        ContractPaymentData paymentData = contract.getContractPaymentData();
+        if (paymentData != null) {
+            BalanceSnapshot balance = paymentData.snapshot();
+            json.field("premium", paymentData.getPremium())
+                    .field("frequency", paymentData.getPremiumPaymentFrequency().name())
+                    .field("outstandingBalance", balance.outstandingBalance())
+                    .field("nextPaymentTime", balance.nextPaymentTime().toString());
+        }
+        if (contract instanceof SingleVehicleContract single) {
+            json.field("licensePlate", single.getInsuredVehicle().getLicensePlate());
+        } else if (contract instanceof TravelContract travel) {
+            json.name("insuredPersonIds").beginArray();
+            for (Person person : travel.getInsuredPersons()) {
+                json.value(person.getId());
+            }
+            json.endArray();
+        } else if (contract instanceof MasterVehicleContract master) {
+            json.name("childContracts").beginArray();
+            for (SingleVehicleContract child : master.getChildContracts()) {
+                writeContract(json, child);
+            }
+            json.endArray();
+        }
+        json.endObject();
+    }
+}
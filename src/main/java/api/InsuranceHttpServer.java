@@ -0,0 +1,282 @@
+package api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import company.InsuranceCompany;
+import contracts.InvalidContractException;
+import pipeline.Command;
+import pipeline.CommandPipeline;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+/**
+ * Embedded JSON API of an insurer on the JDK HTTP server, bound to the loopback interface.
+ * <pre>
+ * POST /contracts/vehicle                 {contractNumber, beneficiaryId?, policyHolderId, premium, frequency, licensePlate, vehicleValue}
+ * POST /contracts/travel                  {contractNumber, policyHolderId, premium, frequency, insuredPersonIds}
+ * POST /contracts/master                  {contractNumber, beneficiaryId?, policyHolderId}
+ * POST /contracts/master/{number}/children {contractNumber}
+ * POST /payments                          {contractNumber, amount}
+ * POST /claims/travel                     {contractNumber, affectedPersonIds}
+ * POST /claims/vehicle                    {contractNumber, expectedDamages}
+ * GET  /contracts/{number}
+ * </pre>
+ * Each request runs on its own virtual thread when the JDK provides them (21+), otherwise on a cached platform thread pool.
+ * Request bodies are read on a few platform threads, see the constructor.
+ * Requests only parse and render; the insurer itself is driven by the single writer of a {@link CommandPipeline}.
+ * At most {@code maxConcurrentRequests} requests are admitted at once, the rest are answered with 503 right away.
+ */
+public final class InsuranceHttpServer implements AutoCloseable {
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final long REQUEST_TIMEOUT_MILLIS = 10_000;
+
+    //attributes
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+    private final ExecutorService bodyReader; //platform threads reading request bodies, null without virtual threads
+    private final CommandPipeline pipeline;
+    private final InsuranceApi api;
+    private final Semaphore admission;
+
+    /**
+     * @param company               non-null insurer, owned by the server from now on
+     * @param port                  local port, 0 for any free port
+     * @param maxConcurrentRequests positive number of requests processed at once
+     * @throws IllegalArgumentException if company is null or maxConcurrentRequests is not positive
+     * @throws IOException              if the port cannot be bound
+     */
+    //constructor
+    public InsuranceHttpServer(InsuranceCompany company, int port, int maxConcurrentRequests) throws IOException {
+        if (maxConcurrentRequests <= 0) {
+            throw new IllegalArgumentException("Maximal number of concurrent requests must be positive");
+        }
+        this.pipeline = new CommandPipeline(company, Math.max(1_024, maxConcurrentRequests));
+        this.api = new InsuranceApi();
+        this.admission = new Semaphore(maxConcurrentRequests);
+
+        ExecutorService virtual = newVirtualThreadPerTaskExecutor();
+        this.virtualThreads = virtual != null;
+        this.executor = virtual != null ? virtual : Executors.newCachedThreadPool(daemonThreads("insurance-http"));
+        //the request streams of the JDK server read inside synchronized methods, which pins the carrier of a virtual thread;
+        //a slow upload would block a whole carrier, so bodies are read on platform threads
+        this.bodyReader = virtual != null
+                ? Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()), daemonThreads("insurance-http-body"))
+                : null;
+
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.server.setExecutor(executor);
+        this.server.createContext("/", this::handle);
+    }
+
+    //___________Public methods___________
+    public void start(){
+        server.start();
+    }
+
+    public int getPort(){
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * @return true if requests run on virtual threads
+     */
+    public boolean usesVirtualThreads(){
+        return virtualThreads;
+    }
+
+    @Override
+    public void close(){
+        server.stop(0);
+        executor.shutdown();
+        if (bodyReader != null) {
+            bodyReader.shutdownNow();
+        }
+        pipeline.close();
+    }
+
+    /**
+     * Serves an empty insurer for load tests.
+     * <pre>
+     * java -cp target/classes api.InsuranceHttpServer [port] [maxConcurrentRequests]
+     * </pre>
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        int maxConcurrentRequests = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        InsuranceHttpServer server = new InsuranceHttpServer(new InsuranceCompany(LocalDateTime.now()), port, maxConcurrentRequests);
+        server.start();
+        System.out.println("Insurance API listening on http://localhost:" + server.getPort()
+                + (server.usesVirtualThreads() ? " (virtual threads)" : " (platform threads)"));
+    }
+
+
+    //___________Private helpers___________
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!admission.tryAcquire()) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                respond(exchange, 503, error("Too many concurrent requests"));
+                return;
+            }
+            try {
+                respond(exchange, 200, execute(route(exchange)));
+            } catch (ApiException e) {
+                respond(exchange, e.getStatus(), error(e.getMessage()));
+            } catch (InvalidContractException e) {
+                respond(exchange, 409, error(e.getMessage()));
+            } catch (IllegalArgumentException e) {
+                respond(exchange, 400, error(e.getMessage()));
+            } catch (RuntimeException e) {
+                respond(exchange, 500, error("Internal error"));
+            } finally {
+                admission.release();
+            }
+        }
+    }
+
+    private Command<String> route(HttpExchange exchange) throws IOException {
+        String[] path = exchange.getRequestURI().getPath().replaceAll("^/+|/+$", "").split("/+");
+
+        if (path.length == 2 && path[0].equals("contracts") && exchange.getRequestMethod().equals("GET")) {
+            String number = path[1];
+            return company -> api.lookup(company, number);
+        }
+        if (path.length == 4 && path[0].equals("contracts") && path[1].equals("master") && path[3].equals("children")) {
+            String masterNumber = path[2];
+            return post(exchange, request -> company -> api.moveToMasterVehicleContract(company, masterNumber, request));
+        }
+        return switch (String.join("/", path)) {
+            case "contracts/vehicle" -> post(exchange, request -> company -> api.insureVehicle(company, request));
+            case "contracts/travel" -> post(exchange, request -> company -> api.insurePersons(company, request));
+            case "contracts/master" -> post(exchange, request -> company -> api.createMasterVehicleContract(company, request));
+            case "payments" -> post(exchange, request -> company -> api.pay(company, request));
+            case "claims/travel" -> post(exchange, request -> company -> api.processTravelClaim(company, request));
+            case "claims/vehicle" -> post(exchange, request -> company -> api.processVehicleClaim(company, request));
+            default -> throw new ApiException(404, "No endpoint " + exchange.getRequestURI().getPath());
+        };
+    }
+
+    /**
+     * Parses the body on the request thread, so the writer only runs the operation itself.
+     */
+    private Command<String> post(HttpExchange exchange, Function<JsonObject, Command<String>> operation) throws IOException {
+        if (!exchange.getRequestMethod().equals("POST")) {
+            throw new ApiException(405, "Method " + exchange.getRequestMethod() + " is not allowed here");
+        }
+        return operation.apply(readBody(exchange));
+    }
+
+    /**
+     * A request that waits too long in the queue is withdrawn and answered with 503, so retrying it is safe.
+     * If the writer already started it, the request waits for the outcome once more; when even that times out
+     * the answer is 504 and the command may still be applied.
+     */
+    private String execute(Command<String> command){
+        CompletableFuture<String> result;
+        try {
+            result = pipeline.submit(command);
+        } catch (RejectedExecutionException e) {
+            throw new ApiException(503, "Server is shutting down");
+        }
+        try {
+            try {
+                return result.get(REQUEST_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException | InterruptedException e) {
+                if (result.cancel(false)) {
+                    throw e;
+                }
+                //being applied, the outcome follows shortly
+                return result.get(REQUEST_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new ApiException(500, "Request failed");
+        } catch (TimeoutException e) {
+            if (result.isCancelled()) {
+                throw new ApiException(503, "Request timed out in the queue and was not applied");
+            }
+            throw new ApiException(504, "Request timed out while being applied, it may still take effect");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiException(503, result.isCancelled() ? "Request was interrupted and not applied" : "Request was interrupted, it may still take effect");
+        }
+    }
+
+    private JsonObject readBody(HttpExchange exchange) throws IOException {
+        if (bodyReader == null) {
+            return readBodyNow(exchange);
+        }
+        try {
+            return bodyReader.submit(() -> readBodyNow(exchange)).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new ApiException(500, "Request body could not be read");
+        } catch (RejectedExecutionException e) {
+            throw new ApiException(503, "Server is shutting down");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiException(503, "Request was interrupted");
+        }
+    }
+
+    private static JsonObject readBodyNow(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (body.length > MAX_BODY_BYTES) {
+                throw new ApiException(413, "Request body is larger than " + MAX_BODY_BYTES + " bytes");
+            }
+            return JsonParser.parseObject(new String(body, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String error(String message){
+        return new JsonWriter().beginObject().field("error", message).endObject().toString();
+    }
+
+    private static ThreadFactory daemonThreads(String name){
+        return task -> {
+            Thread thread = new Thread(task, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Looked up reflectively, the code is compiled for Java 17.
+     * @return virtual-thread-per-task executor, or null if the running JDK has none
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor(){
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package api;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parsed JSON object of a request body with typed accessors.
+ * A missing or mistyped field is reported as a 400 response.
+ */
+final class JsonObject {
+    //attributes
+    private final Map<String, Object> fields;
+
+    //constructor
+    JsonObject(Map<String, Object> fields){
+        this.fields = fields;
+    }
+
+    //___________Package methods___________
+    String getString(String name){
+        String value = getOptionalString(name);
+        if (value == null) {
+            throw missing(name, "string");
+        }
+        return value;
+    }
+
+    /**
+     * @return the string value, or null if the field is missing or null
+     */
+    String getOptionalString(String name){
+        Object value = fields.get(name);
+        if (value == null || value instanceof String) {
+            return (String) value;
+        }
+        throw missing(name, "string");
+    }
+
+    int getInt(String name){
+        if (fields.get(name) instanceof Long value && value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+            return value.intValue();
+        }
+        throw missing(name, "32-bit integer");
+    }
+
+    boolean getBoolean(String name){
+        if (fields.get(name) instanceof Boolean value) {
+            return value;
+        }
+        throw missing(name, "boolean");
+    }
+
+    List<String> getStringList(String name){
+        if (!(fields.get(name) instanceof List<?> values)) {
+            throw missing(name, "array of strings");
+        }
+        List<String> strings = new ArrayList<>(values.size());
+        for (Object value : values) {
+            if (!(value instanceof String string)) {
+                throw missing(name, "array of strings");
+            }
+            strings.add(string);
+        }
+        return strings;
+    }
+
+
+    //___________Private helpers___________
+    private static ApiException missing(String name, String type){
+        return new ApiException(400, "Field '" + name + "' must be a " + type);
+    }
+}
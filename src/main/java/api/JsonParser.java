@@ -0,0 +1,227 @@
+package api;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Recursive descent parser of the JSON request bodies.
+ * Objects become {@link JsonObject}s, arrays lists, integers {@link Long}s, other numbers {@link Double}s.
+ * Nothing is bound by reflection; handlers read the fields they expect.
+ */
+final class JsonParser {
+    private static final int MAX_DEPTH = 32;
+
+    //attributes
+    private final String text;
+    private int position;
+
+    //constructor
+    private JsonParser(String text){
+        this.text = text;
+    }
+
+    //___________Package methods___________
+    /**
+     * @throws ApiException with status 400 if the text is not a single JSON object
+     */
+    static JsonObject parseObject(String text){
+        JsonParser parser = new JsonParser(text);
+        parser.skipWhitespace();
+        if (parser.peek() != '{') {
+            throw parser.error("Expected a JSON object");
+        }
+        JsonObject object = (JsonObject) parser.readValue(0);
+        parser.skipWhitespace();
+        if (parser.position != text.length()) {
+            throw parser.error("Unexpected content after the JSON object");
+        }
+        return object;
+    }
+
+
+    //___________Private helpers___________
+    private Object readValue(int depth){
+        if (depth > MAX_DEPTH) {
+            throw error("JSON is nested too deeply");
+        }
+        skipWhitespace();
+        char c = peek();
+        return switch (c) {
+            case '{' -> readObject(depth);
+            case '[' -> readArray(depth);
+            case '"' -> readString();
+            case 't' -> literal("true", Boolean.TRUE);
+            case 'f' -> literal("false", Boolean.FALSE);
+            case 'n' -> literal("null", null);
+            default -> {
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    yield readNumber();
+                }
+                throw error("Unexpected character '" + c + "'");
+            }
+        };
+    }
+
+    private JsonObject readObject(int depth){
+        Map<String, Object> fields = new LinkedHashMap<>();
+        position++;
+        skipWhitespace();
+        if (peek() == '}') {
+            position++;
+            return new JsonObject(fields);
+        }
+        while (true) {
+            skipWhitespace();
+            if (peek() != '"') {
+                throw error("Expected a field name");
+            }
+            String name = readString();
+            skipWhitespace();
+            expect(':');
+            if (fields.put(name, readValue(depth + 1)) != null) {
+                throw error("Duplicate field '" + name + "'");
+            }
+            skipWhitespace();
+            if (peek() == ',') {
+                position++;
+            } else {
+                expect('}');
+                return new JsonObject(fields);
+            }
+        }
+    }
+
+    private List<Object> readArray(int depth){
+        List<Object> values = new ArrayList<>();
+        position++;
+        skipWhitespace();
+        if (peek() == ']') {
+            position++;
+            return values;
+        }
+        while (true) {
+            values.add(readValue(depth + 1));
+            skipWhitespace();
+            if (peek() == ',') {
+                position++;
+            } else {
+                expect(']');
+                return values;
+            }
+        }
+    }
+
+    private String readString(){
+        position++;
+        StringBuilder sb = null;
+        int start = position;
+        while (true) {
+            char c = peek();
+            position++;
+            if (c == '"') {
+                return sb == null ? text.substring(start, position - 1) : sb.toString();
+            }
+            if (c < 0x20) {
+                throw error("Control character in string");
+            }
+            if (c == '\\') {
+                if (sb == null) {
+                    sb = new StringBuilder(text.substring(start, position - 1));
+                }
+                sb.append(readEscape());
+            } else if (sb != null) {
+                sb.append(c);
+            }
+        }
+    }
+
+    private char readEscape(){
+        char c = peek();
+        position++;
+        return switch (c) {
+            case '"' -> '"';
+            case '\\' -> '\\';
+            case '/' -> '/';
+            case 'b' -> '\b';
+            case 'f' -> '\f';
+            case 'n' -> '\n';
+            case 'r' -> '\r';
+            case 't' -> '\t';
+            case 'u' -> readUnicodeEscape();
+            default -> throw error("Invalid escape '\\" + c + "'");
+        };
+    }
+
+    private char readUnicodeEscape(){
+        if (position + 4 > text.length()) {
+            throw error("Incomplete unicode escape");
+        }
+        try {
+            char decoded = (char) Integer.parseInt(text.substring(position, position + 4), 16);
+            position += 4;
+            return decoded;
+        } catch (NumberFormatException e) {
+            throw error("Invalid unicode escape");
+        }
+    }
+
+    private Object readNumber(){
+        int start = position;
+        boolean integer = true;
+        while (position < text.length()) {
+            char c = text.charAt(position);
+            if ((c >= '0' && c <= '9') || c == '-' || c == '+') {
+                position++;
+            } else if (c == '.' || c == 'e' || c == 'E') {
+                integer = false;
+                position++;
+            } else {
+                break;
+            }
+        }
+        String number = text.substring(start, position);
+        try {
+            return integer ? (Object) Long.parseLong(number) : (Object) Double.parseDouble(number);
+        } catch (NumberFormatException e) {
+            throw error("Invalid number '" + number + "'");
+        }
+    }
+
+    private Object literal(String literal, Object value){
+        if (!text.startsWith(literal, position)) {
+            throw error("Expected '" + literal + "'");
+        }
+        position += literal.length();
+        return value;
+    }
+
+    private void expect(char c){
+        if (peek() != c) {
+            throw error("Expected '" + c + "'");
+        }
+        position++;
+    }
+
+    private char peek(){
+        if (position >= text.length()) {
+            throw error("Unexpected end of JSON");
+        }
+        return text.charAt(position);
+    }
+
+    private void skipWhitespace(){
+        while (position < text.length()) {
+            char c = text.charAt(position);
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                return;
+            }
+            position++;
+        }
+    }
+
+    private ApiException error(String message){
+        return new ApiException(400, message + " at position " + position);
+    }
+}
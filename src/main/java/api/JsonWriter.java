@@ -0,0 +1,123 @@
+package api;
+
+/**
+ * Streaming writer of the JSON response bodies.
+ * Commas are inserted automatically; the caller is responsible for balancing begin and end calls.
+ */
+final class JsonWriter {
+    //attributes
+    private final StringBuilder out;
+    private boolean needsComma;
+
+    //constructor
+    JsonWriter(){
+        this.out = new StringBuilder(128);
+    }
+
+    //___________Package methods___________
+    JsonWriter beginObject(){
+        separate();
+        out.append('{');
+        needsComma = false;
+        return this;
+    }
+
+    JsonWriter endObject(){
+        out.append('}');
+        needsComma = true;
+        return this;
+    }
+
+    JsonWriter beginArray(){
+        separate();
+        out.append('[');
+        needsComma = false;
+        return this;
+    }
+
+    JsonWriter endArray(){
+        out.append(']');
+        needsComma = true;
+        return this;
+    }
+
+    JsonWriter name(String name){
+        separate();
+        writeString(name);
+        out.append(':');
+        needsComma = false;
+        return this;
+    }
+
+    JsonWriter value(String value){
+        separate();
+        if (value == null) {
+            out.append("null");
+        } else {
+            writeString(value);
+        }
+        needsComma = true;
+        return this;
+    }
+
+    JsonWriter value(long value){
+        separate();
+        out.append(value);
+        needsComma = true;
+        return this;
+    }
+
+    JsonWriter value(boolean value){
+        separate();
+        out.append(value);
+        needsComma = true;
+        return this;
+    }
+
+    JsonWriter field(String name, String value){
+        return name(name).value(value);
+    }
+
+    JsonWriter field(String name, long value){
+        return name(name).value(value);
+    }
+
+    JsonWriter field(String name, boolean value){
+        return name(name).value(value);
+    }
+
+    @Override
+    public String toString(){
+        return out.toString();
+    }
+
+
+    //___________Private helpers___________
+    private void separate(){
+        if (needsComma) {
+            out.append(',');
+        }
+    }
+
+    private void writeString(String value){
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        out.append('"');
+    }
+}
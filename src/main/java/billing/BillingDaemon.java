@@ -0,0 +1,150 @@
+package billing;
+
+import company.BillingRun;
+import company.InsuranceCompany;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves the time of an insurer along a {@link Clock} and bills the premiums that became due, once per tick of a
+ * {@link BillingSchedule}.
+ * <p>
+ * A tick sets the insurer's time to the last scheduled tick of the clock and runs
+ * {@link InsuranceCompany#chargeDuePremiums()}, which visits only the contracts that became due since the last run.
+ * Ticks missed while the daemon was down are not replayed one by one: a contract several periods behind is charged
+ * all of them by one run, so catching up after downtime is a single pass.
+ * <p>
+ * {@link #start()} ticks on a daemon thread whenever the clock reaches the next tick; with a {@link SimulatedClock}
+ * the caller moves the clock and calls {@link #tick()} itself. The daemon owns the insurer's time. If other threads
+ * use the insurer meanwhile, it must be thread-safe, e.g. a {@link company.ConcurrentInsuranceCompany}.
+ */
+public final class BillingDaemon implements AutoCloseable {
+    //attributes
+    private final InsuranceCompany insurer;
+    private final Clock clock;
+    private final BillingSchedule schedule;
+    private ScheduledExecutorService executor; //created by start; guarded by this like the progress below
+    private boolean closed;
+    private LocalDateTime billedUpTo;
+    private long ticks;
+    private long missedTicks;
+    private long contractsBilled;
+    private long periodsCharged;
+    private long failedTicks;
+    private long lastRunNanos;
+
+    /**
+     * @param insurer  insurer to bill, its current time is the time billed up to so far
+     * @param clock    clock the insurer's time follows, e.g. the system clock or a {@link SimulatedClock}
+     * @param schedule how often to bill
+     * @throws IllegalArgumentException if any parameter is null
+     */
+    //constructor
+    public BillingDaemon(InsuranceCompany insurer, Clock clock, BillingSchedule schedule){
+        if (insurer == null || clock == null || schedule == null) {
+            throw new IllegalArgumentException("Insurer, clock and schedule cannot be null");
+        }
+        this.insurer = insurer;
+        this.clock = clock;
+        this.schedule = schedule;
+        this.billedUpTo = insurer.getCurrentTime();
+    }
+
+    //___________Public methods___________
+    /**
+     * Bills up to the last scheduled tick of the clock, catching up on all ticks missed since the previous run.
+     * A run that throws is counted as failed and retried by the next tick.
+     * @return false if the clock has not reached a new tick yet and nothing was billed
+     */
+    public synchronized boolean tick(){
+        LocalDateTime tick = schedule.lastTick(LocalDateTime.now(clock));
+        if (!tick.isAfter(billedUpTo)) {
+            return false;
+        }
+        long start = System.nanoTime();
+        BillingRun run;
+        try {
+            insurer.setCurrentTime(tick);
+            run = insurer.chargeDuePremiums();
+        } catch (RuntimeException e) {
+            failedTicks++;
+            throw e;
+        }
+        lastRunNanos = System.nanoTime() - start;
+        ticks++;
+        missedTicks += schedule.ticksBetween(billedUpTo, tick) - 1;
+        contractsBilled += run.contractsBilled();
+        periodsCharged += run.periodsCharged();
+        billedUpTo = tick;
+        return true;
+    }
+
+    /**
+     * Catches up immediately, then ticks on a daemon thread whenever the clock reaches the next scheduled tick.
+     * @throws IllegalStateException if the daemon was already started or is closed
+     */
+    public synchronized void start(){
+        if (closed || executor != null) {
+            throw new IllegalStateException("Billing daemon can be started once and not after it was closed");
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "billing-daemon");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.execute(this::run);
+    }
+
+    public synchronized BillingProgress getProgress(){
+        return new BillingProgress(billedUpTo, ticks, missedTicks, contractsBilled, periodsCharged, failedTicks, lastRunNanos);
+    }
+
+    public BillingSchedule getSchedule(){
+        return schedule;
+    }
+
+    /**
+     * Stops ticking; a billing run in progress is finished first.
+     */
+    @Override
+    public void close(){
+        ScheduledExecutorService running;
+        synchronized (this) {
+            closed = true;
+            running = executor;
+        }
+        if (running == null) {
+            return;
+        }
+        //drops the pending tick; the run in progress does not wait for anything that an interrupt could cut short
+        running.shutdownNow();
+        try {
+            running.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+
+    //___________Private helpers___________
+    private void run(){
+        try {
+            tick();
+        } catch (RuntimeException e) {
+            //counted as failed, the next tick retries
+        }
+        //the delay is taken again from the clock every time, so the ticks follow it when it is adjusted
+        LocalDateTime now = LocalDateTime.now(clock);
+        long delay = Math.max(0, Duration.between(now, schedule.nextTick(now)).toNanos());
+        synchronized (this) {
+            if (!closed) {
+                executor.schedule(this::run, delay, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package billing;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a {@link BillingDaemon} since it was created.
+ * @param billedUpTo      time of the last tick that was billed, the insurer's time when nothing was billed yet
+ * @param ticks           billing runs made
+ * @param missedTicks     ticks that were skipped because the daemon was down or behind, caught up by later runs
+ * @param contractsBilled contracts billed over all runs, counted once per run that charged them
+ * @param periodsCharged  premium periods charged over all runs
+ * @param failedTicks     billing runs that threw, the next tick retries them
+ * @param lastRunNanos    duration of the last billing run
+ */
+public record BillingProgress(LocalDateTime billedUpTo,
+                              long ticks,
+                              long missedTicks,
+                              long contractsBilled,
+                              long periodsCharged,
+                              long failedTicks,
+                              long lastRunNanos) {
+}
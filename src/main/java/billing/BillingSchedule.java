@@ -0,0 +1,42 @@
+package billing;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * How often a {@link BillingDaemon} bills. Ticks fall on the start of every hour or day of the insurer's clock.
+ */
+public enum BillingSchedule {
+    HOURLY(ChronoUnit.HOURS),
+    DAILY(ChronoUnit.DAYS);
+
+    //attributes
+    private final ChronoUnit unit;
+
+    //constructor
+    BillingSchedule(ChronoUnit unit){
+        this.unit = unit;
+    }
+
+    //___________Public methods___________
+    /**
+     * @return the last tick at or before time
+     */
+    public LocalDateTime lastTick(LocalDateTime time){
+        return time.truncatedTo(unit);
+    }
+
+    /**
+     * @return the first tick after time
+     */
+    public LocalDateTime nextTick(LocalDateTime time){
+        return lastTick(time).plus(1, unit);
+    }
+
+    /**
+     * @return number of ticks after from up to and including to, 0 if to is not after from
+     */
+    public long ticksBetween(LocalDateTime from, LocalDateTime to){
+        return Math.max(0, unit.between(lastTick(from), lastTick(to)));
+    }
+}
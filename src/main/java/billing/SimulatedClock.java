@@ -0,0 +1,60 @@
+package billing;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+
+/**
+ * Clock that stands still until it is moved, for driving a {@link BillingDaemon} through years of billing in a test.
+ * May be moved by one thread and read by others.
+ */
+public final class SimulatedClock extends Clock {
+    //attributes
+    private final ZoneId zone;
+    private volatile Instant instant;
+
+    /**
+     * @throws IllegalArgumentException if instant or zone is null
+     */
+    //constructor
+    public SimulatedClock(Instant instant, ZoneId zone){
+        if (instant == null || zone == null) {
+            throw new IllegalArgumentException("Instant and zone cannot be null");
+        }
+        this.instant = instant;
+        this.zone = zone;
+    }
+
+    //___________Public methods___________
+    /**
+     * @param duration non-negative time to move forward by
+     * @throws IllegalArgumentException if duration is null or negative
+     */
+    public void advance(Duration duration){
+        if (duration == null || duration.isNegative()) {
+            throw new IllegalArgumentException("Clock can only be advanced by a non-negative duration");
+        }
+        instant = instant.plus(duration);
+    }
+
+
+    //___________Override methods___________
+    @Override
+    public ZoneId getZone(){
+        return zone;
+    }
+
+    /**
+     * @return a clock of the other zone that stays fixed at the current instant
+     */
+    @Override
+    public Clock withZone(ZoneId zone){
+        return Clock.fixed(instant, zone);
+    }
+
+    @Override
+    public Instant instant(){
+        return instant;
+    }
+}
@@ -0,0 +1,20 @@
+package changes;
+
+import java.time.LocalDateTime;
+
+/**
+ * Change of the portfolio published by an insurer through its {@link ChangeFeed}.
+ * Events carry numbers and ids instead of the domain objects, so they stay valid after later changes.
+ */
+public sealed interface ChangeEvent permits ContractConcluded, MovedToMasterContract, PremiumCharged, PaymentApplied,
+        ClaimPaid, ContractDeactivated {
+    /**
+     * @return time of the insurer when the change happened
+     */
+    LocalDateTime time();
+
+    /**
+     * @return number of the changed contract
+     */
+    String contractNumber();
+}
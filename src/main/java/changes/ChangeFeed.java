@@ -0,0 +1,263 @@
+package changes;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the {@link ChangeEvent}s of one insurer in batches, in the order the changes were made.
+ * <p>
+ * Producers {@link #emit} events into the current batch, which is submitted when it is full and when an operation
+ * {@link #flush}es it at its end; a billing run therefore arrives as a few large batches. Producers check
+ * {@link #isObserved()} first, so an insurer without subscribers creates no events at all.
+ * <p>
+ * Every subscriber has a bounded buffer of batches and is served on its own delivery thread. Submitting never
+ * waits for a subscriber: if a buffer is full, the batch is dropped for that subscriber only. The subscriber still
+ * receives the batches buffered before the drop, then its subscription ends with a {@link ChangesLostException}
+ * instead of silently skipping changes.
+ * After {@link #close()} events are discarded.
+ */
+public final class ChangeFeed implements Flow.Publisher<List<ChangeEvent>>, AutoCloseable {
+    public static final int DEFAULT_BATCH_SIZE = 256;
+    public static final int DEFAULT_BUFFER_CAPACITY = Flow.defaultBufferSize();
+
+    //delivery threads are shared by all feeds and never borrowed from the common pool the claims run on
+    private static final ExecutorService DELIVERY = Executors.newCachedThreadPool(task -> {
+        Thread thread = new Thread(task, "change-feed-delivery");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * A submitted batch with its position in the feed, so a subscriber can tell the batches before a drop from those after.
+     */
+    private record Batch(long sequence, List<ChangeEvent> events) {
+    }
+
+    //attributes
+    private final SubmissionPublisher<Batch> publisher;
+    private final int batchSize;
+    private final AtomicInteger subscribers; //active subscriptions
+    private final AtomicLong droppedEvents;
+    private List<ChangeEvent> batch; //guarded by this
+    private long submitted; //guarded by this, sequence of the next batch
+
+    //constructor
+    public ChangeFeed(){
+        this(DEFAULT_BATCH_SIZE, DEFAULT_BUFFER_CAPACITY);
+    }
+
+    /**
+     * @param batchSize      maximal number of events in one batch, positive
+     * @param bufferCapacity maximal number of batches buffered per subscriber, positive
+     * @throws IllegalArgumentException if batchSize or bufferCapacity is not positive
+     */
+    public ChangeFeed(int batchSize, int bufferCapacity){
+        if (batchSize <= 0 || bufferCapacity <= 0) {
+            throw new IllegalArgumentException("Batch size and buffer capacity must be positive");
+        }
+        this.publisher = new SubmissionPublisher<>(DELIVERY, bufferCapacity);
+        this.batchSize = batchSize;
+        this.subscribers = new AtomicInteger();
+        this.droppedEvents = new AtomicLong();
+        this.batch = new ArrayList<>();
+    }
+
+    //___________Public methods___________
+    /**
+     * @return whether anyone is subscribed; producers create events only then
+     */
+    public boolean isObserved(){
+        return subscribers.get() > 0;
+    }
+
+    /**
+     * Adds an event to the current batch and submits the batch once it is full. Never blocks on subscribers.
+     * Called by the insurer and its payment handler.
+     * @throws IllegalArgumentException if event is null
+     */
+    public void emit(ChangeEvent event){
+        if (event == null) {
+            throw new IllegalArgumentException("Change event cannot be null");
+        }
+        synchronized (this) {
+            batch.add(event);
+            if (batch.size() >= batchSize) {
+                submit();
+            }
+        }
+    }
+
+    /**
+     * Submits the events emitted so far, called at the end of every operation.
+     */
+    public void flush(){
+        if (!isObserved()) {
+            return;
+        }
+        synchronized (this) {
+            if (!batch.isEmpty()) {
+                submit();
+            }
+        }
+    }
+
+    /**
+     * @return events dropped for subscribers that fell behind, counted once per subscriber
+     */
+    public long getDroppedEvents(){
+        return droppedEvents.get();
+    }
+
+    /**
+     * Delivers events emitted after this call. The subscriber is signalled on a delivery thread,
+     * never on the thread that made the change.
+     * @throws NullPointerException if subscriber is null
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super List<ChangeEvent>> subscriber){
+        if (subscriber == null) {
+            throw new NullPointerException("Subscriber cannot be null");
+        }
+        synchronized (this) {
+            //events left in the batch after the last subscriber went away were emitted before this call
+            if (subscribers.get() == 0) {
+                batch.clear();
+            }
+            //counted before the events of running operations are emitted into the feed
+            subscribers.incrementAndGet();
+        }
+        publisher.subscribe(new Delivery(subscriber));
+    }
+
+    /**
+     * Submits the last batch and completes every subscription once its buffer is delivered.
+     */
+    @Override
+    public void close(){
+        synchronized (this) {
+            if (!batch.isEmpty()) {
+                submit();
+            }
+        }
+        publisher.close();
+    }
+
+
+    //___________Private helpers___________
+    private void submit(){
+        List<ChangeEvent> full = batch;
+        batch = new ArrayList<>();
+        if (publisher.isClosed()) {
+            return;
+        }
+        publisher.offer(new Batch(submitted++, Collections.unmodifiableList(full)), (subscriber, dropped) -> {
+            ((Delivery) subscriber).lose(dropped);
+            return false;
+        });
+    }
+
+    /**
+     * Subscriber between the publisher and the actual subscriber; turns dropped batches into an error
+     * once the batches buffered before the first drop are delivered.
+     */
+    private final class Delivery implements Flow.Subscriber<Batch> {
+        private final Flow.Subscriber<? super List<ChangeEvent>> subscriber;
+        private final AtomicLong lostEvents;
+        private final AtomicBoolean finished;
+        private volatile long lostFrom; //sequence of the first dropped batch, written under the feed's lock
+        private Flow.Subscription subscription; //touched on the delivery thread only
+
+        private Delivery(Flow.Subscriber<? super List<ChangeEvent>> subscriber){
+            this.subscriber = subscriber;
+            this.lostEvents = new AtomicLong();
+            this.finished = new AtomicBoolean();
+            this.lostFrom = Long.MAX_VALUE;
+        }
+
+        private void lose(Batch batch){
+            if (lostFrom == Long.MAX_VALUE) {
+                lostFrom = batch.sequence();
+            }
+            lostEvents.addAndGet(batch.events().size());
+            droppedEvents.addAndGet(batch.events().size());
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription){
+            this.subscription = subscription;
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n){
+                    subscription.request(n);
+                }
+
+                @Override
+                public void cancel(){
+                    finish();
+                    subscription.cancel();
+                }
+            });
+        }
+
+        @Override
+        public void onNext(Batch batch){
+            if (finished.get()) {
+                return;
+            }
+            if (batch.sequence() >= lostFrom) {
+                //buffered after the gap, discarded with it
+                lostEvents.addAndGet(batch.events().size());
+                subscription.cancel();
+                failLost();
+                return;
+            }
+            subscriber.onNext(batch.events());
+            if (batch.sequence() + 1 == lostFrom) {
+                //the last batch before the gap, fail now rather than at a delivery that may never come
+                subscription.cancel();
+                failLost();
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable){
+            if (finish()) {
+                subscriber.onError(throwable);
+            }
+        }
+
+        @Override
+        public void onComplete(){
+            if (lostEvents.get() > 0) {
+                failLost();
+            } else if (finish()) {
+                subscriber.onComplete();
+            }
+        }
+
+        private void failLost(){
+            if (finish()) {
+                subscriber.onError(new ChangesLostException(lostEvents.get()));
+            }
+        }
+
+        /**
+         * @return whether the subscription was still running
+         */
+        private boolean finish(){
+            if (finished.compareAndSet(false, true)) {
+                subscribers.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package changes;
+
+/**
+ * Ends a subscription to a {@link ChangeFeed} whose buffer overflowed, after the batches buffered before the overflow.
+ * The subscriber missed changes and has to read the portfolio again before it subscribes anew.
+ */
+public class ChangesLostException extends RuntimeException {
+    private final long lostEvents;
+
+    public ChangesLostException(long lostEvents) {
+        super(lostEvents + " change events were not delivered because the subscriber fell behind");
+        this.lostEvents = lostEvents;
+    }
+
+    public long getLostEvents() {
+        return lostEvents;
+    }
+}
@@ -0,0 +1,9 @@
+package changes;
+
+import java.time.LocalDateTime;
+
+/**
+ * A claim on a contract was paid out to a person.
+ */
+public record ClaimPaid(LocalDateTime time, String contractNumber, String personId, long amount) implements ChangeEvent {
+}
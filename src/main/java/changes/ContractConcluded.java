@@ -0,0 +1,11 @@
+package changes;
+
+import java.time.LocalDateTime;
+
+/**
+ * A contract was concluded; its first premium follows as a {@link PremiumCharged}.
+ * @param contractType simple class name of the contract, e.g. {@code TravelContract}
+ */
+public record ContractConcluded(LocalDateTime time, String contractNumber, String contractType,
+                                String policyHolderId, int coverageAmount) implements ChangeEvent {
+}
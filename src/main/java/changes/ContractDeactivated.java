@@ -0,0 +1,9 @@
+package changes;
+
+import java.time.LocalDateTime;
+
+/**
+ * A contract became inactive after a claim.
+ */
+public record ContractDeactivated(LocalDateTime time, String contractNumber) implements ChangeEvent {
+}
@@ -0,0 +1,9 @@
+package changes;
+
+import java.time.LocalDateTime;
+
+/**
+ * A single vehicle contract became a child of a master vehicle contract.
+ */
+public record MovedToMasterContract(LocalDateTime time, String contractNumber, String masterContractNumber) implements ChangeEvent {
+}
@@ -0,0 +1,10 @@
+package changes;
+
+import java.time.LocalDateTime;
+
+/**
+ * Part of a payment was deducted from the outstanding balance of a contract.
+ * @param masterContractNumber number of the paid master if the payment was distributed over its children, otherwise null
+ */
+public record PaymentApplied(LocalDateTime time, String contractNumber, String masterContractNumber, long amount) implements ChangeEvent {
+}
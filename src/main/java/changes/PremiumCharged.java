@@ -0,0 +1,9 @@
+package changes;
+
+import java.time.LocalDateTime;
+
+/**
+ * Due premiums were added to the outstanding balance of a contract, for children of a master per child.
+ */
+public record PremiumCharged(LocalDateTime time, String contractNumber, int periods, long amount) implements ChangeEvent {
+}
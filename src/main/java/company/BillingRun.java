@@ -0,0 +1,10 @@
+package company;
+
+/**
+ * Outcome of an incremental billing run.
+ * @param contractsBilled contracts on which at least one premium period was charged
+ * @param periodsCharged  premium periods charged in total, several per contract when billing was behind
+ * @see InsuranceCompany#chargeDuePremiums()
+ */
+public record BillingRun(int contractsBilled, long periodsCharged) {
+}
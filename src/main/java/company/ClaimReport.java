@@ -0,0 +1,61 @@
+package company;
+
+import contracts.SingleVehicleContract;
+import objects.Person;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of a catastrophe claim batch.
+ */
+public final class ClaimReport {
+    //attributes
+    private final List<SingleVehicleContract> claimedContracts;
+    private final int contractsDeactivated;
+    private final long totalPaidOut;
+    private final Map<Person, Long> payouts;
+
+    //constructor
+    ClaimReport(List<SingleVehicleContract> claimedContracts, int contractsDeactivated, long totalPaidOut, Map<Person, Long> payouts){
+        this.claimedContracts = Collections.unmodifiableList(claimedContracts);
+        this.contractsDeactivated = contractsDeactivated;
+        this.totalPaidOut = totalPaidOut;
+        this.payouts = Collections.unmodifiableMap(payouts);
+    }
+
+    //___________Public methods___________
+    /**
+     * @return the contracts the claims were paid on, in the order of the claims
+     */
+    public List<SingleVehicleContract> getClaimedContracts(){
+        return claimedContracts;
+    }
+
+    public int getClaimsProcessed(){
+        return claimedContracts.size();
+    }
+
+    public int getContractsDeactivated(){
+        return contractsDeactivated;
+    }
+
+    public long getTotalPaidOut(){
+        return totalPaidOut;
+    }
+
+    /**
+     * @return amount paid out to each beneficiary or policyholder by this batch
+     */
+    public Map<Person, Long> getPayouts(){
+        return payouts;
+    }
+
+    /**
+     * @return amount paid out to the person by this batch, 0 if none
+     */
+    public long getPayout(Person person){
+        return payouts.getOrDefault(person, 0L);
+    }
+}
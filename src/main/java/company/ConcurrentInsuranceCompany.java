@@ -0,0 +1,227 @@
+package company;
+
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import objects.Person;
+import objects.Vehicle;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Insurer that can be used from several threads at once.
+ * <p>
+ * Every operation on contracts locks the stripes of the contract numbers and person ids it touches:
+ * the contract and its policyholder. Children of a master vehicle contract share its policyholder,
+ * so operations on a master and on its children exclude each other.
+ * Stripes are taken in a fixed order, which makes moving a contract into a master (two contracts and a person) deadlock-free.
+ * Conclusion and payments on unrelated contracts therefore run in parallel.
+ * <p>
+ * Claims take no stripes: the contract settles concurrent claims itself by compare-and-set of its state,
+ * and payouts are lock-free additions, so claims only exclude the clock and the billing run.
+ * <p>
+ * Moving the clock and the billing run of all contracts are exclusive and wait for the running operations.
+ * Iterating {@link #getContracts()} or the payment history is only safe while no other thread modifies the insurer.
+ */
+public class ConcurrentInsuranceCompany extends InsuranceCompany {
+    //attributes
+    private final ReentrantReadWriteLock clockLock; //read lock for single contract operations, write lock for the clock, the billing run and claim batches
+    private final StripedLocks stripes;
+
+    //constructor
+    public ConcurrentInsuranceCompany(LocalDateTime currentTime){
+        this(currentTime, 4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param stripes minimal number of lock stripes, positive
+     * @throws IllegalArgumentException if currentTime is null or stripes is not positive
+     */
+    public ConcurrentInsuranceCompany(LocalDateTime currentTime, int stripes){
+        super(currentTime, insurer -> new ConcurrentPaymentHandler((ConcurrentInsuranceCompany) insurer), new SynchronizedContractPortfolio());
+        this.clockLock = new ReentrantReadWriteLock();
+        this.stripes = new StripedLocks(stripes);
+    }
+
+
+    //___________Override methods___________
+    @Override
+    public void setCurrentTime(LocalDateTime currentTime){
+        clockLock.writeLock().lock();
+        try {
+            super.setCurrentTime(currentTime);
+        } finally {
+            clockLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public SingleVehicleContract insureVehicle(String contractNumber,
+                                               Person beneficiary,
+                                               Person policyHolder,
+                                               int proposedPremium,
+                                               PremiumPaymentFrequency proposedPaymentFrequency,
+                                               Vehicle vehicleToInsure){
+        return call(() -> super.insureVehicle(contractNumber, beneficiary, policyHolder, proposedPremium, proposedPaymentFrequency, vehicleToInsure),
+                contractNumber, idOf(policyHolder));
+    }
+
+    @Override
+    public TravelContract insurePersons(String contractNumber,
+                                        Person policyHolder,
+                                        int proposedPremium,
+                                        PremiumPaymentFrequency proposedPaymentFrequency,
+                                        Set<Person> personsToInsure){
+        return call(() -> super.insurePersons(contractNumber, policyHolder, proposedPremium, proposedPaymentFrequency, personsToInsure),
+                contractNumber, idOf(policyHolder));
+    }
+
+    @Override
+    public List<SingleVehicleContract> insureVehicles(List<VehicleQuote> quotes){
+        String[] keys = new String[quotes == null ? 0 : 2 * quotes.size()];
+        for (int i = 0; i < keys.length / 2; i++) {
+            VehicleQuote quote = quotes.get(i);
+            keys[2 * i] = quote == null ? null : quote.contractNumber();
+            keys[2 * i + 1] = quote == null ? null : idOf(quote.policyHolder());
+        }
+        return call(() -> super.insureVehicles(quotes), keys);
+    }
+
+    @Override
+    public List<TravelContract> insurePersonsBatch(List<TravelQuote> quotes){
+        String[] keys = new String[quotes == null ? 0 : 2 * quotes.size()];
+        for (int i = 0; i < keys.length / 2; i++) {
+            TravelQuote quote = quotes.get(i);
+            keys[2 * i] = quote == null ? null : quote.contractNumber();
+            keys[2 * i + 1] = quote == null ? null : idOf(quote.policyHolder());
+        }
+        return call(() -> super.insurePersonsBatch(quotes), keys);
+    }
+
+    @Override
+    public MasterVehicleContract createMasterVehicleContract(String contractNumber,
+                                                             Person beneficiary,
+                                                             Person policyHolder){
+        return call(() -> super.createMasterVehicleContract(contractNumber, beneficiary, policyHolder),
+                contractNumber, idOf(policyHolder));
+    }
+
+    @Override
+    public void moveSingleVehicleContractToMasterVehicleContract(MasterVehicleContract masterVehicleContract, SingleVehicleContract singleVehicleContract){
+        run(() -> super.moveSingleVehicleContractToMasterVehicleContract(masterVehicleContract, singleVehicleContract),
+                numberOf(masterVehicleContract), policyHolderIdOf(masterVehicleContract),
+                numberOf(singleVehicleContract), policyHolderIdOf(singleVehicleContract));
+    }
+
+    @Override
+    public void moveSingleVehicleContractsToMasterVehicleContract(MasterVehicleContract masterVehicleContract, List<SingleVehicleContract> singleVehicleContracts){
+        int children = singleVehicleContracts == null ? 0 : singleVehicleContracts.size();
+        String[] keys = new String[2 + 2 * children];
+        keys[0] = numberOf(masterVehicleContract);
+        keys[1] = policyHolderIdOf(masterVehicleContract);
+        for (int i = 0; i < children; i++) {
+            keys[2 + 2 * i] = numberOf(singleVehicleContracts.get(i));
+            keys[3 + 2 * i] = policyHolderIdOf(singleVehicleContracts.get(i));
+        }
+        run(() -> super.moveSingleVehicleContractsToMasterVehicleContract(masterVehicleContract, singleVehicleContracts), keys);
+    }
+
+    @Override
+    public void chargePremiumsOnContracts(){
+        clockLock.writeLock().lock();
+        try {
+            super.chargePremiumsOnContracts();
+        } finally {
+            clockLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public BillingRun chargeDuePremiums(){
+        clockLock.writeLock().lock();
+        try {
+            return super.chargeDuePremiums();
+        } finally {
+            clockLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void chargePremiumOnContract(MasterVehicleContract contract){
+        run(() -> super.chargePremiumOnContract(contract), numberOf(contract), policyHolderIdOf(contract));
+    }
+
+    @Override
+    public void chargePremiumOnContract(AbstractContract contract){
+        run(() -> super.chargePremiumOnContract(contract), numberOf(contract), policyHolderIdOf(contract));
+    }
+
+    @Override
+    public void processClaim(TravelContract travelContract, Set<Person> affectedPersons){
+        run(() -> super.processClaim(travelContract, affectedPersons));
+    }
+
+    @Override
+    public void processClaim(SingleVehicleContract singleVehicleContract, int expectedDamages){
+        run(() -> super.processClaim(singleVehicleContract, expectedDamages));
+    }
+
+
+    /**
+     * Holds the whole insurer, the batch resolves its plates against every contract.
+     */
+    @Override
+    public ClaimReport processClaims(List<VehicleClaim> claims){
+        clockLock.writeLock().lock();
+        try {
+            return super.processClaims(claims);
+        } finally {
+            clockLock.writeLock().unlock();
+        }
+    }
+
+
+    //___________Package methods___________
+    /**
+     * Runs an operation on contracts while holding the clock read lock and the stripes of the given keys.
+     * @param keys contract numbers and person ids, null keys are ignored
+     */
+    <T> T call(Supplier<T> operation, String... keys){
+        int[] held = stripes.stripesOf(keys);
+        clockLock.readLock().lock();
+        stripes.lock(held);
+        try {
+            return operation.get();
+        } finally {
+            stripes.unlock(held);
+            clockLock.readLock().unlock();
+        }
+    }
+
+    void run(Runnable operation, String... keys){
+        call(() -> {
+            operation.run();
+            return null;
+        }, keys);
+    }
+
+    static String numberOf(AbstractContract contract){
+        return contract == null ? null : contract.getContractNumber();
+    }
+
+    static String policyHolderIdOf(AbstractContract contract){
+        return contract == null ? null : idOf(contract.getPolicyHolder());
+    }
+
+
+    //___________Private helpers___________
+    private static String idOf(Person person){
+        return person == null ? null : person.getId();
+    }
+}
@@ -0,0 +1,38 @@
+package company;
+
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+import payment.PaymentHandler;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+
+/**
+ * Payment handler of a {@link ConcurrentInsuranceCompany}.
+ * A payment locks the stripes of the paid contract and its policyholder; the history map itself is synchronized,
+ * the payments of one contract are guarded by the contract's stripe.
+ */
+final class ConcurrentPaymentHandler extends PaymentHandler {
+    //attributes
+    private final ConcurrentInsuranceCompany insurer;
+
+    //constructor
+    ConcurrentPaymentHandler(ConcurrentInsuranceCompany insurer){
+        super(insurer, Collections.synchronizedMap(new LinkedHashMap<>()));
+        this.insurer = insurer;
+    }
+
+
+    //___________Override methods___________
+    @Override
+    public void pay(MasterVehicleContract contract, int amount){
+        insurer.run(() -> super.pay(contract, amount),
+                ConcurrentInsuranceCompany.numberOf(contract), ConcurrentInsuranceCompany.policyHolderIdOf(contract));
+    }
+
+    @Override
+    public void pay(AbstractContract contract, int amount){
+        insurer.run(() -> super.pay(contract, amount),
+                ConcurrentInsuranceCompany.numberOf(contract), ConcurrentInsuranceCompany.policyHolderIdOf(contract));
+    }
+}
@@ -0,0 +1,204 @@
+package company;
+
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+
+import java.util.*;
+
+/**
+ * Contracts of one insurer in the order in which they were concluded, indexed by contract number
+ * and additionally partitioned by concrete contract type.
+ * The partitions let the billing run use one loop per type, so every call site inside a loop
+ * sees a single receiver class and can be inlined by the JIT.
+ * Removals only mark the partitions dirty; they are compacted before the next billing run.
+ * Not thread-safe, see {@link SynchronizedContractPortfolio}.
+ */
+class ContractPortfolio extends AbstractSet<AbstractContract> {
+    //attributes
+    private final Map<String, AbstractContract> contracts; //contract equality is contract number equality
+    private final ArrayList<SingleVehicleContract> singleVehicleContracts;
+    private final ArrayList<TravelContract> travelContracts;
+    private final List<MasterVehicleContract> masterVehicleContracts;
+    private final List<AbstractContract> otherContracts; //subclasses unknown to the insurer
+    private final Set<AbstractContract> pendingRemovals; //by identity, a new contract may reuse a removed number
+
+    //constructor
+    ContractPortfolio(){
+        this.contracts = new LinkedHashMap<>();
+        this.singleVehicleContracts = new ArrayList<>();
+        this.travelContracts = new ArrayList<>();
+        this.masterVehicleContracts = new ArrayList<>();
+        this.otherContracts = new ArrayList<>();
+        this.pendingRemovals = Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
+    //___________Package methods___________
+    /**
+     * @return the contract with the given number, or null if there is none
+     */
+    AbstractContract get(String contractNumber){
+        return contracts.get(contractNumber);
+    }
+
+    List<SingleVehicleContract> singleVehicleContracts(){
+        compactPartitions();
+        return singleVehicleContracts;
+    }
+
+    List<TravelContract> travelContracts(){
+        compactPartitions();
+        return travelContracts;
+    }
+
+    List<MasterVehicleContract> masterVehicleContracts(){
+        compactPartitions();
+        return masterVehicleContracts;
+    }
+
+    List<AbstractContract> otherContracts(){
+        compactPartitions();
+        return otherContracts;
+    }
+
+    /**
+     * Grows the type partitions ahead of a batch so they are not copied several times while it is added.
+     */
+    void ensureCapacity(int additionalSingleVehicleContracts, int additionalTravelContracts){
+        singleVehicleContracts.ensureCapacity(singleVehicleContracts.size() + additionalSingleVehicleContracts);
+        travelContracts.ensureCapacity(travelContracts.size() + additionalTravelContracts);
+    }
+
+    /**
+     * Indexes the active single vehicle contracts, including the children of master contracts, that insure the given plates.
+     * @throws IllegalArgumentException if several active contracts insure one of the plates
+     */
+    Map<String, SingleVehicleContract> activeSingleVehicleContractsByPlate(Set<String> licensePlates){
+        Map<String, SingleVehicleContract> index = new HashMap<>((int) (licensePlates.size() / 0.75f) + 1);
+        for (SingleVehicleContract contract : singleVehicleContracts()) {
+            indexIfClaimed(index, licensePlates, contract);
+        }
+        for (MasterVehicleContract master : masterVehicleContracts()) {
+            for (SingleVehicleContract child : master.getChildContracts()) {
+                indexIfClaimed(index, licensePlates, child);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * @return spliterator over all contracts, grouped by partition instead of in conclusion order
+     */
+    Spliterator<AbstractContract> partitionSpliterator(){
+        return new PartitionSpliterator(List.of(singleVehicleContracts(), travelContracts(), masterVehicleContracts(), otherContracts()));
+    }
+
+
+    //___________Override methods___________
+    @Override
+    public boolean add(AbstractContract contract){
+        if (contracts.putIfAbsent(contract.getContractNumber(), contract) != null) {
+            return false;
+        }
+        //still present in its partition if it was removed since the last compaction
+        if (pendingRemovals.isEmpty() || !pendingRemovals.remove(contract)) {
+            partitionOf(contract).add(contract);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o){
+        if (!contains(o)) {
+            return false;
+        }
+        pendingRemovals.add(contracts.remove(((AbstractContract) o).getContractNumber()));
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object o){
+        return o instanceof AbstractContract contract && contracts.containsKey(contract.getContractNumber());
+    }
+
+    @Override
+    public int size(){
+        return contracts.size();
+    }
+
+    @Override
+    public void clear(){
+        contracts.clear();
+        singleVehicleContracts.clear();
+        travelContracts.clear();
+        masterVehicleContracts.clear();
+        otherContracts.clear();
+        pendingRemovals.clear();
+    }
+
+    @Override
+    public Spliterator<AbstractContract> spliterator(){
+        return Spliterators.spliterator(this, Spliterator.DISTINCT | Spliterator.ORDERED | Spliterator.NONNULL);
+    }
+
+    @Override
+    public Iterator<AbstractContract> iterator(){
+        Iterator<AbstractContract> iterator = contracts.values().iterator();
+        return new Iterator<>() {
+            private AbstractContract last;
+
+            @Override
+            public boolean hasNext(){
+                return iterator.hasNext();
+            }
+
+            @Override
+            public AbstractContract next(){
+                last = iterator.next();
+                return last;
+            }
+
+            @Override
+            public void remove(){
+                iterator.remove();
+                pendingRemovals.add(last);
+            }
+        };
+    }
+
+
+    //___________Private helpers___________
+    @SuppressWarnings("unchecked")
+    private List<AbstractContract> partitionOf(AbstractContract contract){
+        Class<?> type = contract.getClass();
+        if (type == SingleVehicleContract.class) {
+            return (List<AbstractContract>) (List<?>) singleVehicleContracts;
+        }
+        if (type == TravelContract.class) {
+            return (List<AbstractContract>) (List<?>) travelContracts;
+        }
+        if (type == MasterVehicleContract.class) {
+            return (List<AbstractContract>) (List<?>) masterVehicleContracts;
+        }
+        return otherContracts;
+    }
+
+    private static void indexIfClaimed(Map<String, SingleVehicleContract> index, Set<String> licensePlates, SingleVehicleContract contract){
+        String licensePlate = contract.getInsuredVehicle().getLicensePlate();
+        if (contract.isActive() && licensePlates.contains(licensePlate) && index.put(licensePlate, contract) != null) {
+            throw new IllegalArgumentException("Several active contracts insure the vehicle " + licensePlate);
+        }
+    }
+
+    private void compactPartitions(){
+        if (pendingRemovals.isEmpty()) {
+            return;
+        }
+        singleVehicleContracts.removeIf(pendingRemovals::contains);
+        travelContracts.removeIf(pendingRemovals::contains);
+        masterVehicleContracts.removeIf(pendingRemovals::contains);
+        otherContracts.removeIf(pendingRemovals::contains);
+        pendingRemovals.clear();
+    }
+}
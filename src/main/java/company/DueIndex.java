@@ -0,0 +1,110 @@
+package company;
+
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Single vehicle, travel and child contracts ordered by their next payment time, so an incremental billing run visits
+ * only the contracts that are due instead of the whole portfolio.
+ * <p>
+ * Every entry is billed while its owner is active: a top-level contract owns itself, a child of a master vehicle
+ * contract is owned by the master, like in the full billing run. Deactivation is final, so entries of inactive
+ * owners are dropped when they come up.
+ * A due time may be stale when a contract was charged outside of the index; it can only be too early,
+ * because payment times only move forward, and is corrected when the entry comes up.
+ * Guarded by this, conclusions of a concurrent insurer add to it in parallel.
+ */
+final class DueIndex {
+    private static final class Entry {
+        private final AbstractContract contract;
+        private final long sequence; //ties are billed in the order the contracts were indexed
+        private AbstractContract owner;
+        private LocalDateTime dueAt;
+
+        private Entry(AbstractContract contract, AbstractContract owner, long sequence){
+            this.contract = contract;
+            this.owner = owner;
+            this.sequence = sequence;
+            this.dueAt = contract.getContractPaymentData().getNextPaymentTime();
+        }
+    }
+
+    //attributes
+    private final PriorityQueue<Entry> queue;
+    private final Map<AbstractContract, Entry> entries; //by identity, a new contract may reuse a removed number
+    private long sequence;
+
+    //constructor
+    DueIndex(){
+        this.queue = new PriorityQueue<>(Comparator.<Entry, LocalDateTime>comparing(entry -> entry.dueAt)
+                .thenComparingLong(entry -> entry.sequence));
+        this.entries = new IdentityHashMap<>();
+    }
+
+    //___________Package methods___________
+    /**
+     * Indexes a top-level contract; the children of a master vehicle contract are indexed instead of the master.
+     * Subclasses unknown to the insurer are ignored, like in the billing run they charge themselves.
+     */
+    synchronized void add(AbstractContract contract){
+        Class<?> type = contract.getClass();
+        if (type == MasterVehicleContract.class) {
+            MasterVehicleContract master = (MasterVehicleContract) contract;
+            for (SingleVehicleContract child : master.getChildContracts()) {
+                add(child, master);
+            }
+        } else if (type == SingleVehicleContract.class || type == TravelContract.class) {
+            add(contract, contract);
+        }
+    }
+
+    /**
+     * Bills the child of the given master from now on.
+     */
+    synchronized void moveToMaster(SingleVehicleContract child, MasterVehicleContract master){
+        Entry entry = entries.get(child);
+        if (entry == null) {
+            add(child, master);
+        } else {
+            entry.owner = master;
+        }
+    }
+
+    /**
+     * Removes and returns the next entry due at time whose owner is active, dropping inactive ones on the way.
+     * @return the due contract, or null if none is due
+     */
+    synchronized AbstractContract pollDue(LocalDateTime time){
+        while (!queue.isEmpty() && !queue.peek().dueAt.isAfter(time)) {
+            Entry entry = queue.poll();
+            if (entry.owner.isActive()) {
+                //stays mapped until it is rescheduled
+                return entry.contract;
+            }
+            entries.remove(entry.contract);
+        }
+        return null;
+    }
+
+    /**
+     * Puts a contract returned by {@link #pollDue} back, at its next payment time.
+     */
+    synchronized void reschedule(AbstractContract contract){
+        Entry entry = entries.get(contract);
+        entry.dueAt = contract.getContractPaymentData().getNextPaymentTime();
+        queue.add(entry);
+    }
+
+
+    //___________Private helpers___________
+    private void add(AbstractContract contract, AbstractContract owner){
+        Entry entry = new Entry(contract, owner, sequence++);
+        entries.put(contract, entry);
+        queue.add(entry);
+    }
+}
@@ -1,6 +1,11 @@
 package company;
 
+import changes.*;
 import contracts.*;
+import monitoring.BillingRunEvent;
+import monitoring.ClaimEvent;
+import monitoring.ContractConcludedEvent;
+import monitoring.PremiumChargeEvent;
 import objects.Person;
 import objects.Vehicle;
 import payment.ContractPaymentData;
@@ -8,22 +13,55 @@ import payment.PaymentHandler;
 import payment.PremiumPaymentFrequency;
 
 import java.time.LocalDateTime;
-import java.util.LinkedHashSet;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class InsuranceCompany {
+    private static final int PARALLEL_CLAIMS = 4_096; //smaller batches do not pay for the fork-join overhead
+    private static final Authority AUTHORITY = new Authority();
+
+    /**
+     * Proof that a call comes from an insurer. Required by the mutators of contracts and persons that skip all checks,
+     * because the insurer has already validated the change; only this class can create one.
+     */
+    public static final class Authority {
+        private Authority(){
+        }
+    }
+
     //attributes
-    private final Set<AbstractContract> contracts; //are stored in the order in which they were concluded by the insurer.
+    private final ContractPortfolio contracts; //are stored in the order in which they were concluded by the insurer, partitioned by type.
     private final PaymentHandler handler;
+    private final LongAdder totalPaidOut; //claims settled in parallel add to it without contention
+    private final ChangeFeed changes;
     private LocalDateTime currentTime;
+    private DueIndex dueIndex; //built by the first incremental billing run, insurers billed in full never pay for it
 
     //constructor
     public InsuranceCompany(LocalDateTime currentTime){
+        this(currentTime, PaymentHandler::new);
+    }
+
+    /**
+     * @param handlerFactory creates the payment handler of this insurer, e.g. an instrumented one
+     */
+    protected InsuranceCompany(LocalDateTime currentTime, Function<InsuranceCompany, PaymentHandler> handlerFactory){
+        this(currentTime, handlerFactory, new ContractPortfolio());
+    }
+
+    InsuranceCompany(LocalDateTime currentTime, Function<InsuranceCompany, PaymentHandler> handlerFactory, ContractPortfolio contracts){
         validateCurrentTime(currentTime);
 
-        this.contracts = new LinkedHashSet<>();
+        this.contracts = contracts;
         this.currentTime=currentTime;
-        this.handler = new PaymentHandler(this);
+        this.totalPaidOut = new LongAdder();
+        this.changes = new ChangeFeed();
+        this.handler = handlerFactory.apply(this);
     }
 
     //___________Public methods___________
@@ -36,53 +74,72 @@ public class InsuranceCompany {
         this.currentTime=currentTime;
     }
 
+    /**
+     * @return read-only view of the top-level contracts in the order they were concluded
+     */
     public Set<AbstractContract> getContracts(){
-        return contracts;
+        return Collections.unmodifiableSet(contracts);
+    }
+
+    /**
+     * Streams the top-level contracts grouped by contract type rather than in conclusion order.
+     * Splits evenly for parallel streams, so prefer it for aggregations over large portfolios.
+     */
+    public Stream<AbstractContract> contracts(){
+        return StreamSupport.stream(contracts.partitionSpliterator(), false);
+    }
+
+    /**
+     * @return the concluded contract with the given number, or null if there is none
+     */
+    public AbstractContract getContract(String contractNumber){
+        return contracts.get(contractNumber);
     }
 
     public PaymentHandler getHandler(){
         return handler;
     }
 
+    /**
+     * @return publisher of the changes to the contracts of this insurer, delivered in batches to subscribers
+     */
+    public ChangeFeed changes(){
+        return changes;
+    }
+
+    /**
+     * @return sum of all claim payouts made by the insurer
+     */
+    public long getTotalPaidOut(){
+        return totalPaidOut.sum();
+    }
+
     public SingleVehicleContract insureVehicle(String contractNumber,
                                                Person beneficiary,
                                                Person policyHolder,
                                                int proposedPremium,
                                                PremiumPaymentFrequency proposedPaymentFrequency,
                                                Vehicle vehicleToInsure){
-        //parameters validations
-        validateInsureVehicleParams(policyHolder, proposedPremium, proposedPaymentFrequency, vehicleToInsure);
-
-        //other business validations
-        //unique contract number check
-        validateContractNumber(contractNumber);
-
-        // Calculate annual premium based on payment frequency
-        int annualPremium = (12 / proposedPaymentFrequency.getValueInMonths()) * proposedPremium;
-
-        //paidOutAmount(Person) >= 2% originalValue(Vehicle) check
-        if (annualPremium < (0.02 * vehicleToInsure.getOriginalValue())){
-            throw new IllegalArgumentException("The total annual amount paid by the policyholder must be greater than or equal to 2% of the cost of the vehicle.");
-        }
+        ContractConcludedEvent event = new ContractConcludedEvent();
+        event.begin();
 
-        int coverageAmount = vehicleToInsure.getOriginalValue() / 2;
+        //validations
+        validateVehicleQuote(contractNumber, policyHolder, proposedPremium, proposedPaymentFrequency, vehicleToInsure);
 
-        SingleVehicleContract singleVehicleContract = new SingleVehicleContract(
-                contractNumber,
-                this,
-                beneficiary,
-                policyHolder,
-                new ContractPaymentData(proposedPremium, proposedPaymentFrequency, this.currentTime, 0),
-                coverageAmount,
-                vehicleToInsure
+        SingleVehicleContract singleVehicleContract = newSingleVehicleContract(
+                contractNumber, beneficiary, policyHolder, proposedPremium, proposedPaymentFrequency, vehicleToInsure
         );
+        emitConcluded(singleVehicleContract);
 
         this.chargePremiumOnContract(singleVehicleContract);
 
         this.contracts.add(singleVehicleContract);
+        index(singleVehicleContract);
 
         policyHolder.addContract(singleVehicleContract);
 
+        commit(event, singleVehicleContract);
+        changes.flush();
         return singleVehicleContract;
     }
 
@@ -91,58 +148,102 @@ public class InsuranceCompany {
                                         int proposedPremium,
                                         PremiumPaymentFrequency proposedPaymentFrequency,
                                         Set<Person> personsToInsure){
-        //validations
-        //unique contract number check
-        validateContractNumber(contractNumber);
-
-        if (policyHolder == null) {
-            throw new IllegalArgumentException("Policy holder cannot be null");
-        }
-
-        if (proposedPremium <= 0) {
-            throw new IllegalArgumentException("Premium must be positive");
-        }
-
-        if (proposedPaymentFrequency == null) {
-            throw new IllegalArgumentException("Premium frequency cannot be null");
-        }
-
-        if (personsToInsure == null || personsToInsure.isEmpty()) {
-            throw new IllegalArgumentException("Insured persons set cannot be null or empty");
-        }
+        ContractConcludedEvent event = new ContractConcludedEvent();
+        event.begin();
 
-        //amount paid by the policyholder must be greater than or equal to five times the number of insured persons.
-        // Calculate annual premium based on payment frequency
-        int annualPremium = (12 / proposedPaymentFrequency.getValueInMonths()) * proposedPremium;
-
-        // Check if annual premium is at least 5 times the number of insured persons
-        if (annualPremium < 5 * personsToInsure.size()) {
-            throw new IllegalArgumentException("Annual premium must be at least five times the number of insured persons");
-        }
-
-        int coverageAmount = personsToInsure.size() * 10;
+        //validations
+        validateTravelQuote(contractNumber, policyHolder, proposedPremium, proposedPaymentFrequency, personsToInsure);
 
-        TravelContract travelContract = new TravelContract(
-                contractNumber,
-                this,
-                policyHolder,
-                new ContractPaymentData(proposedPremium, proposedPaymentFrequency, this.currentTime, 0),
-                coverageAmount,
-                personsToInsure
+        TravelContract travelContract = newTravelContract(
+                contractNumber, policyHolder, proposedPremium, proposedPaymentFrequency, personsToInsure
         );
+        emitConcluded(travelContract);
 
         this.chargePremiumOnContract(travelContract);
 
         this.contracts.add(travelContract);
+        index(travelContract);
 
         policyHolder.addContract(travelContract);
 
+        commit(event, travelContract);
+        changes.flush();
         return travelContract;
     }
 
+    /**
+     * Concludes a batch of vehicle contracts all-or-nothing.
+     * Every quote is validated as by {@link #insureVehicle}, and contract numbers must also be unique inside the batch;
+     * the first invalid quote aborts the batch before any contract is concluded.
+     * @param quotes non-null list of non-null quotes
+     * @return the concluded contracts in the order of the quotes
+     * @throws IllegalArgumentException if quotes or any quote is null or invalid
+     */
+    public List<SingleVehicleContract> insureVehicles(List<VehicleQuote> quotes){
+        if (quotes == null) {
+            throw new IllegalArgumentException("Quotes cannot be null");
+        }
+
+        //validate and build the whole batch before anything is concluded
+        List<SingleVehicleContract> batch = new ArrayList<>(quotes.size());
+        Set<String> batchNumbers = new HashSet<>(capacityFor(quotes.size()));
+        for (VehicleQuote quote : quotes) {
+            if (quote == null) {
+                throw new IllegalArgumentException("Quote cannot be null");
+            }
+            validateVehicleQuote(quote.contractNumber(), quote.policyHolder(), quote.proposedPremium(),
+                    quote.proposedPaymentFrequency(), quote.vehicleToInsure());
+            validateUniqueInBatch(batchNumbers, quote.contractNumber());
+            batch.add(newSingleVehicleContract(quote.contractNumber(), quote.beneficiary(), quote.policyHolder(),
+                    quote.proposedPremium(), quote.proposedPaymentFrequency(), quote.vehicleToInsure()));
+        }
+
+        contracts.ensureCapacity(batch.size(), 0);
+        for (SingleVehicleContract contract : batch) {
+            conclude(contract);
+        }
+        changes.flush();
+        return batch;
+    }
+
+    /**
+     * Concludes a batch of travel contracts all-or-nothing, see {@link #insureVehicles}.
+     * @param quotes non-null list of non-null quotes, each validated as by {@link #insurePersons}
+     * @return the concluded contracts in the order of the quotes
+     * @throws IllegalArgumentException if quotes or any quote is null or invalid
+     */
+    public List<TravelContract> insurePersonsBatch(List<TravelQuote> quotes){
+        if (quotes == null) {
+            throw new IllegalArgumentException("Quotes cannot be null");
+        }
+
+        List<TravelContract> batch = new ArrayList<>(quotes.size());
+        Set<String> batchNumbers = new HashSet<>(capacityFor(quotes.size()));
+        for (TravelQuote quote : quotes) {
+            if (quote == null) {
+                throw new IllegalArgumentException("Quote cannot be null");
+            }
+            validateTravelQuote(quote.contractNumber(), quote.policyHolder(), quote.proposedPremium(),
+                    quote.proposedPaymentFrequency(), quote.personsToInsure());
+            validateUniqueInBatch(batchNumbers, quote.contractNumber());
+            batch.add(newTravelContract(quote.contractNumber(), quote.policyHolder(), quote.proposedPremium(),
+                    quote.proposedPaymentFrequency(), quote.personsToInsure()));
+        }
+
+        contracts.ensureCapacity(0, batch.size());
+        for (TravelContract contract : batch) {
+            conclude(contract);
+        }
+        changes.flush();
+        return batch;
+    }
+
     public MasterVehicleContract createMasterVehicleContract(String contractNumber,
                                                              Person beneficiary,
                                                              Person policyHolder){
+        ContractConcludedEvent event = new ContractConcludedEvent();
+        event.begin();
+
         //validations
         //unique contract number check
         validateContractNumber(contractNumber);
@@ -158,69 +259,165 @@ public class InsuranceCompany {
 
         policyHolder.addContract(masterVehicleContract);
 
+        emitConcluded(masterVehicleContract);
+        commit(event, masterVehicleContract);
+        changes.flush();
         return masterVehicleContract;
     }
 
     public void moveSingleVehicleContractToMasterVehicleContract(MasterVehicleContract masterVehicleContract, SingleVehicleContract singleVehicleContract ){
+        ContractConcludedEvent event = new ContractConcludedEvent();
+        event.begin();
+
         //validation
-        //should be not null
-        if (masterVehicleContract == null){
-            throw new IllegalArgumentException("Master Vehicle Contract must not be null");
-        }
-        if (singleVehicleContract == null){
-            throw new IllegalArgumentException("Single Vehicle Contract must not be null.");
-        }
+        validateMove(masterVehicleContract, Collections.singletonList(singleVehicleContract));
 
-        //should be active
-        if(!masterVehicleContract.isActive()){
-            throw new InvalidContractException("Master Vehicle Contract must be an active contract");
-        }
-        if(!singleVehicleContract.isActive()){
-            throw new InvalidContractException("Single Vehicle Contract must be an active contract");
-        }
+        this.contracts.remove(singleVehicleContract);
 
-        //must be insured by the insurer to which we are requesting the transfer
-        if(!(masterVehicleContract.getInsurer().equals(this))){
-            throw new InvalidContractException("Master Vehicle Contract must be insured by Insurance Company you are asking for transfer.");
+        masterVehicleContract.getPolicyHolder().removeContract(singleVehicleContract, AUTHORITY);
+
+        masterVehicleContract.addChildContract(singleVehicleContract, AUTHORITY);
+        if (dueIndex != null) {
+            dueIndex.moveToMaster(singleVehicleContract, masterVehicleContract);
         }
-        if(!(singleVehicleContract.getInsurer().equals(this))){
-            throw new InvalidContractException("Single Vehicle Contract must be insured by Insurance Company you are asking for transfer.");
+        if (changes.isObserved()) {
+            changes.emit(new MovedToMasterContract(currentTime, singleVehicleContract.getContractNumber(), masterVehicleContract.getContractNumber()));
         }
 
-        //must have the same policyholder
-        if(!(masterVehicleContract.getPolicyHolder().equals(singleVehicleContract.getPolicyHolder()))){
-            throw new InvalidContractException("The policyholder of the single vehicle policy you are applying to transfer to a master vehicle policy should be the same.");
-        }
+        commit(event, masterVehicleContract);
+        changes.flush();
+    }
 
-        this.contracts.remove(singleVehicleContract);
+    /**
+     * Moves a whole fleet into a master contract.
+     * Everything is validated before anything is moved, check by check in the order of
+     * {@link #moveSingleVehicleContractToMasterVehicleContract}: a null child is reported before an inactive master.
+     * @param singleVehicleContracts non-null list of the contracts to move, in the order they become children
+     * @throws IllegalArgumentException if the master, the list or any child is null
+     * @throws InvalidContractException if the master or any child cannot be moved
+     */
+    public void moveSingleVehicleContractsToMasterVehicleContract(MasterVehicleContract masterVehicleContract, List<SingleVehicleContract> singleVehicleContracts){
+        ContractConcludedEvent event = new ContractConcludedEvent();
+        event.begin();
 
-        masterVehicleContract.getPolicyHolder().getContracts().remove(singleVehicleContract);
+        //validation
+        validateMove(masterVehicleContract, singleVehicleContracts);
+
+        Person policyHolder = masterVehicleContract.getPolicyHolder();
+        for (SingleVehicleContract singleVehicleContract : singleVehicleContracts){
+            this.contracts.remove(singleVehicleContract);
+            policyHolder.removeContract(singleVehicleContract, AUTHORITY);
+            masterVehicleContract.addChildContract(singleVehicleContract, AUTHORITY);
+            if (dueIndex != null) {
+                dueIndex.moveToMaster(singleVehicleContract, masterVehicleContract);
+            }
+            if (changes.isObserved()) {
+                changes.emit(new MovedToMasterContract(currentTime, singleVehicleContract.getContractNumber(), masterVehicleContract.getContractNumber()));
+            }
+        }
 
-        masterVehicleContract.getChildContracts().add(singleVehicleContract);
+        commit(event, masterVehicleContract);
+        changes.flush();
     }
 
     public void chargePremiumsOnContracts(){
-        for (AbstractContract contract : contracts){
+        BillingRunEvent event = new BillingRunEvent();
+        event.begin();
+        int contractsBilled = 0;
+        long periodsCharged = 0;
+
+        //one loop per contract type keeps each call site monomorphic
+        for (SingleVehicleContract contract : contracts.singleVehicleContracts()){
+            if(contract.isActive()){
+                periodsCharged += chargeContractPremium(contract);
+                contractsBilled++;
+            }
+        }
+        for (TravelContract contract : contracts.travelContracts()){
+            if(contract.isActive()){
+                periodsCharged += chargeContractPremium(contract);
+                contractsBilled++;
+            }
+        }
+        for (MasterVehicleContract contract : contracts.masterVehicleContracts()){
+            if(contract.isActive()){
+                periodsCharged += chargeMasterPremium(contract);
+                contractsBilled++;
+            }
+        }
+        for (AbstractContract contract : contracts.otherContracts()){
             if(contract.isActive()){
                 contract.updateBalance();
+                contractsBilled++;
             }
         }
+
+        if (event.shouldCommit()) {
+            event.contractsBilled = contractsBilled;
+            event.periodsCharged = periodsCharged;
+            event.commit();
+        }
+        changes.flush();
+    }
+
+    /**
+     * Charges the premiums due at the current time, like {@link #chargePremiumsOnContracts()}, but visits only the
+     * contracts that are due: the first call indexes the contracts by their next payment time, later calls cost
+     * in proportion to the premiums they charge. A contract several periods behind is charged all of them at once,
+     * so moving the clock over a long interval and calling this once catches up on it.
+     * Suited to frequent runs, e.g. every hour; the index costs memory per contract while the insurer exists.
+     * @return contracts billed and periods charged by this run
+     */
+    public BillingRun chargeDuePremiums(){
+        BillingRunEvent event = new BillingRunEvent();
+        event.begin();
+        if (dueIndex == null) {
+            dueIndex = new DueIndex();
+            for (AbstractContract contract : contracts) {
+                dueIndex.add(contract);
+            }
+        }
+        int contractsBilled = 0;
+        long periodsCharged = 0;
+
+        AbstractContract contract;
+        while ((contract = dueIndex.pollDue(currentTime)) != null) {
+            int periods = chargeContractPremium(contract);
+            dueIndex.reschedule(contract);
+            if (periods > 0) {
+                periodsCharged += periods;
+                contractsBilled++;
+                billed(contract);
+            }
+        }
+        //subclasses unknown to the insurer charge themselves, their payment times are not known
+        for (AbstractContract other : contracts.otherContracts()){
+            if(other.isActive()){
+                other.updateBalance();
+                contractsBilled++;
+                billed(other);
+            }
+        }
+
+        if (event.shouldCommit()) {
+            event.contractsBilled = contractsBilled;
+            event.periodsCharged = periodsCharged;
+            event.commit();
+        }
+        changes.flush();
+        return new BillingRun(contractsBilled, periodsCharged);
     }
 
     public void chargePremiumOnContract(MasterVehicleContract contract){
         //no validation needed
-        for(SingleVehicleContract childContract : contract.getChildContracts()){
-            chargePremiumOnContract(childContract);
-        }
+        chargeMasterPremium(contract);
+        changes.flush();
     }
 
     public void chargePremiumOnContract(AbstractContract contract){
         //no validation needed
-        while(contract.getContractPaymentData().getNextPaymentTime().isBefore(this.currentTime) ||
-                contract.getContractPaymentData().getNextPaymentTime().isEqual(this.currentTime)){
-            contract.getContractPaymentData().setOutstandingBalance(contract.getContractPaymentData().getOutstandingBalance() + contract.getContractPaymentData().getPremium());
-            contract.getContractPaymentData().updateNextPaymentTime();
-        }
+        chargeContractPremium(contract);
+        changes.flush();
     }
 
     public void processClaim(TravelContract travelContract, Set<Person> affectedPersons){
@@ -233,15 +430,39 @@ public class InsuranceCompany {
         if(!travelContract.getInsuredPersons().containsAll(affectedPersons)){
             throw new IllegalArgumentException("All affected persons must not be must be insured by Travel Contract.");
         }
-        if(!travelContract.isActive()){
+        //only one of concurrent claims on the contract gets past this
+        if(!travelContract.beginClaim()){
             throw new InvalidContractException("Travel Contract must be active contract.");
         }
 
-        for (Person person : affectedPersons) {
-            person.payout(travelContract.getCoverageAmount() / affectedPersons.size());
+        ClaimEvent event = new ClaimEvent();
+        event.begin();
+
+        int payout = travelContract.getCoverageAmount() / affectedPersons.size();
+        boolean paidOut = false;
+        try {
+            for (Person person : affectedPersons) {
+                person.payout(payout);
+            }
+            paidOut = true;
+        } finally {
+            travelContract.endClaim(paidOut);
         }
+        totalPaidOut.add((long) payout * affectedPersons.size());
 
-        travelContract.setInactive();
+        if (changes.isObserved()) {
+            for (Person person : affectedPersons) {
+                changes.emit(new ClaimPaid(currentTime, travelContract.getContractNumber(), person.getId(), payout));
+            }
+            changes.emit(new ContractDeactivated(currentTime, travelContract.getContractNumber()));
+            changes.flush();
+        }
+        if (event.shouldCommit()) {
+            event.set(travelContract, 0, (long) payout * affectedPersons.size());
+            event.personsPaid = affectedPersons.size();
+            event.deactivated = true;
+            event.commit();
+        }
     }
 
     public void processClaim(SingleVehicleContract singleVehicleContract, int expectedDamages){
@@ -251,23 +472,413 @@ public class InsuranceCompany {
         if (expectedDamages <= 0){
             throw new IllegalArgumentException("Expected damages must be positive number.");
         }
-        if(!singleVehicleContract.isActive()){
+        //concurrent claims on the contract are settled one after another, none after a total loss
+        if(!singleVehicleContract.beginClaim()){
             throw new InvalidContractException("Single Vehicle Contract must be an active contract.");
         }
 
-        if(singleVehicleContract.getBeneficiary() != null){
-            singleVehicleContract.getBeneficiary().payout(singleVehicleContract.getCoverageAmount());
-        } else {
-            singleVehicleContract.getPolicyHolder().payout(singleVehicleContract.getCoverageAmount());
+        ClaimEvent event = new ClaimEvent();
+        event.begin();
+
+        boolean deactivated = isTotalLoss(singleVehicleContract, expectedDamages);
+        boolean paidOut = false;
+        try {
+            payeeOf(singleVehicleContract).payout(singleVehicleContract.getCoverageAmount());
+            paidOut = true;
+        } finally {
+            singleVehicleContract.endClaim(paidOut && deactivated);
+        }
+        totalPaidOut.add(singleVehicleContract.getCoverageAmount());
+
+        if (changes.isObserved()) {
+            emitClaimPaid(singleVehicleContract, deactivated);
+            changes.flush();
+        }
+        if (event.shouldCommit()) {
+            event.set(singleVehicleContract, 0, singleVehicleContract.getCoverageAmount());
+            event.personsPaid = 1;
+            event.deactivated = deactivated;
+            event.commit();
+        }
+    }
+
+
+    /**
+     * Settles a catastrophe batch of vehicle claims, e.g. after a hailstorm.
+     * Each claim is resolved by license plate to the active single vehicle contract insuring the vehicle,
+     * children of master contracts included, and settled as by {@link #processClaim(SingleVehicleContract, int)}.
+     * All claims are validated before anything is paid out. Payouts are summed per person, so each beneficiary
+     * or policyholder is paid once; large batches are settled in parallel across contracts.
+     * @param claims non-null list of non-null claims, at most one per vehicle
+     * @return contracts, deactivations and payouts of the batch
+     * @throws IllegalArgumentException if the list or a claim is invalid, or a vehicle is claimed twice
+     * @throws InvalidContractException if no active contract insures a claimed vehicle
+     */
+    public ClaimReport processClaims(List<VehicleClaim> claims){
+        if (claims == null){
+            throw new IllegalArgumentException("List of claims must not be null.");
+        }
+        VehicleClaim[] batch = claims.toArray(new VehicleClaim[0]);
+
+        //validate every claim before anything is paid out
+        Set<String> licensePlates = new HashSet<>(capacityFor(batch.length));
+        for (VehicleClaim claim : batch) {
+            if (claim == null || claim.licensePlate() == null){
+                throw new IllegalArgumentException("Claim and its license plate must not be null.");
+            }
+            if (claim.expectedDamages() <= 0){
+                throw new IllegalArgumentException("Expected damages must be positive number.");
+            }
+            if (!licensePlates.add(claim.licensePlate())){
+                throw new IllegalArgumentException("Vehicle " + claim.licensePlate() + " is claimed more than once in the batch.");
+            }
+        }
+        Map<String, SingleVehicleContract> contractsByPlate = contracts.activeSingleVehicleContractsByPlate(licensePlates);
+        SingleVehicleContract[] claimed = new SingleVehicleContract[batch.length];
+        for (int i = 0; i < batch.length; i++) {
+            claimed[i] = contractsByPlate.get(batch[i].licensePlate());
+            if (claimed[i] == null){
+                throw new InvalidContractException("No active Single Vehicle Contract insures the vehicle " + batch[i].licensePlate() + ".");
+            }
+            if (claimed[i].getCoverageAmount() <= 0){
+                throw new IllegalArgumentException("Paid out amount must be positive");
+            }
+        }
+        //a contract claimed concurrently by a single claim may have been deactivated since it was resolved
+        for (int i = 0; i < claimed.length; i++) {
+            if (!claimed[i].beginClaim()){
+                for (int j = 0; j < i; j++) {
+                    claimed[j].endClaim(false);
+                }
+                throw new InvalidContractException("No active Single Vehicle Contract insures the vehicle " + batch[i].licensePlate() + ".");
+            }
+        }
+
+        //payouts are summed per person, so every person is paid once
+        boolean parallel = batch.length >= PARALLEL_CLAIMS;
+        Map<Person, Long> payouts = StreamSupport.stream(Arrays.spliterator(claimed), parallel)
+                .collect(Collectors.groupingBy(InsuranceCompany::payeeOf, Collectors.summingLong(AbstractContract::getCoverageAmount)));
+        long batchPaidOut = 0;
+        for (long payout : payouts.values()) {
+            batchPaidOut = Math.addExact(batchPaidOut, payout);
+        }
+
+        //the contracts and the payees are independent of each other
+        IntStream indices = parallel ? IntStream.range(0, batch.length).parallel() : IntStream.range(0, batch.length);
+        int contractsDeactivated = indices.map(i -> deactivateOnTotalLoss(claimed[i], batch[i].expectedDamages())).sum();
+        StreamSupport.stream(payouts.entrySet().spliterator(), parallel)
+                .forEach(payout -> payout.getKey().payout(payout.getValue()));
+        totalPaidOut.add(batchPaidOut);
+        if (changes.isObserved()) {
+            for (int i = 0; i < claimed.length; i++) {
+                emitClaimPaid(claimed[i], isTotalLoss(claimed[i], batch[i].expectedDamages()));
+            }
+            changes.flush();
         }
 
-        if(expectedDamages >= (0.7 * singleVehicleContract.getInsuredVehicle().getOriginalValue())){
-            singleVehicleContract.setInactive();
+        return new ClaimReport(Arrays.asList(claimed), contractsDeactivated, batchPaidOut, payouts);
+    }
+
+
+    //___________Protected methods___________
+    /**
+     * Called by {@link #chargeDuePremiums()} for every contract it charged, a child of a master vehicle contract
+     * included, so a subclass can follow an incremental run without visiting the whole portfolio. Does nothing here.
+     */
+    protected void billed(AbstractContract contract){
+    }
+
+    /**
+     * Registers a top-level contract restored from a snapshot, e.g. one transferred from another process,
+     * as if it had been concluded: it is neither validated against the premium rules nor charged.
+     * @param contract non-null contract created for this insurer, with its state already restored
+     * @throws IllegalArgumentException if contract is null, belongs to another insurer or its number is taken
+     */
+    protected void restoreContract(AbstractContract contract){
+        if (contract == null || contract.getInsurer() != this){
+            throw new IllegalArgumentException("Restored contract must be created for this insurer.");
+        }
+        if (!this.contracts.add(contract)){
+            throw new IllegalArgumentException("Contract number '" + contract.getContractNumber() + "' already exists for this insurer");
+        }
+        index(contract);
+        contract.getPolicyHolder().addContract(contract);
+    }
+
+    /**
+     * Adds a child restored from a snapshot to a master that is not registered yet, see {@link #restoreContract}.
+     * The child keeps its restored state; it is not validated like a move.
+     * @throws IllegalArgumentException if either contract is null or belongs to another insurer
+     */
+    protected void restoreChildContract(MasterVehicleContract master, SingleVehicleContract child){
+        if (master == null || child == null || master.getInsurer() != this || child.getInsurer() != this){
+            throw new IllegalArgumentException("Restored contracts must be created for this insurer.");
         }
+        master.addChildContract(child, AUTHORITY);
     }
 
 
     //___________Private helpers___________
+    private void index(AbstractContract contract){
+        if (dueIndex != null) {
+            dueIndex.add(contract);
+        }
+    }
+
+    private static Person payeeOf(SingleVehicleContract contract){
+        return contract.getBeneficiary() != null ? contract.getBeneficiary() : contract.getPolicyHolder();
+    }
+
+    private static boolean isTotalLoss(SingleVehicleContract contract, int expectedDamages){
+        return expectedDamages >= (0.7 * contract.getInsuredVehicle().getOriginalValue());
+    }
+
+    /**
+     * @return 1 if the damages are a total loss and the contract was deactivated, 0 otherwise
+     */
+    private static int deactivateOnTotalLoss(SingleVehicleContract contract, int expectedDamages){
+        boolean totalLoss = isTotalLoss(contract, expectedDamages);
+        contract.endClaim(totalLoss);
+        return totalLoss ? 1 : 0;
+    }
+
+    /**
+     * Charges the first premium of a validated new contract and registers it, without per-call dispatch.
+     */
+    /**
+     * Concludes a contract of a batch that was validated and built before, its event covers only this conclusion.
+     */
+    private void conclude(AbstractContract contract){
+        ContractConcludedEvent event = new ContractConcludedEvent();
+        event.begin();
+        emitConcluded(contract);
+        ContractPaymentData paymentData = contract.getContractPaymentData();
+        emitCharged(contract, paymentData, paymentData.chargeDuePeriods(this.currentTime));
+        this.contracts.add(contract);
+        index(contract);
+        contract.getPolicyHolder().addContract(contract);
+        commit(event, contract);
+    }
+
+    private SingleVehicleContract newSingleVehicleContract(String contractNumber,
+                                                           Person beneficiary,
+                                                           Person policyHolder,
+                                                           int proposedPremium,
+                                                           PremiumPaymentFrequency proposedPaymentFrequency,
+                                                           Vehicle vehicleToInsure){
+        int coverageAmount = vehicleToInsure.getOriginalValue() / 2;
+
+        return new SingleVehicleContract(
+                contractNumber,
+                this,
+                beneficiary,
+                policyHolder,
+                new ContractPaymentData(proposedPremium, proposedPaymentFrequency, this.currentTime, 0),
+                coverageAmount,
+                vehicleToInsure
+        );
+    }
+
+    private TravelContract newTravelContract(String contractNumber,
+                                             Person policyHolder,
+                                             int proposedPremium,
+                                             PremiumPaymentFrequency proposedPaymentFrequency,
+                                             Set<Person> personsToInsure){
+        int coverageAmount = personsToInsure.size() * 10;
+
+        return new TravelContract(
+                contractNumber,
+                this,
+                policyHolder,
+                new ContractPaymentData(proposedPremium, proposedPaymentFrequency, this.currentTime, 0),
+                coverageAmount,
+                personsToInsure
+        );
+    }
+
+    /**
+     * @return number of premium periods charged on the children
+     */
+    private int chargeMasterPremium(MasterVehicleContract contract){
+        PremiumChargeEvent event = new PremiumChargeEvent();
+        event.begin();
+
+        int periodsCharged = 0;
+        long amountCharged = 0;
+        for(SingleVehicleContract childContract : contract.getChildContracts()){
+            ContractPaymentData paymentData = childContract.getContractPaymentData();
+            int periods = paymentData.chargeDuePeriods(this.currentTime);
+            emitCharged(childContract, paymentData, periods);
+            periodsCharged += periods;
+            amountCharged += (long) periods * paymentData.getPremium();
+        }
+
+        if (event.shouldCommit()) {
+            event.set(contract, periodsCharged, amountCharged);
+            event.commit();
+        }
+        return periodsCharged;
+    }
+
+    /**
+     * @return number of premium periods charged on the contract
+     */
+    private int chargeContractPremium(AbstractContract contract){
+        PremiumChargeEvent event = new PremiumChargeEvent();
+        event.begin();
+
+        ContractPaymentData paymentData = contract.getContractPaymentData();
+        int periodsCharged = paymentData.chargeDuePeriods(this.currentTime);
+        emitCharged(contract, paymentData, periodsCharged);
+
+        if (event.shouldCommit()) {
+            event.set(contract, periodsCharged, (long) periodsCharged * paymentData.getPremium());
+            event.commit();
+        }
+        return periodsCharged;
+    }
+
+    private void emitConcluded(AbstractContract contract){
+        if (changes.isObserved()) {
+            changes.emit(new ContractConcluded(currentTime, contract.getContractNumber(), contract.getClass().getSimpleName(),
+                    contract.getPolicyHolder().getId(), contract.getCoverageAmount()));
+        }
+    }
+
+    private void emitCharged(AbstractContract contract, ContractPaymentData paymentData, int periods){
+        if (periods > 0 && changes.isObserved()) {
+            changes.emit(new PremiumCharged(currentTime, contract.getContractNumber(), periods, (long) periods * paymentData.getPremium()));
+        }
+    }
+
+    private void emitClaimPaid(SingleVehicleContract contract, boolean deactivated){
+        changes.emit(new ClaimPaid(currentTime, contract.getContractNumber(), payeeOf(contract).getId(), contract.getCoverageAmount()));
+        if (deactivated) {
+            changes.emit(new ContractDeactivated(currentTime, contract.getContractNumber()));
+        }
+    }
+
+    private void commit(ContractConcludedEvent event, AbstractContract contract){
+        if (event.shouldCommit()) {
+            event.set(contract, 0, 0);
+            event.commit();
+        }
+    }
+
+    private void validateVehicleQuote(String contractNumber,
+                                      Person policyHolder,
+                                      int proposedPremium,
+                                      PremiumPaymentFrequency proposedPaymentFrequency,
+                                      Vehicle vehicleToInsure){
+        //parameters validations
+        validateInsureVehicleParams(policyHolder, proposedPremium, proposedPaymentFrequency, vehicleToInsure);
+
+        //other business validations
+        //unique contract number check
+        validateContractNumber(contractNumber);
+
+        // Calculate annual premium based on payment frequency
+        long annualPremium = (long) (12 / proposedPaymentFrequency.getValueInMonths()) * proposedPremium;
+
+        //paidOutAmount(Person) >= 2% originalValue(Vehicle) check
+        if (annualPremium < (0.02 * vehicleToInsure.getOriginalValue())){
+            throw new IllegalArgumentException("The total annual amount paid by the policyholder must be greater than or equal to 2% of the cost of the vehicle.");
+        }
+    }
+
+    private void validateTravelQuote(String contractNumber,
+                                     Person policyHolder,
+                                     int proposedPremium,
+                                     PremiumPaymentFrequency proposedPaymentFrequency,
+                                     Set<Person> personsToInsure){
+        //unique contract number check
+        validateContractNumber(contractNumber);
+
+        if (policyHolder == null) {
+            throw new IllegalArgumentException("Policy holder cannot be null");
+        }
+
+        if (proposedPremium <= 0) {
+            throw new IllegalArgumentException("Premium must be positive");
+        }
+
+        if (proposedPaymentFrequency == null) {
+            throw new IllegalArgumentException("Premium frequency cannot be null");
+        }
+
+        if (personsToInsure == null || personsToInsure.isEmpty()) {
+            throw new IllegalArgumentException("Insured persons set cannot be null or empty");
+        }
+
+        //amount paid by the policyholder must be greater than or equal to five times the number of insured persons.
+        // Calculate annual premium based on payment frequency
+        long annualPremium = (long) (12 / proposedPaymentFrequency.getValueInMonths()) * proposedPremium;
+
+        // Check if annual premium is at least 5 times the number of insured persons
+        if (annualPremium < 5L * personsToInsure.size()) {
+            throw new IllegalArgumentException("Annual premium must be at least five times the number of insured persons");
+        }
+    }
+
+    /**
+     * Validates a move the way a single move always did: the null checks first, then whether the contracts are active,
+     * then their insurer and last the policyholder; within each step the master comes before the children.
+     * @throws IllegalArgumentException if the master, the list or any child is null
+     * @throws InvalidContractException if the master or any child is inactive or insured by another insurer,
+     *                                  or a child is held by another policyholder
+     */
+    private void validateMove(MasterVehicleContract masterVehicleContract, List<SingleVehicleContract> singleVehicleContracts){
+        //should be not null
+        if (masterVehicleContract == null){
+            throw new IllegalArgumentException("Master Vehicle Contract must not be null");
+        }
+        if (singleVehicleContracts == null){
+            throw new IllegalArgumentException("List of Single Vehicle Contracts must not be null.");
+        }
+        for (SingleVehicleContract singleVehicleContract : singleVehicleContracts){
+            if (singleVehicleContract == null){
+                throw new IllegalArgumentException("Single Vehicle Contract must not be null.");
+            }
+        }
+
+        //should be active
+        if(!masterVehicleContract.isActive()){
+            throw new InvalidContractException("Master Vehicle Contract must be an active contract");
+        }
+        for (SingleVehicleContract singleVehicleContract : singleVehicleContracts){
+            if(!singleVehicleContract.isActive()){
+                throw new InvalidContractException("Single Vehicle Contract must be an active contract");
+            }
+        }
+
+        //must be insured by the insurer to which we are requesting the transfer
+        if(!(masterVehicleContract.getInsurer().equals(this))){
+            throw new InvalidContractException("Master Vehicle Contract must be insured by Insurance Company you are asking for transfer.");
+        }
+        for (SingleVehicleContract singleVehicleContract : singleVehicleContracts){
+            if(!(singleVehicleContract.getInsurer().equals(this))){
+                throw new InvalidContractException("Single Vehicle Contract must be insured by Insurance Company you are asking for transfer.");
+            }
+        }
+
+        //must have the same policyholder
+        for (SingleVehicleContract singleVehicleContract : singleVehicleContracts){
+            if(!(masterVehicleContract.getPolicyHolder().equals(singleVehicleContract.getPolicyHolder()))){
+                throw new InvalidContractException("The policyholder of the single vehicle policy you are applying to transfer to a master vehicle policy should be the same.");
+            }
+        }
+    }
+
+    private void validateUniqueInBatch(Set<String> batchNumbers, String contractNumber){
+        if (!batchNumbers.add(contractNumber)) {
+            throw new IllegalArgumentException("Contract number should be unique inside of the one Insurance Company");
+        }
+    }
+
+    private static int capacityFor(int elements){
+        return (int) (elements / 0.75f) + 1;
+    }
+
     private void validateInsureVehicleParams(Person policyHolder,
                                              int proposedPremium,
                                              PremiumPaymentFrequency proposedPaymentFrequency,
@@ -297,10 +908,8 @@ public class InsuranceCompany {
 
     private void validateContractNumber(String contractNumber){
         //unique contract number check
-        for (AbstractContract contract : contracts){
-            if(contract.getContractNumber().equals(contractNumber)){
-                throw new IllegalArgumentException("Contract number should be unique inside of the one Insurance Company");
-            }
+        if(contracts.get(contractNumber) != null){
+            throw new IllegalArgumentException("Contract number should be unique inside of the one Insurance Company");
         }
     }
 }
@@ -0,0 +1,100 @@
+package company;
+
+import contracts.AbstractContract;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator over the type partitions of a {@link ContractPortfolio}.
+ * Splits whole partitions first and then the array list of the last one, so every half knows its exact size.
+ * Like the array lists themselves it fails fast if the portfolio is modified during the traversal.
+ */
+final class PartitionSpliterator implements Spliterator<AbstractContract> {
+    private static final int CHARACTERISTICS = SIZED | SUBSIZED | DISTINCT | NONNULL;
+
+    //attributes
+    private final List<List<? extends AbstractContract>> partitions;
+    private int index; //partition traversed next
+    private final int fence; //one past the last partition
+    private Spliterator<? extends AbstractContract> current; //started partition at index, null if not started
+
+    //constructor
+    PartitionSpliterator(List<List<? extends AbstractContract>> partitions){
+        this(partitions, 0, partitions.size(), null);
+    }
+
+    private PartitionSpliterator(List<List<? extends AbstractContract>> partitions,
+                                 int index,
+                                 int fence,
+                                 Spliterator<? extends AbstractContract> current){
+        this.partitions = partitions;
+        this.index = index;
+        this.fence = fence;
+        this.current = current;
+    }
+
+
+    //___________Override methods___________
+    @Override
+    public boolean tryAdvance(Consumer<? super AbstractContract> action){
+        while (index < fence) {
+            if (current().tryAdvance(action)) {
+                return true;
+            }
+            current = null;
+            index++;
+        }
+        return false;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super AbstractContract> action){
+        while (index < fence) {
+            current().forEachRemaining(action);
+            current = null;
+            index++;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Spliterator<AbstractContract> trySplit(){
+        if (fence - index > 1) {
+            int middle = (index + fence) >>> 1;
+            PartitionSpliterator prefix = new PartitionSpliterator(partitions, index, middle, current);
+            index = middle;
+            current = null;
+            return prefix;
+        }
+        if (index == fence) {
+            return null;
+        }
+        //only read, so a spliterator of a subtype list is a spliterator of contracts
+        return (Spliterator<AbstractContract>) current().trySplit();
+    }
+
+    @Override
+    public long estimateSize(){
+        long size = 0;
+        for (int i = index; i < fence; i++) {
+            size += (i == index && current != null) ? current.estimateSize() : partitions.get(i).size();
+        }
+        return size;
+    }
+
+    @Override
+    public int characteristics(){
+        return CHARACTERISTICS;
+    }
+
+
+    //___________Private helpers___________
+    private Spliterator<? extends AbstractContract> current(){
+        if (current == null) {
+            current = partitions.get(index).spliterator();
+        }
+        return current;
+    }
+}
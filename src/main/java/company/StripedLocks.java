@@ -0,0 +1,81 @@
+package company;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed set of locks, each guarding all keys that hash to it.
+ * Several stripes are always acquired in ascending index order, so two threads locking
+ * overlapping key sets cannot deadlock.
+ */
+final class StripedLocks {
+    //attributes
+    private final ReentrantLock[] locks;
+    private final int mask;
+
+    /**
+     * @param stripes minimal number of stripes, positive; rounded up to a power of two
+     * @throws IllegalArgumentException if stripes is not positive
+     */
+    //constructor
+    StripedLocks(int stripes){
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Number of stripes must be positive");
+        }
+        int size = Integer.highestOneBit(stripes);
+        if (size < stripes) {
+            size <<= 1;
+        }
+        this.locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    //___________Package methods___________
+    int size(){
+        return locks.length;
+    }
+
+    /**
+     * @param keys keys to lock, null keys are ignored
+     * @return distinct stripe indexes of the keys in ascending order
+     */
+    int[] stripesOf(String... keys){
+        int[] stripes = new int[keys.length];
+        int count = 0;
+        for (String key : keys) {
+            if (key != null) {
+                stripes[count++] = stripeOf(key);
+            }
+        }
+        Arrays.sort(stripes, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || stripes[distinct - 1] != stripes[i]) {
+                stripes[distinct++] = stripes[i];
+            }
+        }
+        return Arrays.copyOf(stripes, distinct);
+    }
+
+    void lock(int[] stripes){
+        for (int stripe : stripes) {
+            locks[stripe].lock();
+        }
+    }
+
+    void unlock(int[] stripes){
+        for (int i = stripes.length - 1; i >= 0; i--) {
+            locks[stripes[i]].unlock();
+        }
+    }
+
+
+    //___________Private helpers___________
+    private int stripeOf(String key){
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,81 @@
+package company;
+
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Portfolio whose lookups and updates may be called from several threads.
+ * Every call holds the portfolio monitor only for the map update itself.
+ * Iterating the portfolio or its partitions is not safe while contracts are being concluded or moved.
+ */
+final class SynchronizedContractPortfolio extends ContractPortfolio {
+
+    //___________Package methods___________
+    @Override
+    synchronized AbstractContract get(String contractNumber){
+        return super.get(contractNumber);
+    }
+
+    @Override
+    synchronized void ensureCapacity(int additionalSingleVehicleContracts, int additionalTravelContracts){
+        super.ensureCapacity(additionalSingleVehicleContracts, additionalTravelContracts);
+    }
+
+    @Override
+    synchronized Map<String, SingleVehicleContract> activeSingleVehicleContractsByPlate(Set<String> licensePlates){
+        return super.activeSingleVehicleContractsByPlate(licensePlates);
+    }
+
+    @Override
+    synchronized List<SingleVehicleContract> singleVehicleContracts(){
+        return super.singleVehicleContracts();
+    }
+
+    @Override
+    synchronized List<TravelContract> travelContracts(){
+        return super.travelContracts();
+    }
+
+    @Override
+    synchronized List<MasterVehicleContract> masterVehicleContracts(){
+        return super.masterVehicleContracts();
+    }
+
+    @Override
+    synchronized List<AbstractContract> otherContracts(){
+        return super.otherContracts();
+    }
+
+
+    //___________Override methods___________
+    @Override
+    public synchronized boolean add(AbstractContract contract){
+        return super.add(contract);
+    }
+
+    @Override
+    public synchronized boolean remove(Object o){
+        return super.remove(o);
+    }
+
+    @Override
+    public synchronized boolean contains(Object o){
+        return super.contains(o);
+    }
+
+    @Override
+    public synchronized int size(){
+        return super.size();
+    }
+
+    @Override
+    public synchronized void clear(){
+        super.clear();
+    }
+}
@@ -0,0 +1,17 @@
+package company;
+
+import objects.Person;
+import payment.PremiumPaymentFrequency;
+
+import java.util.Set;
+
+/**
+ * One proposed travel contract of a batch.
+ * @see InsuranceCompany#insurePersonsBatch
+ */
+public record TravelQuote(String contractNumber,
+                          Person policyHolder,
+                          int proposedPremium,
+                          PremiumPaymentFrequency proposedPaymentFrequency,
+                          Set<Person> personsToInsure) {
+}
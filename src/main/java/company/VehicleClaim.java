@@ -0,0 +1,8 @@
+package company;
+
+/**
+ * Damage reported for one insured vehicle in a catastrophe batch.
+ * @see InsuranceCompany#processClaims
+ */
+public record VehicleClaim(String licensePlate, int expectedDamages) {
+}
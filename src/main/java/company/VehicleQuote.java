@@ -0,0 +1,17 @@
+package company;
+
+import objects.Person;
+import objects.Vehicle;
+import payment.PremiumPaymentFrequency;
+
+/**
+ * One proposed vehicle contract of a batch.
+ * @see InsuranceCompany#insureVehicles
+ */
+public record VehicleQuote(String contractNumber,
+                           Person beneficiary,
+                           Person policyHolder,
+                           int proposedPremium,
+                           PremiumPaymentFrequency proposedPaymentFrequency,
+                           Vehicle vehicleToInsure) {
+}
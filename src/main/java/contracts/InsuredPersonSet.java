@@ -0,0 +1,129 @@
+package contracts;
+
+import objects.Person;
+
+import java.util.*;
+
+/**
+ * Immutable set of the persons insured by a travel contract.
+ * The persons are kept in one array sorted by hash code next to an array of their hash codes,
+ * 8 bytes per person instead of a 32 byte node plus a table slot of a {@link HashSet}.
+ * Lookups are binary searches; {@link #containsAll} of another such set is a single merge.
+ */
+final class InsuredPersonSet extends AbstractSet<Person> {
+    //attributes
+    private final int[] hashes; //ascending
+    private final Person[] persons; //persons[i] has the hash code hashes[i]
+
+    //constructor
+    private InsuredPersonSet(int[] hashes, Person[] persons){
+        this.hashes = hashes;
+        this.persons = persons;
+    }
+
+    //___________Package methods___________
+    /**
+     * @param persons non-null collection without null elements, duplicates are dropped
+     */
+    static InsuredPersonSet copyOf(Collection<Person> persons){
+        if (persons instanceof InsuredPersonSet set) {
+            return set;
+        }
+        Person[] sorted = persons.toArray(new Person[0]);
+        Arrays.sort(sorted, Comparator.comparingInt(Person::hashCode));
+
+        int[] hashes = new int[sorted.length];
+        int size = 0;
+        for (Person person : sorted) {
+            int hash = person.hashCode();
+            if (!containsInRun(hashes, sorted, size, hash, person)) {
+                hashes[size] = hash;
+                sorted[size++] = person;
+            }
+        }
+        return size == sorted.length
+                ? new InsuredPersonSet(hashes, sorted)
+                : new InsuredPersonSet(Arrays.copyOf(hashes, size), Arrays.copyOf(sorted, size));
+    }
+
+
+    //___________Override methods___________
+    @Override
+    public boolean contains(Object o){
+        if (!(o instanceof Person person)) {
+            return false;
+        }
+        int hash = person.hashCode();
+        int index = Arrays.binarySearch(hashes, hash);
+        return index >= 0 && runContains(firstOfRun(index, hash), hash, person);
+    }
+
+    @Override
+    public boolean containsAll(Collection<?> c){
+        if (!(c instanceof InsuredPersonSet other)) {
+            return super.containsAll(c);
+        }
+        //both arrays are sorted by hash code, walk them side by side
+        int index = 0;
+        for (int j = 0; j < other.persons.length; j++) {
+            int hash = other.hashes[j];
+            while (index < hashes.length && hashes[index] < hash) {
+                index++;
+            }
+            if (index == hashes.length || !runContains(index, hash, other.persons[j])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int size(){
+        return persons.length;
+    }
+
+    @Override
+    public Iterator<Person> iterator(){
+        return Spliterators.iterator(spliterator());
+    }
+
+    @Override
+    public Spliterator<Person> spliterator(){
+        return Spliterators.spliterator(persons, Spliterator.DISTINCT | Spliterator.IMMUTABLE | Spliterator.NONNULL);
+    }
+
+    @Override
+    public Object[] toArray(){
+        return persons.clone();
+    }
+
+
+    //___________Private helpers___________
+    private int firstOfRun(int index, int hash){
+        while (index > 0 && hashes[index - 1] == hash) {
+            index--;
+        }
+        return index;
+    }
+
+    private boolean runContains(int from, int hash, Person person){
+        for (int i = from; i < hashes.length && hashes[i] == hash; i++) {
+            if (persons[i].equals(person)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return whether the person is among the first size persons, which end with the run of the given hash code
+     */
+    private static boolean containsInRun(int[] hashes, Person[] persons, int size, int hash, Person person){
+        for (int i = size - 1; i >= 0 && hashes[i] == hash; i--) {
+            if (persons[i].equals(person)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
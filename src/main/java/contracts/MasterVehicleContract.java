@@ -4,7 +4,9 @@ import company.InsuranceCompany;
 import objects.LegalForm;
 import objects.Person;
 
+import java.util.Collections;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
 public class MasterVehicleContract extends AbstractVehicleContract{
@@ -33,14 +35,40 @@ public class MasterVehicleContract extends AbstractVehicleContract{
 
 
     //___________Public methods___________
+    /**
+     * @return read-only view of the child contracts in the order they were added
+     */
     public Set<SingleVehicleContract> getChildContracts() {
-        return childContracts;
+        return Collections.unmodifiableSet(childContracts);
+    }
+
+    /**
+     * Adds a child without any checks, for the insurer once it has validated a move.
+     * Everybody else goes through {@link #requestAdditionOfChildContract}.
+     * @param authority proof that the insurer calls, see {@link InsuranceCompany.Authority}
+     * @throws IllegalArgumentException if contract or authority is null
+     */
+    public void addChildContract(SingleVehicleContract contract, InsuranceCompany.Authority authority) {
+        if (authority == null) {
+            throw new IllegalArgumentException("Only the insurer can add a child contract without a request");
+        }
+        if (contract == null) {
+            throw new IllegalArgumentException("Child contract cannot be null");
+        }
+        childContracts.add(contract);
     }
 
     public void requestAdditionOfChildContract(SingleVehicleContract contract) {
         insurer.moveSingleVehicleContractToMasterVehicleContract(this, contract);
     }
 
+    /**
+     * Asks the insurer to move a whole fleet at once, see {@link InsuranceCompany#moveSingleVehicleContractsToMasterVehicleContract}.
+     */
+    public void requestAdditionOfChildContracts(List<SingleVehicleContract> contracts) {
+        insurer.moveSingleVehicleContractsToMasterVehicleContract(this, contracts);
+    }
+
 
     //___________Private helpers___________
     /**
@@ -5,7 +5,6 @@ import objects.LegalForm;
 import objects.Person;
 import payment.ContractPaymentData;
 
-import java.util.HashSet;
 import java.util.Set;
 
 /**
@@ -38,11 +37,14 @@ public class TravelContract extends AbstractContract {
         // ensure all insured are natural persons
         validateInsuredPersonsAreNatural(personsToInsure);
 
-        //store the insured persons
-        this.insuredPersons = new HashSet<>(personsToInsure);
+        //store the insured persons in a compact immutable set
+        this.insuredPersons = InsuredPersonSet.copyOf(personsToInsure);
     }
 
     //___________Public methods___________
+    /**
+     * @return immutable set of the insured persons
+     */
     public Set<Person> getInsuredPersons(){
         return insuredPersons;
     }
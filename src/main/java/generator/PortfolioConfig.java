@@ -0,0 +1,106 @@
+package generator;
+
+import java.time.LocalDateTime;
+
+/**
+ * Shape of a generated portfolio.
+ * Shares are relative weights of single vehicle, travel and master vehicle contracts.
+ */
+public class PortfolioConfig {
+    //attributes
+    private final int contracts;
+    private final int singleShare;
+    private final int travelShare;
+    private final int masterShare;
+    private final int maxFleetSize;
+    private final int maxTravellers;
+    private final int historyMonths;
+    private final LocalDateTime startTime;
+
+    /**
+     * @param contracts       number of top-level contracts, positive
+     * @param singleShare     weight of single vehicle contracts, non-negative
+     * @param travelShare     weight of travel contracts, non-negative
+     * @param masterShare     weight of master vehicle contracts, non-negative; at least one share is positive
+     * @param maxFleetSize    upper bound of child contracts per master contract, positive
+     * @param maxTravellers   upper bound of insured persons per travel contract, positive
+     * @param historyMonths   months of billing and payments simulated after the contracts are concluded, non-negative
+     * @param startTime       time at which the contracts are concluded, non-null
+     * @throws IllegalArgumentException if any precondition fails
+     */
+    //constructor
+    public PortfolioConfig(int contracts,
+                           int singleShare,
+                           int travelShare,
+                           int masterShare,
+                           int maxFleetSize,
+                           int maxTravellers,
+                           int historyMonths,
+                           LocalDateTime startTime){
+        //validation
+        if (contracts <= 0) {
+            throw new IllegalArgumentException("Number of contracts must be positive");
+        }
+        if (singleShare < 0 || travelShare < 0 || masterShare < 0 || singleShare + travelShare + masterShare == 0) {
+            throw new IllegalArgumentException("Contract shares must be non-negative and at least one must be positive");
+        }
+        if (maxFleetSize <= 0 || maxTravellers <= 0) {
+            throw new IllegalArgumentException("Fleet size and number of travellers must be positive");
+        }
+        if (historyMonths < 0) {
+            throw new IllegalArgumentException("History months cannot be negative");
+        }
+        if (startTime == null) {
+            throw new IllegalArgumentException("Start time cannot be null");
+        }
+
+        this.contracts = contracts;
+        this.singleShare = singleShare;
+        this.travelShare = travelShare;
+        this.masterShare = masterShare;
+        this.maxFleetSize = maxFleetSize;
+        this.maxTravellers = maxTravellers;
+        this.historyMonths = historyMonths;
+        this.startTime = startTime;
+    }
+
+    /**
+     * Mostly single vehicle contracts, some travel contracts and a few small fleets, one year of history.
+     */
+    public static PortfolioConfig mixed(int contracts){
+        return new PortfolioConfig(contracts, 70, 25, 5, 20, 5, 12, LocalDateTime.of(2024, 1, 1, 9, 0));
+    }
+
+    //___________Public methods___________
+    public int getContracts(){
+        return contracts;
+    }
+
+    public int getSingleShare(){
+        return singleShare;
+    }
+
+    public int getTravelShare(){
+        return travelShare;
+    }
+
+    public int getMasterShare(){
+        return masterShare;
+    }
+
+    public int getMaxFleetSize(){
+        return maxFleetSize;
+    }
+
+    public int getMaxTravellers(){
+        return maxTravellers;
+    }
+
+    public int getHistoryMonths(){
+        return historyMonths;
+    }
+
+    public LocalDateTime getStartTime(){
+        return startTime;
+    }
+}
@@ -0,0 +1,204 @@
+package generator;
+
+import company.InsuranceCompany;
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import objects.Person;
+import objects.Vehicle;
+import payment.PremiumPaymentFrequency;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Builds populated insurance companies for load tests and benchmarks.
+ * Persons, vehicles and premiums are drafted in parallel, chunk by chunk, each chunk from its own seeded random.
+ * The drafts are then concluded and billed on one thread in chunk order,
+ * so the same seed gives the same portfolio regardless of the number of threads.
+ */
+public class PortfolioGenerator {
+    private static final int CHUNK_SIZE = 4_096;
+    private static final PremiumPaymentFrequency[] FREQUENCIES = PremiumPaymentFrequency.values();
+
+    //attributes
+    private final long seed;
+    private final int threads;
+
+    /**
+     * @param seed      seed of all random decisions
+     * @param threads   number of threads drafting the portfolio, positive
+     * @throws IllegalArgumentException if threads is not positive
+     */
+    //constructor
+    public PortfolioGenerator(long seed, int threads){
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be positive");
+        }
+        this.seed = seed;
+        this.threads = threads;
+    }
+
+    //___________Public methods___________
+    /**
+     * @param config non-null shape of the portfolio
+     * @return new insurance company with the generated contracts, its clock set to the end of the payment history
+     */
+    public InsuranceCompany generate(PortfolioConfig config){
+        if (config == null) {
+            throw new IllegalArgumentException("Portfolio config cannot be null");
+        }
+
+        InsuranceCompany company = new InsuranceCompany(config.getStartTime());
+        for (List<Draft> chunk : draft(config)) {
+            for (Draft draft : chunk) {
+                draft.conclude(company);
+            }
+        }
+        simulateHistory(company, config);
+        return company;
+    }
+
+
+    //___________Private helpers___________
+    private List<List<Draft>> draft(PortfolioConfig config){
+        int chunks = (config.getContracts() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.submit(() -> IntStream.range(0, chunks).parallel()
+                    .mapToObj(chunk -> draftChunk(config, chunk))
+                    .toList()).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Portfolio generation was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Portfolio generation failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private List<Draft> draftChunk(PortfolioConfig config, int chunk){
+        SplittableRandom random = new SplittableRandom(seed ^ (chunk * 0x9E3779B97F4A7C15L));
+        int from = chunk * CHUNK_SIZE;
+        int to = Math.min(from + CHUNK_SIZE, config.getContracts());
+        int totalShare = config.getSingleShare() + config.getTravelShare() + config.getMasterShare();
+
+        List<Draft> drafts = new ArrayList<>(to - from);
+        for (int index = from; index < to; index++) {
+            int pick = random.nextInt(totalShare);
+            if (pick < config.getSingleShare()) {
+                Person beneficiary = random.nextInt(10) < 3 ? new Person(SyntheticData.birthNumber(random)) : null;
+                drafts.add(new SingleDraft("S" + index, beneficiary, naturalPerson(random), vehicle(random)));
+            } else if (pick < config.getSingleShare() + config.getTravelShare()) {
+                Set<Person> travellers = new LinkedHashSet<>();
+                for (int i = 1 + random.nextInt(config.getMaxTravellers()); i > 0; i--) {
+                    travellers.add(naturalPerson(random));
+                }
+                drafts.add(new TravelDraft("T" + index, naturalPerson(random), travellers, frequency(random)));
+            } else {
+                Person fleetOwner = new Person(SyntheticData.registrationNumber(index));
+                List<VehicleDraft> fleet = new ArrayList<>();
+                for (int i = 1 + random.nextInt(config.getMaxFleetSize()); i > 0; i--) {
+                    fleet.add(vehicle(random));
+                }
+                drafts.add(new MasterDraft("M" + index, fleetOwner, fleet));
+            }
+        }
+        return drafts;
+    }
+
+    private static Person naturalPerson(SplittableRandom random){
+        return new Person(random.nextInt(10) == 0 ? SyntheticData.oldBirthNumber(random) : SyntheticData.birthNumber(random));
+    }
+
+    private static VehicleDraft vehicle(SplittableRandom random){
+        Vehicle vehicle = new Vehicle(SyntheticData.licensePlate(random), SyntheticData.vehicleValue(random));
+        PremiumPaymentFrequency frequency = frequency(random);
+        int premium = SyntheticData.minimalVehiclePremium(vehicle.getOriginalValue(), 12 / frequency.getValueInMonths())
+                + random.nextInt(20);
+        return new VehicleDraft(vehicle, frequency, premium);
+    }
+
+    private static PremiumPaymentFrequency frequency(SplittableRandom random){
+        return FREQUENCIES[random.nextInt(FREQUENCIES.length)];
+    }
+
+    /**
+     * Moves the clock month by month, bills every contract and lets most policyholders settle their balance.
+     */
+    private void simulateHistory(InsuranceCompany company, PortfolioConfig config){
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int month = 1; month <= config.getHistoryMonths(); month++) {
+            company.setCurrentTime(config.getStartTime().plusMonths(month));
+            company.chargePremiumsOnContracts();
+            for (AbstractContract contract : company.getContracts()) {
+                if (random.nextInt(10) < 8 && contract.isActive()) {
+                    settle(contract);
+                }
+            }
+        }
+    }
+
+    private static void settle(AbstractContract contract){
+        long balance = 0;
+        if (contract instanceof MasterVehicleContract master) {
+            for (SingleVehicleContract child : master.getChildContracts()) {
+                if (child.isActive()) {
+                    balance += Math.max(child.getContractPaymentData().getOutstandingBalance(), 0);
+                }
+            }
+        } else {
+            balance = contract.getContractPaymentData().getOutstandingBalance();
+        }
+        if (balance > 0) {
+            contract.pay(Math.toIntExact(balance));
+        }
+    }
+
+
+    //___________Drafts___________
+    private interface Draft {
+        void conclude(InsuranceCompany company);
+    }
+
+    private record VehicleDraft(Vehicle vehicle, PremiumPaymentFrequency frequency, int premium) {
+    }
+
+    private record SingleDraft(String contractNumber, Person beneficiary, Person policyHolder, VehicleDraft vehicle) implements Draft {
+        @Override
+        public void conclude(InsuranceCompany company){
+            company.insureVehicle(contractNumber, beneficiary, policyHolder,
+                    vehicle.premium(), vehicle.frequency(), vehicle.vehicle());
+        }
+    }
+
+    private record TravelDraft(String contractNumber, Person policyHolder, Set<Person> travellers,
+                               PremiumPaymentFrequency frequency) implements Draft {
+        @Override
+        public void conclude(InsuranceCompany company){
+            int periodsPerYear = 12 / frequency.getValueInMonths();
+            int premium = (5 * travellers.size() + periodsPerYear - 1) / periodsPerYear;
+            company.insurePersons(contractNumber, policyHolder, premium, frequency, travellers);
+        }
+    }
+
+    private record MasterDraft(String contractNumber, Person fleetOwner, List<VehicleDraft> fleet) implements Draft {
+        @Override
+        public void conclude(InsuranceCompany company){
+            MasterVehicleContract master = company.createMasterVehicleContract(contractNumber, null, fleetOwner);
+            for (int i = 0; i < fleet.size(); i++) {
+                VehicleDraft vehicle = fleet.get(i);
+                SingleVehicleContract child = company.insureVehicle(contractNumber + "-" + i, null, fleetOwner,
+                        vehicle.premium(), vehicle.frequency(), vehicle.vehicle());
+                company.moveSingleVehicleContractToMasterVehicleContract(master, child);
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package generator;
+
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+
+/**
+ * Seeded generators for identifiers that pass the domain validations.
+ */
+public final class SyntheticData {
+    private static final char[] PLATE_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789".toCharArray();
+
+    private SyntheticData(){
+    }
+
+    /**
+     * @return random 10-digit birth number (born 1954 - 2053) whose alternating digit sum is divisible by 11
+     */
+    public static String birthNumber(SplittableRandom random){
+        while (true) {
+            LocalDate birthDate = LocalDate.of(1954, 1, 1).plusDays(random.nextInt(36_500));
+            int month = birthDate.getMonthValue() + (random.nextBoolean() ? 50 : 0);
+            int[] digits = {
+                    birthDate.getYear() % 100 / 10, birthDate.getYear() % 10,
+                    month / 10, month % 10,
+                    birthDate.getDayOfMonth() / 10, birthDate.getDayOfMonth() % 10,
+                    random.nextInt(10), random.nextInt(10), random.nextInt(10), 0
+            };
+            int sum = 0;
+            for (int i = 0; i < 9; i++) {
+                sum += ((i % 2 == 0) ? 1 : -1) * digits[i];
+            }
+            //last digit has a negative weight, so it has to equal the partial sum modulo 11
+            int checkDigit = Math.floorMod(sum, 11);
+            if (checkDigit == 10) {
+                continue;
+            }
+            digits[9] = checkDigit;
+            return toString(digits);
+        }
+    }
+
+    /**
+     * @return random 9-digit birth number (born 1900 - 1953), these carry no checksum
+     */
+    public static String oldBirthNumber(SplittableRandom random){
+        LocalDate birthDate = LocalDate.of(1900, 1, 1).plusDays(random.nextInt(19_700));
+        int month = birthDate.getMonthValue() + (random.nextBoolean() ? 50 : 0);
+        return String.format("%02d%02d%02d%03d", birthDate.getYear() % 100, month, birthDate.getDayOfMonth(), random.nextInt(1000));
+    }
+
+    /**
+     * @return 8-digit registration number derived from index, unique for index below 10^8
+     */
+    public static String registrationNumber(long index){
+        return String.format("%08d", index % 100_000_000L);
+    }
+
+    /**
+     * @return random license plate of 7 chars A-Z or 0-9
+     */
+    public static String licensePlate(SplittableRandom random){
+        char[] plate = new char[7];
+        for (int i = 0; i < plate.length; i++) {
+            plate[i] = PLATE_CHARS[random.nextInt(PLATE_CHARS.length)];
+        }
+        return new String(plate);
+    }
+
+    /**
+     * @return vehicle value between 2 000 and 80 000
+     */
+    public static int vehicleValue(SplittableRandom random){
+        return 2_000 + random.nextInt(78_001);
+    }
+
+    /**
+     * @return smallest premium per period that passes the 2% of vehicle value rule
+     */
+    public static int minimalVehiclePremium(int vehicleValue, int periodsPerYear){
+        return (int) Math.ceil(0.02 * vehicleValue / periodsPerYear);
+    }
+
+    private static String toString(int[] digits){
+        char[] chars = new char[digits.length];
+        for (int i = 0; i < digits.length; i++) {
+            chars[i] = (char) ('0' + digits[i]);
+        }
+        return new String(chars);
+    }
+}
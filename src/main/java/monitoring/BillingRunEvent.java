@@ -0,0 +1,23 @@
+package monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("monitoring.BillingRunEvent")
+@Label("Billing Run")
+@Description("Premiums were charged on all active contracts of an insurer.")
+@Category("Insurance")
+@Enabled(false)
+@StackTrace(false)
+public class BillingRunEvent extends Event {
+    @Label("Contracts Billed")
+    public int contractsBilled;
+
+    @Label("Periods Charged")
+    public long periodsCharged;
+}
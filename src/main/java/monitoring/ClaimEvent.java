@@ -0,0 +1,16 @@
+package monitoring;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("monitoring.ClaimEvent")
+@Label("Claim")
+@Description("A claim was paid out on a travel or single vehicle contract.")
+public class ClaimEvent extends ContractEvent {
+    @Label("Persons Paid")
+    public int personsPaid;
+
+    @Label("Deactivated")
+    public boolean deactivated;
+}
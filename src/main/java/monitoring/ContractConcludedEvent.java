@@ -0,0 +1,11 @@
+package monitoring;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("monitoring.ContractConcludedEvent")
+@Label("Contract Concluded")
+@Description("A contract was concluded or a single vehicle contract was moved to a master contract.")
+public class ContractConcludedEvent extends ContractEvent {
+}
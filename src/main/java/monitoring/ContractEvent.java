@@ -0,0 +1,45 @@
+package monitoring;
+
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+import jdk.jfr.Category;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Common fields of the flight recorder events emitted for one contract.
+ * Disabled by default; enable e.g. with {@code -XX:StartFlightRecording:+monitoring.PaymentEvent#enabled=true}.
+ * Callers fill the fields only after {@link #shouldCommit()}, so a disabled event costs nothing.
+ */
+@Category("Insurance")
+@Enabled(false)
+@StackTrace(false)
+public abstract class ContractEvent extends Event {
+    @Label("Contract Number")
+    String contractNumber;
+
+    @Label("Contract Type")
+    String contractType;
+
+    @Label("Periods Charged")
+    int periodsCharged;
+
+    @Label("Amount Distributed")
+    long amountDistributed;
+
+    @Label("Child Count")
+    int childCount;
+
+    /**
+     * Fills the common fields from the contract; child count is taken from master contracts.
+     */
+    public void set(AbstractContract contract, int periodsCharged, long amountDistributed){
+        this.contractNumber = contract.getContractNumber();
+        this.contractType = contract.getClass().getSimpleName();
+        this.periodsCharged = periodsCharged;
+        this.amountDistributed = amountDistributed;
+        this.childCount = contract instanceof MasterVehicleContract master ? master.getChildContracts().size() : 0;
+    }
+}
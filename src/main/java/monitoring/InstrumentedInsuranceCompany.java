@@ -0,0 +1,221 @@
+package monitoring;
+
+import company.BillingRun;
+import company.ClaimReport;
+import company.InsuranceCompany;
+import company.TravelQuote;
+import company.VehicleClaim;
+import company.VehicleQuote;
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import objects.Person;
+import objects.Vehicle;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Insurer that records counters, rejections and latencies of its operations and of its payment handler.
+ */
+public class InstrumentedInsuranceCompany extends InsuranceCompany {
+    //attributes
+    private final InsuranceMetrics metrics;
+
+    /**
+     * @param metrics non-null metrics to record into
+     * @throws IllegalArgumentException if currentTime or metrics is null
+     */
+    //constructor
+    public InstrumentedInsuranceCompany(LocalDateTime currentTime, InsuranceMetrics metrics){
+        super(currentTime, insurer -> new InstrumentedPaymentHandler(insurer, metrics));
+        if (metrics == null) {
+            throw new IllegalArgumentException("Metrics cannot be null");
+        }
+        this.metrics = metrics;
+    }
+
+    //___________Public methods___________
+    public InsuranceMetrics getMetrics(){
+        return metrics;
+    }
+
+
+    //___________Override methods___________
+    @Override
+    public SingleVehicleContract insureVehicle(String contractNumber,
+                                               Person beneficiary,
+                                               Person policyHolder,
+                                               int proposedPremium,
+                                               PremiumPaymentFrequency proposedPaymentFrequency,
+                                               Vehicle vehicleToInsure){
+        long start = metrics.startTimer(MeteredOperation.INSURE_VEHICLE);
+        try {
+            SingleVehicleContract contract = super.insureVehicle(contractNumber, beneficiary, policyHolder, proposedPremium, proposedPaymentFrequency, vehicleToInsure);
+            metrics.contractConcluded(contract);
+            metrics.stopTimer(MeteredOperation.INSURE_VEHICLE, start);
+            return contract;
+        } catch (RuntimeException e) {
+            metrics.rejected(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public TravelContract insurePersons(String contractNumber,
+                                        Person policyHolder,
+                                        int proposedPremium,
+                                        PremiumPaymentFrequency proposedPaymentFrequency,
+                                        Set<Person> personsToInsure){
+        long start = metrics.startTimer(MeteredOperation.INSURE_PERSONS);
+        try {
+            TravelContract contract = super.insurePersons(contractNumber, policyHolder, proposedPremium, proposedPaymentFrequency, personsToInsure);
+            metrics.contractConcluded(contract);
+            metrics.stopTimer(MeteredOperation.INSURE_PERSONS, start);
+            return contract;
+        } catch (RuntimeException e) {
+            metrics.rejected(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<SingleVehicleContract> insureVehicles(List<VehicleQuote> quotes){
+        long start = metrics.startTimer(MeteredOperation.INSURE_VEHICLES);
+        try {
+            List<SingleVehicleContract> contracts = super.insureVehicles(quotes);
+            contracts.forEach(metrics::contractConcluded);
+            metrics.stopTimer(MeteredOperation.INSURE_VEHICLES, start);
+            return contracts;
+        } catch (RuntimeException e) {
+            metrics.rejected(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<TravelContract> insurePersonsBatch(List<TravelQuote> quotes){
+        long start = metrics.startTimer(MeteredOperation.INSURE_PERSONS_BATCH);
+        try {
+            List<TravelContract> contracts = super.insurePersonsBatch(quotes);
+            contracts.forEach(metrics::contractConcluded);
+            metrics.stopTimer(MeteredOperation.INSURE_PERSONS_BATCH, start);
+            return contracts;
+        } catch (RuntimeException e) {
+            metrics.rejected(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public MasterVehicleContract createMasterVehicleContract(String contractNumber,
+                                                             Person beneficiary,
+                                                             Person policyHolder){
+        long start = metrics.startTimer(MeteredOperation.CREATE_MASTER_VEHICLE_CONTRACT);
+        try {
+            MasterVehicleContract contract = super.createMasterVehicleContract(contractNumber, beneficiary, policyHolder);
+            metrics.contractConcluded(contract);
+            metrics.stopTimer(MeteredOperation.CREATE_MASTER_VEHICLE_CONTRACT, start);
+            return contract;
+        } catch (RuntimeException e) {
+            metrics.rejected(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void moveSingleVehicleContractToMasterVehicleContract(MasterVehicleContract masterVehicleContract, SingleVehicleContract singleVehicleContract){
+        long start = metrics.startTimer(MeteredOperation.MOVE_TO_MASTER_VEHICLE_CONTRACT);
+        try {
+            super.moveSingleVehicleContractToMasterVehicleContract(masterVehicleContract, singleVehicleContract);
+            metrics.stopTimer(MeteredOperation.MOVE_TO_MASTER_VEHICLE_CONTRACT, start);
+        } catch (RuntimeException e) {
+            metrics.rejected(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void moveSingleVehicleContractsToMasterVehicleContract(MasterVehicleContract masterVehicleContract, List<SingleVehicleContract> singleVehicleContracts){
+        long start = metrics.startTimer(MeteredOperation.MOVE_FLEET_TO_MASTER_VEHICLE_CONTRACT);
+        try {
+            super.moveSingleVehicleContractsToMasterVehicleContract(masterVehicleContract, singleVehicleContracts);
+            metrics.stopTimer(MeteredOperation.MOVE_FLEET_TO_MASTER_VEHICLE_CONTRACT, start);
+        } catch (RuntimeException e) {
+            metrics.rejected(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void chargePremiumsOnContracts(){
+        long start = metrics.startTimer(MeteredOperation.CHARGE_PREMIUMS_ON_CONTRACTS);
+        super.chargePremiumsOnContracts();
+        metrics.stopTimer(MeteredOperation.CHARGE_PREMIUMS_ON_CONTRACTS, start);
+    }
+
+    @Override
+    public BillingRun chargeDuePremiums(){
+        long start = metrics.startTimer(MeteredOperation.CHARGE_DUE_PREMIUMS);
+        BillingRun run = super.chargeDuePremiums();
+        metrics.stopTimer(MeteredOperation.CHARGE_DUE_PREMIUMS, start);
+        return run;
+    }
+
+    @Override
+    public void chargePremiumOnContract(MasterVehicleContract contract){
+        long start = metrics.startTimer(MeteredOperation.CHARGE_PREMIUM_ON_CONTRACT);
+        super.chargePremiumOnContract(contract);
+        metrics.stopTimer(MeteredOperation.CHARGE_PREMIUM_ON_CONTRACT, start);
+    }
+
+    @Override
+    public void chargePremiumOnContract(AbstractContract contract){
+        long start = metrics.startTimer(MeteredOperation.CHARGE_PREMIUM_ON_CONTRACT);
+        super.chargePremiumOnContract(contract);
+        metrics.stopTimer(MeteredOperation.CHARGE_PREMIUM_ON_CONTRACT, start);
+    }
+
+    @Override
+    public void processClaim(TravelContract travelContract, Set<Person> affectedPersons){
+        long start = metrics.startTimer(MeteredOperation.PROCESS_TRAVEL_CLAIM);
+        try {
+            super.processClaim(travelContract, affectedPersons);
+            metrics.claimPaid();
+            metrics.stopTimer(MeteredOperation.PROCESS_TRAVEL_CLAIM, start);
+        } catch (RuntimeException e) {
+            metrics.rejected(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void processClaim(SingleVehicleContract singleVehicleContract, int expectedDamages){
+        long start = metrics.startTimer(MeteredOperation.PROCESS_VEHICLE_CLAIM);
+        try {
+            super.processClaim(singleVehicleContract, expectedDamages);
+            metrics.claimPaid();
+            metrics.stopTimer(MeteredOperation.PROCESS_VEHICLE_CLAIM, start);
+        } catch (RuntimeException e) {
+            metrics.rejected(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public ClaimReport processClaims(List<VehicleClaim> claims){
+        long start = metrics.startTimer(MeteredOperation.PROCESS_CATASTROPHE_CLAIMS);
+        try {
+            ClaimReport report = super.processClaims(claims);
+            metrics.claimsPaid(report.getClaimsProcessed());
+            metrics.stopTimer(MeteredOperation.PROCESS_CATASTROPHE_CLAIMS, start);
+            return report;
+        } catch (RuntimeException e) {
+            metrics.rejected(e);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package monitoring;
+
+import company.InsuranceCompany;
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+import payment.PaymentHandler;
+
+/**
+ * Payment handler that records payments, rejections and latencies.
+ */
+public class InstrumentedPaymentHandler extends PaymentHandler {
+    //attributes
+    private final InsuranceMetrics metrics;
+
+    //constructor
+    public InstrumentedPaymentHandler(InsuranceCompany insurer, InsuranceMetrics metrics){
+        super(insurer);
+        if (metrics == null) {
+            throw new IllegalArgumentException("Metrics cannot be null");
+        }
+        this.metrics = metrics;
+    }
+
+
+    //___________Override methods___________
+    @Override
+    public void pay(MasterVehicleContract contract, int amount){
+        long start = metrics.startTimer(MeteredOperation.PAY_MASTER_VEHICLE_CONTRACT);
+        try {
+            super.pay(contract, amount);
+            metrics.paymentApplied();
+            metrics.stopTimer(MeteredOperation.PAY_MASTER_VEHICLE_CONTRACT, start);
+        } catch (RuntimeException e) {
+            metrics.rejected(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void pay(AbstractContract contract, int amount){
+        long start = metrics.startTimer(MeteredOperation.PAY);
+        try {
+            super.pay(contract, amount);
+            metrics.paymentApplied();
+            metrics.stopTimer(MeteredOperation.PAY, start);
+        } catch (RuntimeException e) {
+            metrics.rejected(e);
+            throw e;
+        }
+    }
+}
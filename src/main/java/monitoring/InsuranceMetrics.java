@@ -0,0 +1,213 @@
+package monitoring;
+
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+import contracts.TravelContract;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanRegistrationException;
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Counters and latency histograms of one insurer.
+ * Counters are striped {@link LongAdder}s and histograms record per thread,
+ * so recording is lock-free and does not allocate on the hot path.
+ * Counters see every call. Latencies of {@linkplain MeteredOperation#isSampled() sampled} operations are recorded
+ * for a random sample of one in {@code latencySampling} calls only: reading the clock twice costs more than
+ * the cheapest operations themselves.
+ * Rejections are keyed by the rule they broke: the exception class and its message with the values in it,
+ * such as contract numbers, replaced by placeholders. Once {@value #MAX_REJECTION_RULES} distinct rules
+ * were seen, new ones are counted under {@value #OTHER_RULE}.
+ */
+public class InsuranceMetrics implements InsuranceMetricsMXBean {
+    public static final int DEFAULT_LATENCY_SAMPLING = 64;
+    /**
+     * Start of a call that is not timed, see {@link #startTimer}.
+     */
+    public static final long NOT_TIMED = Long.MIN_VALUE;
+    private static final int MAX_REJECTION_RULES = 256;
+    private static final String OTHER_RULE = "(other)";
+    private static final Pattern QUOTED_VALUE = Pattern.compile("'[^']*'");
+    private static final Pattern VALUE = Pattern.compile("[^\\s']*\\d[^\\s']*");
+
+    //attributes
+    private final LongAdder singleVehicleContracts;
+    private final LongAdder travelContracts;
+    private final LongAdder masterVehicleContracts;
+    private final LongAdder payments;
+    private final LongAdder claims;
+    private final Map<String, LongAdder> rejections;
+    private final LatencyHistogram[] latencies; //indexed by MeteredOperation ordinal
+    private final int samplingMask;
+
+    //constructor
+    public InsuranceMetrics(){
+        this(DEFAULT_LATENCY_SAMPLING);
+    }
+
+    /**
+     * @param latencySampling one in how many calls of a sampled operation is timed, a power of two; 1 times every call
+     * @throws IllegalArgumentException if latencySampling is not a positive power of two
+     */
+    public InsuranceMetrics(int latencySampling){
+        if (latencySampling <= 0 || Integer.bitCount(latencySampling) != 1) {
+            throw new IllegalArgumentException("Latency sampling must be a positive power of two");
+        }
+        this.samplingMask = latencySampling - 1;
+        this.singleVehicleContracts = new LongAdder();
+        this.travelContracts = new LongAdder();
+        this.masterVehicleContracts = new LongAdder();
+        this.payments = new LongAdder();
+        this.claims = new LongAdder();
+        this.rejections = new ConcurrentHashMap<>();
+        this.latencies = new LatencyHistogram[MeteredOperation.values().length];
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new LatencyHistogram();
+        }
+    }
+
+    //___________Recording___________
+    public void contractConcluded(AbstractContract contract){
+        if (contract instanceof MasterVehicleContract) {
+            masterVehicleContracts.increment();
+        } else if (contract instanceof TravelContract) {
+            travelContracts.increment();
+        } else {
+            singleVehicleContracts.increment();
+        }
+    }
+
+    public void paymentApplied(){
+        payments.increment();
+    }
+
+    public void claimPaid(){
+        claims.increment();
+    }
+
+    public void claimsPaid(int count){
+        claims.add(count);
+    }
+
+    public void rejected(RuntimeException e){
+        String rule = ruleOf(e);
+        LongAdder counter = rejections.get(rule);
+        if (counter == null) {
+            rule = rejections.size() < MAX_REJECTION_RULES ? rule : OTHER_RULE;
+            counter = rejections.computeIfAbsent(rule, key -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    /**
+     * @return start time of the call if it is timed, {@link #NOT_TIMED} otherwise
+     */
+    public long startTimer(MeteredOperation operation){
+        if (operation.isSampled() && samplingMask != 0 && (ThreadLocalRandom.current().nextInt() & samplingMask) != 0) {
+            return NOT_TIMED;
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Records the latency of a call started by {@link #startTimer}, if it was timed.
+     */
+    public void stopTimer(MeteredOperation operation, long start){
+        if (start != NOT_TIMED) {
+            latencies[operation.ordinal()].record(System.nanoTime() - start);
+        }
+    }
+
+    public void recordLatency(MeteredOperation operation, long nanos){
+        latencies[operation.ordinal()].record(nanos);
+    }
+
+    public LatencySummary getLatency(MeteredOperation operation){
+        return latencies[operation.ordinal()].summary();
+    }
+
+
+    //___________JMX___________
+    /**
+     * Registers the metrics with the platform MBean server as {@code insurance:type=Metrics,name=<name>}.
+     * @throws IllegalArgumentException if the name is invalid or already registered
+     */
+    public ObjectName register(String name){
+        try {
+            ObjectName objectName = new ObjectName("insurance:type=Metrics,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            return objectName;
+        } catch (MalformedObjectNameException | InstanceAlreadyExistsException e) {
+            throw new IllegalArgumentException("Metrics cannot be registered as " + name, e);
+        } catch (MBeanRegistrationException | NotCompliantMBeanException e) {
+            throw new IllegalStateException("Metrics cannot be registered", e);
+        }
+    }
+
+    public void unregister(ObjectName objectName){
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (InstanceNotFoundException | MBeanRegistrationException e) {
+            throw new IllegalArgumentException("Metrics are not registered as " + objectName, e);
+        }
+    }
+
+    @Override
+    public Map<String, Long> getContractsConcluded(){
+        Map<String, Long> concluded = new LinkedHashMap<>();
+        concluded.put("SingleVehicleContract", singleVehicleContracts.sum());
+        concluded.put("TravelContract", travelContracts.sum());
+        concluded.put("MasterVehicleContract", masterVehicleContracts.sum());
+        return concluded;
+    }
+
+    @Override
+    public long getPayments(){
+        return payments.sum();
+    }
+
+    @Override
+    public long getClaims(){
+        return claims.sum();
+    }
+
+    @Override
+    public Map<String, Long> getRejections(){
+        Map<String, Long> snapshot = new LinkedHashMap<>();
+        rejections.forEach((rule, counter) -> snapshot.put(rule, counter.sum()));
+        return snapshot;
+    }
+
+    @Override
+    public Map<String, LatencySummary> getLatencies(){
+        Map<String, LatencySummary> snapshot = new LinkedHashMap<>();
+        for (MeteredOperation operation : MeteredOperation.values()) {
+            snapshot.put(operation.name(), getLatency(operation));
+        }
+        return snapshot;
+    }
+
+
+    //___________Private helpers___________
+    /**
+     * @return e.g. {@code IllegalArgumentException: Contract number '?' already exists for this insurer}
+     */
+    private static String ruleOf(RuntimeException e){
+        String name = e.getClass().getSimpleName();
+        if (e.getMessage() == null) {
+            return name;
+        }
+        String template = QUOTED_VALUE.matcher(e.getMessage()).replaceAll("'?'");
+        return name + ": " + VALUE.matcher(template).replaceAll("#");
+    }
+}
@@ -0,0 +1,27 @@
+package monitoring;
+
+import java.util.Map;
+
+/**
+ * Management interface of {@link InsuranceMetrics}.
+ */
+public interface InsuranceMetricsMXBean {
+    /**
+     * @return concluded contracts by contract type
+     */
+    Map<String, Long> getContractsConcluded();
+
+    long getPayments();
+
+    long getClaims();
+
+    /**
+     * @return rejected requests by the rule that rejected them, the exception class and its message without values
+     */
+    Map<String, Long> getRejections();
+
+    /**
+     * @return latency of successful calls by operation, of a sample of the calls for sampled operations
+     */
+    Map<String, LatencySummary> getLatencies();
+}
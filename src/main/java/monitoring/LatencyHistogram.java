@@ -0,0 +1,111 @@
+package monitoring;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Log-linear latency histogram in the style of HdrHistogram: every power of two is split into
+ * 16 sub-buckets, so a recorded value is reported with at most about 6% error.
+ * Threads record into one of several striped bucket arrays picked by thread id, with atomic adds,
+ * so recording takes no lock, allocates nothing and rarely contends.
+ * Stripes rather than true per-thread arrays keep the footprint bounded with many short-lived threads.
+ * The stripes are merged when a summary is read.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = 64 * SUB_BUCKETS;
+    private static final int SUM = BUCKETS; //slot of the sum of recorded values
+    private static final int MAX = BUCKETS + 1; //slot of the maximal recorded value
+
+    private static final int STRIPES = Integer.highestOneBit(Runtime.getRuntime().availableProcessors()) * 2;
+
+    //attributes
+    private final AtomicLongArray[] stripes;
+
+    //constructor
+    public LatencyHistogram(){
+        this.stripes = new AtomicLongArray[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new AtomicLongArray(BUCKETS + 2);
+        }
+    }
+
+    //___________Public methods___________
+    /**
+     * @param nanos non-negative latency, negative values are recorded as 0
+     */
+    public void record(long nanos){
+        long value = Math.max(nanos, 0);
+        AtomicLongArray counts = stripes[(int) Thread.currentThread().getId() & (STRIPES - 1)];
+        counts.getAndIncrement(indexOf(value));
+        counts.getAndAdd(SUM, value);
+        long max = counts.get(MAX);
+        while (value > max && !counts.compareAndSet(MAX, max, value)) {
+            max = counts.get(MAX);
+        }
+    }
+
+    /**
+     * @return merged summary of all values recorded so far by all threads
+     */
+    public LatencySummary summary(){
+        long[] merged = new long[BUCKETS];
+        long sum = 0;
+        long max = 0;
+        for (AtomicLongArray counts : stripes) {
+            for (int i = 0; i < BUCKETS; i++) {
+                merged[i] += counts.get(i);
+            }
+            sum += counts.get(SUM);
+            max = Math.max(max, counts.get(MAX));
+        }
+
+        long count = 0;
+        for (long bucket : merged) {
+            count += bucket;
+        }
+        if (count == 0) {
+            return new LatencySummary(0, 0, 0, 0, 0, 0, 0);
+        }
+        return new LatencySummary(count, sum / count,
+                Math.min(percentile(merged, count, 0.5), max),
+                Math.min(percentile(merged, count, 0.9), max),
+                Math.min(percentile(merged, count, 0.99), max),
+                Math.min(percentile(merged, count, 0.999), max),
+                max);
+    }
+
+
+    //___________Private helpers___________
+    static int indexOf(long value){
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    /**
+     * @return highest value that falls into the bucket
+     */
+    static long highestValueOf(int index){
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    private static long percentile(long[] buckets, long count, double quantile){
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                return highestValueOf(i);
+            }
+        }
+        return highestValueOf(buckets.length - 1);
+    }
+}
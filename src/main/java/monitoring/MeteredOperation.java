@@ -0,0 +1,40 @@
+package monitoring;
+
+/**
+ * Operations of the insurer and its payment handler that have their own latency histogram.
+ * Operations on a single contract take so little time that only a sample of their calls is timed;
+ * batches and billing runs are timed on every call.
+ */
+public enum MeteredOperation {
+    INSURE_VEHICLE(true),
+    INSURE_PERSONS(true),
+    INSURE_VEHICLES(false),
+    INSURE_PERSONS_BATCH(false),
+    CREATE_MASTER_VEHICLE_CONTRACT(true),
+    MOVE_TO_MASTER_VEHICLE_CONTRACT(true),
+    MOVE_FLEET_TO_MASTER_VEHICLE_CONTRACT(false),
+    CHARGE_PREMIUMS_ON_CONTRACTS(false),
+    CHARGE_DUE_PREMIUMS(false),
+    CHARGE_PREMIUM_ON_CONTRACT(true),
+    PAY(true),
+    PAY_MASTER_VEHICLE_CONTRACT(true),
+    PROCESS_TRAVEL_CLAIM(true),
+    PROCESS_VEHICLE_CLAIM(true),
+    PROCESS_CATASTROPHE_CLAIMS(false);
+
+    //attributes
+    private final boolean sampled;
+
+    //constructor
+    MeteredOperation(boolean sampled){
+        this.sampled = sampled;
+    }
+
+    //___________Public methods___________
+    /**
+     * @return whether only a sample of the calls is timed
+     */
+    public boolean isSampled(){
+        return sampled;
+    }
+}
@@ -0,0 +1,11 @@
+package monitoring;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("monitoring.PaymentEvent")
+@Label("Payment")
+@Description("A payment was distributed over a contract or the children of a master contract.")
+public class PaymentEvent extends ContractEvent {
+}
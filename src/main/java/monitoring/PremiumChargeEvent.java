@@ -0,0 +1,11 @@
+package monitoring;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("monitoring.PremiumChargeEvent")
+@Label("Premium Charge")
+@Description("Due premiums were added to the outstanding balance of a contract.")
+public class PremiumChargeEvent extends ContractEvent {
+}
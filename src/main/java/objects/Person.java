@@ -1,18 +1,32 @@
 package objects;
 
+import company.InsuranceCompany;
 import contracts.AbstractContract;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.time.LocalDate;
-import java.util.HashSet;
-import java.util.LinkedHashSet;
-import java.util.Set;
+import java.util.*;
 
 public class Person {
+    private static final int SMALL_CONTRACTS = 8; //held contracts kept in a plain array up to this count
+    private static final VarHandle PAID_OUT_AMOUNT;
+
+    static {
+        try {
+            PAID_OUT_AMOUNT = MethodHandles.lookup().findVarHandle(Person.class, "paidOutAmount", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     //attributes
     private final String id;
     private final LegalForm legalForm;
-    private int paidOutAmount;
-    private final Set<AbstractContract> contracts;
+    private volatile long paidOutAmount; //only changed by exact compare-and-set additions, payouts may run in parallel
+    //most persons hold one or a few contracts, so a set is only allocated for many:
+    //null, one AbstractContract, an AbstractContract[] of 2 to SMALL_CONTRACTS, or a LinkedHashSet beyond, always in insertion order
+    private Object contracts;
 
     /**
      * @param id        non-null, not empty, final
@@ -33,7 +47,7 @@ public class Person {
 
         this.id=id;
         this.paidOutAmount = 0;
-        this.contracts = new LinkedHashSet<>();
+        this.contracts = null;
     }
 
     //___________Public methods___________
@@ -119,7 +133,7 @@ public class Person {
         return id;
     }
 
-    public int getPaidOutAmount(){
+    public long getPaidOutAmount(){
         return paidOutAmount;
     }
 
@@ -127,8 +141,11 @@ public class Person {
         return legalForm;
     }
 
+    /**
+     * @return read-only view of the held contracts in the order they were added
+     */
     public Set<AbstractContract> getContracts(){
-        return contracts;
+        return new ContractsView();
     }
 
     /**
@@ -140,22 +157,103 @@ public class Person {
         if (contract == null) {
             throw new IllegalArgumentException("Contract can't be null");
         }
-        contracts.add(contract);
+        if (contracts == null) {
+            contracts = contract;
+        } else if (contracts instanceof AbstractContract single) {
+            if (!single.equals(contract)) {
+                contracts = new AbstractContract[]{single, contract};
+            }
+        } else if (contracts instanceof AbstractContract[] small) {
+            if (indexOf(small, contract) >= 0) {
+                return;
+            }
+            if (small.length < SMALL_CONTRACTS) {
+                AbstractContract[] grown = Arrays.copyOf(small, small.length + 1);
+                grown[small.length] = contract;
+                contracts = grown;
+            } else {
+                Set<AbstractContract> set = new LinkedHashSet<>(4 * SMALL_CONTRACTS);
+                Collections.addAll(set, small);
+                set.add(contract);
+                contracts = set;
+            }
+        } else {
+            contractSet().add(contract);
+        }
+    }
+
+    /**
+     * Removes a contract from the set of held contracts when the insurer makes it a child of a master contract.
+     * @param authority proof that the insurer calls, see {@link InsuranceCompany.Authority}
+     * @return true if the contract was held
+     * @throws IllegalArgumentException if authority is null
+     */
+    public boolean removeContract(AbstractContract contract, InsuranceCompany.Authority authority){
+        if (authority == null) {
+            throw new IllegalArgumentException("Only the insurer can remove a held contract");
+        }
+        if (contract == null || contracts == null) {
+            return false;
+        }
+        if (contracts instanceof AbstractContract single) {
+            if (!single.equals(contract)) {
+                return false;
+            }
+            contracts = null;
+            return true;
+        }
+        if (contracts instanceof AbstractContract[] small) {
+            int index = indexOf(small, contract);
+            if (index < 0) {
+                return false;
+            }
+            if (small.length == 2) {
+                contracts = small[1 - index];
+            } else {
+                //copied, so iterators handed out before keep their snapshot
+                AbstractContract[] shrunk = new AbstractContract[small.length - 1];
+                System.arraycopy(small, 0, shrunk, 0, index);
+                System.arraycopy(small, index + 1, shrunk, index, shrunk.length - index);
+                contracts = shrunk;
+            }
+            return true;
+        }
+        return contractSet().remove(contract);
     }
 
     /**
-     * Records a payout for a claim.
+     * Records a payout for a claim; safe to call from several threads at once.
      * @param paidOutAmount must be positive
      * @throws IllegalArgumentException if amount ≤ 0
+     * @throws ArithmeticException      if the total paid out amount would overflow
      */
-    public void payout(int paidOutAmount){
+    public void payout(long paidOutAmount){
         if (paidOutAmount <= 0) {
             throw new IllegalArgumentException("Paid out amount must be positive");
         }
-        this.paidOutAmount += paidOutAmount;
+        long current;
+        long updated;
+        do {
+            current = this.paidOutAmount;
+            updated = Math.addExact(current, paidOutAmount);
+        } while (!PAID_OUT_AMOUNT.weakCompareAndSet(this, current, updated));
     }
 
     //___________Private helpers___________
+    @SuppressWarnings("unchecked")
+    private Set<AbstractContract> contractSet(){
+        return (Set<AbstractContract>) contracts;
+    }
+
+    private static int indexOf(AbstractContract[] small, Object contract){
+        for (int i = 0; i < small.length; i++) {
+            if (small[i].equals(contract)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     /**
      * Validates that the ID is non-null and non-empty.
      */
@@ -175,4 +273,59 @@ public class Person {
             return false;
         }
     }
+
+    /**
+     * Read-only view of the held contracts over whichever representation is current.
+     */
+    private final class ContractsView extends AbstractSet<AbstractContract> {
+        @Override
+        public int size(){
+            if (contracts == null) {
+                return 0;
+            }
+            if (contracts instanceof AbstractContract) {
+                return 1;
+            }
+            if (contracts instanceof AbstractContract[] small) {
+                return small.length;
+            }
+            return contractSet().size();
+        }
+
+        @Override
+        public boolean contains(Object o){
+            if (contracts == null || o == null) {
+                return false;
+            }
+            if (contracts instanceof AbstractContract single) {
+                return single.equals(o);
+            }
+            if (contracts instanceof AbstractContract[] small) {
+                return indexOf(small, o) >= 0;
+            }
+            return contractSet().contains(o);
+        }
+
+        @Override
+        public Iterator<AbstractContract> iterator(){
+            if (contracts == null) {
+                return Collections.emptyIterator();
+            }
+            if (contracts instanceof AbstractContract single) {
+                return Collections.singleton(single).iterator();
+            }
+            if (contracts instanceof AbstractContract[] small) {
+                return Arrays.asList(small).iterator();
+            }
+            return Collections.unmodifiableSet(contractSet()).iterator();
+        }
+
+        @Override
+        public Spliterator<AbstractContract> spliterator(){
+            if (contracts instanceof AbstractContract[] small) {
+                return Spliterators.spliterator(small, Spliterator.DISTINCT | Spliterator.ORDERED | Spliterator.NONNULL);
+            }
+            return Spliterators.spliterator(this, Spliterator.DISTINCT | Spliterator.ORDERED | Spliterator.NONNULL);
+        }
+    }
 }
@@ -0,0 +1,9 @@
+package payment;
+
+import java.time.LocalDateTime;
+
+/**
+ * Balance and next payment time of one contract, read together by {@link ContractPaymentData#snapshot()}.
+ */
+public record BalanceSnapshot(long outstandingBalance, LocalDateTime nextPaymentTime) {
+}
@@ -1,15 +1,43 @@
 package payment;
 
-import objects.Person;
-
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.Set;
+import java.time.LocalTime;
+import java.time.Month;
+import java.time.Year;
 
+/**
+ * Premium, frequency and balance of one contract.
+ * The next payment time is kept as an epoch-month plus day-of-month and time of day,
+ * so advancing it by a billing period and comparing it with the insurer's clock allocate nothing.
+ * <p>
+ * Balance and next payment time are guarded by a version stamp, as a StampedLock would do it without its
+ * per-contract allocation: writers make the stamp odd for a short section without allocation, readers read
+ * optimistically and retry only if the stamp changed meanwhile. Reads therefore never write shared memory,
+ * and a payment and a billing run on one contract never lose each other's update.
+ * The balance is a long changed by exact additions, so it does not overflow silently.
+ */
 public class ContractPaymentData {
+    private static final int EPOCH_YEAR = 1970;
+    private static final VarHandle STAMP;
+
+    static {
+        try {
+            STAMP = MethodHandles.lookup().findVarHandle(ContractPaymentData.class, "stamp", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     private int premium;
     private PremiumPaymentFrequency premiumPaymentFrequency;
-    private LocalDateTime nextPaymentTime;
-    private int outstandingBalance;
+    private int nextPaymentMonth; //months since 1970-01
+    private byte nextPaymentDay; //day-of-month, clamped to the length of nextPaymentMonth
+    private final LocalTime nextPaymentTimeOfDay; //never changes, plusMonths keeps the time of day
+    private long outstandingBalance;
+    private volatile int stamp; //even while stable, odd while a writer changes balance or next payment time
 
     /**
      * @param premium must be > 0
@@ -19,7 +47,7 @@ public class ContractPaymentData {
      * @throws IllegalArgumentException if any precondition fails
      */
     //constructor
-    public ContractPaymentData(int premium, PremiumPaymentFrequency premiumPaymentFrequency, LocalDateTime nextPaymentTime, int outstandingBalance){
+    public ContractPaymentData(int premium, PremiumPaymentFrequency premiumPaymentFrequency, LocalDateTime nextPaymentTime, long outstandingBalance){
         //validation
         validatePremium(premium);
         validatePremiumPaymentFrequency(premiumPaymentFrequency);
@@ -30,7 +58,9 @@ public class ContractPaymentData {
 
         this.premium=premium;
         this.premiumPaymentFrequency=premiumPaymentFrequency;
-        this.nextPaymentTime=nextPaymentTime;
+        this.nextPaymentMonth = toEpochMonth(nextPaymentTime);
+        this.nextPaymentDay = (byte) nextPaymentTime.getDayOfMonth();
+        this.nextPaymentTimeOfDay = nextPaymentTime.toLocalTime();
         this.outstandingBalance=outstandingBalance;
     }
 
@@ -45,12 +75,78 @@ public class ContractPaymentData {
         this.premium=premium;
     }
 
-    public void setOutstandingBalance (int outstandingBalance){
+    public void setOutstandingBalance (long outstandingBalance){
+        int written = beginWrite();
         this.outstandingBalance=outstandingBalance;
+        endWrite(written);
     }
 
-    public int getOutstandingBalance(){
-        return outstandingBalance;
+    public long getOutstandingBalance(){
+        while (true) {
+            int read = beginRead();
+            long balance = outstandingBalance;
+            if (validate(read)) {
+                return balance;
+            }
+        }
+    }
+
+    /**
+     * Atomically adds to the balance: positive amounts are charges, negative amounts are payments.
+     * @return the new balance
+     * @throws ArithmeticException if the balance would overflow, the balance is then unchanged
+     */
+    public long addToOutstandingBalance(long amount){
+        int written = beginWrite();
+        try {
+            outstandingBalance = Math.addExact(outstandingBalance, amount);
+            return outstandingBalance;
+        } finally {
+            endWrite(written);
+        }
+    }
+
+    /**
+     * Charges one premium for every billing period due at time and advances the next payment time past it,
+     * in one write section, so readers see the balance and the next payment time of the same billing state.
+     * @param time non-null point in time, usually the insurer's current time
+     * @return number of premium periods charged
+     * @throws ArithmeticException if the balance would overflow, the periods charged before stay charged
+     */
+    public int chargeDuePeriods(LocalDateTime time){
+        if (!isPaymentDue(time)) {
+            return 0; //nothing due, the usual case of a billing run, stays read-only
+        }
+        int month = toEpochMonth(time);
+        int day = time.getDayOfMonth();
+        LocalTime timeOfDay = time.toLocalTime();
+        int periodsCharged = 0;
+        int written = beginWrite();
+        try {
+            while (isDue(nextPaymentMonth, nextPaymentDay, month, day, timeOfDay)) {
+                outstandingBalance = Math.addExact(outstandingBalance, premium);
+                advanceNextPaymentTime();
+                periodsCharged++;
+            }
+        } finally {
+            endWrite(written);
+        }
+        return periodsCharged;
+    }
+
+    /**
+     * @return balance and next payment time read together, as of one point in time
+     */
+    public BalanceSnapshot snapshot(){
+        while (true) {
+            int read = beginRead();
+            long balance = outstandingBalance;
+            int month = nextPaymentMonth;
+            byte day = nextPaymentDay;
+            if (validate(read)) {
+                return new BalanceSnapshot(balance, toLocalDateTime(month, day));
+            }
+        }
     }
 
     public void setPremiumPaymentFrequency(PremiumPaymentFrequency premiumPaymentFrequency){
@@ -62,16 +158,110 @@ public class ContractPaymentData {
         return premiumPaymentFrequency;
     }
 
+    /**
+     * Materializes the next payment time; prefer {@link #isPaymentDue(LocalDateTime)} on hot paths.
+     */
     public LocalDateTime getNextPaymentTime(){
-        return nextPaymentTime;
+        while (true) {
+            int read = beginRead();
+            int month = nextPaymentMonth;
+            byte day = nextPaymentDay;
+            if (validate(read)) {
+                return toLocalDateTime(month, day);
+            }
+        }
     }
 
+    /**
+     * @param time non-null point in time, usually the insurer's current time
+     * @return true if the next payment time is before or equal to time
+     */
+    public boolean isPaymentDue(LocalDateTime time){
+        int month = toEpochMonth(time);
+        int day = time.getDayOfMonth();
+        LocalTime timeOfDay = time.toLocalTime();
+        while (true) {
+            int read = beginRead();
+            boolean due = isDue(nextPaymentMonth, nextPaymentDay, month, day, timeOfDay);
+            if (validate(read)) {
+                return due;
+            }
+        }
+    }
+
+    /**
+     * Same result as {@code getNextPaymentTime().plusMonths(frequency in months)}:
+     * the day-of-month is clamped to the last valid day of the new month.
+     */
     public void updateNextPaymentTime(){
-        nextPaymentTime = nextPaymentTime.plusMonths(premiumPaymentFrequency.getValueInMonths());
+        int written = beginWrite();
+        advanceNextPaymentTime();
+        endWrite(written);
     }
 
 
     //___________Private helpers___________
+    /**
+     * Waits out a running write section.
+     * @return the even stamp the read is based on
+     */
+    private int beginRead(){
+        int read = stamp;
+        while ((read & 1) != 0) {
+            Thread.onSpinWait();
+            read = stamp;
+        }
+        return read;
+    }
+
+    /**
+     * @return true if no writer ran since beginRead returned read, so the values read in between are consistent
+     */
+    private boolean validate(int read){
+        VarHandle.acquireFence(); //keeps the plain reads above before the stamp re-read
+        return stamp == read;
+    }
+
+    /**
+     * Waits for a running write section and makes the stamp odd.
+     * @return the odd stamp to pass to endWrite
+     */
+    private int beginWrite(){
+        while (true) {
+            int current = stamp;
+            if ((current & 1) == 0 && STAMP.compareAndSet(this, current, current + 1)) {
+                return current + 1;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private void endWrite(int written){
+        stamp = written + 1; //volatile write publishes the section
+    }
+
+    private void advanceNextPaymentTime(){
+        nextPaymentMonth += premiumPaymentFrequency.getValueInMonths();
+        int monthLength = lengthOfMonth(nextPaymentMonth);
+        if (nextPaymentDay > monthLength) {
+            nextPaymentDay = (byte) monthLength;
+        }
+    }
+
+    private boolean isDue(int nextMonth, byte nextDay, int month, int day, LocalTime timeOfDay){
+        if (nextMonth != month) {
+            return nextMonth < month;
+        }
+        if (nextDay != day) {
+            return nextDay < day;
+        }
+        return nextPaymentTimeOfDay.compareTo(timeOfDay) <= 0;
+    }
+
+    private LocalDateTime toLocalDateTime(int epochMonth, byte day){
+        return LocalDateTime.of(LocalDate.of(yearOf(epochMonth), monthOf(epochMonth), day), nextPaymentTimeOfDay);
+    }
+
     private void validatePremium(int premium){
         if (premium <= 0) {
             throw new IllegalArgumentException("Premium value can't be null in ContractPaymentData.");
@@ -83,4 +273,20 @@ public class ContractPaymentData {
             throw new IllegalArgumentException("Invalid payment frequency.");
         }
     }
+
+    private static int toEpochMonth(LocalDateTime time){
+        return (time.getYear() - EPOCH_YEAR) * 12 + time.getMonthValue() - 1;
+    }
+
+    private static int yearOf(int epochMonth){
+        return Math.floorDiv(epochMonth, 12) + EPOCH_YEAR;
+    }
+
+    private static int monthOf(int epochMonth){
+        return Math.floorMod(epochMonth, 12) + 1;
+    }
+
+    private static int lengthOfMonth(int epochMonth){
+        return Month.of(monthOf(epochMonth)).length(Year.isLeap(yearOf(epochMonth)));
+    }
 }
@@ -1,17 +1,22 @@
 package payment;
 
+import changes.ChangeFeed;
+import changes.PaymentApplied;
 import company.InsuranceCompany;
 import contracts.AbstractContract;
 import contracts.InvalidContractException;
 import contracts.MasterVehicleContract;
 import contracts.SingleVehicleContract;
+import monitoring.PaymentEvent;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.stream.Stream;
 
 public class PaymentHandler {
     //attributes
     private final Map<AbstractContract, Set<PaymentInstance>> paymentHistory;
+    private final Map<AbstractContract, Set<PaymentInstance>> paymentHistoryView;
     private final InsuranceCompany insurer;
 
     /**
@@ -20,17 +25,36 @@ public class PaymentHandler {
      */
     //constructor
     public PaymentHandler(InsuranceCompany insurer){
+        this(insurer, new LinkedHashMap<>());
+    }
+
+    /**
+     * @param paymentHistory empty map to record the payments into, e.g. a synchronized one
+     */
+    protected PaymentHandler(InsuranceCompany insurer, Map<AbstractContract, Set<PaymentInstance>> paymentHistory){
         //validation
         validateInsurer(insurer);
 
-        this.paymentHistory = new LinkedHashMap<>();
+        this.paymentHistory = paymentHistory;
+        this.paymentHistoryView = new ReadOnlyPaymentHistory(paymentHistory);
         this.insurer=insurer;
     }
 
 
     //___________Public methods___________
+    /**
+     * @return read-only view of the payments per contract, each set ordered by payment time
+     */
     public Map<AbstractContract, Set<PaymentInstance>> getPaymentHistory(){
-        return paymentHistory;
+        return paymentHistoryView;
+    }
+
+    /**
+     * @return payments made on the contract ordered by payment time, empty if there are none
+     */
+    public Stream<PaymentInstance> payments(AbstractContract contract){
+        Set<PaymentInstance> payments = paymentHistory.get(contract);
+        return payments == null ? Stream.empty() : payments.stream();
     }
 
 
@@ -38,18 +62,27 @@ public class PaymentHandler {
 
         validateMasterVehicleContractAndAmount(contract,amount);
 
+        PaymentEvent event = new PaymentEvent();
+        event.begin();
+
         int originalAmount = amount;
+        //amount applied per child, only tracked for subscribers of the change feed
+        Map<SingleVehicleContract, Long> applied = insurer.changes().isObserved() ? new LinkedHashMap<>() : null;
 
         //1st for
         for(SingleVehicleContract childContract : contract.getChildContracts().stream().filter(AbstractContract::isActive).toList()){
+            ContractPaymentData paymentData = childContract.getContractPaymentData();
+            long outstandingBalance = paymentData.getOutstandingBalance();
             //if there is an outstanding balance on the contract
-            if(childContract.getContractPaymentData().getOutstandingBalance() > 0){
+            if(outstandingBalance > 0){
                 //if amount still should be paid ????
-                if(childContract.getContractPaymentData().getOutstandingBalance() <= amount){
-                    amount -= childContract.getContractPaymentData().getOutstandingBalance();
-                    childContract.getContractPaymentData().setOutstandingBalance(0);
+                if(outstandingBalance <= amount){
+                    amount -= (int) outstandingBalance; //at most amount, fits
+                    paymentData.addToOutstandingBalance(-outstandingBalance);
+                    track(applied, childContract, outstandingBalance);
                 } else {
-                    childContract.getContractPaymentData().setOutstandingBalance(childContract.getContractPaymentData().getOutstandingBalance() - amount);
+                    paymentData.addToOutstandingBalance(-amount);
+                    track(applied, childContract, amount);
                     amount = 0;
                     break;
                 }
@@ -61,13 +94,16 @@ public class PaymentHandler {
             boolean fundsUsed = false;
 
             for(SingleVehicleContract childContract : contract.getChildContracts().stream().filter(AbstractContract::isActive).toList()){
+                ContractPaymentData paymentData = childContract.getContractPaymentData();
                 //if amount still should be paid
-                if(childContract.getContractPaymentData().getPremium() <= amount){
-                    childContract.getContractPaymentData().setOutstandingBalance(childContract.getContractPaymentData().getOutstandingBalance() - childContract.getContractPaymentData().getPremium());
-                    amount -= childContract.getContractPaymentData().getPremium();
+                if(paymentData.getPremium() <= amount){
+                    paymentData.addToOutstandingBalance(-paymentData.getPremium());
+                    track(applied, childContract, paymentData.getPremium());
+                    amount -= paymentData.getPremium();
                     fundsUsed = true;
                 } else {
-                    childContract.getContractPaymentData().setOutstandingBalance(childContract.getContractPaymentData().getOutstandingBalance() - amount);
+                    paymentData.addToOutstandingBalance(-amount);
+                    track(applied, childContract, amount);
                     amount = 0;
                     fundsUsed = true;
                     break;
@@ -78,14 +114,19 @@ public class PaymentHandler {
             }
         }
 
-        PaymentInstance paymentInstance = new PaymentInstance(contract.getInsurer().getCurrentTime(), originalAmount - amount);
+        recordPayment(contract, new PaymentInstance(contract.getInsurer().getCurrentTime(), originalAmount - amount));
 
-        if(getPaymentHistory().containsKey(contract)){
-            //use directly paymentHistory instead of getter
-            getPaymentHistory().get(contract).add(paymentInstance);
-        } else {
-            getPaymentHistory().put(contract, new TreeSet<>());
-            getPaymentHistory().get(contract).add(paymentInstance);
+        if (applied != null) {
+            ChangeFeed changes = insurer.changes();
+            for (Map.Entry<SingleVehicleContract, Long> child : applied.entrySet()) {
+                changes.emit(new PaymentApplied(insurer.getCurrentTime(), child.getKey().getContractNumber(),
+                        contract.getContractNumber(), child.getValue()));
+            }
+            changes.flush();
+        }
+        if (event.shouldCommit()) {
+            event.set(contract, 0, originalAmount - amount);
+            event.commit();
         }
     }
 
@@ -94,19 +135,45 @@ public class PaymentHandler {
 
         validateAbstractContractAndAmount(contract,amount);
 
-        contract.getContractPaymentData().setOutstandingBalance(contract.getContractPaymentData().getOutstandingBalance()-amount);
+        PaymentEvent event = new PaymentEvent();
+        event.begin();
+
+        contract.getContractPaymentData().addToOutstandingBalance(-amount);
+
+        recordPayment(contract, new PaymentInstance(contract.getInsurer().getCurrentTime(), amount));
+
+        if (insurer.changes().isObserved()) {
+            insurer.changes().emit(new PaymentApplied(insurer.getCurrentTime(), contract.getContractNumber(), null, amount));
+            insurer.changes().flush();
+        }
+        if (event.shouldCommit()) {
+            event.set(contract, 0, amount);
+            event.commit();
+        }
+    }
+
 
-        PaymentInstance paymentInstance = new PaymentInstance(contract.getInsurer().getCurrentTime(), amount);
-        if(getPaymentHistory().containsKey(contract)){
-            getPaymentHistory().get(contract).add(paymentInstance);
+    //___________Protected methods___________
+    /**
+     * Adds a completed payment to the history of the contract.
+     */
+    protected void recordPayment(AbstractContract contract, PaymentInstance paymentInstance){
+        if(paymentHistory.containsKey(contract)){
+            paymentHistory.get(contract).add(paymentInstance);
         } else {
-            getPaymentHistory().put(contract, new TreeSet<>());
-            getPaymentHistory().get(contract).add(paymentInstance);
+            paymentHistory.put(contract, new TreeSet<>());
+            paymentHistory.get(contract).add(paymentInstance);
         }
     }
 
 
     //___________Private helpers___________
+    private static void track(Map<SingleVehicleContract, Long> applied, SingleVehicleContract childContract, long amount){
+        if (applied != null) {
+            applied.merge(childContract, amount, Long::sum);
+        }
+    }
+
     private void validateInsurer(InsuranceCompany insurer){
         if (insurer == null) {
             throw new IllegalArgumentException("Insurance Company cannot be null.");
@@ -145,4 +212,69 @@ public class PaymentHandler {
             throw new InvalidContractException("Handler differ from the expected one.");
         }
     }
+
+
+    /**
+     * Map view that hands out the payment sets read-only as well, without copying them.
+     */
+    private static final class ReadOnlyPaymentHistory extends AbstractMap<AbstractContract, Set<PaymentInstance>> {
+        private final Map<AbstractContract, Set<PaymentInstance>> history;
+
+        private ReadOnlyPaymentHistory(Map<AbstractContract, Set<PaymentInstance>> history){
+            this.history = history;
+        }
+
+        @Override
+        public Set<PaymentInstance> get(Object contract){
+            Set<PaymentInstance> payments = history.get(contract);
+            return payments == null ? null : Collections.unmodifiableSet(payments);
+        }
+
+        @Override
+        public boolean containsKey(Object contract){
+            return history.containsKey(contract);
+        }
+
+        @Override
+        public int size(){
+            return history.size();
+        }
+
+        @Override
+        public Set<AbstractContract> keySet(){
+            return Collections.unmodifiableSet(history.keySet());
+        }
+
+        @Override
+        public Set<Entry<AbstractContract, Set<PaymentInstance>>> entrySet(){
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<AbstractContract, Set<PaymentInstance>>> iterator(){
+                    Iterator<Entry<AbstractContract, Set<PaymentInstance>>> entries = history.entrySet().iterator();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext(){
+                            return entries.hasNext();
+                        }
+
+                        @Override
+                        public Entry<AbstractContract, Set<PaymentInstance>> next(){
+                            Entry<AbstractContract, Set<PaymentInstance>> entry = entries.next();
+                            return new SimpleImmutableEntry<>(entry.getKey(), Collections.unmodifiableSet(entry.getValue()));
+                        }
+                    };
+                }
+
+                @Override
+                public Spliterator<Entry<AbstractContract, Set<PaymentInstance>>> spliterator(){
+                    return Spliterators.spliterator(this, Spliterator.DISTINCT | Spliterator.ORDERED | Spliterator.NONNULL);
+                }
+
+                @Override
+                public int size(){
+                    return history.size();
+                }
+            };
+        }
+    }
 }
@@ -2,10 +2,11 @@ package payment;
 
 import java.time.LocalDateTime;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class PaymentInstance implements Comparable<PaymentInstance>{
     //attributes
-    private static long NEXT_ID = 0;
+    private static final AtomicLong NEXT_ID = new AtomicLong(); //instances may be created on several threads
     private final long id;
     private final LocalDateTime paymentTime;
     private final int paymentAmount;
@@ -22,7 +23,7 @@ public class PaymentInstance implements Comparable<PaymentInstance>{
 
         this.paymentTime=paymentTime;
         this.paymentAmount=paymentAmount;
-        this.id = NEXT_ID++;
+        this.id = NEXT_ID.getAndIncrement();
     }
 
     //___________Public methods___________
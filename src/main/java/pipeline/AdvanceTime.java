@@ -0,0 +1,21 @@
+package pipeline;
+
+import company.InsuranceCompany;
+
+import java.time.LocalDateTime;
+
+/**
+ * Moves the clock of the insurer and, if requested, runs the billing of all contracts at the new time.
+ * @see InsuranceCompany#setCurrentTime
+ * @see InsuranceCompany#chargePremiumsOnContracts
+ */
+public record AdvanceTime(LocalDateTime currentTime, boolean chargePremiums) implements Command<Void> {
+    @Override
+    public Void applyTo(InsuranceCompany company){
+        company.setCurrentTime(currentTime);
+        if (chargePremiums) {
+            company.chargePremiumsOnContracts();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,16 @@
+package pipeline;
+
+import company.InsuranceCompany;
+
+/**
+ * Operation on an insurer, submitted to a {@link CommandPipeline} and applied by its writer thread.
+ * @param <R> result completed into the future of the submission
+ */
+@FunctionalInterface
+public interface Command<R> {
+    /**
+     * Called on the writer thread only.
+     * @throws RuntimeException rejected command; the submission completes exceptionally with it
+     */
+    R applyTo(InsuranceCompany company);
+}
@@ -0,0 +1,232 @@
+package pipeline;
+
+import company.InsuranceCompany;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Single-writer front end of an insurer.
+ * <p>
+ * Any number of threads submit commands into a pre-allocated ring buffer. One writer thread applies them
+ * to the insurer in submission order, in batches of everything published so far, and completes the future
+ * of each submission with the result or the rejection. The insurer is only ever touched by the writer,
+ * so the domain classes need no locking; once the pipeline is started, nobody else may use the insurer.
+ * <p>
+ * Futures are completed on the writer thread: dependent stages that do real work should use the async variants.
+ * Cancelling a future before the writer reached its command withdraws the command, it is then never applied;
+ * once the writer started to apply it, cancelling fails.
+ */
+public final class CommandPipeline implements AutoCloseable {
+    private static final long CLOSED = 1L << 62; //added to the claim sequence on close, every later claim sees it
+    private static final int MAX_BATCH = 1_024;
+    private static final int SPINS = 1_000;
+    private static final long PARK_NANOS = 1_000_000; //producers unpark the writer, the timeout is only a safety net
+
+    //attributes
+    private final InsuranceCompany company;
+    private final Slot[] slots;
+    private final int mask;
+    private final int maxBatch;
+    private final AtomicLong claimed; //next sequence to hand out to a producer
+    private final AtomicLong applied; //number of commands applied, slots below it can be reused
+    private final Thread writer;
+    private volatile boolean writerParked;
+    private volatile long closedAt; //claimed sequence at close, -1 while open
+
+    /**
+     * @param company    non-null insurer, owned by the writer thread from now on
+     * @param bufferSize minimal number of slots, positive; rounded up to a power of two
+     * @throws IllegalArgumentException if company is null or bufferSize is not positive
+     */
+    //constructor
+    public CommandPipeline(InsuranceCompany company, int bufferSize){
+        if (company == null) {
+            throw new IllegalArgumentException("Insurance Company cannot be null");
+        }
+        if (bufferSize <= 0 || bufferSize > 1 << 30) {
+            throw new IllegalArgumentException("Buffer size must be positive and at most 2^30");
+        }
+        int size = Integer.highestOneBit(bufferSize);
+        if (size < bufferSize) {
+            size <<= 1;
+        }
+
+        this.company = company;
+        this.slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+        }
+        this.mask = size - 1;
+        this.maxBatch = Math.min(MAX_BATCH, Math.max(1, size / 2));
+        this.claimed = new AtomicLong();
+        this.applied = new AtomicLong();
+        this.closedAt = -1;
+        this.writer = new Thread(this::writeLoop, "insurance-command-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    //___________Public methods___________
+    /**
+     * Enqueues a command, waiting while the ring buffer is full.
+     * @param command non-null command
+     * @return future completed by the writer thread with the result of the command
+     * @throws IllegalArgumentException   if command is null
+     * @throws RejectedExecutionException if the pipeline is closed
+     */
+    public <R> CompletableFuture<R> submit(Command<R> command){
+        if (command == null) {
+            throw new IllegalArgumentException("Command cannot be null");
+        }
+        long sequence = claimed.getAndIncrement();
+        if (sequence >= CLOSED) {
+            throw new RejectedExecutionException("Command pipeline is closed");
+        }
+        awaitCapacity(sequence);
+
+        Submission<R> result = new Submission<>();
+        Slot slot = slots[(int) sequence & mask];
+        slot.command = command;
+        slot.result = result;
+        slot.published = sequence; //volatile write publishes the two fields above
+
+        if (writerParked) {
+            LockSupport.unpark(writer);
+        }
+        return result;
+    }
+
+    /**
+     * @return number of commands applied or withdrawn so far
+     */
+    public long getAppliedCommands(){
+        return applied.get();
+    }
+
+    public int getBufferSize(){
+        return slots.length;
+    }
+
+    /**
+     * Stops accepting commands, lets the writer apply everything submitted before and waits for it to finish.
+     */
+    @Override
+    public void close(){
+        long sequence = claimed.getAndAdd(CLOSED);
+        if (sequence < CLOSED) {
+            closedAt = sequence;
+            LockSupport.unpark(writer);
+        }
+        boolean interrupted = false;
+        while (writer.isAlive()) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+
+    //___________Private helpers___________
+    private void awaitCapacity(long sequence){
+        int spins = 0;
+        while (sequence - applied.get() >= slots.length) {
+            if (++spins < SPINS) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(1_000);
+            }
+        }
+    }
+
+    private void writeLoop(){
+        long next = 0;
+        int idleSpins = 0;
+        while (true) {
+            int batch = 0;
+            Slot slot = slots[(int) next & mask];
+            while (batch < maxBatch && slot.published == next) {
+                apply(slot);
+                next++;
+                batch++;
+                slot = slots[(int) next & mask];
+            }
+            if (batch > 0) {
+                applied.set(next);
+                idleSpins = 0;
+                continue;
+            }
+
+            long end = closedAt;
+            if (end >= 0 && next >= end) {
+                return;
+            }
+            if (++idleSpins < SPINS) {
+                Thread.onSpinWait();
+            } else {
+                writerParked = true;
+                //re-check after announcing the park, a producer publishing now sees the flag and unparks
+                if (slot.published != next && closedAt < 0) {
+                    LockSupport.parkNanos(this, PARK_NANOS);
+                }
+                writerParked = false;
+            }
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void apply(Slot slot){
+        Command command = slot.command;
+        Submission result = slot.result;
+        slot.command = null;
+        slot.result = null;
+        if (!result.start()) {
+            return; //withdrawn by its submitter
+        }
+        try {
+            result.complete(command.applyTo(company));
+        } catch (Throwable e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * One entry of the ring buffer, reused for every sequence that maps to it.
+     */
+    private static final class Slot {
+        private volatile long published = -1;
+        private Command<?> command;
+        private Submission<?> result;
+    }
+
+    /**
+     * Future of a submitted command that can be cancelled only while the command waits in the ring buffer.
+     */
+    private static final class Submission<R> extends CompletableFuture<R> {
+        private static final int QUEUED = 0;
+        private static final int STARTED = 1;
+        private static final int WITHDRAWN = 2;
+
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+
+        /**
+         * @return false if the submitter withdrew the command and it must not be applied
+         */
+        private boolean start(){
+            return state.compareAndSet(QUEUED, STARTED);
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning){
+            return state.compareAndSet(QUEUED, WITHDRAWN) && super.cancel(mayInterruptIfRunning);
+        }
+    }
+}
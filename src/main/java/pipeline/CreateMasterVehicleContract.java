@@ -0,0 +1,17 @@
+package pipeline;
+
+import company.InsuranceCompany;
+import contracts.MasterVehicleContract;
+import objects.Person;
+
+/**
+ * @see InsuranceCompany#createMasterVehicleContract
+ */
+public record CreateMasterVehicleContract(String contractNumber,
+                                          Person beneficiary,
+                                          Person policyHolder) implements Command<MasterVehicleContract> {
+    @Override
+    public MasterVehicleContract applyTo(InsuranceCompany company){
+        return company.createMasterVehicleContract(contractNumber, beneficiary, policyHolder);
+    }
+}
@@ -0,0 +1,22 @@
+package pipeline;
+
+import company.InsuranceCompany;
+import contracts.TravelContract;
+import objects.Person;
+import payment.PremiumPaymentFrequency;
+
+import java.util.Set;
+
+/**
+ * @see InsuranceCompany#insurePersons
+ */
+public record InsurePersons(String contractNumber,
+                            Person policyHolder,
+                            int proposedPremium,
+                            PremiumPaymentFrequency proposedPaymentFrequency,
+                            Set<Person> personsToInsure) implements Command<TravelContract> {
+    @Override
+    public TravelContract applyTo(InsuranceCompany company){
+        return company.insurePersons(contractNumber, policyHolder, proposedPremium, proposedPaymentFrequency, personsToInsure);
+    }
+}
@@ -0,0 +1,22 @@
+package pipeline;
+
+import company.InsuranceCompany;
+import contracts.SingleVehicleContract;
+import objects.Person;
+import objects.Vehicle;
+import payment.PremiumPaymentFrequency;
+
+/**
+ * @see InsuranceCompany#insureVehicle
+ */
+public record InsureVehicle(String contractNumber,
+                            Person beneficiary,
+                            Person policyHolder,
+                            int proposedPremium,
+                            PremiumPaymentFrequency proposedPaymentFrequency,
+                            Vehicle vehicleToInsure) implements Command<SingleVehicleContract> {
+    @Override
+    public SingleVehicleContract applyTo(InsuranceCompany company){
+        return company.insureVehicle(contractNumber, beneficiary, policyHolder, proposedPremium, proposedPaymentFrequency, vehicleToInsure);
+    }
+}
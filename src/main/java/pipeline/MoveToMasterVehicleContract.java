@@ -0,0 +1,17 @@
+package pipeline;
+
+import company.InsuranceCompany;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+
+/**
+ * @see InsuranceCompany#moveSingleVehicleContractToMasterVehicleContract
+ */
+public record MoveToMasterVehicleContract(MasterVehicleContract masterVehicleContract,
+                                          SingleVehicleContract singleVehicleContract) implements Command<Void> {
+    @Override
+    public Void applyTo(InsuranceCompany company){
+        company.moveSingleVehicleContractToMasterVehicleContract(masterVehicleContract, singleVehicleContract);
+        return null;
+    }
+}
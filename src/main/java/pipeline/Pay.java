@@ -0,0 +1,22 @@
+package pipeline;
+
+import company.InsuranceCompany;
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+
+/**
+ * Payment through the handler of the insurer the pipeline writes to.
+ * @see payment.PaymentHandler#pay(AbstractContract, int)
+ * @see payment.PaymentHandler#pay(MasterVehicleContract, int)
+ */
+public record Pay(AbstractContract contract, int amount) implements Command<Void> {
+    @Override
+    public Void applyTo(InsuranceCompany company){
+        if (contract instanceof MasterVehicleContract master) {
+            company.getHandler().pay(master, amount);
+        } else {
+            company.getHandler().pay(contract, amount);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,18 @@
+package pipeline;
+
+import company.InsuranceCompany;
+import contracts.TravelContract;
+import objects.Person;
+
+import java.util.Set;
+
+/**
+ * @see InsuranceCompany#processClaim(TravelContract, Set)
+ */
+public record ProcessTravelClaim(TravelContract travelContract, Set<Person> affectedPersons) implements Command<Void> {
+    @Override
+    public Void applyTo(InsuranceCompany company){
+        company.processClaim(travelContract, affectedPersons);
+        return null;
+    }
+}
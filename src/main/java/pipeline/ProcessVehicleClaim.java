@@ -0,0 +1,15 @@
+package pipeline;
+
+import company.InsuranceCompany;
+import contracts.SingleVehicleContract;
+
+/**
+ * @see InsuranceCompany#processClaim(SingleVehicleContract, int)
+ */
+public record ProcessVehicleClaim(SingleVehicleContract singleVehicleContract, int expectedDamages) implements Command<Void> {
+    @Override
+    public Void applyTo(InsuranceCompany company){
+        company.processClaim(singleVehicleContract, expectedDamages);
+        return null;
+    }
+}
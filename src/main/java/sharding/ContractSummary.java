@@ -0,0 +1,17 @@
+package sharding;
+
+import java.time.LocalDateTime;
+
+/**
+ * State of one contract read from a {@link ShardWorker}; the payment fields are 0 and null for a master vehicle contract.
+ * @param type simple class name of the contract, e.g. {@code TravelContract}
+ */
+public record ContractSummary(String contractNumber,
+                              String type,
+                              String policyHolderId,
+                              boolean active,
+                              int coverageAmount,
+                              int premium,
+                              long outstandingBalance,
+                              LocalDateTime nextPaymentTime) {
+}
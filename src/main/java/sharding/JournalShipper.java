@@ -0,0 +1,111 @@
+package sharding;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Ships the journal of a {@link ShardWorker} to one standby and tracks what the standby acknowledged.
+ * <p>
+ * Entries are queued by the worker while it holds its lock, so they keep the order in which requests were applied,
+ * and written by a shipper thread, so a slow standby never delays the worker. The queue is unbounded:
+ * nothing is dropped, a standby that falls behind shows up as growing lag instead.
+ */
+final class JournalShipper {
+    private record Entry(byte code, byte[] payload) {
+    }
+
+    //attributes
+    private final SocketChannel channel;
+    private final LinkedBlockingQueue<Entry> entries;
+    private final ArrayDeque<Long> appendTimes; //of the unacknowledged entries, oldest first; guarded by this
+    private long journalSequence; //guarded by this
+    private long acknowledgedSequence; //guarded by this
+    private final Thread shipper;
+
+    /**
+     * @param channel    connection of the standby
+     * @param sequence   journal sequence of the base backup
+     * @param baseBackup snapshot of the worker at that sequence, the first entry the standby receives
+     */
+    //constructor
+    JournalShipper(SocketChannel channel, long sequence, byte[] baseBackup){
+        this.channel = channel;
+        this.entries = new LinkedBlockingQueue<>();
+        this.appendTimes = new ArrayDeque<>();
+        this.journalSequence = sequence - 1;
+        this.acknowledgedSequence = sequence - 1;
+        append(Protocol.BASE_BACKUP, sequence, baseBackup);
+        this.shipper = new Thread(this::ship, "shard-journal-shipper");
+        this.shipper.setDaemon(true);
+        this.shipper.start();
+    }
+
+    //___________Package methods___________
+    /**
+     * Queues a journal entry; the payload is copied with its sequence in front.
+     */
+    synchronized void append(byte code, long sequence, byte[] payload){
+        journalSequence = sequence;
+        appendTimes.addLast(System.nanoTime());
+        entries.add(new Entry(code, ByteBuffer.allocate(Long.BYTES + payload.length).putLong(sequence).put(payload).array()));
+    }
+
+    /**
+     * Reads acknowledgements of the standby until it disconnects.
+     */
+    void readAcknowledgements() throws IOException {
+        while (true) {
+            Protocol.Frame frame = Protocol.readFrame(channel);
+            if (frame.code() != Protocol.ACKNOWLEDGE) {
+                throw new IOException("Unexpected frame " + frame.code() + " from standby");
+            }
+            acknowledge(frame.in().readLong());
+        }
+    }
+
+    synchronized ReplicationStatus status(){
+        Long oldest = appendTimes.peekFirst();
+        return new ReplicationStatus(journalSequence, acknowledgedSequence, oldest == null ? 0 : System.nanoTime() - oldest);
+    }
+
+    boolean isOpen(){
+        return channel.isOpen();
+    }
+
+    /**
+     * Stops shipping and drops the entries not written yet.
+     */
+    void close(){
+        shipper.interrupt();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            //closing anyway
+        }
+        entries.clear();
+    }
+
+
+    //___________Private helpers___________
+    private synchronized void acknowledge(long sequence){
+        while (acknowledgedSequence < sequence && !appendTimes.isEmpty()) {
+            appendTimes.removeFirst();
+            acknowledgedSequence++;
+        }
+    }
+
+    private void ship(){
+        try {
+            while (true) {
+                Entry entry = entries.take();
+                Protocol.writeFrame(channel, entry.code(), entry.payload());
+            }
+        } catch (InterruptedException | IOException e) {
+            //closed, or the standby went away
+            close();
+        }
+    }
+}
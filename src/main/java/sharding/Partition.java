@@ -0,0 +1,366 @@
+package sharding;
+
+import company.InsuranceCompany;
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import objects.Person;
+import objects.Vehicle;
+import payment.BalanceSnapshot;
+import payment.ContractPaymentData;
+import payment.PaymentHandler;
+import payment.PaymentInstance;
+import payment.PremiumPaymentFrequency;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One partition of a multi-process portfolio: a whole insurer together with the persons it knows, by id.
+ * <p>
+ * A partition is the unit of rebalancing: {@link #writeTo} captures its complete state, contracts, balances,
+ * payment history and payouts included, and {@link #readFrom} rebuilds an equal partition in another process.
+ * The snapshot is deterministic, so a restored partition writes the same bytes as the original.
+ * Not thread-safe; a worker applies one request at a time.
+ */
+final class Partition {
+    private static final byte SNAPSHOT_VERSION = 1;
+    private static final byte SINGLE_VEHICLE = 1;
+    private static final byte TRAVEL = 2;
+    private static final byte MASTER_VEHICLE = 3;
+
+    //attributes
+    private final RestorableInsurer insurer;
+    private final Map<String, Person> persons; //in order of first use, written in this order
+    private final Map<String, AbstractContract> contractsByNumber; //top-level and children
+
+    //constructor
+    Partition(LocalDateTime currentTime){
+        this.insurer = new RestorableInsurer(currentTime);
+        this.persons = new LinkedHashMap<>();
+        this.contractsByNumber = new LinkedHashMap<>();
+    }
+
+    //___________Package methods___________
+    InsuranceCompany getInsurer(){
+        return insurer;
+    }
+
+    SingleVehicleContract insureVehicle(String contractNumber, String beneficiaryId, String policyHolderId,
+                                        int proposedPremium, PremiumPaymentFrequency proposedPaymentFrequency,
+                                        String licensePlate, int originalValue){
+        Vehicle vehicle = new Vehicle(licensePlate, originalValue);
+        return registered(insurer.insureVehicle(contractNumber, optionalPerson(beneficiaryId), person(policyHolderId),
+                proposedPremium, proposedPaymentFrequency, vehicle));
+    }
+
+    TravelContract insurePersons(String contractNumber, String policyHolderId, int proposedPremium,
+                                 PremiumPaymentFrequency proposedPaymentFrequency, List<String> insuredPersonIds){
+        return registered(insurer.insurePersons(contractNumber, person(policyHolderId), proposedPremium,
+                proposedPaymentFrequency, persons(insuredPersonIds)));
+    }
+
+    MasterVehicleContract createMasterVehicleContract(String contractNumber, String beneficiaryId, String policyHolderId){
+        return registered(insurer.createMasterVehicleContract(contractNumber, optionalPerson(beneficiaryId), person(policyHolderId)));
+    }
+
+    void moveSingleVehicleContractToMasterVehicleContract(String masterContractNumber, String singleContractNumber){
+        insurer.moveSingleVehicleContractToMasterVehicleContract(
+                contract(masterContractNumber, MasterVehicleContract.class), contract(singleContractNumber, SingleVehicleContract.class));
+    }
+
+    void pay(String contractNumber, int amount){
+        AbstractContract contract = contract(contractNumber, AbstractContract.class);
+        if (contract instanceof MasterVehicleContract master) {
+            insurer.getHandler().pay(master, amount);
+        } else {
+            insurer.getHandler().pay(contract, amount);
+        }
+    }
+
+    void processTravelClaim(String contractNumber, List<String> affectedPersonIds){
+        insurer.processClaim(contract(contractNumber, TravelContract.class), persons(affectedPersonIds));
+    }
+
+    void processVehicleClaim(String contractNumber, int expectedDamages){
+        insurer.processClaim(contract(contractNumber, SingleVehicleContract.class), expectedDamages);
+    }
+
+    /**
+     * @return the contract with the given number, top-level or child, or null if the partition has none
+     */
+    AbstractContract getContract(String contractNumber){
+        return contractsByNumber.get(contractNumber);
+    }
+
+    long getPaidOutAmount(String personId){
+        Person person = persons.get(personId);
+        return person == null ? 0 : person.getPaidOutAmount();
+    }
+
+    Iterable<Person> getPersons(){
+        return persons.values();
+    }
+
+    Iterable<AbstractContract> getAllContracts(){
+        return contractsByNumber.values();
+    }
+
+    /**
+     * Writes the complete state of the partition.
+     */
+    void writeTo(DataOutput out) throws IOException {
+        out.writeByte(SNAPSHOT_VERSION);
+        Protocol.writeTime(out, insurer.getCurrentTime());
+
+        out.writeInt(persons.size());
+        for (Person person : persons.values()) {
+            out.writeUTF(person.getId());
+            out.writeLong(person.getPaidOutAmount());
+        }
+
+        //top-level contracts in conclusion order, each master followed by its children
+        List<AbstractContract> written = new ArrayList<>(contractsByNumber.size());
+        out.writeInt(insurer.getContracts().size());
+        for (AbstractContract contract : insurer.getContracts()) {
+            writeContract(out, contract, written);
+        }
+
+        //payment history in the same order
+        PaymentHandler handler = insurer.getHandler();
+        for (AbstractContract contract : written) {
+            List<PaymentInstance> payments = handler.payments(contract).toList();
+            out.writeInt(payments.size());
+            for (PaymentInstance payment : payments) {
+                Protocol.writeTime(out, payment.getPaymentTime());
+                out.writeInt(payment.getPaymentAmount());
+            }
+        }
+    }
+
+    /**
+     * Rebuilds a partition written by {@link #writeTo}.
+     * @throws IOException if the snapshot is truncated or of an unknown version
+     */
+    static Partition readFrom(DataInput in) throws IOException {
+        byte version = in.readByte();
+        if (version != SNAPSHOT_VERSION) {
+            throw new IOException("Unknown partition snapshot version " + version);
+        }
+        Partition partition = new Partition(Protocol.readTime(in));
+
+        int personCount = in.readInt();
+        for (int i = 0; i < personCount; i++) {
+            Person person = partition.person(in.readUTF());
+            long paidOutAmount = in.readLong();
+            if (paidOutAmount > 0) {
+                person.payout(paidOutAmount);
+            }
+        }
+
+        List<AbstractContract> read = new ArrayList<>();
+        int contractCount = in.readInt();
+        for (int i = 0; i < contractCount; i++) {
+            partition.insurer.restore(partition.readContract(in, read));
+        }
+
+        RestorableHandler handler = (RestorableHandler) partition.insurer.getHandler();
+        for (AbstractContract contract : read) {
+            int payments = in.readInt();
+            for (int i = 0; i < payments; i++) {
+                LocalDateTime paymentTime = Protocol.readTime(in);
+                handler.restore(contract, new PaymentInstance(paymentTime, in.readInt()));
+            }
+        }
+        return partition;
+    }
+
+
+    //___________Private helpers___________
+    /**
+     * Writes a contract, a master followed by its children, and appends them to written.
+     */
+    private void writeContract(DataOutput out, AbstractContract contract, List<AbstractContract> written) throws IOException {
+        written.add(contract);
+        if (contract instanceof MasterVehicleContract master) {
+            out.writeByte(MASTER_VEHICLE);
+            writeCommon(out, master);
+            Protocol.writeOptionalId(out, master.getBeneficiary() == null ? null : master.getBeneficiary().getId());
+            out.writeInt(master.getChildContracts().size());
+            for (SingleVehicleContract child : master.getChildContracts()) {
+                writeContract(out, child, written);
+            }
+        } else if (contract instanceof SingleVehicleContract single) {
+            out.writeByte(SINGLE_VEHICLE);
+            writeCommon(out, single);
+            writePaymentData(out, single.getContractPaymentData());
+            Protocol.writeOptionalId(out, single.getBeneficiary() == null ? null : single.getBeneficiary().getId());
+            out.writeUTF(single.getInsuredVehicle().getLicensePlate());
+            out.writeInt(single.getInsuredVehicle().getOriginalValue());
+        } else {
+            TravelContract travel = (TravelContract) contract;
+            out.writeByte(TRAVEL);
+            writeCommon(out, travel);
+            writePaymentData(out, travel.getContractPaymentData());
+            //the insured person set has no stable order across processes, ids are written sorted
+            List<String> insuredPersonIds = new ArrayList<>(travel.getInsuredPersons().size());
+            for (Person person : travel.getInsuredPersons()) {
+                insuredPersonIds.add(person.getId());
+            }
+            insuredPersonIds.sort(null);
+            out.writeInt(insuredPersonIds.size());
+            for (String id : insuredPersonIds) {
+                out.writeUTF(id);
+            }
+        }
+    }
+
+    private static void writeCommon(DataOutput out, AbstractContract contract) throws IOException {
+        out.writeUTF(contract.getContractNumber());
+        out.writeUTF(contract.getPolicyHolder().getId());
+        out.writeBoolean(contract.isActive());
+        out.writeInt(contract.getCoverageAmount());
+    }
+
+    private static void writePaymentData(DataOutput out, ContractPaymentData paymentData) throws IOException {
+        BalanceSnapshot balance = paymentData.snapshot();
+        out.writeInt(paymentData.getPremium());
+        out.writeByte(paymentData.getPremiumPaymentFrequency().ordinal());
+        Protocol.writeTime(out, balance.nextPaymentTime());
+        out.writeLong(balance.outstandingBalance());
+    }
+
+    /**
+     * Reads a contract written by writeContract, appends it and any children to read, and registers them by number.
+     * @return the contract, not yet registered with the insurer
+     */
+    private AbstractContract readContract(DataInput in, List<AbstractContract> read) throws IOException {
+        byte type = in.readByte();
+        String contractNumber = in.readUTF();
+        Person policyHolder = person(in.readUTF());
+        boolean active = in.readBoolean();
+        int coverageAmount = in.readInt();
+        AbstractContract contract;
+        switch (type) {
+            case MASTER_VEHICLE -> {
+                MasterVehicleContract master = new MasterVehicleContract(contractNumber, insurer, optionalPerson(Protocol.readOptionalId(in)), policyHolder);
+                read.add(master);
+                int children = in.readInt();
+                for (int i = 0; i < children; i++) {
+                    insurer.restoreChild(master, (SingleVehicleContract) readContract(in, read));
+                }
+                contract = master;
+            }
+            case SINGLE_VEHICLE -> {
+                ContractPaymentData paymentData = readPaymentData(in);
+                Person beneficiary = optionalPerson(Protocol.readOptionalId(in));
+                Vehicle vehicle = new Vehicle(in.readUTF(), in.readInt());
+                contract = new SingleVehicleContract(contractNumber, insurer, beneficiary, policyHolder, paymentData, coverageAmount, vehicle);
+                read.add(contract);
+            }
+            case TRAVEL -> {
+                ContractPaymentData paymentData = readPaymentData(in);
+                int insuredPersons = in.readInt();
+                List<String> insuredPersonIds = new ArrayList<>(insuredPersons);
+                for (int i = 0; i < insuredPersons; i++) {
+                    insuredPersonIds.add(in.readUTF());
+                }
+                contract = new TravelContract(contractNumber, insurer, policyHolder, paymentData, coverageAmount, persons(insuredPersonIds));
+                read.add(contract);
+            }
+            default -> throw new IOException("Unknown contract type " + type + " of contract " + contractNumber);
+        }
+        //a master with children is active exactly while a child is, its own flag only counts without children
+        if (!active && !(contract instanceof MasterVehicleContract master && !master.getChildContracts().isEmpty())) {
+            contract.setInactive();
+        }
+        contractsByNumber.put(contractNumber, contract);
+        return contract;
+    }
+
+    private static ContractPaymentData readPaymentData(DataInput in) throws IOException {
+        int premium = in.readInt();
+        PremiumPaymentFrequency frequency = PremiumPaymentFrequency.values()[in.readByte()];
+        LocalDateTime nextPaymentTime = Protocol.readTime(in);
+        return new ContractPaymentData(premium, frequency, nextPaymentTime, in.readLong());
+    }
+
+    private <C extends AbstractContract> C registered(C contract){
+        contractsByNumber.put(contract.getContractNumber(), contract);
+        return contract;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the partition has no contract of the expected type with the number
+     */
+    private <C extends AbstractContract> C contract(String contractNumber, Class<C> type){
+        AbstractContract contract = contractsByNumber.get(contractNumber);
+        if (!type.isInstance(contract)) {
+            throw new IllegalArgumentException("No " + type.getSimpleName() + " with number '" + contractNumber + "' in this partition");
+        }
+        return type.cast(contract);
+    }
+
+    /**
+     * @throws IllegalArgumentException if id is not a valid person id
+     */
+    private Person person(String id){
+        Person person = persons.get(id);
+        if (person == null) {
+            person = new Person(id);
+            persons.put(id, person);
+        }
+        return person;
+    }
+
+    private Person optionalPerson(String id){
+        return id == null ? null : person(id);
+    }
+
+    private Set<Person> persons(List<String> ids){
+        Set<Person> result = new LinkedHashSet<>();
+        for (String id : ids) {
+            result.add(person(id));
+        }
+        return result;
+    }
+
+    /**
+     * Insurer whose contracts can be restored from a snapshot.
+     */
+    private static final class RestorableInsurer extends InsuranceCompany {
+        private RestorableInsurer(LocalDateTime currentTime){
+            super(currentTime, RestorableHandler::new);
+        }
+
+        private void restore(AbstractContract contract){
+            restoreContract(contract);
+        }
+
+        private void restoreChild(MasterVehicleContract master, SingleVehicleContract child){
+            restoreChildContract(master, child);
+        }
+    }
+
+    /**
+     * Payment handler whose history can be restored from a snapshot.
+     */
+    private static final class RestorableHandler extends PaymentHandler {
+        private RestorableHandler(InsuranceCompany insurer){
+            super(insurer);
+        }
+
+        private void restore(AbstractContract contract, PaymentInstance payment){
+            recordPayment(contract, payment);
+        }
+    }
+}
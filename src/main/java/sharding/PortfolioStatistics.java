@@ -0,0 +1,11 @@
+package sharding;
+
+/**
+ * Totals over all partitions of a {@link ShardCoordinator}.
+ * @param contracts          number of top-level contracts
+ * @param activeContracts    number of active top-level contracts
+ * @param outstandingBalance sum of the outstanding balances of all contracts, children included
+ * @param paidOut            sum of all claim payouts
+ */
+public record PortfolioStatistics(long contracts, long activeContracts, long outstandingBalance, long paidOut) {
+}
@@ -0,0 +1,153 @@
+package sharding;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Binary protocol between a {@link ShardCoordinator} and its {@link ShardWorker}s.
+ * <p>
+ * Every message is one frame: a 4-byte payload length, a 1-byte code and the payload written with {@link DataOutput}.
+ * Requests carry an opcode, responses a status; a connection carries one request at a time.
+ * Persons travel as their ids, contracts as their numbers and times as UTC epoch seconds plus nanos.
+ * <p>
+ * A {@link #REPLICATE} request turns its connection into a journal stream: the worker sends a {@link #BASE_BACKUP}
+ * of its partitions and then every mutating request it applies, each payload prefixed with its journal sequence,
+ * and the standby answers every entry it applied with an {@link #ACKNOWLEDGE} of that sequence.
+ */
+final class Protocol {
+    static final int MAX_FRAME = 1 << 30;
+
+    //opcodes
+    static final byte OPEN_PARTITION = 1;
+    static final byte INSURE_VEHICLE = 2;
+    static final byte INSURE_PERSONS = 3;
+    static final byte CREATE_MASTER_VEHICLE_CONTRACT = 4;
+    static final byte MOVE_TO_MASTER_VEHICLE_CONTRACT = 5;
+    static final byte PAY = 6;
+    static final byte PROCESS_TRAVEL_CLAIM = 7;
+    static final byte PROCESS_VEHICLE_CLAIM = 8;
+    static final byte ADVANCE_TIME = 9;
+    static final byte GET_CONTRACT = 10;
+    static final byte GET_PAID_OUT_AMOUNT = 11;
+    static final byte GET_STATISTICS = 12;
+    static final byte EXPORT_PARTITION = 13;
+    static final byte IMPORT_PARTITION = 14;
+    static final byte REPLICATE = 15;
+    static final byte PROMOTE = 16;
+
+    //journal entry codes besides the mutating opcodes
+    static final byte BASE_BACKUP = 17;
+    static final byte ACKNOWLEDGE = 18;
+
+    //statuses
+    static final byte OK = 0;
+    static final byte ILLEGAL_ARGUMENT = 1;
+    static final byte INVALID_CONTRACT = 2;
+    static final byte FAILURE = 3;
+
+    private Protocol(){
+    }
+
+    /**
+     * Writes the payload of a frame.
+     */
+    @FunctionalInterface
+    interface PayloadWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * One received frame.
+     */
+    record Frame(byte code, byte[] payload) {
+        DataInputStream in(){
+            return new DataInputStream(new ByteArrayInputStream(payload));
+        }
+    }
+
+    //___________Package methods___________
+    static byte[] encode(PayloadWriter writer) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        writer.write(out);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @return whether the request changes the state of a worker and therefore goes to its journal
+     */
+    static boolean isMutation(byte opcode){
+        return opcode >= OPEN_PARTITION && opcode <= ADVANCE_TIME || opcode == EXPORT_PARTITION || opcode == IMPORT_PARTITION;
+    }
+
+    static boolean isQuery(byte opcode){
+        return opcode == GET_CONTRACT || opcode == GET_PAID_OUT_AMOUNT || opcode == GET_STATISTICS;
+    }
+
+    static void writeFrame(SocketChannel channel, byte code, byte[] payload) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(5).putInt(payload.length).put(code).flip();
+        ByteBuffer body = ByteBuffer.wrap(payload);
+        while (header.hasRemaining() || body.hasRemaining()) {
+            channel.write(new ByteBuffer[]{header, body});
+        }
+    }
+
+    /**
+     * @throws EOFException if the peer closed the connection
+     * @throws IOException  if the frame is malformed
+     */
+    static Frame readFrame(SocketChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(5);
+        readFully(channel, header);
+        int length = header.getInt(0);
+        if (length < 0 || length > MAX_FRAME) {
+            throw new IOException("Invalid frame length " + length);
+        }
+        ByteBuffer body = ByteBuffer.allocate(length);
+        readFully(channel, body);
+        return new Frame(header.get(4), body.array());
+    }
+
+    static void writeTime(DataOutput out, LocalDateTime time) throws IOException {
+        out.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(time.getNano());
+    }
+
+    static LocalDateTime readTime(DataInput in) throws IOException {
+        long epochSecond = in.readLong();
+        return LocalDateTime.ofEpochSecond(epochSecond, in.readInt(), ZoneOffset.UTC);
+    }
+
+    /**
+     * Writes an optional person id, the empty string stands for none.
+     */
+    static void writeOptionalId(DataOutput out, String id) throws IOException {
+        out.writeUTF(id == null ? "" : id);
+    }
+
+    static String readOptionalId(DataInput in) throws IOException {
+        String id = in.readUTF();
+        return id.isEmpty() ? null : id;
+    }
+
+
+    //___________Private helpers___________
+    private static void readFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Connection closed by peer");
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package sharding;
+
+/**
+ * Replication progress of a {@link ShardWorker} towards its standby.
+ * @param journalSequence      sequence of the last journal entry shipped to the standby
+ * @param acknowledgedSequence sequence of the last entry the standby applied
+ * @param lagNanos             age of the oldest entry the standby has not applied yet, 0 if it is caught up
+ */
+public record ReplicationStatus(long journalSequence, long acknowledgedSequence, long lagNanos) {
+    /**
+     * @return number of entries the standby has not applied yet
+     */
+    public long lagEntries(){
+        return journalSequence - acknowledgedSequence;
+    }
+}
@@ -0,0 +1,574 @@
+package sharding;
+
+import contracts.InvalidContractException;
+import payment.PremiumPaymentFrequency;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SocketChannel;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Portfolio spread over {@link ShardWorker} processes, reached over loopback sockets.
+ * <p>
+ * The portfolio is split into a fixed number of partitions by a hash of the policyholder id, so all contracts
+ * of a person live in one partition; partitions are spread over the workers and each one is a whole insurer.
+ * The coordinator routes every command to the worker hosting its partition and fans billing runs and aggregate
+ * queries out to all workers at once. Contract numbers are unique across the partitions: a number is reserved
+ * before its contract is concluded and released again if the conclusion is rejected.
+ * <p>
+ * {@link #rebalance} moves a partition to another worker by transferring its snapshot, and {@link #failover} replaces
+ * a worker by its promoted hot standby; commands wait meanwhile.
+ * Persons are known by id, and a person insured in several partitions has a payout total in each of them.
+ * Thread-safe; commands to different workers run in parallel.
+ */
+public final class ShardCoordinator implements AutoCloseable {
+    //attributes
+    private final List<WorkerConnection> workers;
+    private final int[] workerOfPartition; //guarded by assignmentLock
+    private final ReentrantReadWriteLock assignmentLock; //commands read the assignment, rebalancing writes it
+    private final ConcurrentHashMap<String, Integer> partitionsByContractNumber; //reserved and concluded numbers
+
+    /**
+     * Connects to the workers and opens the partitions on them, partition p on worker p modulo the worker count.
+     * @param workers     addresses of running workers that host no partitions yet
+     * @param partitions  number of partitions, at least the number of workers so every worker gets one
+     * @param currentTime initial time of every partition
+     * @throws IllegalArgumentException if an argument is null or empty, or there are fewer partitions than workers
+     * @throws UncheckedIOException     if a worker cannot be reached
+     */
+    //constructor
+    public ShardCoordinator(List<InetSocketAddress> workers, int partitions, LocalDateTime currentTime){
+        if (workers == null || workers.isEmpty() || workers.stream().anyMatch(address -> address == null)) {
+            throw new IllegalArgumentException("Workers cannot be null or empty");
+        }
+        if (partitions < workers.size()) {
+            throw new IllegalArgumentException("Number of partitions must be at least the number of workers");
+        }
+        if (currentTime == null) {
+            throw new IllegalArgumentException("Current time cannot be null");
+        }
+
+        this.workers = new ArrayList<>(workers.size());
+        this.workerOfPartition = new int[partitions];
+        this.assignmentLock = new ReentrantReadWriteLock();
+        this.partitionsByContractNumber = new ConcurrentHashMap<>();
+        try {
+            for (InetSocketAddress address : workers) {
+                this.workers.add(new WorkerConnection(address));
+            }
+            for (int partition = 0; partition < partitions; partition++) {
+                int worker = partition % workers.size();
+                workerOfPartition[partition] = worker;
+                int opened = partition;
+                this.workers.get(worker).call(Protocol.OPEN_PARTITION, Protocol.encode(out -> {
+                    out.writeInt(opened);
+                    Protocol.writeTime(out, currentTime);
+                }));
+            }
+        } catch (IOException e) {
+            close();
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    //___________Public methods___________
+    public int getPartitionCount(){
+        return workerOfPartition.length;
+    }
+
+    public int getWorkerCount(){
+        return workers.size();
+    }
+
+    /**
+     * @return index of the worker hosting the partition, in the order the workers were given
+     */
+    public int getWorkerOf(int partition){
+        assignmentLock.readLock().lock();
+        try {
+            return workerOfPartition[partition];
+        } finally {
+            assignmentLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return partition that holds every contract of the policyholder with the given id
+     * @throws IllegalArgumentException if policyHolderId is null
+     */
+    public int partitionOf(String policyHolderId){
+        required(policyHolderId, "Policy holder id cannot be null");
+        int hash = policyHolderId.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), workerOfPartition.length);
+    }
+
+    /**
+     * @param beneficiaryId id of the beneficiary, null for none
+     */
+    public void insureVehicle(String contractNumber, String beneficiaryId, String policyHolderId, int proposedPremium,
+                              PremiumPaymentFrequency proposedPaymentFrequency, String licensePlate, int originalValue){
+        required(contractNumber, "Contract number cannot be null");
+        required(licensePlate, "License plate cannot be null");
+        int partition = partitionOf(policyHolderId);
+        conclude(contractNumber, partition, Protocol.INSURE_VEHICLE, encode(out -> {
+            out.writeInt(partition);
+            out.writeUTF(contractNumber);
+            Protocol.writeOptionalId(out, beneficiaryId);
+            out.writeUTF(policyHolderId);
+            out.writeInt(proposedPremium);
+            writeFrequency(out, proposedPaymentFrequency);
+            out.writeUTF(licensePlate);
+            out.writeInt(originalValue);
+        }));
+    }
+
+    public void insurePersons(String contractNumber, String policyHolderId, int proposedPremium,
+                              PremiumPaymentFrequency proposedPaymentFrequency, Set<String> personIdsToInsure){
+        required(contractNumber, "Contract number cannot be null");
+        requiredIds(personIdsToInsure);
+        int partition = partitionOf(policyHolderId);
+        conclude(contractNumber, partition, Protocol.INSURE_PERSONS, encode(out -> {
+            out.writeInt(partition);
+            out.writeUTF(contractNumber);
+            out.writeUTF(policyHolderId);
+            out.writeInt(proposedPremium);
+            writeFrequency(out, proposedPaymentFrequency);
+            writeIds(out, personIdsToInsure);
+        }));
+    }
+
+    /**
+     * @param beneficiaryId id of the beneficiary, null for none
+     */
+    public void createMasterVehicleContract(String contractNumber, String beneficiaryId, String policyHolderId){
+        required(contractNumber, "Contract number cannot be null");
+        int partition = partitionOf(policyHolderId);
+        conclude(contractNumber, partition, Protocol.CREATE_MASTER_VEHICLE_CONTRACT, encode(out -> {
+            out.writeInt(partition);
+            out.writeUTF(contractNumber);
+            Protocol.writeOptionalId(out, beneficiaryId);
+            out.writeUTF(policyHolderId);
+        }));
+    }
+
+    /**
+     * Applied in the partition of the master; a contract of a policyholder in another partition is not found there.
+     */
+    public void moveSingleVehicleContractToMasterVehicleContract(String masterContractNumber, String singleContractNumber){
+        required(singleContractNumber, "Contract number cannot be null");
+        int partition = partitionOfContract(masterContractNumber);
+        route(partition, Protocol.MOVE_TO_MASTER_VEHICLE_CONTRACT, encode(out -> {
+            out.writeInt(partition);
+            out.writeUTF(masterContractNumber);
+            out.writeUTF(singleContractNumber);
+        }));
+    }
+
+    public void pay(String contractNumber, int amount){
+        int partition = partitionOfContract(contractNumber);
+        route(partition, Protocol.PAY, encode(out -> {
+            out.writeInt(partition);
+            out.writeUTF(contractNumber);
+            out.writeInt(amount);
+        }));
+    }
+
+    public void processTravelClaim(String contractNumber, Set<String> affectedPersonIds){
+        requiredIds(affectedPersonIds);
+        int partition = partitionOfContract(contractNumber);
+        route(partition, Protocol.PROCESS_TRAVEL_CLAIM, encode(out -> {
+            out.writeInt(partition);
+            out.writeUTF(contractNumber);
+            writeIds(out, affectedPersonIds);
+        }));
+    }
+
+    public void processVehicleClaim(String contractNumber, int expectedDamages){
+        int partition = partitionOfContract(contractNumber);
+        route(partition, Protocol.PROCESS_VEHICLE_CLAIM, encode(out -> {
+            out.writeInt(partition);
+            out.writeUTF(contractNumber);
+            out.writeInt(expectedDamages);
+        }));
+    }
+
+    /**
+     * Moves the clock of every partition and, if requested, bills all contracts; the workers run it in parallel.
+     * @throws IllegalArgumentException if currentTime is null
+     */
+    public void advanceTime(LocalDateTime currentTime, boolean chargePremiums){
+        required(currentTime, "Current time cannot be null");
+        broadcast(Protocol.ADVANCE_TIME, encode(out -> {
+            Protocol.writeTime(out, currentTime);
+            out.writeBoolean(chargePremiums);
+        }));
+    }
+
+    /**
+     * @return the contract with the given number, top-level or child, or null if no partition concluded it
+     */
+    public ContractSummary getContract(String contractNumber){
+        Integer partition = contractNumber == null ? null : partitionsByContractNumber.get(contractNumber);
+        if (partition == null) {
+            return null;
+        }
+        try {
+            DataInputStream in = in(route(partition, Protocol.GET_CONTRACT, encode(out -> {
+                out.writeInt(partition);
+                out.writeUTF(contractNumber);
+            })));
+            if (!in.readBoolean()) {
+                //reserved, not concluded yet
+                return null;
+            }
+            String number = in.readUTF();
+            String type = in.readUTF();
+            String policyHolderId = in.readUTF();
+            boolean active = in.readBoolean();
+            int coverageAmount = in.readInt();
+            if (!in.readBoolean()) {
+                return new ContractSummary(number, type, policyHolderId, active, coverageAmount, 0, 0, null);
+            }
+            int premium = in.readInt();
+            long outstandingBalance = in.readLong();
+            return new ContractSummary(number, type, policyHolderId, active, coverageAmount, premium, outstandingBalance, Protocol.readTime(in));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return sum of the claim payouts to the person in all partitions
+     */
+    public long getPaidOutAmount(String personId){
+        required(personId, "Person id cannot be null");
+        long paidOutAmount = 0;
+        try {
+            for (byte[] response : broadcast(Protocol.GET_PAID_OUT_AMOUNT, encode(out -> out.writeUTF(personId)))) {
+                paidOutAmount += in(response).readLong();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return paidOutAmount;
+    }
+
+    /**
+     * @return totals over all partitions, queried from the workers in parallel
+     */
+    public PortfolioStatistics getStatistics(){
+        long contracts = 0;
+        long activeContracts = 0;
+        long outstandingBalance = 0;
+        long paidOut = 0;
+        try {
+            for (byte[] response : broadcast(Protocol.GET_STATISTICS, new byte[0])) {
+                DataInputStream in = in(response);
+                contracts += in.readLong();
+                activeContracts += in.readLong();
+                outstandingBalance += in.readLong();
+                paidOut += in.readLong();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new PortfolioStatistics(contracts, activeContracts, outstandingBalance, paidOut);
+    }
+
+    /**
+     * Moves a partition to another worker: the source exports its snapshot and drops it, the target imports it.
+     * Commands wait until the transfer is done. If the target rejects the snapshot it goes back to the source.
+     * @param partition partition to move
+     * @param worker    index of the target worker
+     * @throws IllegalArgumentException if the partition or the worker does not exist
+     */
+    public void rebalance(int partition, int worker){
+        if (partition < 0 || partition >= workerOfPartition.length) {
+            throw new IllegalArgumentException("No partition " + partition);
+        }
+        if (worker < 0 || worker >= workers.size()) {
+            throw new IllegalArgumentException("No worker " + worker);
+        }
+        assignmentLock.writeLock().lock();
+        try {
+            int source = workerOfPartition[partition];
+            if (source == worker) {
+                return;
+            }
+            byte[] snapshot = workers.get(source).call(Protocol.EXPORT_PARTITION, encode(out -> out.writeInt(partition)));
+            byte[] transfer = encode(out -> {
+                out.writeInt(partition);
+                out.write(snapshot);
+            });
+            try {
+                workers.get(worker).call(Protocol.IMPORT_PARTITION, transfer);
+            } catch (RuntimeException e) {
+                workers.get(source).call(Protocol.IMPORT_PARTITION, transfer);
+                throw e;
+            }
+            workerOfPartition[partition] = worker;
+        } finally {
+            assignmentLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces a worker by its hot standby: promotes the standby and routes the partitions of the worker to it.
+     * Commands wait until the standby is promoted.
+     * @param worker  index of the worker to replace
+     * @param standby address of a standby of that worker, or of the worker itself to reconnect
+     * @throws IllegalArgumentException if the worker does not exist or standby is null
+     * @throws UncheckedIOException     if the standby cannot be reached; the old connection is kept then
+     */
+    public void failover(int worker, InetSocketAddress standby){
+        if (worker < 0 || worker >= workers.size()) {
+            throw new IllegalArgumentException("No worker " + worker);
+        }
+        required(standby, "Standby address cannot be null");
+        assignmentLock.writeLock().lock();
+        try {
+            WorkerConnection promoted;
+            try {
+                promoted = new WorkerConnection(standby);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            try {
+                promoted.call(Protocol.PROMOTE, new byte[0]);
+            } catch (RuntimeException e) {
+                promoted.close();
+                throw e;
+            }
+            workers.set(worker, promoted).close();
+        } finally {
+            assignmentLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Disconnects from the workers; they keep running and keep their partitions.
+     */
+    @Override
+    public void close(){
+        for (WorkerConnection worker : workers) {
+            worker.close();
+        }
+    }
+
+
+    //___________Private helpers___________
+    /**
+     * Reserves the contract number across all partitions and concludes the contract in its partition.
+     */
+    private void conclude(String contractNumber, int partition, byte opcode, byte[] request){
+        if (partitionsByContractNumber.putIfAbsent(contractNumber, partition) != null) {
+            throw new IllegalArgumentException("Contract number '" + contractNumber + "' already exists for this insurer");
+        }
+        try {
+            route(partition, opcode, request);
+        } catch (RuntimeException e) {
+            //released before the caller sees the rejection, so a retry with the same number is accepted
+            partitionsByContractNumber.remove(contractNumber, partition);
+            throw e;
+        }
+    }
+
+    /**
+     * Sends a request to the worker hosting the partition and waits for its response.
+     */
+    private byte[] route(int partition, byte opcode, byte[] request){
+        assignmentLock.readLock().lock();
+        try {
+            return workers.get(workerOfPartition[partition]).call(opcode, request);
+        } finally {
+            assignmentLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Sends a request to every worker before waiting for the first response, so the workers run it in parallel.
+     * A connection that fails is closed, a half-written or unread frame would put it out of step with its worker;
+     * it fails every later request until the worker is replaced by {@link #failover}.
+     * @return responses in worker order
+     * @throws UncheckedIOException or the rejection of a worker, the first one in worker order, once every
+     *                              request that was sent has been answered
+     */
+    private List<byte[]> broadcast(byte opcode, byte[] request){
+        assignmentLock.readLock().lock();
+        List<WorkerConnection> locked = new ArrayList<>(workers.size());
+        try {
+            //connections are always locked in worker order
+            for (WorkerConnection worker : workers) {
+                worker.lock.lock();
+                locked.add(worker);
+            }
+            RuntimeException failure = null;
+            boolean[] sent = new boolean[workers.size()];
+            for (int i = 0; i < workers.size(); i++) {
+                try {
+                    workers.get(i).send(opcode, request);
+                    sent[i] = true;
+                } catch (UncheckedIOException e) {
+                    //the workers before it got the request and are still answered below
+                    workers.get(i).close();
+                    if (failure == null) {
+                        failure = e;
+                    }
+                }
+            }
+            List<byte[]> responses = new ArrayList<>(workers.size());
+            for (int i = 0; i < workers.size(); i++) {
+                if (!sent[i]) {
+                    continue;
+                }
+                try {
+                    responses.add(workers.get(i).receive());
+                } catch (UncheckedIOException e) {
+                    workers.get(i).close();
+                    if (failure == null) {
+                        failure = e;
+                    }
+                } catch (RuntimeException e) {
+                    //every response of a sent request is read so the connections stay in step
+                    if (failure == null) {
+                        failure = e;
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return responses;
+        } finally {
+            for (WorkerConnection worker : locked) {
+                worker.lock.unlock();
+            }
+            assignmentLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if no partition concluded a contract with the number
+     */
+    private int partitionOfContract(String contractNumber){
+        required(contractNumber, "Contract number cannot be null");
+        Integer partition = partitionsByContractNumber.get(contractNumber);
+        if (partition == null) {
+            throw new IllegalArgumentException("No contract with number '" + contractNumber + "'");
+        }
+        return partition;
+    }
+
+    private static void required(Object value, String message){
+        if (value == null) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+
+    private static void requiredIds(Set<String> ids){
+        if (ids == null || ids.stream().anyMatch(id -> id == null)) {
+            throw new IllegalArgumentException("Person ids cannot be null");
+        }
+    }
+
+    private static void writeFrequency(DataOutputStream out, PremiumPaymentFrequency frequency) throws IOException {
+        //-1 is rejected by the worker like a null frequency
+        out.writeByte(frequency == null ? -1 : frequency.ordinal());
+    }
+
+    private static void writeIds(DataOutputStream out, Set<String> ids) throws IOException {
+        out.writeInt(ids.size());
+        for (String id : ids) {
+            out.writeUTF(id);
+        }
+    }
+
+    private static DataInputStream in(byte[] response){
+        return new DataInputStream(new ByteArrayInputStream(response));
+    }
+
+    private static byte[] encode(Protocol.PayloadWriter writer){
+        try {
+            return Protocol.encode(writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Connection to one worker, carrying one request at a time.
+     */
+    private static final class WorkerConnection {
+        private final SocketChannel channel;
+        private final ReentrantLock lock;
+
+        private WorkerConnection(InetSocketAddress address) throws IOException {
+            this.channel = SocketChannel.open(address);
+            this.channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            this.lock = new ReentrantLock();
+        }
+
+        private byte[] call(byte opcode, byte[] request){
+            lock.lock();
+            try {
+                send(opcode, request);
+                return receive();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void send(byte opcode, byte[] request){
+            try {
+                Protocol.writeFrame(channel, opcode, request);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * @throws InvalidContractException, IllegalArgumentException or IllegalStateException as rejected by the worker
+         */
+        private byte[] receive(){
+            Protocol.Frame response;
+            String message;
+            try {
+                response = Protocol.readFrame(channel);
+                if (response.code() == Protocol.OK) {
+                    return response.payload();
+                }
+                message = response.in().readUTF();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            switch (response.code()) {
+                case Protocol.INVALID_CONTRACT -> throw new InvalidContractException(message);
+                case Protocol.ILLEGAL_ARGUMENT -> throw new IllegalArgumentException(message);
+                default -> throw new IllegalStateException(message);
+            }
+        }
+
+        private void close(){
+            try {
+                channel.close();
+            } catch (IOException e) {
+                //closing anyway
+            }
+        }
+    }
+}
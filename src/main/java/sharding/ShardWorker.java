@@ -0,0 +1,582 @@
+package sharding;
+
+import contracts.AbstractContract;
+import contracts.InvalidContractException;
+import objects.Person;
+import payment.BalanceSnapshot;
+import payment.ContractPaymentData;
+import payment.PremiumPaymentFrequency;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process hosting partitions of a multi-process portfolio, served to a {@link ShardCoordinator} over {@link Protocol}.
+ * <p>
+ * Every connection is served by its own thread, but requests are applied one at a time, so the partitions
+ * keep the single-threaded domain code. Partitions are opened by the coordinator and move between workers
+ * as snapshots when it rebalances.
+ * <p>
+ * A worker can be the hot standby of another one: it starts from a base backup of the primary and then replays
+ * the journal of every mutating request the primary applies, in the same order, so both hold equal partitions.
+ * Until it is promoted a standby answers queries only. The primary ships the journal from a separate thread
+ * and exposes the replication lag through {@link #getReplicationStatus()}.
+ * <p>
+ * Run as its own process with {@code java -cp target/classes sharding.ShardWorker [port [primaryHost:primaryPort]]};
+ * it prints the port it listens on.
+ */
+public final class ShardWorker implements AutoCloseable {
+    //attributes
+    private final ServerSocketChannel server;
+    private final Map<Integer, Partition> partitions; //guarded by itself, every request is applied under this lock
+    private final Set<SocketChannel> connections;
+    private final Thread acceptor;
+    private long journalSequence; //guarded by partitions, sequence of the last mutating request applied
+    private JournalShipper journal; //guarded by partitions, null without a standby
+    private volatile boolean standby;
+    private final SocketChannel replication; //connection to the primary, null if started as a primary
+    private final Thread applier;
+
+    /**
+     * Starts a primary listening on the loopback interface.
+     * @param port port to listen on, 0 for any free port
+     * @throws IOException if the port cannot be bound
+     */
+    //constructor
+    public ShardWorker(int port) throws IOException {
+        this(port, null);
+    }
+
+    /**
+     * Starts a worker listening on the loopback interface, as the standby of a primary if one is given.
+     * A standby is caught up to the base backup of the primary when the constructor returns.
+     * @param port    port to listen on, 0 for any free port
+     * @param primary address of the primary to replicate, null to start as a primary
+     * @throws IOException if the port cannot be bound, or the primary cannot be reached or refuses a standby
+     */
+    public ShardWorker(int port, InetSocketAddress primary) throws IOException {
+        this.server = ServerSocketChannel.open();
+        this.partitions = new HashMap<>();
+        this.connections = ConcurrentHashMap.newKeySet();
+        SocketChannel replication = null;
+        try {
+            this.server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+            if (primary != null) {
+                replication = SocketChannel.open(primary);
+                replication.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                Protocol.writeFrame(replication, Protocol.REPLICATE, new byte[0]);
+                Protocol.Frame baseBackup = Protocol.readFrame(replication);
+                if (baseBackup.code() != Protocol.BASE_BACKUP) {
+                    throw new IOException("Primary refused the standby: " + baseBackup.in().readUTF());
+                }
+                DataInputStream in = baseBackup.in();
+                this.journalSequence = in.readLong();
+                restore(in);
+                acknowledge(replication, journalSequence);
+            }
+        } catch (IOException | RuntimeException e) {
+            server.close();
+            if (replication != null) {
+                replication.close();
+            }
+            throw e;
+        }
+        this.replication = replication;
+        this.standby = replication != null;
+        this.applier = standby ? new Thread(this::replay, "shard-worker-applier") : null;
+        this.acceptor = new Thread(this::acceptLoop, "shard-worker-acceptor");
+        this.acceptor.setDaemon(true);
+        this.acceptor.start();
+        if (applier != null) {
+            applier.setDaemon(true);
+            applier.start();
+        }
+    }
+
+    //___________Public methods___________
+    public InetSocketAddress getAddress(){
+        try {
+            return (InetSocketAddress) server.getLocalAddress();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return numbers of the partitions hosted right now
+     */
+    public List<Integer> getPartitions(){
+        synchronized (partitions) {
+            List<Integer> hosted = new ArrayList<>(partitions.keySet());
+            hosted.sort(null);
+            return hosted;
+        }
+    }
+
+    public boolean isStandby(){
+        return standby;
+    }
+
+    /**
+     * @return sequence of the last mutating request applied, by this worker or, on a standby, by the primary
+     */
+    public long getJournalSequence(){
+        synchronized (partitions) {
+            return journalSequence;
+        }
+    }
+
+    /**
+     * @return progress of the standby of this worker, or null if no standby is connected
+     */
+    public ReplicationStatus getReplicationStatus(){
+        synchronized (partitions) {
+            return journal == null || !journal.isOpen() ? null : journal.status();
+        }
+    }
+
+    /**
+     * Makes a standby a primary: it stops replaying the journal of its primary and accepts every request.
+     * The entry being applied is finished, so every entry the standby acknowledged is in its partitions;
+     * entries shipped but not acknowledged yet are dropped with the connection. Does nothing on a primary.
+     */
+    public void promote(){
+        if (replication == null) {
+            return;
+        }
+        try {
+            replication.close();
+        } catch (IOException e) {
+            //closing anyway
+        }
+        try {
+            applier.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while promoting the standby");
+        }
+        synchronized (partitions) {
+            standby = false;
+        }
+    }
+
+    /**
+     * Writes all hosted partitions in partition order. The snapshot is deterministic, so a standby that caught up
+     * with its primary writes the same bytes.
+     */
+    public byte[] snapshot(){
+        synchronized (partitions) {
+            try {
+                return Protocol.encode(out -> {
+                    List<Integer> hosted = getPartitions();
+                    out.writeInt(hosted.size());
+                    for (int number : hosted) {
+                        out.writeInt(number);
+                        partitions.get(number).writeTo(out);
+                    }
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Stops accepting connections and closes the open ones, the journal stream included.
+     */
+    @Override
+    public void close(){
+        try {
+            server.close();
+        } catch (IOException e) {
+            //closing anyway
+        }
+        synchronized (partitions) {
+            if (journal != null) {
+                journal.close();
+            }
+        }
+        if (replication != null) {
+            try {
+                replication.close();
+            } catch (IOException e) {
+                //closing anyway
+            }
+        }
+        for (SocketChannel connection : connections) {
+            try {
+                connection.close();
+            } catch (IOException e) {
+                //closing anyway
+            }
+        }
+    }
+
+    /**
+     * @param args optional port, 0 or none for any free port, and optional host:port of the primary to replicate
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        InetSocketAddress primary = null;
+        if (args.length > 1) {
+            int colon = args[1].lastIndexOf(':');
+            primary = new InetSocketAddress(args[1].substring(0, colon), Integer.parseInt(args[1].substring(colon + 1)));
+        }
+        ShardWorker worker = new ShardWorker(args.length > 0 ? Integer.parseInt(args[0]) : 0, primary);
+        System.out.println("ShardWorker listening on " + worker.getAddress().getPort());
+        System.out.flush();
+        worker.acceptor.join();
+    }
+
+
+    //___________Private helpers___________
+    private void acceptLoop(){
+        while (server.isOpen()) {
+            try {
+                SocketChannel connection = server.accept();
+                connection.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                connections.add(connection);
+                Thread reader = new Thread(() -> serve(connection), "shard-worker-connection");
+                reader.setDaemon(true);
+                reader.start();
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                //a failed accept does not stop the worker
+            }
+        }
+    }
+
+    private void serve(SocketChannel connection){
+        try (connection) {
+            while (true) {
+                Protocol.Frame request = Protocol.readFrame(connection);
+                if (request.code() == Protocol.REPLICATE) {
+                    shipJournal(connection);
+                    return;
+                }
+                Protocol.Frame response = request.code() == Protocol.PROMOTE ? promoteOnRequest() : handle(request);
+                Protocol.writeFrame(connection, response.code(), response.payload());
+            }
+        } catch (EOFException | ClosedChannelException e) {
+            //coordinator disconnected or worker closed
+        } catch (IOException e) {
+            //broken connection, the coordinator sees it as well
+        } finally {
+            connections.remove(connection);
+        }
+    }
+
+    /**
+     * Applies a request and appends it to the journal if it is a mutation, rejected or not,
+     * so a standby replaying the journal ends up in the same state.
+     * @return response with its status as code
+     * @throws IOException if the request is malformed; it changed nothing and is not journaled
+     */
+    private Protocol.Frame handle(Protocol.Frame request) throws IOException {
+        synchronized (partitions) {
+            if (standby && !Protocol.isQuery(request.code())) {
+                return new Protocol.Frame(Protocol.FAILURE, message("Standby accepts only queries until it is promoted"));
+            }
+            Protocol.Frame response;
+            try {
+                response = new Protocol.Frame(Protocol.OK, apply(request.code(), request.in()));
+            } catch (InvalidContractException e) {
+                response = new Protocol.Frame(Protocol.INVALID_CONTRACT, message(e.getMessage()));
+            } catch (IllegalArgumentException e) {
+                response = new Protocol.Frame(Protocol.ILLEGAL_ARGUMENT, message(e.getMessage()));
+            } catch (RuntimeException e) {
+                response = new Protocol.Frame(Protocol.FAILURE, message(e.getMessage()));
+            }
+            if (Protocol.isMutation(request.code())) {
+                journalSequence++;
+                if (journal != null && journal.isOpen()) {
+                    journal.append(request.code(), journalSequence, request.payload());
+                }
+            }
+            return response;
+        }
+    }
+
+    private Protocol.Frame promoteOnRequest(){
+        try {
+            promote();
+            return new Protocol.Frame(Protocol.OK, new byte[0]);
+        } catch (RuntimeException e) {
+            return new Protocol.Frame(Protocol.FAILURE, message(e.getMessage()));
+        }
+    }
+
+    /**
+     * Turns the connection of a standby into a journal stream, starting with a base backup,
+     * and reads its acknowledgements until it disconnects.
+     */
+    private void shipJournal(SocketChannel connection) throws IOException {
+        JournalShipper shipper;
+        synchronized (partitions) {
+            String refusal = standby ? "A standby cannot feed another standby"
+                    : journal != null && journal.isOpen() ? "Worker already has a standby" : null;
+            if (refusal != null) {
+                Protocol.writeFrame(connection, Protocol.FAILURE, message(refusal));
+                return;
+            }
+            shipper = new JournalShipper(connection, journalSequence, snapshot());
+            journal = shipper;
+        }
+        try {
+            shipper.readAcknowledgements();
+        } finally {
+            synchronized (partitions) {
+                //a later standby may have replaced it already
+                if (journal == shipper) {
+                    journal = null;
+                }
+            }
+            shipper.close();
+        }
+    }
+
+    /**
+     * Applies the journal of the primary until the primary goes away or this standby is promoted.
+     */
+    private void replay(){
+        try {
+            while (true) {
+                Protocol.Frame entry = Protocol.readFrame(replication);
+                DataInputStream in = entry.in();
+                long sequence = in.readLong();
+                synchronized (partitions) {
+                    try {
+                        apply(entry.code(), in);
+                    } catch (RuntimeException e) {
+                        //the primary rejected the request the same way
+                    }
+                    journalSequence = sequence;
+                }
+                acknowledge(replication, sequence);
+            }
+        } catch (IOException e) {
+            //primary gone, or promoted
+        }
+    }
+
+    private static void acknowledge(SocketChannel replication, long sequence) throws IOException {
+        Protocol.writeFrame(replication, Protocol.ACKNOWLEDGE, Protocol.encode(out -> out.writeLong(sequence)));
+    }
+
+    /**
+     * Adds the partitions of a snapshot written by {@link #snapshot()}.
+     */
+    private void restore(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            partitions.put(in.readInt(), Partition.readFrom(in));
+        }
+    }
+
+    /**
+     * Applies one request; called while holding the partitions lock.
+     * @return payload of the OK response
+     */
+    private byte[] apply(byte opcode, DataInputStream in) throws IOException {
+        switch (opcode) {
+            case Protocol.OPEN_PARTITION -> {
+                int partition = in.readInt();
+                LocalDateTime currentTime = Protocol.readTime(in);
+                if (partitions.putIfAbsent(partition, new Partition(currentTime)) != null) {
+                    throw new IllegalStateException("Partition " + partition + " is already hosted here");
+                }
+                return new byte[0];
+            }
+            case Protocol.INSURE_VEHICLE -> {
+                Partition partition = partition(in.readInt());
+                String contractNumber = in.readUTF();
+                String beneficiaryId = Protocol.readOptionalId(in);
+                String policyHolderId = in.readUTF();
+                int premium = in.readInt();
+                PremiumPaymentFrequency frequency = frequency(in);
+                partition.insureVehicle(contractNumber, beneficiaryId, policyHolderId, premium, frequency, in.readUTF(), in.readInt());
+                return new byte[0];
+            }
+            case Protocol.INSURE_PERSONS -> {
+                Partition partition = partition(in.readInt());
+                String contractNumber = in.readUTF();
+                String policyHolderId = in.readUTF();
+                int premium = in.readInt();
+                PremiumPaymentFrequency frequency = frequency(in);
+                partition.insurePersons(contractNumber, policyHolderId, premium, frequency, readIds(in));
+                return new byte[0];
+            }
+            case Protocol.CREATE_MASTER_VEHICLE_CONTRACT -> {
+                Partition partition = partition(in.readInt());
+                String contractNumber = in.readUTF();
+                partition.createMasterVehicleContract(contractNumber, Protocol.readOptionalId(in), in.readUTF());
+                return new byte[0];
+            }
+            case Protocol.MOVE_TO_MASTER_VEHICLE_CONTRACT -> {
+                Partition partition = partition(in.readInt());
+                partition.moveSingleVehicleContractToMasterVehicleContract(in.readUTF(), in.readUTF());
+                return new byte[0];
+            }
+            case Protocol.PAY -> {
+                Partition partition = partition(in.readInt());
+                partition.pay(in.readUTF(), in.readInt());
+                return new byte[0];
+            }
+            case Protocol.PROCESS_TRAVEL_CLAIM -> {
+                Partition partition = partition(in.readInt());
+                partition.processTravelClaim(in.readUTF(), readIds(in));
+                return new byte[0];
+            }
+            case Protocol.PROCESS_VEHICLE_CLAIM -> {
+                Partition partition = partition(in.readInt());
+                partition.processVehicleClaim(in.readUTF(), in.readInt());
+                return new byte[0];
+            }
+            case Protocol.ADVANCE_TIME -> {
+                LocalDateTime currentTime = Protocol.readTime(in);
+                boolean chargePremiums = in.readBoolean();
+                for (Partition partition : partitions.values()) {
+                    partition.getInsurer().setCurrentTime(currentTime);
+                    if (chargePremiums) {
+                        partition.getInsurer().chargePremiumsOnContracts();
+                    }
+                }
+                return new byte[0];
+            }
+            case Protocol.GET_CONTRACT -> {
+                AbstractContract contract = partition(in.readInt()).getContract(in.readUTF());
+                return Protocol.encode(out -> writeSummary(out, contract));
+            }
+            case Protocol.GET_PAID_OUT_AMOUNT -> {
+                String personId = in.readUTF();
+                long paidOutAmount = 0;
+                for (Partition partition : partitions.values()) {
+                    paidOutAmount += partition.getPaidOutAmount(personId);
+                }
+                long total = paidOutAmount;
+                return Protocol.encode(out -> out.writeLong(total));
+            }
+            case Protocol.GET_STATISTICS -> {
+                return Protocol.encode(this::writeStatistics);
+            }
+            case Protocol.EXPORT_PARTITION -> {
+                int number = in.readInt();
+                Partition partition = partition(number);
+                ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+                partition.writeTo(new DataOutputStream(snapshot));
+                partitions.remove(number);
+                return snapshot.toByteArray();
+            }
+            case Protocol.IMPORT_PARTITION -> {
+                int number = in.readInt();
+                if (partitions.containsKey(number)) {
+                    throw new IllegalStateException("Partition " + number + " is already hosted here");
+                }
+                partitions.put(number, Partition.readFrom(in));
+                return new byte[0];
+            }
+            default -> throw new IllegalStateException("Unknown opcode " + opcode);
+        }
+    }
+
+    private Partition partition(int number){
+        Partition partition = partitions.get(number);
+        if (partition == null) {
+            throw new IllegalStateException("Partition " + number + " is not hosted here");
+        }
+        return partition;
+    }
+
+    private static PremiumPaymentFrequency frequency(DataInputStream in) throws IOException {
+        byte ordinal = in.readByte();
+        PremiumPaymentFrequency[] frequencies = PremiumPaymentFrequency.values();
+        if (ordinal < 0 || ordinal >= frequencies.length) {
+            throw new IllegalArgumentException("Premium frequency cannot be null");
+        }
+        return frequencies[ordinal];
+    }
+
+    private static List<String> readIds(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<String> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(in.readUTF());
+        }
+        return ids;
+    }
+
+    /**
+     * Writes a presence flag and, if present, the fields of a {@link ContractSummary}.
+     */
+    private static void writeSummary(DataOutputStream out, AbstractContract contract) throws IOException {
+        out.writeBoolean(contract != null);
+        if (contract == null) {
+            return;
+        }
+        out.writeUTF(contract.getContractNumber());
+        out.writeUTF(contract.getClass().getSimpleName());
+        out.writeUTF(contract.getPolicyHolder().getId());
+        out.writeBoolean(contract.isActive());
+        out.writeInt(contract.getCoverageAmount());
+        ContractPaymentData paymentData = contract.getContractPaymentData();
+        out.writeBoolean(paymentData != null);
+        if (paymentData != null) {
+            BalanceSnapshot balance = paymentData.snapshot();
+            out.writeInt(paymentData.getPremium());
+            out.writeLong(balance.outstandingBalance());
+            Protocol.writeTime(out, balance.nextPaymentTime());
+        }
+    }
+
+    private void writeStatistics(DataOutputStream out) throws IOException {
+        long contracts = 0;
+        long activeContracts = 0;
+        long outstandingBalance = 0;
+        long paidOut = 0;
+        for (Partition partition : partitions.values()) {
+            for (AbstractContract contract : partition.getInsurer().getContracts()) {
+                contracts++;
+                if (contract.isActive()) {
+                    activeContracts++;
+                }
+            }
+            for (AbstractContract contract : partition.getAllContracts()) {
+                if (contract.getContractPaymentData() != null) {
+                    outstandingBalance += contract.getContractPaymentData().getOutstandingBalance();
+                }
+            }
+            for (Person person : partition.getPersons()) {
+                paidOut += person.getPaidOutAmount();
+            }
+        }
+        out.writeLong(contracts);
+        out.writeLong(activeContracts);
+        out.writeLong(outstandingBalance);
+        out.writeLong(paidOut);
+    }
+
+    private static byte[] message(String message){
+        try {
+            return Protocol.encode(out -> out.writeUTF(String.valueOf(message)));
+        } catch (IOException impossible) {
+            throw new UncheckedIOException(impossible);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package sharding;
+
+import company.InsuranceCompany;
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import objects.Person;
+import objects.Vehicle;
+import payment.PremiumPaymentFrequency;
+import pipeline.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.IntFunction;
+
+/**
+ * Facade over several insurers, each driven by its own single-writer {@link CommandPipeline}.
+ * <p>
+ * Contracts are partitioned by a hash of the policyholder id, so all contracts of a person, master fleets
+ * and their children included, live in one shard and every shard keeps the single-threaded domain code.
+ * Operations on different shards run in parallel on the shard writer threads; billing runs on all shards at once.
+ * Contract numbers are unique across the shards: a number is reserved before its contract is concluded
+ * and released again if the conclusion is rejected.
+ * <p>
+ * Persons may still be beneficiaries or insured persons of contracts in other shards; their payouts are lock-free.
+ */
+public final class ShardedInsuranceCompany implements AutoCloseable {
+    private static final int DEFAULT_BUFFER_SIZE = 4_096;
+
+    //attributes
+    private final CommandPipeline[] pipelines; //one writer thread per shard
+    private final ConcurrentHashMap<String, Integer> shardsByContractNumber; //reserved and concluded numbers
+
+    //constructor
+    public ShardedInsuranceCompany(LocalDateTime currentTime, int shards){
+        this(shards, shard -> new InsuranceCompany(currentTime), DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param shards          number of shards, positive
+     * @param insurerFactory  creates the insurer of a shard, e.g. an instrumented one; called once per shard
+     * @param bufferSize      minimal ring buffer size of every shard pipeline
+     * @throws IllegalArgumentException if shards or bufferSize is not positive or the factory returns null
+     */
+    public ShardedInsuranceCompany(int shards, IntFunction<InsuranceCompany> insurerFactory, int bufferSize){
+        if (shards <= 0) {
+            throw new IllegalArgumentException("Number of shards must be positive");
+        }
+        if (insurerFactory == null) {
+            throw new IllegalArgumentException("Insurer factory cannot be null");
+        }
+
+        this.pipelines = new CommandPipeline[shards];
+        for (int shard = 0; shard < shards; shard++) {
+            try {
+                InsuranceCompany insurer = insurerFactory.apply(shard);
+                if (insurer == null) {
+                    throw new IllegalArgumentException("Insurer factory returned null for shard " + shard);
+                }
+                pipelines[shard] = new CommandPipeline(insurer, bufferSize);
+            } catch (RuntimeException e) {
+                //stop the writers of the shards created so far
+                close(shard);
+                throw e;
+            }
+        }
+        this.shardsByContractNumber = new ConcurrentHashMap<>();
+    }
+
+    //___________Public methods___________
+    public int getShardCount(){
+        return pipelines.length;
+    }
+
+    /**
+     * @return shard that holds every contract of the policyholder with the given id
+     * @throws IllegalArgumentException if policyHolderId is null
+     */
+    public int shardOf(String policyHolderId){
+        if (policyHolderId == null) {
+            throw new IllegalArgumentException("Policy holder id cannot be null");
+        }
+        int hash = policyHolderId.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), pipelines.length);
+    }
+
+    public CompletableFuture<SingleVehicleContract> insureVehicle(String contractNumber,
+                                                                  Person beneficiary,
+                                                                  Person policyHolder,
+                                                                  int proposedPremium,
+                                                                  PremiumPaymentFrequency proposedPaymentFrequency,
+                                                                  Vehicle vehicleToInsure){
+        return conclude(contractNumber, shardOf(policyHolder),
+                new InsureVehicle(contractNumber, beneficiary, policyHolder, proposedPremium, proposedPaymentFrequency, vehicleToInsure));
+    }
+
+    public CompletableFuture<TravelContract> insurePersons(String contractNumber,
+                                                           Person policyHolder,
+                                                           int proposedPremium,
+                                                           PremiumPaymentFrequency proposedPaymentFrequency,
+                                                           Set<Person> personsToInsure){
+        return conclude(contractNumber, shardOf(policyHolder),
+                new InsurePersons(contractNumber, policyHolder, proposedPremium, proposedPaymentFrequency, personsToInsure));
+    }
+
+    public CompletableFuture<MasterVehicleContract> createMasterVehicleContract(String contractNumber,
+                                                                               Person beneficiary,
+                                                                               Person policyHolder){
+        return conclude(contractNumber, shardOf(policyHolder),
+                new CreateMasterVehicleContract(contractNumber, beneficiary, policyHolder));
+    }
+
+    /**
+     * Applied in the shard of the master; a contract of another policyholder lives in another shard
+     * and is rejected as insured by another insurer.
+     */
+    public CompletableFuture<Void> moveSingleVehicleContractToMasterVehicleContract(MasterVehicleContract masterVehicleContract,
+                                                                                    SingleVehicleContract singleVehicleContract){
+        return pipelines[shardOf(masterVehicleContract)].submit(new MoveToMasterVehicleContract(masterVehicleContract, singleVehicleContract));
+    }
+
+    public CompletableFuture<Void> pay(AbstractContract contract, int amount){
+        return pipelines[shardOf(contract)].submit(new Pay(contract, amount));
+    }
+
+    public CompletableFuture<Void> processClaim(TravelContract travelContract, Set<Person> affectedPersons){
+        return pipelines[shardOf(travelContract)].submit(new ProcessTravelClaim(travelContract, affectedPersons));
+    }
+
+    public CompletableFuture<Void> processClaim(SingleVehicleContract singleVehicleContract, int expectedDamages){
+        return pipelines[shardOf(singleVehicleContract)].submit(new ProcessVehicleClaim(singleVehicleContract, expectedDamages));
+    }
+
+    /**
+     * Moves the clock of every shard and, if requested, bills all contracts; the shards run it in parallel.
+     * @return future completed once every shard is done, exceptionally if any shard rejected the time
+     */
+    public CompletableFuture<Void> advanceTime(LocalDateTime currentTime, boolean chargePremiums){
+        return CompletableFuture.allOf(broadcast(new AdvanceTime(currentTime, chargePremiums)).toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * @return future of the contract with the given number, or of null if no shard concluded it
+     */
+    public CompletableFuture<AbstractContract> getContract(String contractNumber){
+        Integer shard = contractNumber == null ? null : shardsByContractNumber.get(contractNumber);
+        if (shard == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return pipelines[shard].submit(insurer -> insurer.getContract(contractNumber));
+    }
+
+    /**
+     * @return future of the number of top-level contracts in all shards
+     */
+    public CompletableFuture<Integer> getContractCount(){
+        List<CompletableFuture<Integer>> counts = broadcast(insurer -> insurer.getContracts().size());
+        return CompletableFuture.allOf(counts.toArray(new CompletableFuture<?>[0]))
+                .thenApply(done -> counts.stream().mapToInt(CompletableFuture::join).sum());
+    }
+
+    /**
+     * Submits a command to every shard, e.g. for a report; each shard applies it on its own writer thread.
+     * @return futures of the results in shard order
+     */
+    public <R> List<CompletableFuture<R>> broadcast(Command<R> command){
+        List<CompletableFuture<R>> results = new ArrayList<>(pipelines.length);
+        for (CommandPipeline pipeline : pipelines) {
+            results.add(pipeline.submit(command));
+        }
+        return results;
+    }
+
+    /**
+     * Stops every shard after it applied everything submitted before.
+     */
+    @Override
+    public void close(){
+        close(pipelines.length);
+    }
+
+
+    //___________Private helpers___________
+    /**
+     * Reserves the contract number across all shards and concludes the contract in its shard.
+     */
+    private <C extends AbstractContract> CompletableFuture<C> conclude(String contractNumber, int shard, Command<C> command){
+        if (contractNumber == null || contractNumber.isEmpty()) {
+            //rejected by the insurer like any other invalid contract number
+            return pipelines[shard].submit(command);
+        }
+        Integer reserved = shardsByContractNumber.putIfAbsent(contractNumber, shard);
+        if (reserved != null) {
+            return CompletableFuture.failedFuture(
+                    new IllegalArgumentException("Contract number '" + contractNumber + "' already exists for this insurer"));
+        }
+        CompletableFuture<C> result;
+        try {
+            result = pipelines[shard].submit(command);
+        } catch (RejectedExecutionException e) {
+            shardsByContractNumber.remove(contractNumber, shard);
+            throw e;
+        }
+        //released before the caller sees the rejection, so a retry with the same number is accepted
+        return result.whenComplete((contract, rejection) -> {
+            if (rejection != null) {
+                shardsByContractNumber.remove(contractNumber, shard);
+            }
+        });
+    }
+
+    private int shardOf(Person policyHolder){
+        if (policyHolder == null) {
+            throw new IllegalArgumentException("Policy holder cannot be null");
+        }
+        return shardOf(policyHolder.getId());
+    }
+
+    private int shardOf(AbstractContract contract){
+        if (contract == null) {
+            throw new IllegalArgumentException("Contract cannot be null");
+        }
+        return shardOf(contract.getPolicyHolder());
+    }
+
+    private void close(int shards){
+        for (int shard = 0; shard < shards; shard++) {
+            if (pipelines[shard] != null) {
+                pipelines[shard].close();
+            }
+        }
+    }
+}
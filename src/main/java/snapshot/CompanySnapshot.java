@@ -0,0 +1,107 @@
+package snapshot;
+
+import payment.PaymentInstance;
+
+import java.time.LocalDateTime;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Consistent point-in-time view of a {@link VersionedInsuranceCompany}.
+ * Snapshots are immutable and can be read from any thread for as long as needed, while the insurer keeps changing.
+ * Taking one costs nothing, consecutive snapshots share all contracts that did not change in between.
+ */
+public final class CompanySnapshot {
+    //attributes
+    private final long version;
+    private final LocalDateTime currentTime;
+    private final PersistentVector<ContractVersion> contracts; //by slot, including children of masters
+    private final PersistentHashMap<String, Integer> slotsByNumber;
+    private final int contractCount;
+
+    //constructor
+    CompanySnapshot(long version, LocalDateTime currentTime, PersistentVector<ContractVersion> contracts,
+                    PersistentHashMap<String, Integer> slotsByNumber, int contractCount){
+        this.version = version;
+        this.currentTime = currentTime;
+        this.contracts = contracts;
+        this.slotsByNumber = slotsByNumber;
+        this.contractCount = contractCount;
+    }
+
+    //___________Public methods___________
+    /**
+     * @return number of changes applied to the insurer before this snapshot was taken
+     */
+    public long getVersion(){
+        return version;
+    }
+
+    public LocalDateTime getCurrentTime(){
+        return currentTime;
+    }
+
+    /**
+     * @return number of contracts of the insurer, not counting contracts moved into masters
+     */
+    public int getContractCount(){
+        return contractCount;
+    }
+
+    /**
+     * @return contracts of the insurer in the order they were concluded, as {@code getContracts()} of the insurer
+     */
+    public Stream<ContractVersion> contracts(){
+        return StreamSupport.stream(contracts.spliterator(), false).filter(contract -> !contract.isChild());
+    }
+
+    /**
+     * @return the contract with the given number, or null if the insurer had none; contracts moved into a master are only
+     * reachable through {@link #getChildContracts}
+     */
+    public ContractVersion getContract(String contractNumber){
+        Integer slot = contractNumber == null ? null : slotsByNumber.get(contractNumber);
+        if (slot == null) {
+            return null;
+        }
+        ContractVersion contract = contracts.get(slot);
+        return contract.isChild() ? null : contract;
+    }
+
+    /**
+     * @return children of a master vehicle contract of this snapshot, in the order they were added
+     */
+    public List<ContractVersion> getChildContracts(ContractVersion master){
+        PersistentVector<Integer> childSlots = master.childSlots;
+        return new AbstractList<>() {
+            @Override
+            public ContractVersion get(int index){
+                return contracts.get(childSlots.get(index));
+            }
+
+            @Override
+            public int size(){
+                return childSlots.size();
+            }
+        };
+    }
+
+    /**
+     * @return payments made on the contract up to this snapshot, in the order they were made
+     */
+    public List<PaymentInstance> getPaymentHistory(ContractVersion contract){
+        return contract.payments;
+    }
+
+
+    //___________Package methods___________
+    PersistentVector<ContractVersion> contractVersions(){
+        return contracts;
+    }
+
+    PersistentHashMap<String, Integer> slotsByNumber(){
+        return slotsByNumber;
+    }
+}
@@ -0,0 +1,141 @@
+package snapshot;
+
+import contracts.AbstractContract;
+import payment.BalanceSnapshot;
+import payment.ContractPaymentData;
+import payment.PaymentInstance;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Immutable state of one contract as of a {@link CompanySnapshot}.
+ * Master vehicle contracts carry no payment data: their premium and balance are 0 and frequency and next payment time null.
+ */
+public final class ContractVersion {
+    //attributes
+    private final String contractNumber;
+    private final String type;
+    private final String policyHolderId;
+    private final boolean active;
+    private final int coverageAmount;
+    private final int premium;
+    private final PremiumPaymentFrequency premiumPaymentFrequency;
+    private final long outstandingBalance;
+    private final LocalDateTime nextPaymentTime;
+    final int slot; //position in the snapshot, in order of conclusion
+    final int masterSlot; //slot of the master vehicle contract the contract was moved into, -1 if none
+    final PersistentVector<Integer> childSlots;
+    final PersistentVector<PaymentInstance> payments;
+
+    //constructor
+    private ContractVersion(AbstractContract contract, int slot, int masterSlot,
+                            PersistentVector<Integer> childSlots, PersistentVector<PaymentInstance> payments){
+        this.contractNumber = contract.getContractNumber();
+        this.type = contract.getClass().getSimpleName();
+        this.policyHolderId = contract.getPolicyHolder().getId();
+        this.active = contract.isActive();
+        this.coverageAmount = contract.getCoverageAmount();
+        ContractPaymentData paymentData = contract.getContractPaymentData();
+        this.premium = paymentData == null ? 0 : paymentData.getPremium();
+        this.premiumPaymentFrequency = paymentData == null ? null : paymentData.getPremiumPaymentFrequency();
+        BalanceSnapshot balance = paymentData == null ? null : paymentData.snapshot();
+        this.outstandingBalance = balance == null ? 0 : balance.outstandingBalance();
+        this.nextPaymentTime = balance == null ? null : balance.nextPaymentTime();
+        this.slot = slot;
+        this.masterSlot = masterSlot;
+        this.childSlots = childSlots;
+        this.payments = payments;
+    }
+
+    //___________Public methods___________
+    public String getContractNumber(){
+        return contractNumber;
+    }
+
+    /**
+     * @return simple class name of the contract, e.g. SingleVehicleContract
+     */
+    public String getType(){
+        return type;
+    }
+
+    public String getPolicyHolderId(){
+        return policyHolderId;
+    }
+
+    public boolean isActive(){
+        return active;
+    }
+
+    public int getCoverageAmount(){
+        return coverageAmount;
+    }
+
+    public int getPremium(){
+        return premium;
+    }
+
+    public PremiumPaymentFrequency getPremiumPaymentFrequency(){
+        return premiumPaymentFrequency;
+    }
+
+    public long getOutstandingBalance(){
+        return outstandingBalance;
+    }
+
+    public LocalDateTime getNextPaymentTime(){
+        return nextPaymentTime;
+    }
+
+    /**
+     * @return true if the contract was moved into a master vehicle contract
+     */
+    public boolean isChild(){
+        return masterSlot >= 0;
+    }
+
+
+    //___________Package methods___________
+    static ContractVersion concluded(AbstractContract contract, int slot){
+        return new ContractVersion(contract, slot, -1, PersistentVector.empty(), PersistentVector.empty());
+    }
+
+    /**
+     * @return this version with the current state of the live contract
+     */
+    ContractVersion refreshed(AbstractContract contract){
+        return new ContractVersion(contract, slot, masterSlot, childSlots, payments);
+    }
+
+    ContractVersion movedInto(AbstractContract contract, int masterSlot){
+        return new ContractVersion(contract, slot, masterSlot, childSlots, payments);
+    }
+
+    ContractVersion withChild(AbstractContract contract, int childSlot){
+        return new ContractVersion(contract, slot, masterSlot, childSlots.append(childSlot), payments);
+    }
+
+    ContractVersion withChildren(AbstractContract contract, List<Integer> addedChildSlots){
+        PersistentVector.Editor<Integer> editor = childSlots.edit();
+        for (Integer childSlot : addedChildSlots) {
+            editor.append(childSlot);
+        }
+        return new ContractVersion(contract, slot, masterSlot, editor.persistent(), payments);
+    }
+
+    ContractVersion withoutChild(AbstractContract contract, int childSlot){
+        PersistentVector.Editor<Integer> editor = PersistentVector.<Integer>empty().edit();
+        for (Integer slot : childSlots) {
+            if (slot != childSlot) {
+                editor.append(slot);
+            }
+        }
+        return new ContractVersion(contract, slot, masterSlot, editor.persistent(), payments);
+    }
+
+    ContractVersion withPayment(AbstractContract contract, PaymentInstance payment){
+        return new ContractVersion(contract, slot, masterSlot, childSlots, payments.append(payment));
+    }
+}
@@ -0,0 +1,181 @@
+package snapshot;
+
+import java.util.Arrays;
+
+/**
+ * Immutable hash map stored as a hash array mapped trie.
+ * {@link #with} copies only the nodes on the path of the key; everything else is shared with the previous version.
+ * Keys must not be null and must have stable hash codes.
+ */
+final class PersistentHashMap<K, V> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final PersistentHashMap<?, ?> EMPTY = new PersistentHashMap<>(new BitmapNode(0, new Object[0]), 0);
+
+    //attributes
+    private final Node root;
+    private final int size;
+
+    //constructor
+    private PersistentHashMap(Node root, int size){
+        this.root = root;
+        this.size = size;
+    }
+
+    //___________Package methods___________
+    @SuppressWarnings("unchecked")
+    static <K, V> PersistentHashMap<K, V> empty(){
+        return (PersistentHashMap<K, V>) EMPTY;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(K key){
+        return (V) root.get(0, hash(key), key);
+    }
+
+    PersistentHashMap<K, V> with(K key, V value){
+        boolean[] added = new boolean[1];
+        Node newRoot = root.with(0, hash(key), key, value, added);
+        return newRoot == root ? this : new PersistentHashMap<>(newRoot, added[0] ? size + 1 : size);
+    }
+
+    int size(){
+        return size;
+    }
+
+
+    //___________Private helpers___________
+    private static int hash(Object key){
+        int hash = key.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    private interface Node {
+        Object get(int shift, int hash, Object key);
+
+        Node with(int shift, int hash, Object key, Object value, boolean[] added);
+    }
+
+    /**
+     * Entries of one trie level; the bitmap tells which of the 32 slots are used.
+     * An entry is a key and its value, or a null key and the sub-node of all keys sharing the slot.
+     */
+    private static final class BitmapNode implements Node {
+        private final int bitmap;
+        private final Object[] entries;
+
+        private BitmapNode(int bitmap, Object[] entries){
+            this.bitmap = bitmap;
+            this.entries = entries;
+        }
+
+        @Override
+        public Object get(int shift, int hash, Object key){
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            int i = 2 * Integer.bitCount(bitmap & (bit - 1));
+            Object entryKey = entries[i];
+            if (entryKey == null) {
+                return ((Node) entries[i + 1]).get(shift + BITS, hash, key);
+            }
+            return key.equals(entryKey) ? entries[i + 1] : null;
+        }
+
+        @Override
+        public Node with(int shift, int hash, Object key, Object value, boolean[] added){
+            int bit = 1 << ((hash >>> shift) & MASK);
+            int i = 2 * Integer.bitCount(bitmap & (bit - 1));
+            if ((bitmap & bit) == 0) {
+                Object[] copy = new Object[entries.length + 2];
+                System.arraycopy(entries, 0, copy, 0, i);
+                copy[i] = key;
+                copy[i + 1] = value;
+                System.arraycopy(entries, i, copy, i + 2, entries.length - i);
+                added[0] = true;
+                return new BitmapNode(bitmap | bit, copy);
+            }
+
+            Object entryKey = entries[i];
+            Object entryValue = entries[i + 1];
+            Node replacement;
+            if (entryKey == null) {
+                Node child = (Node) entryValue;
+                replacement = child.with(shift + BITS, hash, key, value, added);
+                if (replacement == child) {
+                    return this;
+                }
+            } else if (key.equals(entryKey)) {
+                if (entryValue == value) {
+                    return this;
+                }
+                Object[] copy = entries.clone();
+                copy[i + 1] = value;
+                return new BitmapNode(bitmap, copy);
+            } else {
+                replacement = pair(shift + BITS, entryKey, entryValue, hash, key, value);
+                added[0] = true;
+            }
+            Object[] copy = entries.clone();
+            copy[i] = null;
+            copy[i + 1] = replacement;
+            return new BitmapNode(bitmap, copy);
+        }
+
+        private static Node pair(int shift, Object key1, Object value1, int hash2, Object key2, Object value2){
+            int hash1 = hash(key1);
+            if (hash1 == hash2) {
+                return new CollisionNode(hash1, new Object[]{key1, value1, key2, value2});
+            }
+            boolean[] ignored = new boolean[1];
+            return new BitmapNode(0, new Object[0])
+                    .with(shift, hash1, key1, value1, ignored)
+                    .with(shift, hash2, key2, value2, ignored);
+        }
+    }
+
+    /**
+     * Keys with equal hashes, searched linearly.
+     */
+    private static final class CollisionNode implements Node {
+        private final int hash;
+        private final Object[] entries;
+
+        private CollisionNode(int hash, Object[] entries){
+            this.hash = hash;
+            this.entries = entries;
+        }
+
+        @Override
+        public Object get(int shift, int hash, Object key){
+            for (int i = 0; i < entries.length; i += 2) {
+                if (key.equals(entries[i])) {
+                    return entries[i + 1];
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public Node with(int shift, int hash, Object key, Object value, boolean[] added){
+            if (hash != this.hash) {
+                //a different hash reached this slot, push the collisions one level down
+                return new BitmapNode(1 << ((this.hash >>> shift) & MASK), new Object[]{null, this})
+                        .with(shift, hash, key, value, added);
+            }
+            for (int i = 0; i < entries.length; i += 2) {
+                if (key.equals(entries[i])) {
+                    Object[] copy = entries.clone();
+                    copy[i + 1] = value;
+                    return new CollisionNode(this.hash, copy);
+                }
+            }
+            Object[] copy = Arrays.copyOf(entries, entries.length + 2);
+            copy[entries.length] = key;
+            copy[entries.length + 1] = value;
+            added[0] = true;
+            return new CollisionNode(this.hash, copy);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package snapshot;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * Immutable indexed sequence stored as a 32-way trie.
+ * {@link #set} and {@link #append} copy only the path to the changed leaf, all other nodes are shared
+ * with the previous version. An {@link Editor} applies many updates in place on nodes it created itself,
+ * so a batch of n updates allocates at most one copy of each touched node.
+ */
+final class PersistentVector<E> extends AbstractList<E> implements RandomAccess {
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+    private static final PersistentVector<?> EMPTY = new PersistentVector<>(new Node(null, new Object[WIDTH]), 0, 0);
+
+    //attributes
+    private final Node root;
+    private final int shift; //bits of the index consumed above the leaves
+    private final int size;
+
+    //constructor
+    private PersistentVector(Node root, int shift, int size){
+        this.root = root;
+        this.shift = shift;
+        this.size = size;
+    }
+
+    //___________Package methods___________
+    @SuppressWarnings("unchecked")
+    static <E> PersistentVector<E> empty(){
+        return (PersistentVector<E>) EMPTY;
+    }
+
+    PersistentVector<E> with(int index, E element){
+        return edit(null).set(index, element).persistent();
+    }
+
+    PersistentVector<E> append(E element){
+        return edit(null).append(element).persistent();
+    }
+
+    /**
+     * @return editor of a new version; this vector is never modified
+     */
+    Editor<E> edit(){
+        return edit(new Object());
+    }
+
+
+    //___________Override methods___________
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index){
+        checkIndex(index, size);
+        return (E) leaf(root, shift, index)[index & MASK];
+    }
+
+    @Override
+    public int size(){
+        return size;
+    }
+
+    @Override
+    public Iterator<E> iterator(){
+        return new Iterator<>() {
+            private int index;
+            private Object[] leaf;
+
+            @Override
+            public boolean hasNext(){
+                return index < size;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public E next(){
+                if (index >= size) {
+                    throw new NoSuchElementException();
+                }
+                if ((index & MASK) == 0) {
+                    leaf = leaf(root, shift, index);
+                }
+                return (E) leaf[index++ & MASK];
+            }
+        };
+    }
+
+
+    //___________Private helpers___________
+    private Editor<E> edit(Object token){
+        return new Editor<>(token, root, shift, size);
+    }
+
+    private static Object[] leaf(Node root, int shift, int index){
+        Node node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Node) node.array[(index >>> level) & MASK];
+        }
+        return node.array;
+    }
+
+    private static void checkIndex(int index, int size){
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+    }
+
+    /**
+     * Mutable builder of the next version. Nodes carrying its token were copied by it and may be changed in place.
+     * A persistent update is an editor without a token, which copies every node on the path.
+     */
+    static final class Editor<E> {
+        //attributes
+        private final Object token;
+        private Node root;
+        private int shift;
+        private int size;
+        private boolean done;
+
+        //constructor
+        private Editor(Object token, Node root, int shift, int size){
+            this.token = token;
+            this.root = root;
+            this.shift = shift;
+            this.size = size;
+        }
+
+        //___________Package methods___________
+        @SuppressWarnings("unchecked")
+        E get(int index){
+            checkIndex(index, size);
+            return (E) leaf(root, shift, index)[index & MASK];
+        }
+
+        int size(){
+            return size;
+        }
+
+        Editor<E> set(int index, E element){
+            checkOpen();
+            checkIndex(index, size);
+            root = assoc(root, shift, index, element);
+            return this;
+        }
+
+        Editor<E> append(E element){
+            checkOpen();
+            if (size == 1 << (shift + BITS)) {
+                Object[] array = new Object[WIDTH];
+                array[0] = root;
+                root = new Node(token, array);
+                shift += BITS;
+            }
+            root = assoc(root, shift, size, element);
+            size++;
+            return this;
+        }
+
+        /**
+         * @return the edited version; the editor cannot be used afterwards
+         */
+        PersistentVector<E> persistent(){
+            checkOpen();
+            done = true;
+            return new PersistentVector<>(root, shift, size);
+        }
+
+
+        //___________Private helpers___________
+        private Node assoc(Node node, int level, int index, Object value){
+            Node editable = node == null ? new Node(token, new Object[WIDTH])
+                    : token != null && node.edit == token ? node
+                    : new Node(token, Arrays.copyOf(node.array, WIDTH));
+            int slot = (index >>> level) & MASK;
+            editable.array[slot] = level == 0 ? value : assoc((Node) editable.array[slot], level - BITS, index, value);
+            return editable;
+        }
+
+        private void checkOpen(){
+            if (done) {
+                throw new IllegalStateException("Editor was already turned into a persistent vector");
+            }
+        }
+    }
+
+    private static final class Node {
+        private final Object edit; //token of the editor that created this node, null if shared
+        private final Object[] array;
+
+        private Node(Object edit, Object[] array){
+            this.edit = edit;
+            this.array = array;
+        }
+    }
+}
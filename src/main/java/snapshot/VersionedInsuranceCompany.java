@@ -0,0 +1,364 @@
+package snapshot;
+
+import company.BillingRun;
+import company.ClaimReport;
+import company.InsuranceCompany;
+import company.TravelQuote;
+import company.VehicleClaim;
+import company.VehicleQuote;
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import objects.Person;
+import objects.Vehicle;
+import payment.PaymentInstance;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Insurer that publishes an immutable {@link CompanySnapshot} after every change.
+ * <p>
+ * Each change copies only the versions of the contracts it touched and the trie path to them,
+ * so readers get consistent point-in-time views without blocking the writer and without copying the whole portfolio.
+ * The insurer itself must be driven by one thread at a time, e.g. the writer of a {@link pipeline.CommandPipeline};
+ * {@link #snapshot()} may be called from any thread.
+ */
+public class VersionedInsuranceCompany extends InsuranceCompany {
+    //attributes
+    private final Map<AbstractContract, Integer> slots; //by identity, numbers of moved contracts can be reused
+    private final List<AbstractContract> billed; //by the incremental billing run in progress
+    private volatile CompanySnapshot current;
+
+    //constructor
+    public VersionedInsuranceCompany(LocalDateTime currentTime){
+        super(currentTime, insurer -> new VersionedPaymentHandler((VersionedInsuranceCompany) insurer));
+        this.slots = new IdentityHashMap<>();
+        this.billed = new ArrayList<>();
+        this.current = new CompanySnapshot(0, currentTime, PersistentVector.empty(), PersistentHashMap.empty(), 0);
+    }
+
+    //___________Public methods___________
+    /**
+     * @return the state after the last completed change
+     */
+    public CompanySnapshot snapshot(){
+        return current;
+    }
+
+
+    //___________Override methods___________
+    @Override
+    public void setCurrentTime(LocalDateTime currentTime){
+        super.setCurrentTime(currentTime);
+        CompanySnapshot snapshot = current;
+        publish(snapshot.contractVersions().edit(), snapshot, 0);
+    }
+
+    @Override
+    public SingleVehicleContract insureVehicle(String contractNumber,
+                                               Person beneficiary,
+                                               Person policyHolder,
+                                               int proposedPremium,
+                                               PremiumPaymentFrequency proposedPaymentFrequency,
+                                               Vehicle vehicleToInsure){
+        SingleVehicleContract contract = super.insureVehicle(contractNumber, beneficiary, policyHolder, proposedPremium, proposedPaymentFrequency, vehicleToInsure);
+        concluded(contract);
+        return contract;
+    }
+
+    @Override
+    public TravelContract insurePersons(String contractNumber,
+                                        Person policyHolder,
+                                        int proposedPremium,
+                                        PremiumPaymentFrequency proposedPaymentFrequency,
+                                        Set<Person> personsToInsure){
+        TravelContract contract = super.insurePersons(contractNumber, policyHolder, proposedPremium, proposedPaymentFrequency, personsToInsure);
+        concluded(contract);
+        return contract;
+    }
+
+    @Override
+    public List<SingleVehicleContract> insureVehicles(List<VehicleQuote> quotes){
+        List<SingleVehicleContract> contracts = super.insureVehicles(quotes);
+        concluded(contracts);
+        return contracts;
+    }
+
+    @Override
+    public List<TravelContract> insurePersonsBatch(List<TravelQuote> quotes){
+        List<TravelContract> contracts = super.insurePersonsBatch(quotes);
+        concluded(contracts);
+        return contracts;
+    }
+
+    @Override
+    public MasterVehicleContract createMasterVehicleContract(String contractNumber,
+                                                             Person beneficiary,
+                                                             Person policyHolder){
+        MasterVehicleContract contract = super.createMasterVehicleContract(contractNumber, beneficiary, policyHolder);
+        concluded(contract);
+        return contract;
+    }
+
+    @Override
+    public void moveSingleVehicleContractToMasterVehicleContract(MasterVehicleContract masterVehicleContract, SingleVehicleContract singleVehicleContract){
+        super.moveSingleVehicleContractToMasterVehicleContract(masterVehicleContract, singleVehicleContract);
+        Integer masterSlot = slots.get(masterVehicleContract);
+        Integer childSlot = slots.get(singleVehicleContract);
+        if (masterSlot == null || childSlot == null) {
+            return;
+        }
+        CompanySnapshot snapshot = current;
+        PersistentVector.Editor<ContractVersion> editor = snapshot.contractVersions().edit();
+        if (editor.get(childSlot).masterSlot == masterSlot) {
+            //already a child of this master, the live insurer did not change either
+            return;
+        }
+        int topLevelMoved = detach(editor, editor.get(childSlot));
+        editor.set(childSlot, editor.get(childSlot).movedInto(singleVehicleContract, masterSlot));
+        editor.set(masterSlot, editor.get(masterSlot).withChild(masterVehicleContract, childSlot));
+        publish(editor, snapshot, -topLevelMoved);
+    }
+
+    @Override
+    public void moveSingleVehicleContractsToMasterVehicleContract(MasterVehicleContract masterVehicleContract, List<SingleVehicleContract> singleVehicleContracts){
+        super.moveSingleVehicleContractsToMasterVehicleContract(masterVehicleContract, singleVehicleContracts);
+        Integer masterSlot = slots.get(masterVehicleContract);
+        if (masterSlot == null) {
+            return;
+        }
+        CompanySnapshot snapshot = current;
+        PersistentVector.Editor<ContractVersion> editor = snapshot.contractVersions().edit();
+        //the master version is rebuilt once, its isActive() walks all children
+        List<Integer> childSlots = new ArrayList<>(singleVehicleContracts.size());
+        int topLevelMoved = 0;
+        for (SingleVehicleContract singleVehicleContract : singleVehicleContracts) {
+            Integer childSlot = slots.get(singleVehicleContract);
+            if (childSlot == null || editor.get(childSlot).masterSlot == masterSlot) {
+                continue;
+            }
+            topLevelMoved += detach(editor, editor.get(childSlot));
+            editor.set(childSlot, editor.get(childSlot).movedInto(singleVehicleContract, masterSlot));
+            childSlots.add(childSlot);
+        }
+        editor.set(masterSlot, editor.get(masterSlot).withChildren(masterVehicleContract, childSlots));
+        publish(editor, snapshot, -topLevelMoved);
+    }
+
+    @Override
+    public void chargePremiumsOnContracts(){
+        super.chargePremiumsOnContracts();
+        publishBalances();
+    }
+
+    @Override
+    public BillingRun chargeDuePremiums(){
+        BillingRun run;
+        try {
+            run = super.chargeDuePremiums();
+            if (!billed.isEmpty()) {
+                publishBilled();
+            }
+        } finally {
+            billed.clear();
+        }
+        return run;
+    }
+
+    @Override
+    public void chargePremiumOnContract(MasterVehicleContract contract){
+        super.chargePremiumOnContract(contract);
+        refresh(contract);
+    }
+
+    @Override
+    public void chargePremiumOnContract(AbstractContract contract){
+        super.chargePremiumOnContract(contract);
+        refresh(contract);
+    }
+
+    @Override
+    public void processClaim(TravelContract travelContract, Set<Person> affectedPersons){
+        super.processClaim(travelContract, affectedPersons);
+        refresh(travelContract);
+    }
+
+    @Override
+    public void processClaim(SingleVehicleContract singleVehicleContract, int expectedDamages){
+        super.processClaim(singleVehicleContract, expectedDamages);
+        refresh(singleVehicleContract);
+    }
+
+
+    @Override
+    public ClaimReport processClaims(List<VehicleClaim> claims){
+        ClaimReport report = super.processClaims(claims);
+        CompanySnapshot snapshot = current;
+        PersistentVector.Editor<ContractVersion> editor = snapshot.contractVersions().edit();
+        for (SingleVehicleContract contract : report.getClaimedContracts()) {
+            Integer slot = slots.get(contract);
+            if (slot != null) {
+                editor.set(slot, editor.get(slot).refreshed(contract));
+                refreshMaster(editor, editor.get(slot));
+            }
+        }
+        publish(editor, snapshot, 0);
+        return report;
+    }
+
+    @Override
+    protected void billed(AbstractContract contract){
+        billed.add(contract);
+    }
+
+
+    //___________Package methods___________
+    /**
+     * Called by the payment handler after a payment was recorded.
+     */
+    void paid(AbstractContract contract, PaymentInstance payment){
+        Integer slot = slots.get(contract);
+        if (slot == null) {
+            return;
+        }
+        CompanySnapshot snapshot = current;
+        PersistentVector.Editor<ContractVersion> editor = snapshot.contractVersions().edit();
+        editor.set(slot, editor.get(slot).withPayment(contract, payment));
+        if (contract instanceof MasterVehicleContract master) {
+            refreshChildren(editor, master);
+        }
+        publish(editor, snapshot, 0);
+    }
+
+
+    //___________Private helpers___________
+    /**
+     * Publishes the versions of all contracts whose balance changed in a billing run.
+     */
+    private void publishBalances(){
+        //one editor for the whole run, every touched trie node is copied at most once
+        CompanySnapshot snapshot = current;
+        PersistentVector.Editor<ContractVersion> editor = snapshot.contractVersions().edit();
+        for (Map.Entry<AbstractContract, Integer> entry : slots.entrySet()) {
+            AbstractContract contract = entry.getKey();
+            ContractVersion version = editor.get(entry.getValue());
+            if (contract.getContractPaymentData() != null
+                    && contract.getContractPaymentData().getOutstandingBalance() != version.getOutstandingBalance()) {
+                editor.set(version.slot, version.refreshed(contract));
+            }
+        }
+        publish(editor, snapshot, 0);
+    }
+
+    /**
+     * Publishes the versions of the contracts charged by an incremental billing run, without visiting the others.
+     */
+    private void publishBilled(){
+        CompanySnapshot snapshot = current;
+        PersistentVector.Editor<ContractVersion> editor = snapshot.contractVersions().edit();
+        for (AbstractContract contract : billed) {
+            Integer slot = slots.get(contract);
+            if (slot != null) {
+                editor.set(slot, editor.get(slot).refreshed(contract));
+            }
+        }
+        publish(editor, snapshot, 0);
+    }
+
+    private void concluded(AbstractContract contract){
+        CompanySnapshot snapshot = current;
+        PersistentVector<ContractVersion> contracts = snapshot.contractVersions();
+        int slot = contracts.size();
+        slots.put(contract, slot);
+        current = new CompanySnapshot(snapshot.getVersion() + 1, getCurrentTime(),
+                contracts.append(ContractVersion.concluded(contract, slot)),
+                snapshot.slotsByNumber().with(contract.getContractNumber(), slot),
+                snapshot.getContractCount() + 1);
+    }
+
+    /**
+     * Publishes a whole batch as one version.
+     */
+    private void concluded(List<? extends AbstractContract> batch){
+        CompanySnapshot snapshot = current;
+        PersistentVector.Editor<ContractVersion> editor = snapshot.contractVersions().edit();
+        PersistentHashMap<String, Integer> slotsByNumber = snapshot.slotsByNumber();
+        int slot = snapshot.contractVersions().size();
+        for (AbstractContract contract : batch) {
+            slots.put(contract, slot);
+            editor.append(ContractVersion.concluded(contract, slot));
+            slotsByNumber = slotsByNumber.with(contract.getContractNumber(), slot);
+            slot++;
+        }
+        current = new CompanySnapshot(snapshot.getVersion() + 1, getCurrentTime(), editor.persistent(),
+                slotsByNumber, snapshot.getContractCount() + batch.size());
+    }
+
+    private void refresh(AbstractContract contract){
+        Integer slot = slots.get(contract);
+        if (slot == null) {
+            //charged while being concluded, published by concluded()
+            return;
+        }
+        CompanySnapshot snapshot = current;
+        PersistentVector.Editor<ContractVersion> editor = snapshot.contractVersions().edit();
+        editor.set(slot, editor.get(slot).refreshed(contract));
+        if (contract instanceof MasterVehicleContract master) {
+            refreshChildren(editor, master);
+        }
+        refreshMaster(editor, editor.get(slot));
+        publish(editor, snapshot, 0);
+    }
+
+    /**
+     * A master is active while one of its children is, so a claim that ends a child may end its master too.
+     */
+    private void refreshMaster(PersistentVector.Editor<ContractVersion> editor, ContractVersion child){
+        if (!child.isChild()) {
+            return;
+        }
+        ContractVersion master = editor.get(child.masterSlot);
+        //masters stay top-level contracts, their numbers are never reused
+        AbstractContract contract = getContract(master.getContractNumber());
+        if (contract != null) {
+            editor.set(master.slot, master.refreshed(contract));
+        }
+    }
+
+    /**
+     * Takes a contract that is moved again out of the master it was a child of.
+     * @return 1 if it was a top-level contract instead, 0 otherwise
+     */
+    private int detach(PersistentVector.Editor<ContractVersion> editor, ContractVersion child){
+        if (!child.isChild()) {
+            return 1;
+        }
+        ContractVersion master = editor.get(child.masterSlot);
+        AbstractContract contract = getContract(master.getContractNumber());
+        if (contract != null) {
+            editor.set(master.slot, master.withoutChild(contract, child.slot));
+        }
+        return 0;
+    }
+
+    private void refreshChildren(PersistentVector.Editor<ContractVersion> editor, MasterVehicleContract master){
+        for (SingleVehicleContract child : master.getChildContracts()) {
+            Integer childSlot = slots.get(child);
+            if (childSlot != null) {
+                editor.set(childSlot, editor.get(childSlot).refreshed(child));
+            }
+        }
+    }
+
+    private void publish(PersistentVector.Editor<ContractVersion> editor, CompanySnapshot snapshot, int contractCountChange){
+        current = new CompanySnapshot(snapshot.getVersion() + 1, getCurrentTime(), editor.persistent(),
+                snapshot.slotsByNumber(), snapshot.getContractCount() + contractCountChange);
+    }
+}
@@ -0,0 +1,27 @@
+package snapshot;
+
+import contracts.AbstractContract;
+import payment.PaymentHandler;
+import payment.PaymentInstance;
+
+/**
+ * Payment handler of a {@link VersionedInsuranceCompany}, publishes every recorded payment.
+ */
+final class VersionedPaymentHandler extends PaymentHandler {
+    //attributes
+    private final VersionedInsuranceCompany insurer;
+
+    //constructor
+    VersionedPaymentHandler(VersionedInsuranceCompany insurer){
+        super(insurer);
+        this.insurer = insurer;
+    }
+
+
+    //___________Protected methods___________
+    @Override
+    protected void recordPayment(AbstractContract contract, PaymentInstance paymentInstance){
+        super.recordPayment(contract, paymentInstance);
+        insurer.paid(contract, paymentInstance);
+    }
+}
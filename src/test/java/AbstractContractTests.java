@@ -84,6 +84,32 @@ public class AbstractContractTests {
         assertFalse(contract.isActive());
     }
 
+    @Test
+    void testClaimLifecycle() {
+        MockContract contract = new MockContract("C001", insurer, policyHolder, paymentData, 500);
+
+        assertTrue(contract.beginClaim());
+        assertTrue(contract.isActive());
+        contract.endClaim(false);
+        assertTrue(contract.isActive());
+
+        assertTrue(contract.beginClaim());
+        contract.endClaim(true);
+        assertFalse(contract.isActive());
+        assertFalse(contract.beginClaim());
+    }
+
+    @Test
+    void testDeactivationDuringClaimWins() {
+        MockContract contract = new MockContract("C001", insurer, policyHolder, paymentData, 500);
+
+        assertTrue(contract.beginClaim());
+        contract.setInactive();
+        contract.endClaim(false);
+        assertFalse(contract.isActive());
+        assertFalse(contract.beginClaim());
+    }
+
     // Pomocná implementácia abstraktnej triedy na účely testovania
     private static class MockContract extends AbstractContract {
         public MockContract(String contractNumber, InsuranceCompany insurer, Person policyHolder,
@@ -0,0 +1,129 @@
+package myTests;
+
+import company.InsuranceCompany;
+import company.TravelQuote;
+import company.VehicleQuote;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import monitoring.InstrumentedInsuranceCompany;
+import monitoring.InsuranceMetrics;
+import monitoring.MeteredOperation;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import payment.PremiumPaymentFrequency;
+import snapshot.CompanySnapshot;
+import snapshot.VersionedInsuranceCompany;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchInsureTest {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    private InsuranceCompany insurer;
+    private Person policyHolder;
+    private Person traveller;
+
+    @BeforeEach
+    void setUp() {
+        insurer = new InsuranceCompany(START);
+        policyHolder = new Person("12345678");
+        traveller = new Person("0456281232");
+    }
+
+    @Test
+    void testInsureVehiclesConcludesAndChargesEveryQuote() {
+        List<SingleVehicleContract> contracts = insurer.insureVehicles(quotes("S", 1000));
+
+        assertEquals(1000, contracts.size());
+        assertEquals(1000, insurer.getContracts().size());
+        assertEquals(1000, policyHolder.getContracts().size());
+        for (int i = 0; i < contracts.size(); i++) {
+            SingleVehicleContract contract = contracts.get(i);
+            assertEquals("S" + i, contract.getContractNumber());
+            assertSame(contract, insurer.getContract("S" + i));
+            assertEquals(100, contract.getContractPaymentData().getOutstandingBalance());
+            assertEquals(START.plusMonths(1), contract.getContractPaymentData().getNextPaymentTime());
+            assertEquals(2500, contract.getCoverageAmount());
+        }
+    }
+
+    @Test
+    void testInsureVehiclesIsAllOrNothing() {
+        insurer.insureVehicle("TAKEN", null, policyHolder, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("ABC1234", 5000));
+
+        List<VehicleQuote> duplicateInBatch = quotes("S", 10);
+        duplicateInBatch.add(duplicateInBatch.get(3));
+        assertThrows(IllegalArgumentException.class, () -> insurer.insureVehicles(duplicateInBatch));
+
+        List<VehicleQuote> alreadyConcluded = quotes("S", 10);
+        alreadyConcluded.add(5, new VehicleQuote("TAKEN", null, policyHolder, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("ABC1234", 5000)));
+        assertThrows(IllegalArgumentException.class, () -> insurer.insureVehicles(alreadyConcluded));
+
+        List<VehicleQuote> premiumTooLow = quotes("S", 10);
+        premiumTooLow.set(9, new VehicleQuote("LOW", null, policyHolder, 1, PremiumPaymentFrequency.ANNUAL, new Vehicle("ABC1234", 5000)));
+        assertThrows(IllegalArgumentException.class, () -> insurer.insureVehicles(premiumTooLow));
+
+        List<VehicleQuote> emptyNumber = quotes("S", 10);
+        emptyNumber.set(9, new VehicleQuote("", null, policyHolder, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("ABC1234", 5000)));
+        assertThrows(IllegalArgumentException.class, () -> insurer.insureVehicles(emptyNumber));
+
+        List<VehicleQuote> nullQuote = quotes("S", 10);
+        nullQuote.add(null);
+        assertThrows(IllegalArgumentException.class, () -> insurer.insureVehicles(nullQuote));
+        assertThrows(IllegalArgumentException.class, () -> insurer.insureVehicles(null));
+
+        assertEquals(1, insurer.getContracts().size());
+        assertEquals(1, policyHolder.getContracts().size());
+        assertNull(insurer.getContract("S0"));
+    }
+
+    @Test
+    void testInsurePersonsBatch() {
+        List<TravelQuote> quotes = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            quotes.add(new TravelQuote("T" + i, policyHolder, 10, PremiumPaymentFrequency.MONTHLY, Set.of(traveller)));
+        }
+        List<TravelContract> contracts = insurer.insurePersonsBatch(quotes);
+        assertEquals(100, contracts.size());
+        assertEquals(10, contracts.get(99).getCoverageAmount());
+        assertEquals(10, contracts.get(99).getContractPaymentData().getOutstandingBalance());
+
+        List<TravelQuote> legalPersonInsured = List.of(
+                new TravelQuote("T100", policyHolder, 10, PremiumPaymentFrequency.MONTHLY, Set.of(traveller)),
+                new TravelQuote("T101", policyHolder, 10, PremiumPaymentFrequency.MONTHLY, Set.of(policyHolder)));
+        assertThrows(IllegalArgumentException.class, () -> insurer.insurePersonsBatch(legalPersonInsured));
+        assertEquals(100, insurer.getContracts().size());
+    }
+
+    @Test
+    void testSubclassesSeeTheWholeBatch() {
+        VersionedInsuranceCompany versioned = new VersionedInsuranceCompany(START);
+        long before = versioned.snapshot().getVersion();
+        versioned.insureVehicles(quotes("S", 50));
+        CompanySnapshot snapshot = versioned.snapshot();
+        assertEquals(before + 1, snapshot.getVersion());
+        assertEquals(50, snapshot.getContractCount());
+        assertEquals(100, snapshot.getContract("S49").getOutstandingBalance());
+
+        InsuranceMetrics metrics = new InsuranceMetrics();
+        InstrumentedInsuranceCompany instrumented = new InstrumentedInsuranceCompany(START, metrics);
+        instrumented.insureVehicles(quotes("S", 50));
+        assertEquals(50L, metrics.getContractsConcluded().get("SingleVehicleContract"));
+        assertEquals(1, metrics.getLatency(MeteredOperation.INSURE_VEHICLES).getCount());
+    }
+
+    private List<VehicleQuote> quotes(String prefix, int count) {
+        List<VehicleQuote> quotes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            quotes.add(new VehicleQuote(prefix + i, null, policyHolder, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("ABC1234", 5000)));
+        }
+        return quotes;
+    }
+}
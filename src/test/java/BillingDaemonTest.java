@@ -0,0 +1,171 @@
+package myTests;
+
+import billing.BillingDaemon;
+import billing.BillingProgress;
+import billing.BillingSchedule;
+import billing.SimulatedClock;
+import company.ConcurrentInsuranceCompany;
+import company.InsuranceCompany;
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import generator.SyntheticData;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.Test;
+import payment.PremiumPaymentFrequency;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BillingDaemonTest {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 9, 30);
+    private static final int HOLDERS = 50;
+
+    @Test
+    void testTenYearsOfHourlyBillingMatchTheFullBillingRun() {
+        InsuranceCompany billed = portfolio(new InsuranceCompany(START));
+        InsuranceCompany expected = portfolio(new InsuranceCompany(START));
+        SimulatedClock clock = new SimulatedClock(START.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        BillingDaemon daemon = new BillingDaemon(billed, clock, BillingSchedule.HOURLY);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+            for (int year = 1; year <= 10; year++) {
+                LocalDateTime end = START.plusYears(year);
+                while (clock.instant().isBefore(end.toInstant(ZoneOffset.UTC))) {
+                    clock.advance(Duration.ofHours(1));
+                    assertTrue(daemon.tick());
+                }
+                if (year == 5) {
+                    //total losses stop the billing of a single contract and of a fleet child, the fleet goes on
+                    claim(billed);
+                    expected.setCurrentTime(billed.getCurrentTime());
+                    expected.chargePremiumsOnContracts();
+                    claim(expected);
+                }
+            }
+        });
+        expected.setCurrentTime(billed.getCurrentTime());
+        expected.chargePremiumsOnContracts();
+
+        assertBalancesEqual(expected, billed);
+        BillingProgress progress = daemon.getProgress();
+        assertEquals(START.plusYears(10).withMinute(0), progress.billedUpTo());
+        assertEquals(10 * 365 * 24 + 2 * 24, progress.ticks()); //two leap years
+        assertEquals(0, progress.missedTicks());
+        assertEquals(0, progress.failedTicks());
+        assertEquals(chargedPeriods(billed), progress.periodsCharged());
+        //billed every hour, no contract was ever more than one period behind
+        assertEquals(progress.periodsCharged(), progress.contractsBilled());
+        assertFalse(daemon.tick());
+    }
+
+    @Test
+    void testDowntimeIsCaughtUpInOnePass() {
+        InsuranceCompany billed = portfolio(new InsuranceCompany(START));
+        InsuranceCompany expected = portfolio(new InsuranceCompany(START));
+        SimulatedClock clock = new SimulatedClock(START.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        BillingDaemon daemon = new BillingDaemon(billed, clock, BillingSchedule.DAILY);
+
+        //not a new day yet
+        clock.advance(Duration.ofHours(10));
+        assertFalse(daemon.tick());
+        clock.advance(Duration.ofHours(10));
+        assertTrue(daemon.tick());
+        assertEquals(LocalDateTime.of(2025, 1, 2, 0, 0), billed.getCurrentTime());
+
+        clock.advance(Duration.ofDays(400));
+        assertTrue(daemon.tick());
+        BillingProgress progress = daemon.getProgress();
+        assertEquals(2, progress.ticks());
+        assertEquals(399, progress.missedTicks());
+        assertEquals(LocalDateTime.of(2026, 2, 6, 0, 0), progress.billedUpTo());
+
+        expected.setCurrentTime(progress.billedUpTo());
+        expected.chargePremiumsOnContracts();
+        assertBalancesEqual(expected, billed);
+        assertEquals(chargedPeriods(billed), progress.periodsCharged());
+    }
+
+    @Test
+    void testStartedDaemonCatchesUpOnItsOwnThread() throws InterruptedException {
+        InsuranceCompany insurer = portfolio(new ConcurrentInsuranceCompany(START));
+        Clock clock = Clock.fixed(START.plusMonths(3).toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        try (BillingDaemon daemon = new BillingDaemon(insurer, clock, BillingSchedule.HOURLY)) {
+            daemon.start();
+            assertThrows(IllegalStateException.class, daemon::start);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (daemon.getProgress().ticks() == 0) {
+                assertTrue(System.nanoTime() < deadline, "daemon did not tick");
+                Thread.sleep(5);
+            }
+            assertEquals(START.plusMonths(3).withMinute(0), insurer.getCurrentTime());
+            assertEquals(chargedPeriods(insurer), daemon.getProgress().periodsCharged());
+        }
+        assertThrows(IllegalArgumentException.class, () -> new BillingDaemon(insurer, null, BillingSchedule.DAILY));
+    }
+
+    /**
+     * Concludes per policyholder a monthly vehicle, a quarterly travel and a yearly fleet contract of two vehicles.
+     */
+    private static InsuranceCompany portfolio(InsuranceCompany insurer){
+        Person traveller = new Person("0456281232");
+        for (int i = 0; i < HOLDERS; i++) {
+            Person holder = new Person(SyntheticData.registrationNumber(i));
+            insurer.insureVehicle("S" + i, null, holder, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("AB" + (10000 + i), 5000));
+            insurer.insurePersons("T" + i, holder, 10, PremiumPaymentFrequency.QUARTERLY, Set.of(traveller));
+            MasterVehicleContract master = insurer.createMasterVehicleContract("M" + i, null, holder);
+            for (int child = 0; child < 2; child++) {
+                SingleVehicleContract contract = insurer.insureVehicle("F" + i + "-" + child, null, holder, 200,
+                        PremiumPaymentFrequency.ANNUAL, new Vehicle("CD" + (10000 + 2 * i + child), 8000));
+                insurer.moveSingleVehicleContractToMasterVehicleContract(master, contract);
+            }
+        }
+        return insurer;
+    }
+
+    private static void claim(InsuranceCompany insurer){
+        for (int i = 0; i < HOLDERS; i += 5) {
+            insurer.processClaim((SingleVehicleContract) insurer.getContract("S" + i), 4000);
+            MasterVehicleContract master = (MasterVehicleContract) insurer.getContract("M" + i);
+            insurer.processClaim(master.getChildContracts().iterator().next(), 7000);
+        }
+    }
+
+    private static void assertBalancesEqual(InsuranceCompany expected, InsuranceCompany actual){
+        for (AbstractContract contract : expected.getContracts()) {
+            AbstractContract other = actual.getContract(contract.getContractNumber());
+            if (contract instanceof MasterVehicleContract master) {
+                assertEquals(master.getChildContracts().stream().map(child -> child.getContractPaymentData().getOutstandingBalance()).toList(),
+                        ((MasterVehicleContract) other).getChildContracts().stream().map(child -> child.getContractPaymentData().getOutstandingBalance()).toList(),
+                        contract.getContractNumber());
+            } else {
+                assertEquals(contract.getContractPaymentData().getOutstandingBalance(),
+                        other.getContractPaymentData().getOutstandingBalance(), contract.getContractNumber());
+            }
+        }
+    }
+
+    /**
+     * @return periods charged after the first one of each contract, which is charged when it is concluded
+     */
+    private static long chargedPeriods(InsuranceCompany insurer){
+        long periods = 0;
+        for (AbstractContract contract : insurer.getContracts()) {
+            if (contract instanceof MasterVehicleContract master) {
+                for (SingleVehicleContract child : master.getChildContracts()) {
+                    periods += child.getContractPaymentData().getOutstandingBalance() / child.getContractPaymentData().getPremium() - 1;
+                }
+            } else {
+                periods += contract.getContractPaymentData().getOutstandingBalance() / contract.getContractPaymentData().getPremium() - 1;
+            }
+        }
+        return periods;
+    }
+}
@@ -0,0 +1,127 @@
+package myTests;
+
+import company.ClaimReport;
+import company.InsuranceCompany;
+import company.VehicleClaim;
+import contracts.InvalidContractException;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatastropheClaimTest {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 6, 1, 0, 0);
+
+    private InsuranceCompany insurer;
+    private Person owner;
+    private Person beneficiary;
+
+    @BeforeEach
+    void setUp() {
+        insurer = new InsuranceCompany(START);
+        owner = new Person("12345678");
+        beneficiary = new Person("87654321");
+    }
+
+    @Test
+    void testPaysEveryPersonOnceAndDeactivatesTotalLosses() {
+        SingleVehicleContract a = insure("A", null, "AAA0001", 10_000);
+        SingleVehicleContract b = insure("B", null, "AAA0002", 20_000);
+        SingleVehicleContract c = insure("C", beneficiary, "AAA0003", 4_000);
+        MasterVehicleContract master = insurer.createMasterVehicleContract("M", null, owner);
+        SingleVehicleContract child = insure("D", null, "AAA0004", 6_000);
+        master.requestAdditionOfChildContract(child);
+
+        ClaimReport report = insurer.processClaims(List.of(
+                new VehicleClaim("AAA0001", 7_000),
+                new VehicleClaim("AAA0002", 1_000),
+                new VehicleClaim("AAA0003", 2_800),
+                new VehicleClaim("AAA0004", 100)));
+
+        assertEquals(5_000 + 10_000 + 3_000, owner.getPaidOutAmount());
+        assertEquals(2_000, beneficiary.getPaidOutAmount());
+        assertEquals(18_000, report.getPayout(owner));
+        assertEquals(2, report.getPayouts().size());
+        assertEquals(20_000, report.getTotalPaidOut());
+        assertEquals(20_000, insurer.getTotalPaidOut());
+        assertEquals(List.of(a, b, c, child), report.getClaimedContracts());
+        assertEquals(2, report.getContractsDeactivated());
+        assertFalse(a.isActive());
+        assertTrue(b.isActive());
+        assertFalse(c.isActive());
+        assertTrue(child.isActive());
+    }
+
+    @Test
+    void testInvalidBatchPaysNothing() {
+        SingleVehicleContract a = insure("A", null, "AAA0001", 10_000);
+        SingleVehicleContract inactive = insure("B", null, "AAA0002", 10_000);
+        inactive.setInactive();
+
+        assertThrows(InvalidContractException.class, () -> insurer.processClaims(List.of(
+                new VehicleClaim("AAA0001", 9_000), new VehicleClaim("AAA0002", 100))));
+        assertThrows(InvalidContractException.class, () -> insurer.processClaims(List.of(
+                new VehicleClaim("AAA0001", 9_000), new VehicleClaim("ZZZ9999", 100))));
+        assertThrows(IllegalArgumentException.class, () -> insurer.processClaims(List.of(
+                new VehicleClaim("AAA0001", 9_000), new VehicleClaim("AAA0001", 100))));
+        assertThrows(IllegalArgumentException.class, () -> insurer.processClaims(List.of(
+                new VehicleClaim("AAA0001", 9_000), new VehicleClaim("AAA0002", 0))));
+        assertThrows(IllegalArgumentException.class, () -> insurer.processClaims(null));
+
+        insure("C", null, "AAA0003", 10_000);
+        insure("D", null, "AAA0003", 10_000);
+        assertThrows(IllegalArgumentException.class, () -> insurer.processClaims(List.of(new VehicleClaim("AAA0003", 100))));
+
+        assertEquals(0, owner.getPaidOutAmount());
+        assertTrue(a.isActive());
+    }
+
+    @Test
+    void testLargeBatchMatchesSingleClaims() {
+        InsuranceCompany twin = new InsuranceCompany(START);
+        Person[] owners = new Person[50];
+        Person[] twinOwners = new Person[50];
+        for (int i = 0; i < owners.length; i++) {
+            owners[i] = new Person(String.valueOf(10_000_000 + i));
+            twinOwners[i] = new Person(String.valueOf(10_000_000 + i));
+        }
+        List<VehicleClaim> claims = new ArrayList<>();
+        List<SingleVehicleContract> twinContracts = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            String plate = String.format("HA%05d", i);
+            int value = 5_000 + i;
+            insurer.insureVehicle("S" + i, null, owners[i % 50], 200, PremiumPaymentFrequency.MONTHLY, new Vehicle(plate, value));
+            twinContracts.add(twin.insureVehicle("S" + i, null, twinOwners[i % 50], 200, PremiumPaymentFrequency.MONTHLY, new Vehicle(plate, value)));
+            claims.add(new VehicleClaim(plate, i % 3 == 0 ? value : 100));
+        }
+
+        ClaimReport report = insurer.processClaims(claims);
+        for (int i = 0; i < claims.size(); i++) {
+            twin.processClaim(twinContracts.get(i), claims.get(i).expectedDamages());
+        }
+
+        long total = 0;
+        for (int i = 0; i < owners.length; i++) {
+            assertEquals(twinOwners[i].getPaidOutAmount(), owners[i].getPaidOutAmount());
+            total += owners[i].getPaidOutAmount();
+        }
+        assertEquals(total, report.getTotalPaidOut());
+        assertEquals(3_334, report.getContractsDeactivated());
+        for (int i = 0; i < claims.size(); i++) {
+            assertEquals(twinContracts.get(i).isActive(), report.getClaimedContracts().get(i).isActive());
+        }
+    }
+
+    private SingleVehicleContract insure(String number, Person beneficiary, String plate, int value) {
+        return insurer.insureVehicle(number, beneficiary, owner, 200, PremiumPaymentFrequency.MONTHLY, new Vehicle(plate, value));
+    }
+}
@@ -0,0 +1,206 @@
+package myTests;
+
+import changes.*;
+import company.InsuranceCompany;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import generator.SyntheticData;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.Test;
+import payment.PremiumPaymentFrequency;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeFeedTest {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 9, 0);
+
+    @Test
+    void testEveryChangeIsPublishedOnceInOrder() throws Exception {
+        InsuranceCompany insurer = new InsuranceCompany(START);
+        Person owner = new Person(SyntheticData.registrationNumber(1));
+        Person traveller = new Person("0456281232");
+        //changes before the subscription are not delivered
+        insurer.insurePersons("T0", owner, 10, PremiumPaymentFrequency.MONTHLY, Set.of(traveller));
+
+        Recorder recorder = new Recorder(null);
+        insurer.changes().subscribe(recorder);
+        assertTrue(insurer.changes().isObserved());
+
+        MasterVehicleContract master = insurer.createMasterVehicleContract("M1", null, owner);
+        SingleVehicleContract single = insurer.insureVehicle("S1", null, owner, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("AB10001", 5000));
+        insurer.moveSingleVehicleContractToMasterVehicleContract(master, single);
+        TravelContract travel = insurer.insurePersons("T1", owner, 10, PremiumPaymentFrequency.MONTHLY, Set.of(traveller));
+        LocalDateTime later = START.plusMonths(2);
+        insurer.setCurrentTime(later);
+        insurer.chargePremiumsOnContracts();
+        insurer.getHandler().pay(master, 250);
+        insurer.getHandler().pay(travel, 20);
+        insurer.processClaim(travel, Set.of(traveller));
+        insurer.processClaim(single, 4000);
+        insurer.changes().close();
+        recorder.awaitEnd();
+
+        assertNull(recorder.error);
+        String ownerId = owner.getId();
+        assertEquals(List.of(
+                List.of(new ContractConcluded(START, "M1", "MasterVehicleContract", ownerId, master.getCoverageAmount())),
+                List.of(new ContractConcluded(START, "S1", "SingleVehicleContract", ownerId, 2500),
+                        new PremiumCharged(START, "S1", 1, 100)),
+                List.of(new MovedToMasterContract(START, "S1", "M1")),
+                List.of(new ContractConcluded(START, "T1", "TravelContract", ownerId, 10),
+                        new PremiumCharged(START, "T1", 1, 10)),
+                //the billing run, T0 included
+                List.of(new PremiumCharged(later, "T0", 2, 20),
+                        new PremiumCharged(later, "T1", 2, 20),
+                        new PremiumCharged(later, "S1", 2, 200)),
+                List.of(new PaymentApplied(later, "S1", "M1", 250)),
+                List.of(new PaymentApplied(later, "T1", null, 20)),
+                List.of(new ClaimPaid(later, "T1", traveller.getId(), 10),
+                        new ContractDeactivated(later, "T1")),
+                List.of(new ClaimPaid(later, "S1", ownerId, 2500),
+                        new ContractDeactivated(later, "S1"))
+        ), recorder.batches);
+    }
+
+    @Test
+    void testLargeBillingRunsArriveInFullBatches() throws Exception {
+        InsuranceCompany insurer = new InsuranceCompany(START);
+        Person traveller = new Person("0456281232");
+        for (int i = 0; i < 600; i++) {
+            insurer.insurePersons("T" + i, new Person(SyntheticData.registrationNumber(i)), 10,
+                    PremiumPaymentFrequency.MONTHLY, Set.of(traveller));
+        }
+        Recorder recorder = new Recorder(null);
+        insurer.changes().subscribe(recorder);
+
+        insurer.setCurrentTime(START.plusMonths(1));
+        insurer.chargePremiumsOnContracts();
+        insurer.changes().close();
+        recorder.awaitEnd();
+
+        List<Integer> sizes = new ArrayList<>();
+        for (List<ChangeEvent> batch : recorder.batches) {
+            sizes.add(batch.size());
+        }
+        assertEquals(List.of(ChangeFeed.DEFAULT_BATCH_SIZE, ChangeFeed.DEFAULT_BATCH_SIZE, 600 - 2 * ChangeFeed.DEFAULT_BATCH_SIZE), sizes);
+        assertEquals(new PremiumCharged(START.plusMonths(1), "T0", 1, 10), recorder.batches.get(0).get(0));
+    }
+
+    @Test
+    void testSlowSubscriberCannotStallBilling() throws Exception {
+        InsuranceCompany insurer = new InsuranceCompany(START);
+        CountDownLatch gate = new CountDownLatch(1);
+        Recorder slow = new Recorder(gate);
+        insurer.changes().subscribe(slow);
+        assertThrows(NullPointerException.class, () -> insurer.changes().subscribe(null));
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            Person traveller = new Person("0456281232");
+            for (int i = 0; i < 2_000; i++) {
+                insurer.insurePersons("T" + i, new Person(SyntheticData.registrationNumber(i)), 10,
+                        PremiumPaymentFrequency.MONTHLY, Set.of(traveller));
+            }
+            insurer.setCurrentTime(START.plusYears(1));
+            insurer.chargePremiumsOnContracts();
+        });
+        assertTrue(insurer.changes().getDroppedEvents() > 0);
+
+        //the subscriber gets what was buffered before the drop, then learns that it missed changes instead of receiving a gap
+        gate.countDown();
+        slow.awaitEnd();
+        ChangesLostException lost = assertInstanceOf(ChangesLostException.class, slow.error);
+        assertTrue(lost.getLostEvents() >= insurer.changes().getDroppedEvents());
+        assertFalse(insurer.changes().isObserved());
+        assertTrue(slow.batches.size() > 1);
+        assertTrue(slow.batches.size() <= ChangeFeed.DEFAULT_BUFFER_CAPACITY + 1);
+        for (int i = 0; i < slow.batches.size(); i++) {
+            assertEquals("T" + i, ((ContractConcluded) slow.batches.get(i).get(0)).contractNumber());
+        }
+    }
+
+    @Test
+    void testEventsLeftWithoutSubscribersAreNotDeliveredLater() throws Exception {
+        InsuranceCompany insurer = new InsuranceCompany(START);
+        Person owner = new Person(SyntheticData.registrationNumber(1));
+        Recorder gone = new Recorder(null);
+        insurer.changes().subscribe(gone);
+        assertTrue(gone.subscribed.await(10, TimeUnit.SECONDS));
+
+        //the last subscriber leaves between an event and the flush of its operation
+        insurer.changes().emit(new ContractDeactivated(START, "OLD"));
+        gone.subscription.cancel();
+        insurer.changes().flush();
+        assertFalse(insurer.changes().isObserved());
+
+        Recorder recorder = new Recorder(null);
+        insurer.changes().subscribe(recorder);
+        insurer.createMasterVehicleContract("M1", null, owner);
+        insurer.changes().close();
+        recorder.awaitEnd();
+
+        assertEquals(List.of(List.of(new ContractConcluded(START, "M1", "MasterVehicleContract", owner.getId(), 0))), recorder.batches);
+        assertTrue(gone.batches.isEmpty());
+    }
+
+    /**
+     * Records the batches, optionally blocked in its first delivery until the gate opens.
+     */
+    private static final class Recorder implements Flow.Subscriber<List<ChangeEvent>> {
+        private final List<List<ChangeEvent>> batches = new CopyOnWriteArrayList<>();
+        private final CountDownLatch end = new CountDownLatch(1);
+        private final CountDownLatch subscribed = new CountDownLatch(1);
+        private final CountDownLatch gate;
+        private volatile Flow.Subscription subscription;
+        private volatile Throwable error;
+
+        private Recorder(CountDownLatch gate){
+            this.gate = gate;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription){
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+            subscribed.countDown();
+        }
+
+        @Override
+        public void onNext(List<ChangeEvent> batch){
+            if (gate != null) {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            batches.add(batch);
+        }
+
+        @Override
+        public void onError(Throwable throwable){
+            error = throwable;
+            end.countDown();
+        }
+
+        @Override
+        public void onComplete(){
+            end.countDown();
+        }
+
+        private void awaitEnd() throws InterruptedException {
+            assertTrue(end.await(10, TimeUnit.SECONDS));
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package myTests;
+
+import company.InsuranceCompany;
+import contracts.InvalidContractException;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import generator.SyntheticData;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.Test;
+import payment.PremiumPaymentFrequency;
+import pipeline.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandPipelineTest {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 9, 0);
+
+    @Test
+    void testCommandsAreAppliedInOrderWithResults() throws Exception {
+        InsuranceCompany insurer = new InsuranceCompany(START);
+        Person owner = new Person(SyntheticData.registrationNumber(1));
+        Person traveller = new Person("0456281232");
+        CommandPipeline pipeline = new CommandPipeline(insurer, 16);
+
+        try (pipeline) {
+            MasterVehicleContract master = pipeline.submit(new CreateMasterVehicleContract("M1", null, owner)).get();
+            SingleVehicleContract child = pipeline.submit(new InsureVehicle("S1", null, owner, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("AA00000", 5000))).get();
+            pipeline.submit(new MoveToMasterVehicleContract(master, child));
+            CompletableFuture<TravelContract> travel = pipeline.submit(new InsurePersons("T1", owner, 10, PremiumPaymentFrequency.MONTHLY, Set.of(traveller)));
+            pipeline.submit(new AdvanceTime(START.plusMonths(2), true));
+            pipeline.submit(new Pay(master, 250));
+            pipeline.submit(new ProcessTravelClaim(travel.get(), Set.of(traveller)));
+            CompletableFuture<Void> last = pipeline.submit(new ProcessVehicleClaim(child, 10));
+            last.get(10, TimeUnit.SECONDS);
+
+            assertEquals(START.plusMonths(2), insurer.getCurrentTime());
+            assertEquals(50, child.getContractPaymentData().getOutstandingBalance());
+            assertEquals(10 + 2500, owner.getPaidOutAmount() + traveller.getPaidOutAmount());
+            assertFalse(travel.get().isActive());
+        }
+        assertEquals(8, pipeline.getAppliedCommands());
+    }
+
+    @Test
+    void testRejectedCommandCompletesExceptionallyAndWriterContinues() throws Exception {
+        InsuranceCompany insurer = new InsuranceCompany(START);
+        Person owner = new Person(SyntheticData.registrationNumber(1));
+
+        try (CommandPipeline pipeline = new CommandPipeline(insurer, 4)) {
+            CompletableFuture<SingleVehicleContract> duplicate = pipeline.submit(new InsureVehicle("S1", null, owner, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("AA00000", 5000)));
+            CompletableFuture<SingleVehicleContract> rejected = pipeline.submit(new InsureVehicle("S1", null, owner, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("AA00001", 5000)));
+            CompletableFuture<MasterVehicleContract> master = pipeline.submit(new CreateMasterVehicleContract("M1", null, owner));
+            CompletableFuture<Void> emptyFleet = pipeline.submit(new Pay(master.get(), 10));
+
+            assertNotNull(duplicate.get());
+            ExecutionException e = assertThrows(ExecutionException.class, rejected::get);
+            assertInstanceOf(IllegalArgumentException.class, e.getCause());
+            e = assertThrows(ExecutionException.class, emptyFleet::get);
+            assertInstanceOf(InvalidContractException.class, e.getCause());
+            assertEquals(2, pipeline.submit(company -> company.getContracts().size()).get());
+        }
+        assertThrows(IllegalArgumentException.class, () -> new CommandPipeline(null, 4));
+        assertThrows(IllegalArgumentException.class, () -> new CommandPipeline(insurer, 0));
+    }
+
+    @Test
+    void testManyProducersThroughSmallBuffer() throws Exception {
+        InsuranceCompany insurer = new InsuranceCompany(START);
+        Person owner = new Person(SyntheticData.registrationNumber(1));
+        int producers = 6;
+        int payments = 5_000;
+
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        try (CommandPipeline pipeline = new CommandPipeline(insurer, 8)) {
+            List<SingleVehicleContract> contracts = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                contracts.add(pipeline.submit(new InsureVehicle("S" + p, null, owner, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("AB" + (10000 + p), 5000))).get());
+            }
+            List<Thread> threads = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                SingleVehicleContract contract = contracts.get(p);
+                List<CompletableFuture<Void>> own = new ArrayList<>();
+                Thread thread = new Thread(() -> {
+                    for (int i = 0; i < payments; i++) {
+                        own.add(pipeline.submit(new Pay(contract, 1)));
+                    }
+                    synchronized (results) {
+                        results.addAll(own);
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            CompletableFuture<Void> all;
+            synchronized (results) {
+                all = CompletableFuture.allOf(results.toArray(new CompletableFuture[0]));
+            }
+            all.get(30, TimeUnit.SECONDS);
+
+            for (SingleVehicleContract contract : contracts) {
+                assertEquals(100 - payments, contract.getContractPaymentData().getOutstandingBalance());
+                assertEquals(payments, insurer.getHandler().getPaymentHistory().get(contract).size());
+            }
+        }
+    }
+
+    @Test
+    void testCloseDrainsSubmittedCommandsAndRejectsNewOnes() throws Exception {
+        InsuranceCompany insurer = new InsuranceCompany(START);
+        Person owner = new Person(SyntheticData.registrationNumber(1));
+        CommandPipeline pipeline = new CommandPipeline(insurer, 64);
+        SingleVehicleContract contract = pipeline.submit(new InsureVehicle("S1", null, owner, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("AA00000", 5000))).get();
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            pending.add(pipeline.submit(new Pay(contract, 1)));
+        }
+
+        pipeline.close();
+
+        for (CompletableFuture<Void> future : pending) {
+            assertTrue(future.isDone());
+        }
+        assertEquals(50, contract.getContractPaymentData().getOutstandingBalance());
+        assertThrows(RejectedExecutionException.class, () -> pipeline.submit(new Pay(contract, 1)));
+        pipeline.close();
+    }
+
+    @Test
+    void testCancelledCommandIsNeverApplied() throws Exception {
+        InsuranceCompany insurer = new InsuranceCompany(START);
+        Person owner = new Person(SyntheticData.registrationNumber(1));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CommandPipeline pipeline = new CommandPipeline(insurer, 16);
+        try (pipeline) {
+            SingleVehicleContract contract = pipeline.submit(new InsureVehicle("S1", null, owner, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("AA00000", 5000))).get();
+            CompletableFuture<Void> blocking = pipeline.submit(company -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return null;
+            });
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            CompletableFuture<Void> queued = pipeline.submit(new Pay(contract, 40));
+
+            //the running command cannot be withdrawn any more, the queued one can
+            assertFalse(blocking.cancel(false));
+            assertTrue(queued.cancel(false));
+            release.countDown();
+            assertNull(blocking.get(10, TimeUnit.SECONDS));
+            pipeline.submit(new Pay(contract, 1)).get(10, TimeUnit.SECONDS);
+
+            assertTrue(queued.isCancelled());
+            assertEquals(99, contract.getContractPaymentData().getOutstandingBalance());
+        }
+        //counted per batch after the futures complete, final once the writer has stopped
+        assertEquals(4, pipeline.getAppliedCommands());
+    }
+}
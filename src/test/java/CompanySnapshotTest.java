@@ -0,0 +1,239 @@
+package myTests;
+
+import company.VehicleClaim;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import generator.SyntheticData;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.Test;
+import payment.PaymentInstance;
+import payment.PremiumPaymentFrequency;
+import snapshot.CompanySnapshot;
+import snapshot.ContractVersion;
+import snapshot.VersionedInsuranceCompany;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompanySnapshotTest {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 9, 0);
+
+    @Test
+    void testSnapshotIsNotAffectedByLaterChanges() {
+        VersionedInsuranceCompany insurer = new VersionedInsuranceCompany(START);
+        Person holder = new Person(SyntheticData.registrationNumber(1));
+        Person traveller = new Person("0456281232");
+        SingleVehicleContract vehicle = insurer.insureVehicle("S1", null, holder, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("AA00000", 5000));
+        TravelContract travel = insurer.insurePersons("T1", holder, 10, PremiumPaymentFrequency.MONTHLY, Set.of(traveller));
+
+        CompanySnapshot before = insurer.snapshot();
+        vehicle.pay(30);
+        insurer.setCurrentTime(START.plusMonths(1));
+        insurer.chargePremiumsOnContracts();
+        insurer.processClaim(travel, Set.of(traveller));
+        CompanySnapshot after = insurer.snapshot();
+
+        assertEquals(START, before.getCurrentTime());
+        assertEquals(100, before.getContract("S1").getOutstandingBalance());
+        assertTrue(before.getPaymentHistory(before.getContract("S1")).isEmpty());
+        assertTrue(before.getContract("T1").isActive());
+
+        assertEquals(START.plusMonths(1), after.getCurrentTime());
+        assertEquals(170, after.getContract("S1").getOutstandingBalance());
+        assertEquals(START.plusMonths(2), after.getContract("S1").getNextPaymentTime());
+        List<PaymentInstance> payments = after.getPaymentHistory(after.getContract("S1"));
+        assertEquals(1, payments.size());
+        assertEquals(30, payments.get(0).getPaymentAmount());
+        assertFalse(after.getContract("T1").isActive());
+        assertTrue(after.getVersion() > before.getVersion());
+        assertEquals(List.of("S1", "T1"), after.contracts().map(ContractVersion::getContractNumber).toList());
+        assertThrows(UnsupportedOperationException.class, () -> payments.add(payments.get(0)));
+    }
+
+    @Test
+    void testMovedContractsAreReachedThroughTheirMaster() {
+        VersionedInsuranceCompany insurer = new VersionedInsuranceCompany(START);
+        Person owner = new Person(SyntheticData.registrationNumber(1));
+        MasterVehicleContract master = insurer.createMasterVehicleContract("M1", null, owner);
+        for (int i = 0; i < 3; i++) {
+            master.requestAdditionOfChildContract(insurer.insureVehicle("C" + i, null, owner, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("AB" + (10000 + i), 5000)));
+        }
+        CompanySnapshot beforePayment = insurer.snapshot();
+        master.pay(150);
+        SingleVehicleContract reused = insurer.insureVehicle("C0", null, owner, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("AC00000", 5000));
+
+        CompanySnapshot snapshot = insurer.snapshot();
+        assertEquals(2, snapshot.getContractCount());
+        assertEquals(List.of("M1", "C0"), snapshot.contracts().map(ContractVersion::getContractNumber).toList());
+        assertFalse(snapshot.getContract("C0").isChild());
+        assertEquals(reused.getContractNumber(), snapshot.getContract("C0").getContractNumber());
+        assertNull(snapshot.getContract("C1"));
+
+        ContractVersion masterVersion = snapshot.getContract("M1");
+        List<ContractVersion> children = snapshot.getChildContracts(masterVersion);
+        assertEquals(List.of("C0", "C1", "C2"), children.stream().map(ContractVersion::getContractNumber).toList());
+        assertEquals(List.of(0L, 50L, 100L), children.stream().map(ContractVersion::getOutstandingBalance).toList());
+        assertTrue(children.get(0).isChild());
+        assertEquals(1, snapshot.getPaymentHistory(masterVersion).size());
+
+        ContractVersion oldMaster = beforePayment.getContract("M1");
+        assertEquals(List.of(100L, 100L, 100L), beforePayment.getChildContracts(oldMaster).stream().map(ContractVersion::getOutstandingBalance).toList());
+    }
+
+    @Test
+    void testMasterEndsWithItsLastActiveChild() {
+        VersionedInsuranceCompany insurer = new VersionedInsuranceCompany(START);
+        Person owner = new Person(SyntheticData.registrationNumber(1));
+        MasterVehicleContract fleet = insurer.createMasterVehicleContract("M1", null, owner);
+        MasterVehicleContract single = insurer.createMasterVehicleContract("M2", null, owner);
+        SingleVehicleContract first = insurer.insureVehicle("C0", null, owner, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("AB10000", 5000));
+        insurer.insureVehicle("C1", null, owner, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("AB10001", 5000));
+        SingleVehicleContract only = insurer.insureVehicle("C2", null, owner, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("AB10002", 5000));
+        insurer.moveSingleVehicleContractToMasterVehicleContract(fleet, first);
+        insurer.moveSingleVehicleContractToMasterVehicleContract(fleet, (SingleVehicleContract) insurer.getContract("C1"));
+        insurer.moveSingleVehicleContractToMasterVehicleContract(single, only);
+
+        insurer.processClaim(first, 4000);
+        assertTrue(insurer.snapshot().getContract("M1").isActive());
+        insurer.processClaims(List.of(new VehicleClaim("AB10001", 4000)));
+        insurer.processClaim(only, 4000);
+
+        CompanySnapshot snapshot = insurer.snapshot();
+        assertFalse(fleet.isActive());
+        assertFalse(snapshot.getContract("M1").isActive());
+        assertFalse(single.isActive());
+        assertFalse(snapshot.getContract("M2").isActive());
+    }
+
+    @Test
+    void testMovingAChildAgainKeepsTheSnapshotInStep() {
+        VersionedInsuranceCompany insurer = new VersionedInsuranceCompany(START);
+        Person owner = new Person(SyntheticData.registrationNumber(1));
+        MasterVehicleContract first = insurer.createMasterVehicleContract("M1", null, owner);
+        MasterVehicleContract second = insurer.createMasterVehicleContract("M2", null, owner);
+        SingleVehicleContract child = insurer.insureVehicle("S1", null, owner, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("AB10000", 5000));
+
+        insurer.moveSingleVehicleContractToMasterVehicleContract(first, child);
+        insurer.moveSingleVehicleContractToMasterVehicleContract(first, child);
+        insurer.moveSingleVehicleContractsToMasterVehicleContract(first, List.of(child));
+        CompanySnapshot snapshot = insurer.snapshot();
+        assertEquals(insurer.getContracts().size(), snapshot.getContractCount());
+        assertEquals(List.of("S1"), snapshot.getChildContracts(snapshot.getContract("M1")).stream().map(ContractVersion::getContractNumber).toList());
+        assertEquals(1, first.getChildContracts().size());
+
+        //a child moved on to another master is listed under that master only
+        insurer.moveSingleVehicleContractToMasterVehicleContract(second, child);
+        snapshot = insurer.snapshot();
+        assertEquals(2, snapshot.getContractCount());
+        assertTrue(snapshot.getChildContracts(snapshot.getContract("M1")).isEmpty());
+        assertEquals(List.of("S1"), snapshot.getChildContracts(snapshot.getContract("M2")).stream().map(ContractVersion::getContractNumber).toList());
+    }
+
+    @Test
+    void testIncrementalBillingPublishesTheBilledContracts() {
+        VersionedInsuranceCompany insurer = new VersionedInsuranceCompany(START);
+        Person owner = new Person(SyntheticData.registrationNumber(1));
+        Person traveller = new Person("0456281232");
+        insurer.insureVehicle("S1", null, owner, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("AB10000", 5000));
+        insurer.insurePersons("T1", owner, 10, PremiumPaymentFrequency.QUARTERLY, Set.of(traveller));
+        MasterVehicleContract master = insurer.createMasterVehicleContract("M1", null, owner);
+        master.requestAdditionOfChildContract(insurer.insureVehicle("C1", null, owner, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("AB10001", 5000)));
+        CompanySnapshot before = insurer.snapshot();
+
+        insurer.setCurrentTime(START.plusMonths(2));
+        assertEquals(2, insurer.chargeDuePremiums().contractsBilled());
+        CompanySnapshot snapshot = insurer.snapshot();
+        assertEquals(300, snapshot.getContract("S1").getOutstandingBalance());
+        assertEquals(START.plusMonths(3), snapshot.getContract("S1").getNextPaymentTime());
+        assertEquals(300, snapshot.getChildContracts(snapshot.getContract("M1")).get(0).getOutstandingBalance());
+        //not due yet, the version is untouched
+        assertSame(before.getContract("T1"), snapshot.getContract("T1"));
+
+        //nothing due, nothing published
+        long version = snapshot.getVersion();
+        insurer.chargeDuePremiums();
+        assertEquals(version, insurer.snapshot().getVersion());
+    }
+
+    @Test
+    void testLargePortfolioAndCollidingNumbers() {
+        VersionedInsuranceCompany insurer = new VersionedInsuranceCompany(START);
+        Person holder = new Person(SyntheticData.registrationNumber(1));
+        //"Aa" and "BB" have the same hash code
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        List<String> numbers = new ArrayList<>(List.of("Aa", "BB", "AaAa", "BBBB", "AaBB"));
+        for (int i = 0; i < 5_000; i++) {
+            numbers.add("S" + i);
+        }
+        for (int i = 0; i < numbers.size(); i++) {
+            insurer.insureVehicle(numbers.get(i), null, holder, 100 + i, PremiumPaymentFrequency.MONTHLY, new Vehicle("AB" + (10000 + i), 5000));
+        }
+
+        CompanySnapshot snapshot = insurer.snapshot();
+        assertEquals(numbers.size(), snapshot.getContractCount());
+        for (int i = 0; i < numbers.size(); i++) {
+            assertEquals(100 + i, snapshot.getContract(numbers.get(i)).getPremium());
+        }
+        assertNull(snapshot.getContract("BBAa-missing"));
+        assertEquals(numbers, snapshot.contracts().map(ContractVersion::getContractNumber).toList());
+    }
+
+    @Test
+    void testReadersSeeConsistentVersionsWhileWriterRuns() throws Exception {
+        VersionedInsuranceCompany insurer = new VersionedInsuranceCompany(START);
+        Person holder = new Person(SyntheticData.registrationNumber(1));
+        List<SingleVehicleContract> contracts = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            contracts.add(insurer.insureVehicle("S" + i, null, holder, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("AB" + (10000 + i), 5000)));
+        }
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 2; r++) {
+            Thread reader = new Thread(() -> {
+                try {
+                    while (running.get()) {
+                        CompanySnapshot snapshot = insurer.snapshot();
+                        assertEquals(500, snapshot.contracts().count());
+                        snapshot.contracts().forEach(contract -> {
+                            long months = ChronoUnit.MONTHS.between(START, contract.getNextPaymentTime());
+                            int paid = snapshot.getPaymentHistory(contract).stream().mapToInt(PaymentInstance::getPaymentAmount).sum();
+                            //every charged period is either paid or outstanding
+                            assertEquals(months * 100, contract.getOutstandingBalance() + paid);
+                            assertFalse(contract.getNextPaymentTime().isAfter(snapshot.getCurrentTime().plusMonths(1)));
+                        });
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+            readers.add(reader);
+            reader.start();
+        }
+
+        for (int month = 1; month <= 24; month++) {
+            insurer.setCurrentTime(START.plusMonths(month));
+            insurer.chargePremiumsOnContracts();
+            for (SingleVehicleContract contract : contracts) {
+                contract.pay(60);
+            }
+        }
+        running.set(false);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertNull(failure.get());
+        assertEquals(24 * 500, insurer.snapshot().contracts().mapToLong(c -> insurer.snapshot().getPaymentHistory(c).size()).sum());
+    }
+}
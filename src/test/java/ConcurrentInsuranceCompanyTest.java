@@ -0,0 +1,235 @@
+package myTests;
+
+import company.ConcurrentInsuranceCompany;
+import company.InsuranceCompany;
+import contracts.AbstractContract;
+import contracts.InvalidContractException;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import generator.SyntheticData;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.Test;
+import payment.PaymentInstance;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Stress tests: many threads hammer one insurer, then the invariants of the final state are checked.
+ */
+class ConcurrentInsuranceCompanyTest {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 9, 0);
+    private static final int THREADS = 8;
+
+    @Test
+    void testRacingConclusionsKeepContractNumbersUnique() throws Exception {
+        ConcurrentInsuranceCompany insurer = new ConcurrentInsuranceCompany(START, 4);
+        AtomicInteger concluded = new AtomicInteger();
+        List<Person> holders = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            holders.add(new Person(SyntheticData.registrationNumber(t)));
+        }
+
+        runConcurrently(t -> {
+            for (int i = 0; i < 500; i++) {
+                try {
+                    insurer.insureVehicle("S" + i, null, holders.get(t), 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("AB" + (10000 + i), 5000));
+                    concluded.incrementAndGet();
+                } catch (IllegalArgumentException duplicate) {
+                    //another thread concluded this number first
+                }
+            }
+        });
+
+        assertEquals(500, concluded.get());
+        assertEquals(500, insurer.getContracts().size());
+        int held = 0;
+        for (Person holder : holders) {
+            for (AbstractContract contract : holder.getContracts()) {
+                assertSame(contract, insurer.getContract(contract.getContractNumber()));
+                held++;
+            }
+        }
+        assertEquals(500, held);
+    }
+
+    @Test
+    void testPaymentsClaimsAndBillingAreNotLost() throws Exception {
+        ConcurrentInsuranceCompany insurer = new ConcurrentInsuranceCompany(START);
+        List<Person> holders = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            holders.add(new Person(SyntheticData.registrationNumber(i)));
+        }
+        List<SingleVehicleContract> vehicles = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            vehicles.add(insurer.insureVehicle("S" + i, null, holders.get(i % holders.size()), 100,
+                    PremiumPaymentFrequency.MONTHLY, new Vehicle("AB" + (10000 + i), 5000)));
+        }
+        Person traveller = new Person("0456281232");
+        List<TravelContract> travels = new ArrayList<>();
+        for (int i = 0; i < THREADS * 50; i++) {
+            travels.add(insurer.insurePersons("T" + i, holders.get(i % holders.size()), 10, PremiumPaymentFrequency.MONTHLY, Set.of(traveller)));
+        }
+        int months = 12;
+
+        runConcurrently(t -> {
+            if (t == 0) {
+                for (int month = 1; month <= months; month++) {
+                    insurer.setCurrentTime(START.plusMonths(month));
+                    insurer.chargePremiumsOnContracts();
+                }
+                return;
+            }
+            for (int round = 0; round < 20; round++) {
+                for (SingleVehicleContract contract : vehicles) {
+                    contract.pay(5);
+                }
+            }
+            for (int i = t * 50; i < (t + 1) * 50; i++) {
+                insurer.processClaim(travels.get(i), Set.of(traveller));
+            }
+        });
+
+        int payers = THREADS - 1;
+        for (SingleVehicleContract contract : vehicles) {
+            assertEquals((months + 1) * 100 - payers * 20 * 5, contract.getContractPaymentData().getOutstandingBalance());
+            Set<PaymentInstance> history = insurer.getHandler().getPaymentHistory().get(contract);
+            assertEquals(payers * 20, history.size());
+        }
+        assertEquals(payers * 50 * 10, traveller.getPaidOutAmount());
+        assertEquals(travels.size() - 50, travels.stream().filter(c -> !c.isActive()).count());
+    }
+
+    @Test
+    void testConcurrentMovesIntoOneMaster() throws Exception {
+        ConcurrentInsuranceCompany insurer = new ConcurrentInsuranceCompany(START, 16);
+        Person fleetOwner = new Person(SyntheticData.registrationNumber(1));
+        MasterVehicleContract master = insurer.createMasterVehicleContract("M", null, fleetOwner);
+        master.requestAdditionOfChildContract(insurer.insureVehicle("C", null, fleetOwner, 100,
+                PremiumPaymentFrequency.MONTHLY, new Vehicle("AA00000", 5000)));
+
+        runConcurrently(t -> {
+            for (int i = 0; i < 100; i++) {
+                if (t % 2 == 0) {
+                    SingleVehicleContract child = insurer.insureVehicle("C" + t + "-" + i, null, fleetOwner, 100,
+                            PremiumPaymentFrequency.MONTHLY, new Vehicle("AB" + (10000 + t * 100 + i), 5000));
+                    insurer.moveSingleVehicleContractToMasterVehicleContract(master, child);
+                } else {
+                    master.pay(30);
+                }
+            }
+        });
+
+        int movers = THREADS / 2;
+        assertEquals(1 + movers * 100, master.getChildContracts().size());
+        assertEquals(1, fleetOwner.getContracts().size());
+        assertEquals(1, insurer.getContracts().size());
+        long balance = 0;
+        for (SingleVehicleContract child : master.getChildContracts()) {
+            balance += child.getContractPaymentData().getOutstandingBalance();
+        }
+        assertEquals(master.getChildContracts().size() * 100L - (THREADS - movers) * 100 * 30, balance);
+        assertEquals((THREADS - movers) * 100, insurer.getHandler().getPaymentHistory().get(master).size());
+    }
+
+    @Test
+    void testRacingClaimsPayEveryDeactivatingClaimExactlyOnce() throws Exception {
+        ConcurrentInsuranceCompany insurer = new ConcurrentInsuranceCompany(START);
+        Person holder = new Person(SyntheticData.registrationNumber(1));
+        Person traveller = new Person("0456281232");
+        List<TravelContract> travels = new ArrayList<>();
+        List<SingleVehicleContract> vehicles = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            travels.add(insurer.insurePersons("T" + i, holder, 10, PremiumPaymentFrequency.MONTHLY, Set.of(traveller)));
+            vehicles.add(insurer.insureVehicle("S" + i, null, holder, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("AB" + (10000 + i), 5000)));
+        }
+        AtomicInteger travelClaims = new AtomicInteger();
+        AtomicInteger vehicleClaims = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        //every thread claims every contract, travel claims and total losses end the contract
+        runConcurrently(t -> {
+            for (int i = 0; i < travels.size(); i++) {
+                try {
+                    insurer.processClaim(travels.get(i), Set.of(traveller));
+                    travelClaims.incrementAndGet();
+                } catch (InvalidContractException inactive) {
+                    rejected.incrementAndGet();
+                }
+                try {
+                    insurer.processClaim(vehicles.get(i), i % 2 == 0 ? 4000 : 100);
+                    vehicleClaims.incrementAndGet();
+                } catch (InvalidContractException inactive) {
+                    rejected.incrementAndGet();
+                }
+            }
+        });
+
+        assertEquals(200, travelClaims.get());
+        assertEquals(100 + 100 * THREADS, vehicleClaims.get());
+        assertEquals(2 * 200 * THREADS - travelClaims.get() - vehicleClaims.get(), rejected.get());
+        assertEquals(200 * 10, traveller.getPaidOutAmount());
+        assertEquals(vehicleClaims.get() * 2500L, holder.getPaidOutAmount());
+        assertEquals(200 * 10 + vehicleClaims.get() * 2500L, insurer.getTotalPaidOut());
+        assertTrue(travels.stream().noneMatch(TravelContract::isActive));
+        for (int i = 0; i < vehicles.size(); i++) {
+            assertEquals(i % 2 != 0, vehicles.get(i).isActive());
+        }
+    }
+
+    @Test
+    void testSingleThreadedBehaviourIsUnchanged() {
+        InsuranceCompany insurer = new ConcurrentInsuranceCompany(START);
+        Person holder = new Person(SyntheticData.registrationNumber(1));
+        SingleVehicleContract contract = insurer.insureVehicle("S1", null, holder, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("AA00000", 5000));
+
+        assertThrows(IllegalArgumentException.class, () -> insurer.insureVehicle("S1", null, holder, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("AA00001", 5000)));
+        assertThrows(IllegalArgumentException.class, () -> insurer.insureVehicle("S2", null, null, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("AA00001", 5000)));
+        assertThrows(IllegalArgumentException.class, () -> insurer.processClaim((TravelContract) null, Set.of(holder)));
+
+        contract.pay(40);
+        insurer.processClaim(contract, 4000);
+        assertEquals(60, contract.getContractPaymentData().getOutstandingBalance());
+        assertEquals(2500, holder.getPaidOutAmount());
+        assertFalse(contract.isActive());
+    }
+
+    private interface Worker {
+        void run(int thread) throws Exception;
+    }
+
+    private static void runConcurrently(Worker worker) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    worker.run(thread);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
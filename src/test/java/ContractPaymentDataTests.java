@@ -3,10 +3,12 @@ package myTests;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
+import payment.BalanceSnapshot;
 import payment.ContractPaymentData;
 import payment.PremiumPaymentFrequency;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 public class ContractPaymentDataTests {
 
@@ -78,4 +80,100 @@ public class ContractPaymentDataTests {
         monthlyData.updateNextPaymentTime();
         assertEquals(now.plusMonths(1), monthlyData.getNextPaymentTime());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testUpdateNextPaymentTimeClampsLikePlusMonths() {
+        // 31. januára v priestupnom roku, mesačne – deň sa skráti a ďalej už nerastie
+        LocalDateTime start = LocalDateTime.of(2024, 1, 31, 13, 45, 10, 500);
+        ContractPaymentData data = new ContractPaymentData(100, PremiumPaymentFrequency.MONTHLY, start, 0);
+        LocalDateTime expected = start;
+        for (int i = 0; i < 40; i++) {
+            data.updateNextPaymentTime();
+            expected = expected.plusMonths(1);
+            assertEquals(expected, data.getNextPaymentTime());
+        }
+
+        // 29. februára, ročne
+        LocalDateTime leapDay = LocalDateTime.of(2024, 2, 29, 0, 0);
+        ContractPaymentData annualData = new ContractPaymentData(100, PremiumPaymentFrequency.ANNUAL, leapDay, 0);
+        annualData.updateNextPaymentTime();
+        assertEquals(leapDay.plusMonths(12), annualData.getNextPaymentTime());
+    }
+
+    @Test
+    void testIsPaymentDue() {
+        LocalDateTime due = LocalDateTime.of(2025, 3, 15, 10, 30);
+        ContractPaymentData data = new ContractPaymentData(100, PremiumPaymentFrequency.QUARTERLY, due, 0);
+
+        assertTrue(data.isPaymentDue(due));
+        assertTrue(data.isPaymentDue(due.plusNanos(1)));
+        assertTrue(data.isPaymentDue(due.plusDays(1)));
+        assertTrue(data.isPaymentDue(due.plusYears(3)));
+        assertFalse(data.isPaymentDue(due.minusNanos(1)));
+        assertFalse(data.isPaymentDue(due.minusDays(1)));
+        assertFalse(data.isPaymentDue(due.minusMonths(1).plusDays(20)));
+        assertFalse(data.isPaymentDue(LocalDateTime.of(1960, 1, 1, 0, 0)));
+    }
+
+    @Test
+    void testAddToOutstandingBalance() {
+        ContractPaymentData data = new ContractPaymentData(100, PremiumPaymentFrequency.ANNUAL, now, Integer.MAX_VALUE);
+
+        assertEquals(Integer.MAX_VALUE + 100L, data.addToOutstandingBalance(100));
+        assertEquals(Integer.MAX_VALUE - 50L, data.addToOutstandingBalance(-150));
+        assertEquals(Integer.MAX_VALUE - 50L, data.getOutstandingBalance());
+
+        data.setOutstandingBalance(Long.MAX_VALUE);
+        assertThrows(ArithmeticException.class, () -> data.addToOutstandingBalance(1));
+        assertEquals(Long.MAX_VALUE, data.getOutstandingBalance());
+    }
+
+    @Test
+    void testChargeDuePeriodsCatchesUp() {
+        LocalDateTime due = LocalDateTime.of(2025, 1, 31, 8, 0);
+        ContractPaymentData data = new ContractPaymentData(100, PremiumPaymentFrequency.MONTHLY, due, 0);
+
+        assertEquals(0, data.chargeDuePeriods(due.minusNanos(1)));
+        assertEquals(3, data.chargeDuePeriods(due.plusMonths(2)));
+        assertEquals(300, data.getOutstandingBalance());
+        assertEquals(LocalDateTime.of(2025, 4, 28, 8, 0), data.getNextPaymentTime());
+        assertEquals(new BalanceSnapshot(300, LocalDateTime.of(2025, 4, 28, 8, 0)), data.snapshot());
+    }
+
+    @Test
+    void testSnapshotsAreConsistentWhileBilledAndPaid() throws InterruptedException {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        ContractPaymentData data = new ContractPaymentData(100, PremiumPaymentFrequency.MONTHLY, start, 0);
+        int months = 20_000;
+
+        //every charge moves the balance and the next payment time together, every payment of 100 is undone by 100 more
+        Thread biller = new Thread(() -> {
+            for (int month = 0; month < months; month++) {
+                data.chargeDuePeriods(start.plusMonths(month));
+            }
+        });
+        Thread payer = new Thread(() -> {
+            for (int i = 0; i < months; i++) {
+                data.addToOutstandingBalance(-100);
+                data.addToOutstandingBalance(100);
+            }
+        });
+        biller.start();
+        payer.start();
+        int inconsistent = 0;
+        while (biller.isAlive()) {
+            BalanceSnapshot snapshot = data.snapshot();
+            long charged = ChronoUnit.MONTHS.between(start, snapshot.nextPaymentTime());
+            long balance = snapshot.outstandingBalance();
+            if (balance != 100 * charged && balance != 100 * charged - 100) {
+                inconsistent++;
+            }
+        }
+        biller.join();
+        payer.join();
+
+        assertEquals(0, inconsistent);
+        assertEquals(100L * months, data.getOutstandingBalance());
+        assertEquals(start.plusMonths(months), data.getNextPaymentTime());
+    }
+}
@@ -203,9 +203,8 @@ public class EdgeCaseSpecTests {
                 "PM", null, legal
         );
         master.requestAdditionOfChildContract(s);
-        ic.getContracts().add(master);
 
-        int before = s.getContractPaymentData().getOutstandingBalance();
+        long before = s.getContractPaymentData().getOutstandingBalance();
         master.pay(20);
         assertTrue(s.getContractPaymentData().getOutstandingBalance() < before);
     }
@@ -0,0 +1,146 @@
+package myTests;
+
+import company.InsuranceCompany;
+import contracts.InvalidContractException;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import payment.PremiumPaymentFrequency;
+import snapshot.CompanySnapshot;
+import snapshot.ContractVersion;
+import snapshot.VersionedInsuranceCompany;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FleetMoveTest {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    private InsuranceCompany insurer;
+    private Person fleetOwner;
+    private MasterVehicleContract master;
+
+    @BeforeEach
+    void setUp() {
+        insurer = new InsuranceCompany(START);
+        fleetOwner = new Person("12345678");
+        master = insurer.createMasterVehicleContract("M1", null, fleetOwner);
+    }
+
+    @Test
+    void testMovesWholeFleetInOrder() {
+        List<SingleVehicleContract> fleet = fleet(insurer, "S", 1000);
+        master.requestAdditionOfChildContracts(fleet);
+
+        assertEquals(fleet, List.copyOf(master.getChildContracts()));
+        assertEquals(1, insurer.getContracts().size());
+        assertEquals(List.of(master), List.copyOf(fleetOwner.getContracts()));
+
+        insurer.setCurrentTime(START.plusMonths(1));
+        insurer.chargePremiumsOnContracts();
+        assertEquals(200, fleet.get(999).getContractPaymentData().getOutstandingBalance());
+    }
+
+    @Test
+    void testReportsFirstInvalidChildAndMovesNothing() {
+        List<SingleVehicleContract> fleet = fleet(insurer, "S", 10);
+        fleet.get(3).setInactive();
+        InsuranceCompany other = new InsuranceCompany(START);
+        fleet.set(6, other.insureVehicle("X", null, fleetOwner, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("ABC1234", 5000)));
+
+        InvalidContractException e = assertThrows(InvalidContractException.class,
+                () -> insurer.moveSingleVehicleContractsToMasterVehicleContract(master, fleet));
+        assertEquals("Single Vehicle Contract must be an active contract", e.getMessage());
+        assertTrue(master.getChildContracts().isEmpty());
+        assertEquals(11, insurer.getContracts().size());
+
+        List<SingleVehicleContract> withNull = fleet(insurer, "N", 3);
+        withNull.add(1, null);
+        assertThrows(IllegalArgumentException.class, () -> master.requestAdditionOfChildContracts(withNull));
+        assertThrows(IllegalArgumentException.class, () -> master.requestAdditionOfChildContracts(null));
+        assertThrows(IllegalArgumentException.class,
+                () -> insurer.moveSingleVehicleContractsToMasterVehicleContract(null, withNull));
+
+        Person otherOwner = new Person("87654321");
+        List<SingleVehicleContract> foreign = Arrays.asList(fleet(insurer, "F", 1).get(0),
+                insurer.insureVehicle("O", null, otherOwner, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("ABC1234", 5000)));
+        assertThrows(InvalidContractException.class, () -> master.requestAdditionOfChildContracts(foreign));
+        assertTrue(master.getChildContracts().isEmpty());
+    }
+
+    @Test
+    void testInactiveMasterRejectsFleet() {
+        master.setInactive();
+        List<SingleVehicleContract> fleet = fleet(insurer, "S", 2);
+        assertThrows(InvalidContractException.class, () -> master.requestAdditionOfChildContracts(fleet));
+    }
+
+    @Test
+    void testChecksRunInTheOrderOfTheSingleMove() {
+        MasterVehicleContract inactive = insurer.createMasterVehicleContract("M2", null, fleetOwner);
+        inactive.setInactive();
+        InsuranceCompany other = new InsuranceCompany(START);
+        MasterVehicleContract foreign = other.createMasterVehicleContract("M3", null, fleetOwner);
+        SingleVehicleContract ended = fleet(insurer, "E", 1).get(0);
+        ended.setInactive();
+        List<SingleVehicleContract> withNull = Arrays.asList(fleet(insurer, "S", 1).get(0), null);
+
+        //null checks come before the activity of the master
+        assertThrows(IllegalArgumentException.class, () -> insurer.moveSingleVehicleContractToMasterVehicleContract(inactive, null));
+        assertThrows(IllegalArgumentException.class, () -> insurer.moveSingleVehicleContractsToMasterVehicleContract(inactive, withNull));
+
+        //the activity of the child comes before the insurer of the master
+        InvalidContractException single = assertThrows(InvalidContractException.class,
+                () -> insurer.moveSingleVehicleContractToMasterVehicleContract(foreign, ended));
+        assertEquals("Single Vehicle Contract must be an active contract", single.getMessage());
+        InvalidContractException bulk = assertThrows(InvalidContractException.class,
+                () -> insurer.moveSingleVehicleContractsToMasterVehicleContract(foreign, List.of(ended)));
+        assertEquals(single.getMessage(), bulk.getMessage());
+
+        //within a step the master comes first
+        InvalidContractException master = assertThrows(InvalidContractException.class,
+                () -> insurer.moveSingleVehicleContractsToMasterVehicleContract(inactive, List.of(ended)));
+        assertEquals("Master Vehicle Contract must be an active contract", master.getMessage());
+    }
+
+    @Test
+    void testSnapshotMatchesSingleMoves() {
+        VersionedInsuranceCompany bulk = new VersionedInsuranceCompany(START);
+        VersionedInsuranceCompany single = new VersionedInsuranceCompany(START);
+        MasterVehicleContract bulkMaster = bulk.createMasterVehicleContract("M1", null, fleetOwner);
+        MasterVehicleContract singleMaster = single.createMasterVehicleContract("M1", null, fleetOwner);
+        List<SingleVehicleContract> bulkFleet = fleet(bulk, "S", 100);
+        List<SingleVehicleContract> singleFleet = fleet(single, "S", 100);
+
+        bulk.moveSingleVehicleContractsToMasterVehicleContract(bulkMaster, bulkFleet);
+        singleFleet.forEach(singleMaster::requestAdditionOfChildContract);
+
+        CompanySnapshot bulkSnapshot = bulk.snapshot();
+        CompanySnapshot singleSnapshot = single.snapshot();
+        assertEquals(singleSnapshot.getContractCount(), bulkSnapshot.getContractCount());
+        ContractVersion bulkMasterVersion = bulkSnapshot.getContract("M1");
+        ContractVersion singleMasterVersion = singleSnapshot.getContract("M1");
+        assertEquals(numbers(singleSnapshot.getChildContracts(singleMasterVersion)), numbers(bulkSnapshot.getChildContracts(bulkMasterVersion)));
+        assertNull(bulkSnapshot.getContract("S42"));
+        assertTrue(bulkSnapshot.getChildContracts(bulkMasterVersion).get(42).isChild());
+    }
+
+    private List<SingleVehicleContract> fleet(InsuranceCompany company, String prefix, int size) {
+        List<SingleVehicleContract> fleet = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            fleet.add(company.insureVehicle(prefix + i, null, fleetOwner, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("ABC1234", 5000)));
+        }
+        return fleet;
+    }
+
+    private static List<String> numbers(List<ContractVersion> versions) {
+        return versions.stream().map(ContractVersion::getContractNumber).toList();
+    }
+}
@@ -0,0 +1,128 @@
+package myTests;
+
+import company.InsuranceCompany;
+import company.VehicleQuote;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.Test;
+import payment.PremiumPaymentFrequency;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightRecorderEventsTest {
+
+    @Test
+    void testEventsAreRecordedWhenEnabled() throws IOException {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        InsuranceCompany insurer = new InsuranceCompany(start);
+        Person company = new Person("12345678");
+        Person traveller = new Person("0456281232");
+
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            for (String name : List.of("ContractConcludedEvent", "PremiumChargeEvent", "PaymentEvent", "ClaimEvent", "BillingRunEvent")) {
+                recording.enable("monitoring." + name).withoutThreshold();
+            }
+            recording.start();
+
+            MasterVehicleContract master = insurer.createMasterVehicleContract("M1", null, company);
+            SingleVehicleContract child = insurer.insureVehicle("S1", null, company, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("ABC1234", 5000));
+            master.requestAdditionOfChildContract(child);
+            TravelContract travel = insurer.insurePersons("T1", company, 10, PremiumPaymentFrequency.MONTHLY, Set.of(traveller));
+
+            insurer.setCurrentTime(start.plusMonths(2));
+            insurer.chargePremiumsOnContracts();
+            master.pay(250);
+            insurer.processClaim(travel, Set.of(traveller));
+
+            recording.stop();
+            Path file = Files.createTempFile("insurance", ".jfr");
+            try {
+                recording.dump(file);
+                events = RecordingFile.readAllEvents(file);
+            } finally {
+                Files.delete(file);
+            }
+        }
+
+        RecordedEvent billing = only(events, "monitoring.BillingRunEvent");
+        assertEquals(2, billing.getInt("contractsBilled"));
+        assertEquals(4, billing.getLong("periodsCharged"));
+
+        RecordedEvent masterCharge = events.stream()
+                .filter(e -> e.getEventType().getName().equals("monitoring.PremiumChargeEvent"))
+                .filter(e -> "M1".equals(e.getString("contractNumber")))
+                .findFirst().orElseThrow();
+        assertEquals("MasterVehicleContract", masterCharge.getString("contractType"));
+        assertEquals(2, masterCharge.getInt("periodsCharged"));
+        assertEquals(200, masterCharge.getLong("amountDistributed"));
+        assertEquals(1, masterCharge.getInt("childCount"));
+
+        RecordedEvent payment = only(events, "monitoring.PaymentEvent");
+        assertEquals("M1", payment.getString("contractNumber"));
+        assertEquals(250, payment.getLong("amountDistributed"));
+
+        RecordedEvent claim = only(events, "monitoring.ClaimEvent");
+        assertEquals("TravelContract", claim.getString("contractType"));
+        assertEquals(10, claim.getLong("amountDistributed"));
+        assertTrue(claim.getBoolean("deactivated"));
+
+        assertEquals(4, events.stream().filter(e -> e.getEventType().getName().equals("monitoring.ContractConcludedEvent")).count());
+    }
+
+    @Test
+    void testEveryBatchConclusionIsTimed() throws IOException {
+        InsuranceCompany insurer = new InsuranceCompany(LocalDateTime.of(2025, 1, 1, 0, 0));
+        Person company = new Person("12345678");
+        List<VehicleQuote> quotes = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            quotes.add(new VehicleQuote("S" + i, null, company, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("ABC1234", 5000)));
+        }
+
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable("monitoring.ContractConcludedEvent").withoutThreshold();
+            recording.start();
+            insurer.insureVehicles(quotes);
+            recording.stop();
+            Path file = Files.createTempFile("insurance", ".jfr");
+            try {
+                recording.dump(file);
+                events = RecordingFile.readAllEvents(file);
+            } finally {
+                Files.delete(file);
+            }
+        }
+
+        assertEquals(100, events.size());
+        //an event committed without begin() has no duration at all
+        assertTrue(events.stream().map(RecordedEvent::getDuration).reduce(Duration.ZERO, Duration::plus).toNanos() > 0);
+    }
+
+    @Test
+    void testEventsAreDisabledByDefault() {
+        assertFalse(new monitoring.PaymentEvent().isEnabled());
+        assertFalse(new monitoring.BillingRunEvent().isEnabled());
+    }
+
+    private static RecordedEvent only(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = events.stream().filter(e -> e.getEventType().getName().equals(name)).toList();
+        assertEquals(1, matching.size(), name);
+        return matching.get(0);
+    }
+}
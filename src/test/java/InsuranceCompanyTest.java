@@ -139,6 +139,69 @@ class InsuranceCompanyTest {
         assertTrue(single.getContractPaymentData().getOutstandingBalance() > 0);
     }
 
+    @Test
+    void testChargePremiumsOnContractsCoversEveryContractType() {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 10, 8, 0);
+        insurer.setCurrentTime(start);
+        Person traveller = new Person("0456281232");
+
+        SingleVehicleContract single = insurer.insureVehicle(
+                "SVC010", beneficiary, policyHolder, 500, PremiumPaymentFrequency.ANNUAL, vehicle
+        );
+        TravelContract travel = insurer.insurePersons(
+                "TR010", policyHolder, 20, PremiumPaymentFrequency.MONTHLY, Set.of(traveller)
+        );
+        SingleVehicleContract child = insurer.insureVehicle(
+                "SVC011", beneficiary, policyHolder, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("XYZ9876", 5000)
+        );
+        MasterVehicleContract master = insurer.createMasterVehicleContract("MVC010", beneficiary, policyHolder);
+        insurer.moveSingleVehicleContractToMasterVehicleContract(master, child);
+
+        insurer.setCurrentTime(start.plusMonths(2));
+        insurer.chargePremiumsOnContracts();
+
+        assertEquals(500, single.getContractPaymentData().getOutstandingBalance());
+        assertEquals(60, travel.getContractPaymentData().getOutstandingBalance());
+        // the moved child is billed once, through its master
+        assertEquals(300, child.getContractPaymentData().getOutstandingBalance());
+    }
+
+    @Test
+    void testReusedNumberOfMovedContractIsBilled() {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 10, 8, 0);
+        insurer.setCurrentTime(start);
+        SingleVehicleContract moved = insurer.insureVehicle(
+                "SVC013", beneficiary, policyHolder, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("XYZ9876", 5000)
+        );
+        MasterVehicleContract master = insurer.createMasterVehicleContract("MVC013", beneficiary, policyHolder);
+        insurer.moveSingleVehicleContractToMasterVehicleContract(master, moved);
+        // the number is free again before the portfolio was compacted by a billing run
+        SingleVehicleContract reused = insurer.insureVehicle(
+                "SVC013", beneficiary, policyHolder, 200, PremiumPaymentFrequency.MONTHLY, new Vehicle("XYZ9875", 5000)
+        );
+
+        insurer.setCurrentTime(start.plusMonths(2));
+        insurer.chargePremiumsOnContracts();
+
+        assertEquals(600, reused.getContractPaymentData().getOutstandingBalance());
+        assertEquals(300, moved.getContractPaymentData().getOutstandingBalance());
+        assertSame(reused, insurer.getContract("SVC013"));
+    }
+
+    @Test
+    void testContractsCannotBeRemovedThroughGetter() {
+        SingleVehicleContract single = insurer.insureVehicle(
+                "SVC012", beneficiary, policyHolder, 500, PremiumPaymentFrequency.MONTHLY, vehicle
+        );
+        assertThrows(UnsupportedOperationException.class, () -> insurer.getContracts().remove(single));
+        assertThrows(UnsupportedOperationException.class, () -> policyHolder.getContracts().clear());
+
+        insurer.setCurrentTime(insurer.getCurrentTime().plusMonths(1));
+        insurer.chargePremiumsOnContracts();
+        assertEquals(1000, single.getContractPaymentData().getOutstandingBalance());
+        assertTrue(policyHolder.getContracts().contains(single));
+    }
+
     @Test
     void testProcessTravelClaim() {
         Set<Person> insuredPersons = new HashSet<>();
@@ -167,4 +230,22 @@ class InsuranceCompanyTest {
 
         assertFalse(single.isActive());
     }
+
+    @Test
+    void testAnnualPremiumAndTotalPaidOutDoNotOverflow() {
+        //12 monthly premiums of Integer.MAX_VALUE wrapped to a negative annual premium in int arithmetic
+        SingleVehicleContract single = insurer.insureVehicle(
+                "SVC005", null, policyHolder, Integer.MAX_VALUE, PremiumPaymentFrequency.MONTHLY, vehicle
+        );
+        assertEquals(Integer.MAX_VALUE, single.getContractPaymentData().getOutstandingBalance());
+
+        insurer.chargePremiumOnContract(single);
+        insurer.setCurrentTime(insurer.getCurrentTime().plusMonths(1));
+        insurer.chargePremiumOnContract(single);
+        assertEquals(2L * Integer.MAX_VALUE, single.getContractPaymentData().getOutstandingBalance());
+
+        insurer.processClaim(single, 100);
+        assertEquals(10000, insurer.getTotalPaidOut());
+        assertEquals(10000, policyHolder.getPaidOutAmount());
+    }
 }
@@ -0,0 +1,130 @@
+package myTests;
+
+import api.InsuranceHttpServer;
+import company.InsuranceCompany;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InsuranceHttpServerTest {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 9, 0);
+
+    private InsuranceHttpServer server;
+    private HttpClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new InsuranceHttpServer(new InsuranceCompany(START), 0, 1);
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void testContractLifecycleOverHttp() throws Exception {
+        HttpResponse<String> master = post("/contracts/master", "{\"contractNumber\":\"M1\",\"policyHolderId\":\"12345678\"}");
+        assertEquals(200, master.statusCode(), master.body());
+        assertTrue(master.body().contains("\"type\":\"MasterVehicleContract\""));
+
+        HttpResponse<String> vehicle = post("/contracts/vehicle", "{\"contractNumber\":\"S1\",\"policyHolderId\":\"12345678\",\"premium\":100,"
+                + "\"frequency\":\"MONTHLY\",\"licensePlate\":\"AA00000\",\"vehicleValue\":5000}");
+        assertEquals(200, vehicle.statusCode(), vehicle.body());
+        assertTrue(vehicle.body().contains("\"outstandingBalance\":100"));
+
+        HttpResponse<String> moved = post("/contracts/master/M1/children", "{\"contractNumber\":\"S1\"}");
+        assertEquals(200, moved.statusCode(), moved.body());
+        assertTrue(moved.body().contains("\"childContracts\":[{\"contractNumber\":\"S1\""));
+
+        assertEquals(200, post("/payments", "{\"contractNumber\":\"M1\",\"amount\":60}").statusCode());
+        HttpResponse<String> child = get("/contracts/S1");
+        assertEquals(200, child.statusCode());
+        assertTrue(child.body().contains("\"outstandingBalance\":40"), child.body());
+
+        HttpResponse<String> travel = post("/contracts/travel", "{\"contractNumber\":\"T1\",\"policyHolderId\":\"12345678\",\"premium\":10,"
+                + "\"frequency\":\"MONTHLY\",\"insuredPersonIds\":[\"0456281232\"]}");
+        assertEquals(200, travel.statusCode(), travel.body());
+        HttpResponse<String> claim = post("/claims/travel", "{\"contractNumber\":\"T1\",\"affectedPersonIds\":[\"0456281232\"]}");
+        assertEquals(200, claim.statusCode(), claim.body());
+        assertTrue(claim.body().contains("\"active\":false"));
+
+        HttpResponse<String> vehicleClaim = post("/claims/vehicle", "{\"contractNumber\":\"S1\",\"expectedDamages\":100}");
+        assertEquals(200, vehicleClaim.statusCode(), vehicleClaim.body());
+        assertTrue(vehicleClaim.body().contains("\"active\":true"));
+    }
+
+    @Test
+    void testErrorsAreMappedToStatusCodes() throws Exception {
+        assertEquals(400, post("/contracts/master", "{\"contractNumber\":\"M1\"").statusCode());
+        assertEquals(400, post("/contracts/master", "{\"contractNumber\":\"M1\",\"policyHolderId\":7}").statusCode());
+        assertEquals(400, post("/contracts/master", "{\"contractNumber\":\"M1\",\"policyHolderId\":\"not an id\"}").statusCode());
+        assertEquals(404, get("/contracts/none").statusCode());
+        assertEquals(404, post("/unknown", "{}").statusCode());
+        assertEquals(405, get("/payments").statusCode());
+
+        assertEquals(200, post("/contracts/master", "{\"contractNumber\":\"M\\u0031\",\"policyHolderId\":\"12345678\"}").statusCode());
+        HttpResponse<String> emptyFleet = post("/payments", "{\"contractNumber\":\"M1\",\"amount\":10}");
+        assertEquals(409, emptyFleet.statusCode());
+        assertTrue(emptyFleet.body().startsWith("{\"error\":"));
+        assertEquals(400, post("/contracts/master", "{\"contractNumber\":\"M1\",\"policyHolderId\":\"12345678\"}").statusCode());
+    }
+
+    @Test
+    void testRequestsBeyondTheLimitAreRejected() throws Exception {
+        try (Socket slow = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            OutputStream out = slow.getOutputStream();
+            out.write(("POST /payments HTTP/1.1\r\nHost: localhost\r\nContent-Length: 100\r\n\r\n{").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+
+            int status = 0;
+            for (int attempt = 0; attempt < 100 && status != 503; attempt++) {
+                HttpResponse<String> response = get("/contracts/none");
+                status = response.statusCode();
+                if (status == 503) {
+                    assertEquals("1", response.headers().firstValue("Retry-After").orElse(null));
+                } else {
+                    Thread.sleep(20);
+                }
+            }
+            assertEquals(503, status);
+            out.write(" ".repeat(99).getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+        }
+
+        int status = 503;
+        for (int attempt = 0; attempt < 100 && status == 503; attempt++) {
+            Thread.sleep(20);
+            status = get("/contracts/none").statusCode();
+        }
+        assertEquals(404, status);
+    }
+
+    private HttpResponse<String> post(String path, String body) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(path)).POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(path)).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.getPort() + path);
+    }
+}
@@ -0,0 +1,149 @@
+package myTests;
+
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import monitoring.InstrumentedInsuranceCompany;
+import monitoring.InsuranceMetrics;
+import monitoring.LatencyHistogram;
+import monitoring.LatencySummary;
+import monitoring.MeteredOperation;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.Test;
+import payment.PremiumPaymentFrequency;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InsuranceMetricsTest {
+
+    @Test
+    void testHistogramPercentilesAreWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value);
+        }
+
+        LatencySummary summary = histogram.summary();
+        assertEquals(100_000, summary.getCount());
+        assertEquals(50_000, summary.getMean());
+        assertEquals(100_000, summary.getMax());
+        assertEquals(50_000, summary.getP50(), 50_000 * 0.07);
+        assertEquals(99_000, summary.getP99(), 99_000 * 0.07);
+        assertTrue(summary.getP999() <= summary.getMax());
+    }
+
+    @Test
+    void testHistogramCountsEveryRecordFromManyThreads() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    histogram.record(i);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(400_000, histogram.summary().getCount());
+        assertEquals(49_999, histogram.summary().getMax());
+    }
+
+    @Test
+    void testInstrumentedCompanyRecordsOperations() {
+        InsuranceMetrics metrics = new InsuranceMetrics(1);
+        InstrumentedInsuranceCompany insurer = new InstrumentedInsuranceCompany(LocalDateTime.of(2025, 1, 1, 0, 0), metrics);
+        Person company = new Person("12345678");
+        Person traveller = new Person("0456281232");
+
+        MasterVehicleContract master = insurer.createMasterVehicleContract("M1", null, company);
+        SingleVehicleContract single = insurer.insureVehicle("S1", null, company, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("ABC1234", 5000));
+        master.requestAdditionOfChildContract(single);
+        insurer.insurePersons("T1", company, 10, PremiumPaymentFrequency.MONTHLY, Set.of(traveller));
+        master.pay(100);
+        single.pay(50);
+        insurer.processClaim(single, 100);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> insurer.insureVehicle("T1", null, company, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("ABC1234", 5000)));
+        assertThrows(IllegalArgumentException.class,
+                () -> insurer.insureVehicle("S2", null, company, 1, PremiumPaymentFrequency.MONTHLY, new Vehicle("ABC1234", 5000)));
+        assertThrows(IllegalArgumentException.class, () -> single.pay(-1));
+
+        assertEquals(1, metrics.getContractsConcluded().get("SingleVehicleContract"));
+        assertEquals(1, metrics.getContractsConcluded().get("TravelContract"));
+        assertEquals(1, metrics.getContractsConcluded().get("MasterVehicleContract"));
+        assertEquals(2, metrics.getPayments());
+        assertEquals(1, metrics.getClaims());
+        assertEquals(3, metrics.getRejections().values().stream().mapToLong(Long::longValue).sum());
+        assertEquals(1, metrics.getRejections().get("IllegalArgumentException: Contract number should be unique inside of the one Insurance Company"));
+        assertEquals(1, metrics.getLatency(MeteredOperation.PAY_MASTER_VEHICLE_CONTRACT).getCount());
+        assertEquals(1, metrics.getLatency(MeteredOperation.PAY).getCount());
+        assertEquals(1, metrics.getLatency(MeteredOperation.MOVE_TO_MASTER_VEHICLE_CONTRACT).getCount());
+    }
+
+    @Test
+    void testRejectionsAreKeyedByRule() {
+        InsuranceMetrics metrics = new InsuranceMetrics();
+        for (int i = 0; i < 1_000; i++) {
+            metrics.rejected(new IllegalArgumentException("Contract number 'S" + i + "' already exists for this insurer"));
+            metrics.rejected(new IllegalArgumentException("No active Single Vehicle Contract insures the vehicle AB" + (10000 + i) + "."));
+        }
+        metrics.rejected(new IllegalStateException("Contract number 'S1' already exists for this insurer"));
+        metrics.rejected(new UnsupportedOperationException());
+
+        assertEquals(4, metrics.getRejections().size());
+        assertEquals(1_000, metrics.getRejections().get("IllegalArgumentException: Contract number '?' already exists for this insurer"));
+        assertEquals(1_000, metrics.getRejections().get("IllegalArgumentException: No active Single Vehicle Contract insures the vehicle #"));
+        assertEquals(1, metrics.getRejections().get("IllegalStateException: Contract number '?' already exists for this insurer"));
+        assertEquals(1, metrics.getRejections().get("UnsupportedOperationException"));
+    }
+
+    @Test
+    void testOnlySampledOperationsSkipTiming() {
+        InsuranceMetrics metrics = new InsuranceMetrics(16);
+        for (int i = 0; i < 1_600; i++) {
+            metrics.stopTimer(MeteredOperation.PAY, metrics.startTimer(MeteredOperation.PAY));
+            metrics.stopTimer(MeteredOperation.CHARGE_PREMIUMS_ON_CONTRACTS, metrics.startTimer(MeteredOperation.CHARGE_PREMIUMS_ON_CONTRACTS));
+        }
+        //100 expected, far outside of the bounds only with negligible probability
+        long sampled = metrics.getLatency(MeteredOperation.PAY).getCount();
+        assertTrue(sampled > 30 && sampled < 300, "sampled " + sampled);
+        assertEquals(1_600, metrics.getLatency(MeteredOperation.CHARGE_PREMIUMS_ON_CONTRACTS).getCount());
+        assertThrows(IllegalArgumentException.class, () -> new InsuranceMetrics(3));
+    }
+
+    @Test
+    void testMetricsAreReadableOverJmx() throws Exception {
+        InsuranceMetrics metrics = new InsuranceMetrics(1);
+        InstrumentedInsuranceCompany insurer = new InstrumentedInsuranceCompany(LocalDateTime.now(), metrics);
+        insurer.insureVehicle("S1", null, new Person("12345678"), 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("ABC1234", 5000))
+                .pay(10);
+
+        ObjectName name = metrics.register("jmx-test");
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            assertEquals(1L, server.getAttribute(name, "Payments"));
+
+            TabularData latencies = (TabularData) server.getAttribute(name, "Latencies");
+            CompositeData pay = (CompositeData) latencies.get(new Object[]{"PAY"}).get("value");
+            assertEquals(1L, pay.get("count"));
+
+            assertThrows(IllegalArgumentException.class, () -> metrics.register("jmx-test"));
+        } finally {
+            metrics.unregister(name);
+        }
+    }
+}
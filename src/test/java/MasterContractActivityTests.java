@@ -34,7 +34,8 @@ public class MasterContractActivityTests {
                 PremiumPaymentFrequency.ANNUAL,
                 new Vehicle("AB12C35", 10_000));
 
-        master.getChildContracts().addAll(Set.of(c1, c2));
+        master.requestAdditionOfChildContract(c1);
+        master.requestAdditionOfChildContract(c2);
     }
 
     @Test
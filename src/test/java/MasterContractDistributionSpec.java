@@ -61,8 +61,6 @@ public class MasterContractDistributionSpec {
         master.requestAdditionOfChildContract(c3);
         master.requestAdditionOfChildContract(c4);
         c4.setInactive();  // contract4 is inactive per spec
-        // Make sure the master is tracked at top level too
-        ic.getContracts().add(master);
     }
 
     @Test
@@ -49,7 +49,7 @@ class PaymentHandlerTest {
 
     @Test
     void testPaySimpleContractSuccess() {
-        int oldBalance = contract.getContractPaymentData().getOutstandingBalance();
+        long oldBalance = contract.getContractPaymentData().getOutstandingBalance();
         paymentHandler.pay(contract, 50);
         assertEquals(oldBalance - 50, contract.getContractPaymentData().getOutstandingBalance());
         assertEquals(1, paymentHandler.getPaymentHistory().get(contract).size());
@@ -73,7 +73,7 @@ class PaymentHandlerTest {
 
     @Test
     void testPayMasterVehicleContractSuccess() {
-        int oldBalance = contract.getContractPaymentData().getOutstandingBalance();
+        long oldBalance = contract.getContractPaymentData().getOutstandingBalance();
         paymentHandler.pay(masterContract, 50);
 
         // Malo by sa odpočítať zo singleVehicle contractu
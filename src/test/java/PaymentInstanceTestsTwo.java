@@ -7,7 +7,7 @@ import java.time.LocalDateTime;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-public class PaymentInstanceTests {
+public class PaymentInstanceTestsTwo {
 
     @Test
     void validInstance() {
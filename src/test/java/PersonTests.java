@@ -4,10 +4,19 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
+import company.InsuranceCompany;
 import objects.LegalForm;
 import objects.Person;
+import objects.Vehicle;
 import contracts.AbstractContract;
-
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import generator.SyntheticData;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 public class PersonTests {
@@ -103,4 +112,64 @@ public class PersonTests {
         assertThrows(IllegalArgumentException.class, () -> naturalPerson.payout(-10));
     }
 
-}
\ No newline at end of file
+    @Test
+    void testPayoutTotalIsExactBeyondIntRange() {
+        naturalPerson.payout(Integer.MAX_VALUE);
+        naturalPerson.payout(Integer.MAX_VALUE);
+        assertEquals(2L * Integer.MAX_VALUE, naturalPerson.getPaidOutAmount());
+
+        assertThrows(ArithmeticException.class, () -> naturalPerson.payout(Long.MAX_VALUE));
+        assertEquals(2L * Integer.MAX_VALUE, naturalPerson.getPaidOutAmount());
+    }
+
+    @Test
+    void testConcurrentPayoutsAreNotLost() throws InterruptedException {
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    legalPerson.payout(3);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(4 * 10_000 * 3, legalPerson.getPaidOutAmount());
+    }
+
+
+    @Test
+    void testHeldContractsKeepInsertionOrderAcrossRepresentations() {
+        InsuranceCompany insurer = new InsuranceCompany(LocalDateTime.of(2025, 1, 1, 0, 0));
+        List<AbstractContract> held = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            held.add(insurer.createMasterVehicleContract("M" + i, null, legalPerson));
+            assertEquals(held, List.copyOf(legalPerson.getContracts()));
+            assertEquals(i + 1, legalPerson.getContracts().size());
+        }
+        legalPerson.addContract(held.get(3));
+        assertEquals(20, legalPerson.getContracts().size());
+
+        //moving vehicles into a fleet removes them from their holder, shrinking the representation down to one contract
+        for (int size = 1; size <= 10; size++) {
+            Person other = new Person(SyntheticData.registrationNumber(size));
+            List<AbstractContract> owned = new ArrayList<>();
+            MasterVehicleContract fleet = insurer.createMasterVehicleContract("F" + size, null, other);
+            owned.add(fleet);
+            for (int i = 0; i < size; i++) {
+                owned.add(insurer.insureVehicle("F" + size + "-" + i, null, other, 100, PremiumPaymentFrequency.MONTHLY,
+                        new Vehicle("AB" + (10000 + 10 * size + i), 5000)));
+            }
+            assertEquals(owned, List.copyOf(other.getContracts()));
+            while (owned.size() > 1) {
+                fleet.requestAdditionOfChildContract((SingleVehicleContract) owned.remove(1));
+                assertEquals(owned, List.copyOf(other.getContracts()));
+            }
+            assertEquals(size, fleet.getChildContracts().size());
+        }
+        assertThrows(UnsupportedOperationException.class, () -> legalPerson.getContracts().iterator().remove());
+        assertThrows(UnsupportedOperationException.class, () -> legalPerson.getContracts().add(held.get(0)));
+    }
+}
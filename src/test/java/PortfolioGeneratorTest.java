@@ -0,0 +1,99 @@
+package myTests;
+
+import company.InsuranceCompany;
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import generator.PortfolioConfig;
+import generator.PortfolioGenerator;
+import generator.SyntheticData;
+import objects.LegalForm;
+import objects.Person;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PortfolioGeneratorTest {
+
+    @Test
+    void testSyntheticIdentifiersPassValidation() {
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(Person.isValidBirthNumber(SyntheticData.birthNumber(random)));
+            assertTrue(Person.isValidBirthNumber(SyntheticData.oldBirthNumber(random)));
+            assertEquals(LegalForm.LEGAL, new Person(SyntheticData.registrationNumber(i)).getLegalForm());
+        }
+    }
+
+    @Test
+    void testSameSeedGivesSamePortfolioOnAnyNumberOfThreads() {
+        PortfolioConfig config = PortfolioConfig.mixed(10_000);
+
+        InsuranceCompany sequential = new PortfolioGenerator(42, 1).generate(config);
+        InsuranceCompany parallel = new PortfolioGenerator(42, 4).generate(config);
+
+        assertEquals(fingerprint(sequential), fingerprint(parallel));
+        assertNotEquals(fingerprint(sequential), fingerprint(new PortfolioGenerator(43, 4).generate(config)));
+    }
+
+    @Test
+    void testGeneratedPortfolioFollowsConfig() {
+        LocalDateTime start = LocalDateTime.of(2020, 5, 31, 10, 0);
+        PortfolioConfig config = new PortfolioConfig(5_000, 1, 1, 1, 8, 3, 6, start);
+
+        InsuranceCompany company = new PortfolioGenerator(1, 2).generate(config);
+
+        assertEquals(5_000, company.getContracts().size());
+        assertEquals(start.plusMonths(6), company.getCurrentTime());
+        int singles = 0;
+        int travels = 0;
+        int masters = 0;
+        for (AbstractContract contract : company.getContracts()) {
+            if (contract instanceof MasterVehicleContract master) {
+                masters++;
+                assertFalse(master.getChildContracts().isEmpty());
+                assertTrue(master.getChildContracts().size() <= 8);
+                assertEquals(LegalForm.LEGAL, master.getPolicyHolder().getLegalForm());
+            } else if (contract instanceof TravelContract travel) {
+                travels++;
+                assertTrue(travel.getInsuredPersons().size() <= 3);
+            } else {
+                singles++;
+                assertInstanceOf(SingleVehicleContract.class, contract);
+            }
+        }
+        assertTrue(singles > 1_400 && travels > 1_400 && masters > 1_400);
+        assertFalse(company.getHandler().getPaymentHistory().isEmpty());
+    }
+
+    @Test
+    void testInvalidConfig() {
+        LocalDateTime now = LocalDateTime.now();
+        assertThrows(IllegalArgumentException.class, () -> new PortfolioConfig(0, 1, 1, 1, 1, 1, 0, now));
+        assertThrows(IllegalArgumentException.class, () -> new PortfolioConfig(10, 0, 0, 0, 1, 1, 0, now));
+        assertThrows(IllegalArgumentException.class, () -> new PortfolioConfig(10, 1, 0, 0, 1, 1, -1, now));
+        assertThrows(IllegalArgumentException.class, () -> new PortfolioConfig(10, 1, 0, 0, 1, 1, 0, null));
+        assertThrows(IllegalArgumentException.class, () -> new PortfolioGenerator(1, 0));
+    }
+
+    private static String fingerprint(InsuranceCompany company) {
+        StringBuilder sb = new StringBuilder();
+        for (AbstractContract contract : company.getContracts()) {
+            sb.append(contract.getContractNumber()).append(':').append(contract.getPolicyHolder().getId());
+            if (contract instanceof MasterVehicleContract master) {
+                for (SingleVehicleContract child : master.getChildContracts()) {
+                    sb.append('/').append(child.getInsuredVehicle().getLicensePlate())
+                            .append('=').append(child.getContractPaymentData().getOutstandingBalance());
+                }
+            } else {
+                sb.append('=').append(contract.getContractPaymentData().getOutstandingBalance());
+            }
+            sb.append(';');
+        }
+        return sb.toString();
+    }
+}
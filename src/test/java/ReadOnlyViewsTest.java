@@ -0,0 +1,111 @@
+package myTests;
+
+import company.InsuranceCompany;
+import contracts.AbstractContract;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import payment.PaymentInstance;
+import payment.PremiumPaymentFrequency;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadOnlyViewsTest {
+
+    private InsuranceCompany insurer;
+    private Person company;
+    private Person traveller;
+    private MasterVehicleContract master;
+    private SingleVehicleContract child;
+    private TravelContract travel;
+
+    @BeforeEach
+    void setUp() {
+        insurer = new InsuranceCompany(LocalDateTime.of(2025, 1, 1, 0, 0));
+        company = new Person("12345678");
+        traveller = new Person("0456281232");
+        master = insurer.createMasterVehicleContract("M1", null, company);
+        child = insurer.insureVehicle("S1", null, company, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("ABC1234", 5000));
+        master.requestAdditionOfChildContract(child);
+        travel = insurer.insurePersons("T1", company, 10, PremiumPaymentFrequency.MONTHLY, Set.of(traveller));
+        child.pay(50);
+    }
+
+    @Test
+    void testViewsRejectModification() {
+        assertThrows(UnsupportedOperationException.class, () -> insurer.getContracts().add(child));
+        assertThrows(UnsupportedOperationException.class, () -> company.getContracts().remove(master));
+        assertThrows(UnsupportedOperationException.class, () -> master.getChildContracts().clear());
+        assertThrows(UnsupportedOperationException.class, () -> travel.getInsuredPersons().add(new Person("0456281232")));
+        assertThrows(UnsupportedOperationException.class, () -> insurer.getHandler().getPaymentHistory().remove(child));
+        assertThrows(UnsupportedOperationException.class,
+                () -> insurer.getHandler().getPaymentHistory().get(child).clear());
+        assertThrows(UnsupportedOperationException.class,
+                () -> insurer.getHandler().getPaymentHistory().entrySet().iterator().next().getValue().clear());
+        assertThrows(UnsupportedOperationException.class, () -> insurer.getContracts().iterator().remove());
+    }
+
+    @Test
+    void testViewsReflectLaterChanges() {
+        Set<AbstractContract> contracts = insurer.getContracts();
+        Set<SingleVehicleContract> children = master.getChildContracts();
+        SingleVehicleContract second = insurer.insureVehicle("S2", null, company, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("ABC1235", 5000));
+        assertTrue(contracts.contains(second));
+
+        master.requestAdditionOfChildContract(second);
+        assertEquals(List.of(child, second), List.copyOf(children));
+        assertFalse(contracts.contains(second));
+        assertFalse(company.getContracts().contains(second));
+        assertEquals(List.of(master, travel), List.copyOf(contracts));
+    }
+
+    @Test
+    void testOnlyTheInsurerAddsChildrenWithoutChecks() {
+        SingleVehicleContract second = insurer.insureVehicle("S2", null, company, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("ABC1235", 5000));
+        assertThrows(IllegalArgumentException.class, () -> master.addChildContract(second, null));
+        assertThrows(IllegalArgumentException.class, () -> company.removeContract(second, null));
+        assertFalse(master.getChildContracts().contains(second));
+        assertTrue(company.getContracts().contains(second));
+    }
+
+    @Test
+    void testStreamsAreSizedAndSplit() {
+        for (int i = 0; i < 1000; i++) {
+            insurer.insureVehicle("V" + i, null, company, 100, PremiumPaymentFrequency.MONTHLY, new Vehicle("ABC1234", 5000));
+        }
+        assertEquals(1002, insurer.contracts().count());
+        assertEquals(Set.copyOf(insurer.getContracts()), Set.copyOf(insurer.contracts().parallel().toList()));
+        assertEquals(1000L * 100, insurer.contracts().parallel()
+                .filter(c -> c instanceof SingleVehicleContract)
+                .mapToLong(c -> c.getContractPaymentData().getPremium())
+                .sum());
+
+        Spliterator<AbstractContract> spliterator = insurer.contracts().spliterator();
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.DISTINCT));
+        Spliterator<AbstractContract> prefix = spliterator.trySplit();
+        assertNotNull(prefix);
+        assertEquals(1002, prefix.estimateSize() + spliterator.estimateSize());
+
+        Spliterator<AbstractContract> ordered = insurer.getContracts().spliterator();
+        assertTrue(ordered.hasCharacteristics(Spliterator.SIZED | Spliterator.ORDERED | Spliterator.DISTINCT));
+        assertEquals(1002, ordered.getExactSizeIfKnown());
+    }
+
+    @Test
+    void testPaymentsStreamInPaymentOrder() {
+        child.pay(20);
+        assertEquals(List.of(50, 20), insurer.getHandler().payments(child).map(PaymentInstance::getPaymentAmount).toList());
+        assertEquals(0, insurer.getHandler().payments(travel).count());
+        assertNull(insurer.getHandler().getPaymentHistory().get(travel));
+        assertEquals(1, insurer.getHandler().getPaymentHistory().size());
+    }
+}
@@ -269,12 +269,11 @@ public class RequiredTests {
         c2.getContractPaymentData().setOutstandingBalance(50);
         c3.getContractPaymentData().setOutstandingBalance(100);
         c4.getContractPaymentData().setOutstandingBalance(0);
-        MasterVehicleContract m1 = new MasterVehicleContract("m1", insuranceCompany, null, legalPerson1);
-        m1.getChildContracts().add(c1);
-        m1.getChildContracts().add(c2);
-        m1.getChildContracts().add(c3);
-        m1.getChildContracts().add(c4);
-        insuranceCompany.getContracts().add(m1);
+        MasterVehicleContract m1 = insuranceCompany.createMasterVehicleContract("m1", null, legalPerson1);
+        m1.requestAdditionOfChildContract(c1);
+        m1.requestAdditionOfChildContract(c2);
+        m1.requestAdditionOfChildContract(c3);
+        m1.requestAdditionOfChildContract(c4);
         c4.setInactive();
 
         m1.pay(400);
@@ -304,12 +303,11 @@ public class RequiredTests {
         c3.getContractPaymentData().setOutstandingBalance(200);
         c4.getContractPaymentData().setOutstandingBalance(0);
 
-        MasterVehicleContract m1 = new MasterVehicleContract("m1", insuranceCompany, null, legalPerson1);
-        m1.getChildContracts().add(c1);
-        m1.getChildContracts().add(c2);
-        m1.getChildContracts().add(c3);
-        m1.getChildContracts().add(c4);
-        insuranceCompany.getContracts().add(m1);
+        MasterVehicleContract m1 = insuranceCompany.createMasterVehicleContract("m1", null, legalPerson1);
+        m1.requestAdditionOfChildContract(c1);
+        m1.requestAdditionOfChildContract(c2);
+        m1.requestAdditionOfChildContract(c3);
+        m1.requestAdditionOfChildContract(c4);
 
         m1.pay(400);
         m1.pay(300);
@@ -0,0 +1,219 @@
+package myTests;
+
+import contracts.InvalidContractException;
+import generator.SyntheticData;
+import org.junit.jupiter.api.Test;
+import payment.PremiumPaymentFrequency;
+import sharding.ContractSummary;
+import sharding.PortfolioStatistics;
+import sharding.ShardCoordinator;
+import sharding.ShardWorker;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardCoordinatorTest {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 9, 0);
+    private static final String TRAVELLER = "0456281232";
+
+    @Test
+    void testCommandsAreRoutedByPolicyHolderAndNumbersAreUnique() throws Exception {
+        try (ShardWorker first = new ShardWorker(0); ShardWorker second = new ShardWorker(0);
+             ShardCoordinator coordinator = new ShardCoordinator(List.of(first.getAddress(), second.getAddress()), 4, START)) {
+            assertEquals(List.of(0, 2), first.getPartitions());
+            assertEquals(List.of(1, 3), second.getPartitions());
+
+            String owner = SyntheticData.registrationNumber(1);
+            coordinator.createMasterVehicleContract("M1", null, owner);
+            coordinator.insureVehicle("S1", null, owner, 100, PremiumPaymentFrequency.MONTHLY, "AB10001", 5000);
+            coordinator.moveSingleVehicleContractToMasterVehicleContract("M1", "S1");
+
+            ContractSummary child = coordinator.getContract("S1");
+            assertEquals("SingleVehicleContract", child.type());
+            assertEquals(owner, child.policyHolderId());
+            assertEquals(100, child.outstandingBalance());
+            assertEquals(START.plusMonths(1), child.nextPaymentTime());
+            assertTrue(coordinator.getContract("M1").active());
+            assertNull(coordinator.getContract("unknown"));
+            assertEquals(1, coordinator.getStatistics().contracts());
+
+            //numbers are unique across partitions, a rejected conclusion releases its number
+            String other = owner;
+            for (int i = 2; coordinator.partitionOf(other) == coordinator.partitionOf(owner); i++) {
+                other = SyntheticData.registrationNumber(i);
+            }
+            String otherOwner = other;
+            assertThrows(IllegalArgumentException.class, () -> coordinator.createMasterVehicleContract("M1", null, otherOwner));
+            assertThrows(IllegalArgumentException.class,
+                    () -> coordinator.insureVehicle("S2", null, otherOwner, 1, PremiumPaymentFrequency.MONTHLY, "AB10002", 5000));
+            coordinator.insureVehicle("S2", null, otherOwner, 100, PremiumPaymentFrequency.MONTHLY, "AB10002", 5000);
+
+            //a contract of a policyholder in another partition cannot join the fleet, a travel contract is no vehicle
+            assertThrows(IllegalArgumentException.class, () -> coordinator.moveSingleVehicleContractToMasterVehicleContract("M1", "S2"));
+            coordinator.insurePersons("T1", owner, 10, PremiumPaymentFrequency.MONTHLY, Set.of(TRAVELLER));
+            assertThrows(IllegalArgumentException.class, () -> coordinator.processVehicleClaim("T1", 100));
+            assertThrows(IllegalArgumentException.class, () -> coordinator.pay("unknown", 10));
+            assertThrows(IllegalArgumentException.class, () -> coordinator.insureVehicle(null, null, owner, 1,
+                    PremiumPaymentFrequency.MONTHLY, "AB10003", 5000));
+
+            coordinator.processTravelClaim("T1", Set.of(TRAVELLER));
+            assertThrows(InvalidContractException.class, () -> coordinator.processTravelClaim("T1", Set.of(TRAVELLER)));
+        }
+        assertThrows(IllegalArgumentException.class, () -> new ShardCoordinator(List.of(), 1, START));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ShardCoordinator(List.of(new InetSocketAddress(InetAddress.getLoopbackAddress(), 1)), 0, START));
+    }
+
+    @Test
+    void testBillingAndAggregatesFanOutToEveryWorker() throws Exception {
+        try (ShardWorker first = new ShardWorker(0); ShardWorker second = new ShardWorker(0); ShardWorker third = new ShardWorker(0);
+             ShardCoordinator coordinator = new ShardCoordinator(
+                     List.of(first.getAddress(), second.getAddress(), third.getAddress()), 6, START)) {
+            for (int i = 0; i < 60; i++) {
+                String holder = SyntheticData.registrationNumber(i);
+                coordinator.insureVehicle("S" + i, null, holder, 100, PremiumPaymentFrequency.MONTHLY, "AB" + (10000 + i), 5000);
+                coordinator.insurePersons("T" + i, holder, 10, PremiumPaymentFrequency.MONTHLY, Set.of(TRAVELLER));
+            }
+
+            coordinator.advanceTime(START.plusMonths(2), true);
+            for (int i = 0; i < 60; i++) {
+                coordinator.pay("S" + i, 250);
+                coordinator.processTravelClaim("T" + i, Set.of(TRAVELLER));
+            }
+
+            for (int i = 0; i < 60; i++) {
+                assertEquals(3 * 100 - 250, coordinator.getContract("S" + i).outstandingBalance());
+            }
+            //the traveller is insured in every partition, payouts are summed over all of them
+            assertEquals(60 * 10, coordinator.getPaidOutAmount(TRAVELLER));
+            assertEquals(new PortfolioStatistics(120, 60, 60 * (3 * 100 - 250) + 60 * 3 * 10, 60 * 10), coordinator.getStatistics());
+            assertThrows(IllegalArgumentException.class, () -> coordinator.advanceTime(null, false));
+        }
+    }
+
+    @Test
+    void testRebalancingMovesPartitionsWithTheirState() throws Exception {
+        try (ShardWorker first = new ShardWorker(0); ShardWorker second = new ShardWorker(0);
+             ShardCoordinator coordinator = new ShardCoordinator(List.of(first.getAddress(), second.getAddress()), 4, START)) {
+            List<String> numbers = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                String holder = SyntheticData.registrationNumber(i);
+                coordinator.createMasterVehicleContract("M" + i, null, holder);
+                coordinator.insureVehicle("S" + i, null, holder, 100, PremiumPaymentFrequency.QUARTERLY, "AB" + (10000 + i), 5000);
+                coordinator.moveSingleVehicleContractToMasterVehicleContract("M" + i, "S" + i);
+                coordinator.insurePersons("T" + i, holder, 10, PremiumPaymentFrequency.MONTHLY, Set.of(TRAVELLER));
+                numbers.addAll(List.of("M" + i, "S" + i, "T" + i));
+            }
+            coordinator.advanceTime(START.plusMonths(4), true);
+            for (int i = 0; i < 40; i += 2) {
+                coordinator.pay("M" + i, 150);
+                coordinator.processVehicleClaim("S" + i, 4000);
+                coordinator.processTravelClaim("T" + i, Set.of(TRAVELLER));
+            }
+            List<ContractSummary> before = summaries(coordinator, numbers);
+            PortfolioStatistics statistics = coordinator.getStatistics();
+
+            //everything onto the first worker, then back
+            coordinator.rebalance(1, 0);
+            coordinator.rebalance(3, 0);
+            assertEquals(List.of(0, 1, 2, 3), first.getPartitions());
+            assertEquals(List.of(), second.getPartitions());
+            assertEquals(before, summaries(coordinator, numbers));
+            assertEquals(statistics, coordinator.getStatistics());
+            assertEquals(20 * 10, coordinator.getPaidOutAmount(TRAVELLER));
+
+            coordinator.rebalance(0, 1);
+            coordinator.rebalance(1, 1);
+            assertEquals(1, coordinator.getWorkerOf(0));
+            assertEquals(before, summaries(coordinator, numbers));
+            assertEquals(statistics, coordinator.getStatistics());
+
+            //moved partitions keep working, including billing and claims
+            coordinator.advanceTime(START.plusMonths(7), true);
+            coordinator.processTravelClaim("T1", Set.of(TRAVELLER));
+            assertThrows(InvalidContractException.class, () -> coordinator.processTravelClaim("T0", Set.of(TRAVELLER)));
+            assertEquals(21 * 10, coordinator.getPaidOutAmount(TRAVELLER));
+            assertEquals(3 * 100, coordinator.getContract("S1").outstandingBalance());
+            assertThrows(IllegalArgumentException.class, () -> coordinator.rebalance(4, 0));
+            assertThrows(IllegalArgumentException.class, () -> coordinator.rebalance(0, 2));
+        }
+    }
+
+    @Test
+    void testCoordinatorDrivesAWorkerProcess() throws Exception {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), ShardWorker.class.getName(), "0")
+                .redirectErrorStream(true)
+                .start();
+        try {
+            BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+            String line = output.readLine();
+            assertNotNull(line);
+            int port = Integer.parseInt(line.substring(line.lastIndexOf(' ') + 1));
+
+            try (ShardWorker local = new ShardWorker(0);
+                 ShardCoordinator coordinator = new ShardCoordinator(
+                         List.of(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), local.getAddress()), 2, START)) {
+                for (int i = 0; i < 10; i++) {
+                    coordinator.insurePersons("T" + i, SyntheticData.registrationNumber(i), 10,
+                            PremiumPaymentFrequency.MONTHLY, Set.of(TRAVELLER));
+                }
+                coordinator.advanceTime(START.plusMonths(1), true);
+                List<ContractSummary> before = summaries(coordinator, List.of("T0", "T1", "T2", "T3", "T4", "T5", "T6", "T7", "T8", "T9"));
+
+                //the partition of the other process moves in and out again
+                coordinator.rebalance(0, 1);
+                assertEquals(List.of(0, 1), local.getPartitions());
+                coordinator.rebalance(0, 0);
+                assertEquals(List.of(1), local.getPartitions());
+                assertEquals(before, summaries(coordinator, List.of("T0", "T1", "T2", "T3", "T4", "T5", "T6", "T7", "T8", "T9")));
+                assertEquals(new PortfolioStatistics(10, 10, 10 * 2 * 10, 0), coordinator.getStatistics());
+            }
+        } finally {
+            process.destroy();
+            assertTrue(process.waitFor(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void testBroadcastKeepsLiveConnectionsInStepWhenAWorkerDies() throws Exception {
+        try (ShardWorker first = new ShardWorker(0); ShardWorker second = new ShardWorker(0);
+             ShardCoordinator coordinator = new ShardCoordinator(List.of(first.getAddress(), second.getAddress()), 2, START)) {
+            String holder = SyntheticData.registrationNumber(1);
+            for (int i = 2; coordinator.partitionOf(holder) != 0; i++) {
+                holder = SyntheticData.registrationNumber(i);
+            }
+            coordinator.insurePersons("T1", holder, 10, PremiumPaymentFrequency.MONTHLY, Set.of(TRAVELLER));
+            second.close();
+
+            //the first broadcast fails on the response of the dead worker, the next ones already on the request
+            for (int i = 0; i < 3; i++) {
+                assertThrows(UncheckedIOException.class, coordinator::getStatistics);
+            }
+            //the live worker answered every broadcast it got, so its next response is its own
+            assertEquals(10, coordinator.getContract("T1").outstandingBalance());
+            assertThrows(UncheckedIOException.class, () -> coordinator.advanceTime(START.plusMonths(1), true));
+            assertEquals(20, coordinator.getContract("T1").outstandingBalance());
+        }
+    }
+
+    private static List<ContractSummary> summaries(ShardCoordinator coordinator, List<String> numbers){
+        List<ContractSummary> summaries = new ArrayList<>(numbers.size());
+        for (String number : numbers) {
+            summaries.add(coordinator.getContract(number));
+        }
+        return summaries;
+    }
+}
@@ -0,0 +1,135 @@
+package myTests;
+
+import generator.SyntheticData;
+import org.junit.jupiter.api.Test;
+import payment.PremiumPaymentFrequency;
+import sharding.PortfolioStatistics;
+import sharding.ReplicationStatus;
+import sharding.ShardCoordinator;
+import sharding.ShardWorker;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardReplicationTest {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 9, 0);
+    private static final String TRAVELLER = "0456281232";
+
+    @Test
+    void testStandbyReplaysTheJournalAndIsPromoted() throws Exception {
+        ShardWorker primary = new ShardWorker(0);
+        try (ShardWorker standby = new ShardWorker(0, primary.getAddress());
+             ShardCoordinator coordinator = new ShardCoordinator(List.of(primary.getAddress()), 3, START)) {
+            assertTrue(standby.isStandby());
+            work(coordinator, 0, 30);
+            //rejected requests are journaled as well, they may leave traces such as newly known persons
+            assertThrows(IllegalArgumentException.class, () -> coordinator.insurePersons("X1", SyntheticData.registrationNumber(99), 1,
+                    PremiumPaymentFrequency.MONTHLY, Set.of("0000000000")));
+            assertThrows(IllegalArgumentException.class, () -> coordinator.insureVehicle("X2", null, SyntheticData.registrationNumber(98),
+                    1, PremiumPaymentFrequency.MONTHLY, "ZZ00000", 5000));
+
+            ReplicationStatus status = awaitCaughtUp(primary);
+            assertEquals(primary.getJournalSequence(), status.journalSequence());
+            assertEquals(primary.getJournalSequence(), standby.getJournalSequence());
+            assertArrayEquals(primary.snapshot(), standby.snapshot());
+
+            //a standby answers queries only
+            assertThrows(IllegalStateException.class, () -> new ShardCoordinator(List.of(standby.getAddress()), 1, START));
+
+            PortfolioStatistics statistics = coordinator.getStatistics();
+            primary.close();
+            long started = System.nanoTime();
+            coordinator.failover(0, standby.getAddress());
+            assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(1));
+            assertFalse(standby.isStandby());
+            assertEquals(statistics, coordinator.getStatistics());
+
+            //the promoted standby takes over
+            coordinator.advanceTime(START.plusMonths(3), true);
+            coordinator.pay("M1", 100);
+            coordinator.insureVehicle("S99", null, SyntheticData.registrationNumber(99), 100,
+                    PremiumPaymentFrequency.MONTHLY, "AB19999", 5000);
+            assertEquals(statistics.contracts() + 1, coordinator.getStatistics().contracts());
+        } finally {
+            primary.close();
+        }
+    }
+
+    @Test
+    void testStandbyProcessOverLoopbackMatchesThePrimary() throws Exception {
+        try (ShardWorker primary = new ShardWorker(0)) {
+            String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+            String primaryAddress = primary.getAddress().getHostString() + ":" + primary.getAddress().getPort();
+            Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    ShardWorker.class.getName(), "0", primaryAddress)
+                    .redirectErrorStream(true)
+                    .start();
+            try (ShardCoordinator coordinator = new ShardCoordinator(List.of(primary.getAddress()), 2, START)) {
+                BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+                String line = output.readLine();
+                assertNotNull(line);
+                InetSocketAddress standby = new InetSocketAddress(primary.getAddress().getAddress(),
+                        Integer.parseInt(line.substring(line.lastIndexOf(' ') + 1)));
+
+                work(coordinator, 0, 20);
+                awaitCaughtUp(primary);
+                byte[] expected = primary.snapshot();
+
+                primary.close();
+                long started = System.nanoTime();
+                coordinator.failover(0, standby);
+                assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(1));
+
+                //a standby of the promoted process starts from its base backup, which must equal the old primary
+                try (ShardWorker check = new ShardWorker(0, standby)) {
+                    assertArrayEquals(expected, check.snapshot());
+                }
+                work(coordinator, 20, 25);
+                assertEquals(25 * 2, coordinator.getStatistics().contracts());
+            } finally {
+                process.destroy();
+                assertTrue(process.waitFor(10, TimeUnit.SECONDS));
+            }
+        }
+    }
+
+    /**
+     * Concludes, bills, pays and claims contracts of the policyholders from to to.
+     */
+    private static void work(ShardCoordinator coordinator, int from, int to){
+        for (int i = from; i < to; i++) {
+            String holder = SyntheticData.registrationNumber(i);
+            coordinator.createMasterVehicleContract("M" + i, null, holder);
+            coordinator.insureVehicle("S" + i, null, holder, 100, PremiumPaymentFrequency.QUARTERLY, "AB" + (10000 + i), 5000);
+            coordinator.moveSingleVehicleContractToMasterVehicleContract("M" + i, "S" + i);
+            coordinator.insurePersons("T" + i, holder, 10, PremiumPaymentFrequency.MONTHLY, Set.of(TRAVELLER));
+        }
+        coordinator.advanceTime(START.plusMonths(2), true);
+        for (int i = from; i < to; i += 2) {
+            coordinator.pay("M" + i, 150);
+            coordinator.processVehicleClaim("S" + i, 4000);
+            coordinator.processTravelClaim("T" + i, Set.of(TRAVELLER));
+        }
+    }
+
+    private static ReplicationStatus awaitCaughtUp(ShardWorker primary) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        ReplicationStatus status = primary.getReplicationStatus();
+        while (status == null || status.lagEntries() > 0) {
+            assertTrue(System.nanoTime() < deadline, "standby did not catch up: " + status);
+            Thread.sleep(5);
+            status = primary.getReplicationStatus();
+        }
+        assertEquals(0, status.lagNanos());
+        return status;
+    }
+}
@@ -0,0 +1,115 @@
+package myTests;
+
+import company.InsuranceCompany;
+import contracts.AbstractContract;
+import contracts.InvalidContractException;
+import contracts.MasterVehicleContract;
+import contracts.SingleVehicleContract;
+import contracts.TravelContract;
+import generator.SyntheticData;
+import objects.Person;
+import objects.Vehicle;
+import org.junit.jupiter.api.Test;
+import payment.PremiumPaymentFrequency;
+import sharding.ShardedInsuranceCompany;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedInsuranceCompanyTest {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 9, 0);
+
+    @Test
+    void testContractsOfOnePolicyHolderShareAShard() throws Exception {
+        try (ShardedInsuranceCompany insurer = new ShardedInsuranceCompany(START, 4)) {
+            Set<InsuranceCompany> shards = new HashSet<>();
+            for (int i = 0; i < 40; i++) {
+                Person owner = new Person(SyntheticData.registrationNumber(i));
+                MasterVehicleContract master = insurer.createMasterVehicleContract("M" + i, null, owner).get();
+                SingleVehicleContract child = insurer.insureVehicle("S" + i, null, owner, 100,
+                        PremiumPaymentFrequency.MONTHLY, new Vehicle("AB" + (10000 + i), 5000)).get();
+                insurer.moveSingleVehicleContractToMasterVehicleContract(master, child).get();
+
+                assertSame(master.getInsurer(), child.getInsurer());
+                assertEquals(List.of(child), List.copyOf(master.getChildContracts()));
+                assertSame(master, insurer.getContract("M" + i).get());
+                shards.add(master.getInsurer());
+            }
+            assertEquals(4, shards.size());
+            assertEquals(40, insurer.getContractCount().get());
+            assertNull(insurer.getContract("unknown").get());
+        }
+    }
+
+    @Test
+    void testContractNumbersAreUniqueAcrossShards() throws Exception {
+        try (ShardedInsuranceCompany insurer = new ShardedInsuranceCompany(START, 4)) {
+            Person first = new Person(SyntheticData.registrationNumber(1));
+            Person other = first;
+            for (int i = 2; insurer.shardOf(other.getId()) == insurer.shardOf(first.getId()); i++) {
+                other = new Person(SyntheticData.registrationNumber(i));
+            }
+            insurer.createMasterVehicleContract("M1", null, first).get();
+
+            ExecutionException e = assertThrows(ExecutionException.class,
+                    () -> insurer.createMasterVehicleContract("M1", null, new Person(SyntheticData.registrationNumber(99))).get());
+            assertInstanceOf(IllegalArgumentException.class, e.getCause());
+
+            //a rejected conclusion releases its number
+            e = assertThrows(ExecutionException.class, () -> insurer.insureVehicle("S1", null, first, 1,
+                    PremiumPaymentFrequency.MONTHLY, new Vehicle("AA00000", 5000)).get());
+            assertInstanceOf(IllegalArgumentException.class, e.getCause());
+            SingleVehicleContract single = insurer.insureVehicle("S1", null, other, 100,
+                    PremiumPaymentFrequency.MONTHLY, new Vehicle("AA00000", 5000)).get();
+            assertSame(single, insurer.getContract("S1").get());
+
+            //contracts of other policyholders live in another shard
+            MasterVehicleContract master = (MasterVehicleContract) insurer.getContract("M1").get();
+            e = assertThrows(ExecutionException.class, () -> insurer.moveSingleVehicleContractToMasterVehicleContract(master, single).get());
+            assertInstanceOf(InvalidContractException.class, e.getCause());
+        }
+        assertThrows(IllegalArgumentException.class, () -> new ShardedInsuranceCompany(START, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ShardedInsuranceCompany(null, 2));
+    }
+
+    @Test
+    void testBillingPaymentsAndClaimsAcrossShards() throws Exception {
+        try (ShardedInsuranceCompany insurer = new ShardedInsuranceCompany(START, 3)) {
+            Person traveller = new Person("0456281232");
+            List<SingleVehicleContract> vehicles = new ArrayList<>();
+            List<TravelContract> travels = new ArrayList<>();
+            List<CompletableFuture<?>> pending = new ArrayList<>();
+            for (int i = 0; i < 300; i++) {
+                Person holder = new Person(SyntheticData.registrationNumber(i));
+                vehicles.add(insurer.insureVehicle("S" + i, null, holder, 100,
+                        PremiumPaymentFrequency.MONTHLY, new Vehicle("AB" + (10000 + i), 5000)).get());
+                travels.add(insurer.insurePersons("T" + i, holder, 10, PremiumPaymentFrequency.MONTHLY, Set.of(traveller)).get());
+            }
+
+            insurer.advanceTime(START.plusMonths(2), true).get(10, TimeUnit.SECONDS);
+            for (SingleVehicleContract vehicle : vehicles) {
+                pending.add(insurer.pay(vehicle, 250));
+            }
+            for (TravelContract travel : travels) {
+                pending.add(insurer.processClaim(travel, Set.of(traveller)));
+            }
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+
+            for (AbstractContract vehicle : vehicles) {
+                assertEquals(START.plusMonths(2), vehicle.getInsurer().getCurrentTime());
+                assertEquals(3 * 100 - 250, vehicle.getContractPaymentData().getOutstandingBalance());
+            }
+            assertEquals(300 * 10, traveller.getPaidOutAmount());
+            assertTrue(travels.stream().noneMatch(TravelContract::isActive));
+            assertEquals(600, insurer.getContractCount().get());
+        }
+    }
+}
@@ -89,4 +89,47 @@ public class TravelContractTests {
         assertThrows(IllegalArgumentException.class,
                 () -> new TravelContract("TC001", insurer, naturalPerson1, null, 1000, insuredPersons));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testInsuredPersonsAreAnImmutableCopy() {
+        Set<Person> persons = new HashSet<>(Set.of(naturalPerson1, naturalPerson2));
+        TravelContract contract = new TravelContract("TC001", insurer, legalPerson, paymentData, 1000, persons);
+        persons.clear();
+
+        assertEquals(Set.of(naturalPerson1, naturalPerson2), contract.getInsuredPersons());
+        assertThrows(UnsupportedOperationException.class, () -> contract.getInsuredPersons().add(naturalPerson1));
+        assertThrows(UnsupportedOperationException.class, () -> contract.getInsuredPersons().remove(naturalPerson1));
+        assertThrows(UnsupportedOperationException.class, () -> {
+            var iterator = contract.getInsuredPersons().iterator();
+            iterator.next();
+            iterator.remove();
+        });
+    }
+
+    @Test
+    void testGroupTripMembership() {
+        Set<Person> group = new HashSet<>();
+        for (int i = 0; i < 200; i++) {
+            group.add(new Person("0012232539"));
+        }
+        TravelContract trip = new TravelContract("TC001", insurer, legalPerson, paymentData, 1000, group);
+        TravelContract sameGroup = new TravelContract("TC002", insurer, legalPerson, paymentData, 1000, trip.getInsuredPersons());
+
+        assertEquals(200, trip.getInsuredPersons().size());
+        assertEquals(group, trip.getInsuredPersons());
+        assertEquals(group.hashCode(), trip.getInsuredPersons().hashCode());
+        for (Person person : group) {
+            assertTrue(trip.getInsuredPersons().contains(person));
+        }
+        assertTrue(trip.getInsuredPersons().containsAll(sameGroup.getInsuredPersons()));
+        assertTrue(trip.getInsuredPersons().containsAll(Set.copyOf(group)));
+        assertFalse(trip.getInsuredPersons().contains(naturalPerson1));
+        assertFalse(trip.getInsuredPersons().contains("0012232539"));
+
+        Set<Person> withStranger = new HashSet<>(group);
+        withStranger.add(naturalPerson1);
+        TravelContract largerTrip = new TravelContract("TC003", insurer, legalPerson, paymentData, 1000, withStranger);
+        assertFalse(trip.getInsuredPersons().containsAll(largerTrip.getInsuredPersons()));
+        assertTrue(largerTrip.getInsuredPersons().containsAll(trip.getInsuredPersons()));
+    }
+}